@@ -0,0 +1,198 @@
+package com.integrixs.adapters.email;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email template parsed once into literal and ${variable} segments.
+ *
+ * Rendering walks the segments in a single pass into a per-thread reusable buffer,
+ * asking a resolver for each variable; placeholders the resolver does not know are
+ * written back unchanged. Substituted values are never rescanned for placeholders.
+ * Compiled templates are cached by template text, so repeated notifications with the
+ * same subject/body template are parsed only once.
+ */
+final class CompiledEmailTemplate {
+
+    /**
+     * Supplies the value of a template variable, or null if it is not defined
+     */
+    @FunctionalInterface
+    interface VariableResolver {
+        String resolve(String name);
+    }
+
+    private static final int MAX_CACHED_TEMPLATES = 512;
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ConcurrentHashMap<String, CompiledEmailTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile String hostname;
+
+    // Literal text at even indexes, variable names at odd indexes
+    private final String[] segments;
+    private final int literalLength;
+    private final Set<String> variableNames;
+
+    private CompiledEmailTemplate(String[] segments, int literalLength, Set<String> variableNames) {
+        this.segments = segments;
+        this.literalLength = literalLength;
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * Compiled form of the template, parsed on first use and cached afterwards
+     */
+    static CompiledEmailTemplate of(String template) {
+        CompiledEmailTemplate compiled = CACHE.get(template);
+        if (compiled != null) {
+            return compiled;
+        }
+        if (CACHE.size() >= MAX_CACHED_TEMPLATES) {
+            // Templates come from adapter configuration, so overflowing means ad-hoc text; start over
+            CACHE.clear();
+        }
+        return CACHE.computeIfAbsent(template, CompiledEmailTemplate::compile);
+    }
+
+    static CompiledEmailTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        StringBuilder literal = new StringBuilder();
+        int literalLength = 0;
+        int pos = 0;
+
+        while (pos < template.length()) {
+            int start = template.indexOf("${", pos);
+            int end = start >= 0 ? template.indexOf('}', start + 2) : -1;
+            // Same placeholder grammar as the ${([^}]+)} pattern used for validation
+            if (start < 0 || end < 0) {
+                literal.append(template, pos, template.length());
+                break;
+            }
+            if (end == start + 2) {
+                literal.append(template, pos, end + 1);
+                pos = end + 1;
+                continue;
+            }
+            literal.append(template, pos, start);
+            segments.add(literal.toString());
+            literalLength += literal.length();
+            literal.setLength(0);
+
+            String name = template.substring(start + 2, end);
+            segments.add(name);
+            names.add(name);
+            pos = end + 1;
+        }
+        segments.add(literal.toString());
+        literalLength += literal.length();
+
+        return new CompiledEmailTemplate(segments.toArray(new String[0]), literalLength,
+                                         Collections.unmodifiableSet(names));
+    }
+
+    /**
+     * Render the template; the returned string is independent of the reused buffer
+     */
+    String render(VariableResolver resolver) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(buffer, resolver);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Append the rendered template to the builder
+     *
+     * @return number of placeholders that were substituted
+     */
+    int renderTo(StringBuilder out, VariableResolver resolver) {
+        out.ensureCapacity(out.length() + literalLength + 16 * (segments.length / 2));
+        int substituted = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if ((i & 1) == 0) {
+                out.append(segments[i]);
+                continue;
+            }
+            String value = resolver.resolve(segments[i]);
+            if (value != null) {
+                out.append(value);
+                substituted++;
+            } else {
+                out.append("${").append(segments[i]).append('}');
+            }
+        }
+        return substituted;
+    }
+
+    /**
+     * Number of placeholders in the template, counting repeats
+     */
+    int getVariableCount() {
+        return segments.length / 2;
+    }
+
+    Set<String> getVariableNames() {
+        return variableNames;
+    }
+
+    /**
+     * Value of a built-in system variable (timestamp, date, time, year, month, day,
+     * hostname, adapter), or null if the name is not one
+     */
+    static String systemVariable(String name, LocalDateTime now, String adapterName) {
+        switch (name) {
+            case "timestamp":
+                return now.format(DATETIME_FORMATTER);
+            case "date":
+                return now.format(DATE_FORMATTER);
+            case "time":
+                return now.format(TIME_FORMATTER);
+            case "year":
+                return String.valueOf(now.getYear());
+            case "month":
+                return twoDigits(now.getMonthValue());
+            case "day":
+                return twoDigits(now.getDayOfMonth());
+            case "hostname":
+                return getHostname();
+            case "adapter":
+                return adapterName;
+            default:
+                return null;
+        }
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    private static String getHostname() {
+        String name = hostname;
+        if (name == null) {
+            try {
+                name = java.net.InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                name = "Unknown";
+            }
+            hostname = name;
+        }
+        return name;
+    }
+}
@@ -1,6 +1,9 @@
 package com.integrixs.adapters.email;
 
+import com.integrixs.core.repository.EmailSyncStateRepository;
 import com.integrixs.shared.model.Adapter;
+import com.integrixs.shared.model.EmailSyncState;
+import com.integrixs.shared.model.value.FilePayload;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -14,9 +17,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import jakarta.activation.DataHandler;
-import jakarta.activation.DataSource;
-import jakarta.mail.util.ByteArrayDataSource;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,14 +34,33 @@ public class EmailAdapter {
     private final Adapter adapter;
     private final EmailAdapterConfig config;
     private final Map<String, Session> sessionCache = new ConcurrentHashMap<>();
+    private final SmtpTransportPool transportPool;
+    private final EmailSyncStateRepository syncStateRepository;
+    private volatile EmailSyncState localSyncState;
+    private ImapIdleWatcher idleWatcher;
     private ExecutorService executorService;
     
     public EmailAdapter(Adapter adapter) {
+        this(adapter, null, null);
+    }
+    
+    public EmailAdapter(Adapter adapter, SmtpTransportPool transportPool) {
+        this(adapter, transportPool, null);
+    }
+    
+    /**
+     * Create adapter that sends over pooled SMTP connections and persists its IMAP sync
+     * position. Without a pool every send opens and closes its own connection; without a
+     * repository the sync position only lives as long as this instance.
+     */
+    public EmailAdapter(Adapter adapter, SmtpTransportPool transportPool, EmailSyncStateRepository syncStateRepository) {
         if (adapter == null) {
             throw new IllegalArgumentException("Adapter cannot be null");
         }
         this.adapter = adapter;
         this.config = new EmailAdapterConfig(adapter.getConfiguration());
+        this.transportPool = transportPool;
+        this.syncStateRepository = syncStateRepository;
         log.info("EmailAdapter initialized for interface: {}", adapter.getName());
     }
     
@@ -63,6 +82,8 @@ public class EmailAdapter {
     public void cleanup() {
         log.info("Cleaning up EmailAdapter for: {}", adapter.getName());
         
+        stopIdleWatcher();
+        
         // Shutdown executor service
         if (executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
@@ -101,35 +122,26 @@ public class EmailAdapter {
             
             for (Map<String, Object> file : files) {
                 String fileName = (String) file.get("fileName");
-                Object contentObj = file.get("content");
-                // Also check for fileContent key (used by ZIP extraction)
-                if (contentObj == null) {
-                    contentObj = file.get("fileContent");
-                }
+                // Spooled payload, or legacy content/fileContent keys (used by ZIP extraction)
+                FilePayload payload = FilePayload.fromFileData(file);
                 
-                log.debug("Processing file from flow context - fileName: {}, contentType: {}, fileKeys: {}", 
-                    fileName, contentObj != null ? contentObj.getClass().getSimpleName() : "null", file.keySet());
+                log.debug("Processing file from flow context - fileName: {}, payload: {}, fileKeys: {}", 
+                    fileName, payload, file.keySet());
                 
-                byte[] content = null;
-                if (contentObj instanceof byte[]) {
-                    content = (byte[]) contentObj;
-                } else if (contentObj instanceof String) {
-                    content = ((String) contentObj).getBytes();
-                } else {
-                    log.warn("Unexpected content type for file {}: {}", fileName, 
-                        contentObj != null ? contentObj.getClass().getName() : "null");
+                if (payload == null) {
+                    log.warn("No content found for file {} in flow context", fileName);
                     continue;
                 }
                 
-                if (fileName != null && content != null && content.length > 0) {
+                if (fileName != null && !payload.isEmpty()) {
                     Map<String, Object> attachment = new HashMap<>();
                     attachment.put("fileName", fileName);
-                    attachment.put("content", content);
+                    attachment.put(FilePayload.CONTEXT_KEY, payload);
                     memoryAttachments.add(attachment);
-                    log.debug("Prepared memory attachment: {} ({} bytes)", fileName, content.length);
+                    log.debug("Prepared attachment: {} ({} bytes)", fileName, payload.getSize());
                 } else {
                     log.warn("Skipping file due to null/empty content - fileName: {}, contentLength: {}", 
-                        fileName, content != null ? content.length : 0);
+                        fileName, payload.getSize());
                 }
             }
             
@@ -169,28 +181,137 @@ public class EmailAdapter {
             correlationId, EmailOperation.SEND, EmailOperationStatus.IN_PROGRESS
         );
         
+        EmailAttachment archive = null;
         try {
             Session session = getSmtpSession();
-            MimeMessage message = createMessageWithMemoryAttachments(session, subject, body, toAddresses, attachments);
+            List<EmailAttachment> emailAttachments = toEmailAttachments(attachments);
             
-            Transport.send(message);
+            if (config.isZipAttachments() && !emailAttachments.isEmpty()) {
+                archive = EmailAttachmentPackager.zip(emailAttachments, config.getZipFileName());
+                emailAttachments = Collections.singletonList(archive);
+            }
+            
+            List<List<EmailAttachment>> parts = EmailAttachmentPackager.splitBySize(emailAttachments, config.getMaxMessageSize());
+            try (SmtpLease lease = new SmtpLease(session)) {
+                for (int i = 0; i < parts.size(); i++) {
+                    MimeMessage message = createMessageWithMemoryAttachments(session, subject, body, toAddresses, parts.get(i));
+                    if (parts.size() > 1) {
+                        message.setSubject(message.getSubject() + " (part " + (i + 1) + "/" + parts.size() + ")");
+                    }
+                    lease.send(message);
+                }
+            }
             
             result.setStatus(EmailOperationStatus.SUCCESS);
-            result.addMessage("Email sent successfully to " + toAddresses.size() + " recipients");
+            result.addMessage("Email sent successfully to " + toAddresses.size() + " recipients" +
+                             (parts.size() > 1 ? " in " + parts.size() + " messages" : ""));
             
-            log.info("Email sent successfully with memory attachments - correlation: {}", correlationId);
+            log.info("Email sent successfully with memory attachments - correlation: {}, messages: {}", correlationId, parts.size());
             
         } catch (Exception e) {
             log.error("Failed to send email with memory attachments - correlation: {}: {}", correlationId, e.getMessage(), e);
             result.setStatus(EmailOperationStatus.FAILED);
             result.setError(e.getMessage());
             result.addMessage("Send failed: " + e.getMessage());
+        } finally {
+            if (archive != null) {
+                archive.getPayload().release();
+            }
         }
         
         result.setCompletedAt(LocalDateTime.now());
         return result;
     }
     
+    /**
+     * Wrap flow file maps as attachments backed by their payloads, skipping entries without content
+     */
+    private List<EmailAttachment> toEmailAttachments(List<Map<String, Object>> attachments) {
+        if (attachments == null || attachments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<EmailAttachment> result = new ArrayList<>(attachments.size());
+        for (Map<String, Object> attachment : attachments) {
+            String fileName = (String) attachment.get("fileName");
+            FilePayload payload = FilePayload.fromFileData(attachment);
+            if (fileName != null && payload != null && !payload.isEmpty()) {
+                result.add(EmailAttachment.builder()
+                    .fileName(fileName)
+                    .payload(payload)
+                    .contentType("application/octet-stream")
+                    .build());
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Send composed emails over a single SMTP connection.
+     * Messages rejected by the server are reported and skipped; if the connection itself
+     * fails it is replaced and the message retried once.
+     */
+    public EmailOperationResult sendBatch(List<EmailComposition> compositions) {
+        String correlationId = UUID.randomUUID().toString();
+        EmailOperationResult result = new EmailOperationResult(
+            correlationId, EmailOperation.SEND, EmailOperationStatus.IN_PROGRESS
+        );
+        
+        if (compositions == null || compositions.isEmpty()) {
+            result.setStatus(EmailOperationStatus.SUCCESS);
+            result.setCompletedAt(LocalDateTime.now());
+            return result;
+        }
+        
+        log.info("Sending email batch - correlation: {}, messages: {}", correlationId, compositions.size());
+        
+        int sent = 0;
+        int failed = 0;
+        long startNanos = System.nanoTime();
+        Session session = getSmtpSession();
+        
+        try (SmtpLease lease = new SmtpLease(session)) {
+            for (EmailComposition composition : compositions) {
+                try {
+                    lease.send(createMessageFromComposition(session, composition));
+                    sent++;
+                } catch (Exception e) {
+                    // Rejected recipients, a failed reconnect or a bad composition only fail this message
+                    failed++;
+                    result.addMessage("Send failed for " + composition.getCorrelationId() + ": " + e.getMessage());
+                    log.warn("Email batch message failed - correlation: {}, message: {}: {}",
+                            correlationId, composition.getCorrelationId(), e.getMessage());
+                }
+            }
+        }
+        
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (failed == 0) {
+            result.setStatus(EmailOperationStatus.SUCCESS);
+        } else if (sent > 0) {
+            result.setStatus(EmailOperationStatus.PARTIAL);
+            result.setError(failed + " of " + compositions.size() + " messages failed");
+        } else {
+            result.setStatus(EmailOperationStatus.FAILED);
+            result.setError("All " + compositions.size() + " messages failed");
+        }
+        result.addMessage(String.format("Sent %d of %d messages in %d ms", sent, compositions.size(), elapsedMillis));
+        result.setCompletedAt(LocalDateTime.now());
+        
+        log.info("Email batch completed - correlation: {}, sent: {}, failed: {} ({} ms)",
+                correlationId, sent, failed, elapsedMillis);
+        return result;
+    }
+    
+    /**
+     * Pool statistics for this adapter's SMTP server, empty when sending unpooled
+     */
+    public Map<String, Object> getTransportStatistics() {
+        if (transportPool == null) {
+            return Collections.emptyMap();
+        }
+        return transportPool.getStatistics(SmtpTransportPool.keyFor(config));
+    }
+    
     /**
      * Send notification email (without attachments)
      */
@@ -209,33 +330,17 @@ public class EmailAdapter {
             correlationId, EmailOperation.RECEIVE, EmailOperationStatus.IN_PROGRESS
         );
         
+        Store store = null;
+        Folder inbox = null;
         try {
             Session session = getImapSession();
-            Store store = session.getStore("imaps");
-            store.connect(config.getImapHost(), config.getImapUsername(), config.getImapPassword());
+            store = session.getStore(getImapProtocol());
+            store.connect(config.getImapHost(), config.getImapPort(), config.getImapUsername(), config.getImapPassword());
             
-            Folder inbox = store.getFolder(config.getImapFolder());
+            inbox = store.getFolder(config.getImapFolder());
             inbox.open(Folder.READ_WRITE);
             
-            Message[] messages = inbox.getMessages();
-            int processedCount = 0;
-            
-            for (Message message : messages) {
-                if (message.isSet(Flags.Flag.SEEN)) {
-                    continue; // Skip already processed messages
-                }
-                
-                processIncomingMessage(message, correlationId);
-                message.setFlag(Flags.Flag.SEEN, true);
-                processedCount++;
-                
-                if (processedCount >= config.getBatchSize()) {
-                    break;
-                }
-            }
-            
-            inbox.close(false);
-            store.close();
+            int processedCount = receiveNewMessages(inbox, correlationId);
             
             result.setStatus(EmailOperationStatus.SUCCESS);
             result.addMessage("Processed " + processedCount + " new emails");
@@ -247,12 +352,145 @@ public class EmailAdapter {
             result.setStatus(EmailOperationStatus.FAILED);
             result.setError(e.getMessage());
             result.addMessage("Receive failed: " + e.getMessage());
+        } finally {
+            closeQuietly(inbox, store);
         }
         
         result.setCompletedAt(LocalDateTime.now());
         return result;
     }
     
+    /**
+     * Start an IMAP IDLE watcher that calls onNewMail as soon as the server reports new
+     * messages. The callback should run {@link #receiveEmails()} (or trigger the flow
+     * that does); the watcher itself does not fetch. Has no effect unless imapIdleEnabled
+     * is set on the adapter.
+     *
+     * @return true if a watcher is running after the call
+     */
+    public synchronized boolean startIdleWatcher(Runnable onNewMail) {
+        if (!config.isImapIdleEnabled()) {
+            return false;
+        }
+        if (idleWatcher != null && idleWatcher.isRunning()) {
+            return true;
+        }
+        idleWatcher = new ImapIdleWatcher(config, createImapIdleSession(), getImapProtocol(),
+                                          "EmailIdle-" + adapter.getName(), onNewMail);
+        idleWatcher.start();
+        log.info("Started IMAP IDLE watcher for adapter {} on {}/{}", adapter.getName(),
+                 config.getImapHost(), config.getImapFolder());
+        return true;
+    }
+    
+    public synchronized void stopIdleWatcher() {
+        if (idleWatcher != null) {
+            idleWatcher.stop();
+            idleWatcher = null;
+        }
+    }
+    
+    /**
+     * Fetch and process messages newer than the stored sync position.
+     *
+     * Only UIDs above the last processed UID are requested, so the cost follows the
+     * amount of new mail rather than the mailbox size. Envelopes, flags and sizes are
+     * prefetched in one round-trip. If the folder's UIDVALIDITY changed, or there is no
+     * stored position yet, the folder is scanned once and already-SEEN messages skipped.
+     */
+    private int receiveNewMessages(Folder inbox, String correlationId) throws Exception {
+        if (!(inbox instanceof UIDFolder uidFolder)) {
+            throw new EmailAdapterException("Folder " + inbox.getFullName() + " does not support UIDs",
+                                            "RECEIVE", config.getImapHost());
+        }
+        
+        long uidValidity = uidFolder.getUIDValidity();
+        EmailSyncState state = loadSyncState();
+        boolean resync = state == null || !state.isValidFor(uidValidity);
+        if (state != null && resync) {
+            log.warn("UIDVALIDITY of {} changed ({} -> {}), resynchronising adapter {}",
+                     config.getImapFolder(), state.getUidValidity(), uidValidity, adapter.getName());
+        }
+        long lastUid = resync ? 0 : state.getLastUid();
+        long processedTotal = resync || state == null ? 0 : state.getMessagesProcessed();
+        
+        Message[] messages = uidFolder.getMessagesByUID(lastUid + 1, UIDFolder.LASTUID);
+        FetchProfile profile = new FetchProfile();
+        profile.add(FetchProfile.Item.ENVELOPE);
+        profile.add(FetchProfile.Item.FLAGS);
+        profile.add(FetchProfile.Item.SIZE);
+        profile.add(UIDFolder.FetchProfileItem.UID);
+        inbox.fetch(messages, profile);
+        
+        int processedCount = 0;
+        long highestUid = lastUid;
+        try {
+            for (Message message : messages) {
+                long uid = uidFolder.getUID(message);
+                // "n:*" always returns the newest message, even when its UID is below n
+                if (uid <= lastUid) {
+                    continue;
+                }
+                if (resync && message.isSet(Flags.Flag.SEEN)) {
+                    highestUid = uid;
+                    continue; // Processed before sync state existed
+                }
+                if (processedCount >= config.getBatchSize()) {
+                    break;
+                }
+                
+                processIncomingMessage(message, correlationId);
+                message.setFlag(Flags.Flag.SEEN, true);
+                highestUid = uid;
+                processedCount++;
+            }
+        } finally {
+            // Persist progress even if a message failed, so processed mail is not fetched again
+            EmailSyncState updated = new EmailSyncState(adapter.getId(), config.getImapFolder(), uidValidity, highestUid);
+            updated.setMessagesProcessed(processedTotal + processedCount);
+            saveSyncState(updated);
+        }
+        
+        log.debug("IMAP sync for adapter {}: fetched {} message(s) above UID {}, processed {}, now at UID {}",
+                  adapter.getName(), messages.length, lastUid, processedCount, highestUid);
+        return processedCount;
+    }
+    
+    private EmailSyncState loadSyncState() {
+        if (syncStateRepository == null || adapter.getId() == null) {
+            return localSyncState;
+        }
+        return syncStateRepository.findByAdapterAndFolder(adapter.getId(), config.getImapFolder()).orElse(null);
+    }
+    
+    private void saveSyncState(EmailSyncState state) {
+        localSyncState = state;
+        if (syncStateRepository != null && adapter.getId() != null) {
+            try {
+                syncStateRepository.save(state);
+            } catch (Exception e) {
+                log.error("Failed to persist IMAP sync state for adapter {}: {}", adapter.getName(), e.getMessage(), e);
+            }
+        }
+    }
+    
+    private void closeQuietly(Folder folder, Store store) {
+        try {
+            if (folder != null && folder.isOpen()) {
+                folder.close(false);
+            }
+        } catch (MessagingException e) {
+            log.debug("Error closing IMAP folder: {}", e.getMessage());
+        }
+        try {
+            if (store != null) {
+                store.close();
+            }
+        } catch (MessagingException e) {
+            log.debug("Error closing IMAP store: {}", e.getMessage());
+        }
+    }
+    
     /**
      * Test email server connection
      */
@@ -278,8 +516,8 @@ public class EmailAdapter {
             // Test IMAP connection if configured
             if (config.getImapHost() != null) {
                 Session imapSession = getImapSession();
-                Store store = imapSession.getStore("imaps");
-                store.connect(config.getImapHost(), config.getImapUsername(), config.getImapPassword());
+                Store store = imapSession.getStore(getImapProtocol());
+                store.connect(config.getImapHost(), config.getImapPort(), config.getImapUsername(), config.getImapPassword());
                 store.close();
                 
                 result.addMessage("IMAP connection successful");
@@ -299,6 +537,35 @@ public class EmailAdapter {
         return result;
     }
     
+    /**
+     * Send a single message over a pooled connection, or a dedicated one if no pool is configured
+     */
+    private void sendMessage(Session session, MimeMessage message) throws MessagingException {
+        try (SmtpLease lease = new SmtpLease(session)) {
+            lease.send(message);
+        }
+    }
+    
+    private SmtpConnection openConnection(Session session) throws MessagingException {
+        if (transportPool != null) {
+            return transportPool.borrowConnection(config, session);
+        }
+        return SmtpConnection.open(config, session, SmtpTransportPool.keyFor(config));
+    }
+    
+    private void releaseConnection(SmtpConnection connection, boolean healthy) {
+        if (connection == null) {
+            return;
+        }
+        if (transportPool == null) {
+            connection.disconnect();
+        } else if (healthy) {
+            transportPool.returnConnection(connection);
+        } else {
+            transportPool.invalidateConnection(connection);
+        }
+    }
+    
     /**
      * Get SMTP session with caching
      */
@@ -352,31 +619,47 @@ public class EmailAdapter {
      * Get IMAP session with caching
      */
     private Session getImapSession() {
-        String cacheKey = "imap_" + config.getImapHost() + "_" + config.getImapPort();
+        String cacheKey = "imap_" + config.getImapHost() + "_" + config.getImapPort() + "_ssl:" + config.isImapSslEnabled();
         
-        return sessionCache.computeIfAbsent(cacheKey, k -> {
-            Properties props = new Properties();
-            props.put("mail.store.protocol", "imaps");
-            props.put("mail.imaps.host", config.getImapHost());
-            props.put("mail.imaps.port", String.valueOf(config.getImapPort()));
-            props.put("mail.imaps.ssl.enable", String.valueOf(config.isImapSslEnabled()));
-            props.put("mail.imaps.connectiontimeout", String.valueOf(config.getConnectionTimeout()));
-            props.put("mail.imaps.timeout", String.valueOf(config.getReadTimeout()));
-            
-            return Session.getInstance(props, new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(config.getImapUsername(), config.getImapPassword());
-                }
-            });
+        return sessionCache.computeIfAbsent(cacheKey, k -> createImapSession(config.getReadTimeout()));
+    }
+    
+    /**
+     * Session for the long-lived IDLE connection. The read timeout must outlast an IDLE
+     * period, otherwise the socket times out between renewals.
+     */
+    private Session createImapIdleSession() {
+        long idleTimeoutMs = TimeUnit.MINUTES.toMillis(Math.max(1, config.getImapIdleRenewMinutes()) + 5L);
+        return createImapSession(idleTimeoutMs);
+    }
+    
+    private Session createImapSession(long readTimeoutMs) {
+        String protocol = getImapProtocol();
+        Properties props = new Properties();
+        props.put("mail.store.protocol", protocol);
+        props.put("mail." + protocol + ".host", config.getImapHost());
+        props.put("mail." + protocol + ".port", String.valueOf(config.getImapPort()));
+        props.put("mail." + protocol + ".ssl.enable", String.valueOf(config.isImapSslEnabled()));
+        props.put("mail." + protocol + ".connectiontimeout", String.valueOf(config.getConnectionTimeout()));
+        props.put("mail." + protocol + ".timeout", String.valueOf(readTimeoutMs));
+        
+        return Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(config.getImapUsername(), config.getImapPassword());
+            }
         });
     }
     
+    private String getImapProtocol() {
+        return config.isImapSslEnabled() ? "imaps" : "imap";
+    }
+    
     /**
      * Create MIME message with memory attachments
      */
     private MimeMessage createMessageWithMemoryAttachments(Session session, String subject, String body, 
-                                                         List<String> toAddresses, List<Map<String, Object>> attachments) throws Exception {
+                                                         List<String> toAddresses, List<EmailAttachment> attachments) throws Exception {
         MimeMessage message = new MimeMessage(session);
         
         // Set from address
@@ -436,13 +719,10 @@ public class EmailAdapter {
             }
             multipart.addBodyPart(textPart);
             
-            // Add memory attachment parts
-            for (Map<String, Object> attachment : attachments) {
-                String fileName = (String) attachment.get("fileName");
-                byte[] content = (byte[]) attachment.get("content");
-                if (fileName != null && content != null && content.length > 0) {
-                    addMemoryAttachment(multipart, fileName, content);
-                }
+            // Add attachment parts, streamed from their payloads when the message is written
+            for (EmailAttachment attachment : attachments) {
+                log.debug("Adding email attachment: {} ({} bytes)", attachment.getFileName(), attachment.getSize());
+                multipart.addBodyPart(EmailAttachmentPackager.streamingPart(attachment));
             }
             
             message.setContent(multipart);
@@ -454,23 +734,57 @@ public class EmailAdapter {
     
     
     /**
-     * Add memory-based attachment to multipart message
+     * Create MIME message from a composed email
      */
-    private void addMemoryAttachment(Multipart multipart, String fileName, byte[] content) throws Exception {
-        log.info("Adding memory-based email attachment: {} ({} bytes)", fileName, content.length);
+    private MimeMessage createMessageFromComposition(Session session, EmailComposition composition) throws Exception {
+        MimeMessage message = new MimeMessage(session);
         
-        MimeBodyPart attachmentPart = new MimeBodyPart();
+        String fromAddress = composition.getFromAddress() != null ? composition.getFromAddress() : config.getFromAddress();
+        String fromName = composition.getFromName() != null ? composition.getFromName() : config.getFromName();
+        if (fromName != null && !fromName.trim().isEmpty()) {
+            message.setFrom(new InternetAddress(fromAddress, fromName));
+        } else {
+            message.setFrom(new InternetAddress(fromAddress));
+        }
         
-        // Create data source from byte array
-        DataSource dataSource = new ByteArrayDataSource(content, "application/octet-stream");
-        attachmentPart.setDataHandler(new DataHandler(dataSource));
-        attachmentPart.setFileName(fileName);
+        for (String toAddress : composition.getToAddresses()) {
+            message.addRecipient(Message.RecipientType.TO, new InternetAddress(toAddress));
+        }
+        if (composition.hasCcAddresses()) {
+            for (String ccAddress : composition.getCcAddresses()) {
+                message.addRecipient(Message.RecipientType.CC, new InternetAddress(ccAddress));
+            }
+        }
+        if (composition.hasBccAddresses()) {
+            for (String bccAddress : composition.getBccAddresses()) {
+                message.addRecipient(Message.RecipientType.BCC, new InternetAddress(bccAddress));
+            }
+        }
+        
+        message.setSubject(composition.getSubject());
+        String contentType = composition.isHtmlContent() ? "text/html; charset=utf-8" : "text/plain; charset=utf-8";
+        
+        if (!composition.hasAttachments()) {
+            message.setContent(composition.getBodyContent(), contentType);
+        } else {
+            Multipart multipart = new MimeMultipart();
+            MimeBodyPart textPart = new MimeBodyPart();
+            textPart.setContent(composition.getBodyContent(), contentType);
+            multipart.addBodyPart(textPart);
+            
+            for (EmailAttachment attachment : composition.getAttachments()) {
+                if (!attachment.hasContent()) {
+                    continue;
+                }
+                multipart.addBodyPart(EmailAttachmentPackager.streamingPart(attachment));
+            }
+            message.setContent(multipart);
+        }
         
-        multipart.addBodyPart(attachmentPart);
-        log.info("Successfully added memory attachment: {}", fileName);
+        message.setSentDate(new Date());
+        return message;
     }
     
-    
     /**
      * Process incoming email message
      */
@@ -589,6 +903,56 @@ public class EmailAdapter {
     
     
     // Getters
+    /**
+     * Holds one SMTP connection across consecutive sends and replaces it when it breaks
+     */
+    private final class SmtpLease implements AutoCloseable {
+        
+        private final Session session;
+        private SmtpConnection connection;
+        
+        private SmtpLease(Session session) {
+            this.session = session;
+        }
+        
+        /**
+         * Send the message, reconnecting and retrying once if the connection fails.
+         * A SendFailedException means the server rejected the message and the connection is kept.
+         */
+        void send(MimeMessage message) throws MessagingException {
+            if (connection == null) {
+                connection = openConnection(session);
+            }
+            try {
+                connection.send(message);
+                return;
+            } catch (SendFailedException e) {
+                throw e;
+            } catch (MessagingException e) {
+                log.warn("SMTP connection {} failed, reconnecting: {}", connection.getId(), e.getMessage());
+                releaseConnection(connection, false);
+                connection = null;
+            }
+            
+            connection = openConnection(session);
+            try {
+                connection.send(message);
+            } catch (SendFailedException e) {
+                throw e;
+            } catch (MessagingException e) {
+                releaseConnection(connection, false);
+                connection = null;
+                throw e;
+            }
+        }
+        
+        @Override
+        public void close() {
+            releaseConnection(connection, true);
+            connection = null;
+        }
+    }
+    
     public Adapter getAdapter() {
         return adapter;
     }
@@ -68,6 +68,14 @@ public class EmailAdapterConfig {
         return getBoolean("imapSslEnabled", true);
     }
     
+    public boolean isImapIdleEnabled() {
+        return getBoolean("imapIdleEnabled", false);
+    }
+    
+    public int getImapIdleRenewMinutes() {
+        return getInt("imapIdleRenewMinutes", 25);
+    }
+    
     // Email Content Settings
     public String getFromAddress() {
         return getString("fromAddress");
@@ -136,6 +144,18 @@ public class EmailAdapterConfig {
         return getInt("maxAttachmentCount", 10);
     }
     
+    public boolean isZipAttachments() {
+        return getBoolean("zipAttachments", false);
+    }
+    
+    public String getZipFileName() {
+        return getString("zipFileName", "attachments.zip");
+    }
+    
+    public long getMaxMessageSize() {
+        return getLong("maxMessageSize", 0L); // 0 = never split across messages
+    }
+    
     // Processing Settings
     public String getProcessedDirectory() {
         return getString("processedDirectory");
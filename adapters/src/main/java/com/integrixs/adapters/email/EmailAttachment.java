@@ -1,16 +1,24 @@
 package com.integrixs.adapters.email;
 
+import com.integrixs.shared.model.value.FilePayload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 
 /**
  * Immutable email attachment representation with defensive copying.
  * Contains file name, content, content type and metadata for email attachments.
+ * Content is either a small in-memory byte array or a file-backed {@link FilePayload}
+ * that is streamed into the message when it is sent.
  * Part of Phase 3 email adapter refactoring following OOP principles.
  */
 public final class EmailAttachment {
     
     private final String fileName;
     private final byte[] content;
+    private final FilePayload payload;
     private final String contentType;
     private final long size;
     private final String attachmentId;
@@ -18,8 +26,9 @@ public final class EmailAttachment {
     private EmailAttachment(Builder builder) {
         this.fileName = builder.fileName;
         this.content = builder.content != null ? Arrays.copyOf(builder.content, builder.content.length) : null;
+        this.payload = builder.content == null ? builder.payload : null;
         this.contentType = builder.contentType;
-        this.size = builder.size;
+        this.size = payload != null && builder.size == 0 ? payload.getSize() : builder.size;
         this.attachmentId = builder.attachmentId;
     }
     
@@ -31,15 +40,54 @@ public final class EmailAttachment {
     
     /**
      * Get attachment content with defensive copying to maintain immutability.
+     * File-backed content is read into memory; prefer {@link #openStream()}.
      */
     public byte[] getContent() { 
+        if (payload != null) {
+            try {
+                return payload.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read attachment " + fileName, e);
+            }
+        }
         return content != null ? Arrays.copyOf(content, content.length) : null; 
     }
     
+    /**
+     * Open a new stream over the content. Callers must close it.
+     */
+    public InputStream openStream() throws IOException {
+        return toPayload().openStream();
+    }
+    
+    /**
+     * Content as a FilePayload, wrapping in-memory bytes if necessary
+     */
+    public FilePayload toPayload() {
+        return payload != null ? payload : FilePayload.ofBytes(fileName, content != null ? content : new byte[0]);
+    }
+    
+    /**
+     * File-backed content, or null when the content is held in memory
+     */
+    public FilePayload getPayload() {
+        return payload;
+    }
+    
+    /**
+     * Check if attachment content is file-backed rather than held in memory.
+     */
+    public boolean isFileBacked() {
+        return payload != null;
+    }
+    
     /**
      * Check if attachment has content.
      */
     public boolean hasContent() {
+        if (payload != null) {
+            return !payload.isEmpty();
+        }
         return content != null && content.length > 0;
     }
     
@@ -47,6 +95,9 @@ public final class EmailAttachment {
      * Get content length safely.
      */
     public int getContentLength() {
+        if (payload != null) {
+            return (int) Math.min(payload.getSize(), Integer.MAX_VALUE);
+        }
         return content != null ? content.length : 0;
     }
     
@@ -91,6 +142,7 @@ public final class EmailAttachment {
     public static class Builder {
         private String fileName;
         private byte[] content;
+        private FilePayload payload;
         private String contentType;
         private long size;
         private String attachmentId;
@@ -107,6 +159,14 @@ public final class EmailAttachment {
             return this;
         }
         
+        /**
+         * File-backed content, streamed when the message is written. Ignored if byte content is set.
+         */
+        public Builder payload(FilePayload payload) {
+            this.payload = payload;
+            return this;
+        }
+        
         public Builder contentType(String contentType) {
             this.contentType = contentType;
             return this;
@@ -143,6 +203,7 @@ public final class EmailAttachment {
                Objects.equals(fileName, that.fileName) &&
                Objects.equals(contentType, that.contentType) &&
                Objects.equals(attachmentId, that.attachmentId) &&
+               Objects.equals(payload, that.payload) &&
                Arrays.equals(content, that.content);
     }
     
@@ -0,0 +1,136 @@
+package com.integrixs.adapters.email;
+
+import com.integrixs.shared.model.value.FilePayload;
+import jakarta.activation.DataHandler;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeBodyPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds attachment MIME parts that stream their content, and packages attachment
+ * sets for sending (zip into one spooled archive, split across several messages).
+ *
+ * Parts are declared base64 up front: without an explicit transfer encoding JavaMail
+ * reads the whole attachment once just to choose one, before reading it again to
+ * write it. Content is read from the payload in chunks and encoded straight into
+ * the SMTP output stream, so heap use does not grow with attachment size.
+ */
+final class EmailAttachmentPackager {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailAttachmentPackager.class);
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // Allowance for part headers and MIME boundaries per attachment
+    private static final long PART_OVERHEAD_BYTES = 512;
+
+    private EmailAttachmentPackager() {
+    }
+
+    /**
+     * MIME part streaming the payload content as base64 when the message is written
+     */
+    static MimeBodyPart streamingPart(FilePayload payload, String fileName, String contentType) throws MessagingException {
+        MimeBodyPart part = new MimeBodyPart();
+        String type = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+        part.setDataHandler(new DataHandler(new FilePayloadDataSource(payload, fileName, type)));
+        part.setFileName(fileName);
+        part.setHeader("Content-Transfer-Encoding", "base64");
+        return part;
+    }
+
+    static MimeBodyPart streamingPart(EmailAttachment attachment) throws MessagingException {
+        return streamingPart(attachment.toPayload(), attachment.getFileName(), attachment.getContentType());
+    }
+
+    /**
+     * Compress the attachments into a single zip archive spooled to disk.
+     * The caller owns the returned attachment's payload and must release it.
+     */
+    static EmailAttachment zip(List<EmailAttachment> attachments, String zipFileName) throws IOException {
+        FilePayload archive = FilePayload.spool(zipFileName, out -> {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            Set<String> entryNames = new HashSet<>();
+            for (EmailAttachment attachment : attachments) {
+                zip.putNextEntry(new ZipEntry(uniqueEntryName(attachment.getFileName(), entryNames)));
+                try (InputStream in = attachment.openStream()) {
+                    in.transferTo(zip);
+                }
+                zip.closeEntry();
+            }
+            zip.finish();
+        });
+
+        long originalSize = attachments.stream().mapToLong(EmailAttachment::getSize).sum();
+        log.debug("Zipped {} attachments into {} ({} -> {} bytes)",
+                 attachments.size(), zipFileName, originalSize, archive.getSize());
+
+        return EmailAttachment.builder()
+            .fileName(zipFileName)
+            .payload(archive)
+            .contentType("application/zip")
+            .build();
+    }
+
+    /**
+     * Group attachments so that each group's encoded size stays within maxMessageSize,
+     * keeping their original order. An attachment larger than the limit on its own is
+     * sent alone. A limit of zero or less returns all attachments as one group.
+     */
+    static List<List<EmailAttachment>> splitBySize(List<EmailAttachment> attachments, long maxMessageSize) {
+        List<List<EmailAttachment>> groups = new ArrayList<>();
+        if (maxMessageSize <= 0 || attachments.isEmpty()) {
+            groups.add(attachments);
+            return groups;
+        }
+
+        List<EmailAttachment> current = new ArrayList<>();
+        long currentSize = 0;
+        for (EmailAttachment attachment : attachments) {
+            long encodedSize = encodedSize(attachment.getSize());
+            if (encodedSize > maxMessageSize) {
+                log.warn("Attachment {} ({} bytes encoded) exceeds the message size limit of {} bytes, sending it alone",
+                        attachment.getFileName(), encodedSize, maxMessageSize);
+            }
+            if (!current.isEmpty() && currentSize + encodedSize > maxMessageSize) {
+                groups.add(current);
+                current = new ArrayList<>();
+                currentSize = 0;
+            }
+            current.add(attachment);
+            currentSize += encodedSize;
+        }
+        groups.add(current);
+        return groups;
+    }
+
+    /**
+     * Size of the content once base64 encoded in 76-character lines, plus part overhead
+     */
+    static long encodedSize(long size) {
+        long base64 = (size + 2) / 3 * 4;
+        return base64 + (base64 / 76) * 2 + PART_OVERHEAD_BYTES;
+    }
+
+    private static String uniqueEntryName(String fileName, Set<String> used) {
+        String name = fileName != null ? fileName : "attachment";
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        for (int i = 1; !used.add(candidate); i++) {
+            candidate = dot > 0
+                ? name.substring(0, dot) + "_" + i + name.substring(dot)
+                : name + "_" + i;
+        }
+        return candidate;
+    }
+}
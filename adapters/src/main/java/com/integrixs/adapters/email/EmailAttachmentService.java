@@ -1,5 +1,6 @@
 package com.integrixs.adapters.email;
 
+import com.integrixs.shared.model.value.FilePayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -279,15 +280,14 @@ class MemoryAttachmentProcessor implements AttachmentProcessor {
             Map<String, Object> sourceMap = (Map<String, Object>) source;
             
             String fileName = extractStringValue(sourceMap, "fileName", "attachment_" + attachmentId + ".dat");
-            byte[] content = extractByteContent(sourceMap);
+            FilePayload payload = FilePayload.fromFileData(sourceMap);
             String contentType = extractStringValue(sourceMap, "contentType", "application/octet-stream");
             
-            if (content != null && content.length > 0) {
+            if (payload != null && !payload.isEmpty()) {
                 return EmailAttachment.builder()
                     .fileName(fileName)
-                    .content(content)
+                    .payload(payload)
                     .contentType(contentType)
-                    .size(content.length)
                     .attachmentId(attachmentId)
                     .build();
             }
@@ -302,24 +302,6 @@ class MemoryAttachmentProcessor implements AttachmentProcessor {
         return value instanceof String ? (String) value : defaultValue;
     }
     
-    private byte[] extractByteContent(Map<String, Object> map) {
-        Object content = map.get("content");
-        if (content instanceof byte[]) {
-            return (byte[]) content;
-        }
-        
-        content = map.get("fileContent");
-        if (content instanceof byte[]) {
-            return (byte[]) content;
-        }
-        
-        if (content instanceof String) {
-            return ((String) content).getBytes();
-        }
-        
-        return null;
-    }
-    
     @Override
     public String getProcessorName() {
         return "Memory";
@@ -364,15 +346,15 @@ class FileAttachmentProcessor implements AttachmentProcessor {
                 return null;
             }
             
-            byte[] content = Files.readAllBytes(path);
+            // Reference the file in place; it is streamed when the message is written
+            FilePayload payload = FilePayload.ofFile(path);
             String fileName = path.getFileName().toString();
             String contentType = determineContentType(fileName);
             
             return EmailAttachment.builder()
                 .fileName(fileName)
-                .content(content)
+                .payload(payload)
                 .contentType(contentType)
-                .size(content.length)
                 .attachmentId(attachmentId)
                 .build();
                 
@@ -427,20 +409,19 @@ class FlowContextAttachmentProcessor implements AttachmentProcessor {
         
         // Extract file information from flow context
         String fileName = extractFileName(flowData);
-        byte[] content = extractContent(flowData);
+        FilePayload payload = extractPayload(flowData, fileName);
         String contentType = extractContentType(flowData, fileName);
         
-        if (fileName == null || content == null || content.length == 0) {
+        if (fileName == null || payload == null || payload.isEmpty()) {
             logger.warn("Invalid flow context attachment data - fileName: {}, contentLength: {}", 
-                       fileName, content != null ? content.length : 0);
+                       fileName, payload != null ? payload.getSize() : 0);
             return null;
         }
         
         return EmailAttachment.builder()
             .fileName(fileName)
-            .content(content)
+            .payload(payload)
             .contentType(contentType)
-            .size(content.length)
             .attachmentId(attachmentId)
             .build();
     }
@@ -465,25 +446,20 @@ class FlowContextAttachmentProcessor implements AttachmentProcessor {
         return null;
     }
     
-    private byte[] extractContent(Map<String, Object> flowData) {
-        // Try various possible keys for content
-        Object content = flowData.get("content");
-        if (content instanceof byte[]) {
-            return (byte[]) content;
-        }
-        
-        content = flowData.get("fileContent");
-        if (content instanceof byte[]) {
-            return (byte[]) content;
+    private FilePayload extractPayload(Map<String, Object> flowData, String fileName) {
+        // Spooled payload first, then the legacy content keys
+        FilePayload payload = FilePayload.fromFileData(flowData);
+        if (payload != null) {
+            return payload;
         }
         
-        content = flowData.get("data");
+        Object content = flowData.get("data");
         if (content instanceof byte[]) {
-            return (byte[]) content;
+            return FilePayload.ofBytes(fileName, (byte[]) content);
         }
         
         if (content instanceof String) {
-            return ((String) content).getBytes();
+            return FilePayload.ofBytes(fileName, ((String) content).getBytes());
         }
         
         return null;
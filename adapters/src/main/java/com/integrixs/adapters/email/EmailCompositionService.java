@@ -1,5 +1,6 @@
 package com.integrixs.adapters.email;
 
+import com.integrixs.shared.model.value.FilePayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -96,6 +97,38 @@ public class EmailCompositionService {
         return composeEmailWithAttachments(request);
     }
     
+    /**
+     * Compose and send several emails through one adapter so they share a single SMTP connection.
+     * Requests that fail composition are reported in the result and not sent.
+     */
+    public EmailOperationResult deliverBatch(EmailAdapter emailAdapter, List<EmailCompositionRequest> requests) {
+        List<EmailComposition> compositions = new ArrayList<>();
+        List<String> compositionErrors = new ArrayList<>();
+        
+        for (EmailCompositionRequest request : requests) {
+            EmailCompositionResult composed = composeEmailWithAttachments(request);
+            if (composed.isSuccessful()) {
+                compositions.add(composed.getComposition());
+            } else {
+                compositionErrors.add(composed.getErrorMessage());
+            }
+        }
+        
+        EmailOperationResult result = emailAdapter.sendBatch(compositions);
+        if (!compositionErrors.isEmpty()) {
+            compositionErrors.forEach(result::addMessage);
+            result.setStatus(compositions.isEmpty() || result.getStatus() == EmailOperationStatus.FAILED ?
+                             EmailOperationStatus.FAILED : EmailOperationStatus.PARTIAL);
+            if (result.getError() == null) {
+                result.setError(compositionErrors.size() + " of " + requests.size() + " messages could not be composed");
+            }
+        }
+        
+        logger.info("Email batch delivery completed - requests: {}, composed: {}, status: {}",
+                   requests.size(), compositions.size(), result.getStatus());
+        return result;
+    }
+    
     /**
      * Validate email composition request.
      */
@@ -170,20 +203,20 @@ public class EmailCompositionService {
             
             try {
                 String fileName = extractFileName(attachment, i);
-                byte[] content = extractAttachmentContent(attachment);
+                FilePayload payload = FilePayload.fromFileData(attachment);
                 String contentType = determineContentType(fileName, attachment);
                 
-                if (fileName != null && content != null && content.length > 0) {
+                if (fileName != null && payload != null && !payload.isEmpty()) {
+                    // Keep the payload reference; content is streamed when the message is written
                     EmailAttachment emailAttachment = EmailAttachment.builder()
                         .fileName(fileName)
-                        .content(Arrays.copyOf(content, content.length)) // Defensive copy
+                        .payload(payload)
                         .contentType(contentType)
-                        .size(content.length)
                         .attachmentId(correlationId + "_" + i)
                         .build();
                     
                     processedAttachments.add(emailAttachment);
-                    logger.debug("Processed attachment: {} ({} bytes)", fileName, content.length);
+                    logger.debug("Processed attachment: {} ({} bytes)", fileName, payload.getSize());
                 } else {
                     logger.warn("Skipping attachment {} due to missing fileName or content", i);
                 }
@@ -217,30 +250,6 @@ public class EmailCompositionService {
         return "attachment_" + index + ".dat";
     }
     
-    /**
-     * Extract attachment content from various possible keys.
-     */
-    private byte[] extractAttachmentContent(Map<String, Object> attachment) {
-        // Try content first
-        Object contentObj = attachment.get("content");
-        if (contentObj instanceof byte[]) {
-            return (byte[]) contentObj;
-        }
-        
-        // Try fileContent as fallback
-        contentObj = attachment.get("fileContent");
-        if (contentObj instanceof byte[]) {
-            return (byte[]) contentObj;
-        }
-        
-        // Try String content
-        if (contentObj instanceof String) {
-            return ((String) contentObj).getBytes();
-        }
-        
-        return null;
-    }
-    
     /**
      * Determine content type for attachment.
      */
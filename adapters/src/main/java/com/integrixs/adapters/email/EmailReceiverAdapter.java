@@ -1,9 +1,12 @@
 package com.integrixs.adapters.email;
 
 import com.integrixs.core.adapter.AbstractAdapterExecutor;
+import com.integrixs.core.repository.EmailSyncStateRepository;
 import com.integrixs.core.util.AdapterConfigUtil;
 import com.integrixs.shared.model.Adapter;
 import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.value.FilePayload;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -25,6 +28,15 @@ import java.util.stream.Collectors;
 @Component
 public class EmailReceiverAdapter extends AbstractAdapterExecutor {
     
+    private final SmtpTransportPool transportPool;
+    private final EmailSyncStateRepository syncStateRepository;
+    
+    @Autowired
+    public EmailReceiverAdapter(SmtpTransportPool transportPool, EmailSyncStateRepository syncStateRepository) {
+        this.transportPool = transportPool;
+        this.syncStateRepository = syncStateRepository;
+    }
+    
     @Override
     public String getSupportedType() {
         return "EMAIL";
@@ -76,13 +88,13 @@ public class EmailReceiverAdapter extends AbstractAdapterExecutor {
             // Calculate total bytes for tracking
             long totalBytes = 0;
             for (Map<String, Object> fileInfo : filesToProcess) {
-                byte[] fileContent = (byte[]) fileInfo.get("fileContent");
+                FilePayload payload = FilePayload.fromFileData(fileInfo);
                 String fileName = (String) fileInfo.get("fileName");
                 
-                if (fileContent != null && fileName != null) {
-                    totalBytes += fileContent.length;
+                if (payload != null && fileName != null) {
+                    totalBytes += payload.getSize();
                     if (step != null) {
-                        step.addFileProcessed(fileName, "email_attachment", fileContent.length);
+                        step.addFileProcessed(fileName, "email_attachment", payload.getSize());
                     }
                 }
             }
@@ -187,7 +199,9 @@ public class EmailReceiverAdapter extends AbstractAdapterExecutor {
         try {
             // Use reflection to create email adapter instance (avoids circular dependency)
             Class<?> emailAdapterClass = Class.forName("com.integrixs.adapters.email.EmailAdapter");
-            Object emailAdapter = emailAdapterClass.getConstructor(Adapter.class).newInstance(adapter);
+            Object emailAdapter = emailAdapterClass
+                .getConstructor(Adapter.class, SmtpTransportPool.class, EmailSyncStateRepository.class)
+                .newInstance(adapter, transportPool, syncStateRepository);
             
             // Initialize adapter
             emailAdapterClass.getMethod("initialize").invoke(emailAdapter);
@@ -17,7 +17,6 @@ public class EmailTemplateProcessor {
     
     private static final Logger log = LoggerFactory.getLogger(EmailTemplateProcessor.class);
     private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     private final EmailAdapterConfig config;
@@ -36,31 +35,28 @@ public class EmailTemplateProcessor {
             return template;
         }
         
-        String result = template;
+        String result;
         
         try {
-            // First replace user-defined variables
+            CompiledEmailTemplate compiled = CompiledEmailTemplate.of(template);
             Map<String, String> templateVars = config.getTemplateVariables();
-            if (templateVars != null && !templateVars.isEmpty()) {
-                for (Map.Entry<String, String> entry : templateVars.entrySet()) {
-                    String placeholder = "${" + entry.getKey() + "}";
-                    result = result.replace(placeholder, entry.getValue());
-                }
-            }
+            LocalDateTime now = LocalDateTime.now();
+            String adapter = adapterName != null ? adapterName : "Unknown";
             
-            // Then replace operation-specific variables
-            if (variables != null && !variables.isEmpty()) {
-                for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                    String placeholder = "${" + entry.getKey() + "}";
-                    String value = entry.getValue() != null ? entry.getValue().toString() : "";
-                    result = result.replace(placeholder, value);
+            // User-defined variables take precedence, then operation-specific, then system variables
+            result = compiled.render(name -> {
+                String value = templateVars != null ? templateVars.get(name) : null;
+                if (value != null) {
+                    return value;
                 }
-            }
-            
-            // Finally replace system variables
-            result = replaceSystemVariables(result);
+                if (variables != null && variables.containsKey(name)) {
+                    Object operationValue = variables.get(name);
+                    return operationValue != null ? operationValue.toString() : "";
+                }
+                return CompiledEmailTemplate.systemVariable(name, now, adapter);
+            });
             
-            log.debug("Template processed successfully, variables replaced: {}", countVariables(template));
+            log.debug("Template processed successfully, variables replaced: {}", compiled.getVariableCount());
             
         } catch (Exception e) {
             log.error("Failed to process template: {}", e.getMessage(), e);
@@ -117,37 +113,6 @@ public class EmailTemplateProcessor {
         return processTemplate(template, variables);
     }
     
-    /**
-     * Replace system variables with current values
-     */
-    private String replaceSystemVariables(String template) {
-        LocalDateTime now = LocalDateTime.now();
-        
-        return template
-            .replace("${timestamp}", now.format(DATETIME_FORMATTER))
-            .replace("${date}", now.format(DATE_FORMATTER))
-            .replace("${time}", now.format(DateTimeFormatter.ofPattern("HH:mm:ss")))
-            .replace("${adapter}", adapterName != null ? adapterName : "Unknown")
-            .replace("${hostname}", getHostname())
-            .replace("${year}", String.valueOf(now.getYear()))
-            .replace("${month}", String.format("%02d", now.getMonthValue()))
-            .replace("${day}", String.format("%02d", now.getDayOfMonth()));
-    }
-    
-    /**
-     * Count variables in template
-     */
-    private int countVariables(String template) {
-        if (template == null) return 0;
-        
-        Matcher matcher = VARIABLE_PATTERN.matcher(template);
-        int count = 0;
-        while (matcher.find()) {
-            count++;
-        }
-        return count;
-    }
-    
     /**
      * Format file size in human readable format
      */
@@ -203,17 +168,6 @@ public class EmailTemplateProcessor {
         }
     }
     
-    /**
-     * Get current hostname
-     */
-    private String getHostname() {
-        try {
-            return java.net.InetAddress.getLocalHost().getHostName();
-        } catch (Exception e) {
-            return "Unknown";
-        }
-    }
-    
     /**
      * Validate template syntax
      */
@@ -5,7 +5,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -180,11 +179,17 @@ interface EmailTemplateStrategy {
 class StandardTemplateStrategy implements EmailTemplateStrategy {
     
     private static final Logger logger = LoggerFactory.getLogger(StandardTemplateStrategy.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     @Override
     public EmailTemplateResult processTemplate(EmailTemplateRequest request) {
+        return processTemplate(request, Collections.emptyMap());
+    }
+    
+    /**
+     * Render the template in one pass. Request variables take precedence over system
+     * variables, which take precedence over the strategy-supplied fallback values.
+     */
+    EmailTemplateResult processTemplate(EmailTemplateRequest request, Map<String, String> fallbackVariables) {
         LocalDateTime startTime = LocalDateTime.now();
         
         try {
@@ -193,24 +198,22 @@ class StandardTemplateStrategy implements EmailTemplateStrategy {
                 return EmailTemplateResult.success(template != null ? template : "", 0);
             }
             
-            String result = template;
-            List<String> warnings = new ArrayList<>();
-            
-            // Process user-defined variables
+            CompiledEmailTemplate compiled = CompiledEmailTemplate.of(template);
             Map<String, Object> variables = request.getVariables();
-            if (variables != null) {
-                for (Map.Entry<String, Object> entry : variables.entrySet()) {
-                    String placeholder = "${" + entry.getKey() + "}";
-                    String value = entry.getValue() != null ? entry.getValue().toString() : "";
-                    result = result.replace(placeholder, value);
-                }
-            }
+            String adapterName = request.getAdapterName();
+            LocalDateTime now = LocalDateTime.now();
             
-            // Process system variables
-            result = processSystemVariables(result, request);
+            String result = compiled.render(name -> {
+                if (variables != null && variables.containsKey(name)) {
+                    Object value = variables.get(name);
+                    return value != null ? value.toString() : "";
+                }
+                String systemValue = CompiledEmailTemplate.systemVariable(name, now, adapterName);
+                return systemValue != null ? systemValue : fallbackVariables.get(name);
+            });
             
             long duration = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
-            return EmailTemplateResult.success(result, duration, warnings, 0);
+            return EmailTemplateResult.success(result, duration, new ArrayList<>(), 0);
             
         } catch (Exception e) {
             long duration = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
@@ -219,33 +222,6 @@ class StandardTemplateStrategy implements EmailTemplateStrategy {
         }
     }
     
-    private String processSystemVariables(String template, EmailTemplateRequest request) {
-        LocalDateTime now = LocalDateTime.now();
-        
-        String result = template
-            .replace("${timestamp}", now.format(DATETIME_FORMATTER))
-            .replace("${date}", now.format(DATE_FORMATTER))
-            .replace("${time}", now.format(DateTimeFormatter.ofPattern("HH:mm:ss")))
-            .replace("${year}", String.valueOf(now.getYear()))
-            .replace("${month}", String.format("%02d", now.getMonthValue()))
-            .replace("${day}", String.format("%02d", now.getDayOfMonth()));
-        
-        // Add context-specific variables
-        if (request.getAdapterName() != null) {
-            result = result.replace("${adapter}", request.getAdapterName());
-        }
-        
-        // Add hostname
-        try {
-            String hostname = java.net.InetAddress.getLocalHost().getHostName();
-            result = result.replace("${hostname}", hostname);
-        } catch (Exception e) {
-            result = result.replace("${hostname}", "Unknown");
-        }
-        
-        return result;
-    }
-    
     @Override
     public String getStrategyName() {
         return "Standard";
@@ -263,6 +239,7 @@ class StandardTemplateStrategy implements EmailTemplateStrategy {
 class NotificationTemplateStrategy implements EmailTemplateStrategy {
     
     private static final Logger logger = LoggerFactory.getLogger(NotificationTemplateStrategy.class);
+    private final StandardTemplateStrategy standardStrategy = new StandardTemplateStrategy();
     
     @Override
     public EmailTemplateResult processTemplate(EmailTemplateRequest request) {
@@ -270,7 +247,6 @@ class NotificationTemplateStrategy implements EmailTemplateStrategy {
         
         try {
             // Use standard processing as base
-            StandardTemplateStrategy standardStrategy = new StandardTemplateStrategy();
             EmailTemplateResult baseResult = standardStrategy.processTemplate(request);
             
             if (!baseResult.isSuccessful()) {
@@ -337,15 +313,15 @@ class NotificationTemplateStrategy implements EmailTemplateStrategy {
 class ProcessingTemplateStrategy implements EmailTemplateStrategy {
     
     private static final Logger logger = LoggerFactory.getLogger(ProcessingTemplateStrategy.class);
+    private final StandardTemplateStrategy standardStrategy = new StandardTemplateStrategy();
     
     @Override
     public EmailTemplateResult processTemplate(EmailTemplateRequest request) {
         LocalDateTime startTime = LocalDateTime.now();
         
         try {
-            // Use standard processing as base
-            StandardTemplateStrategy standardStrategy = new StandardTemplateStrategy();
-            EmailTemplateResult baseResult = standardStrategy.processTemplate(request);
+            // Standard processing with formatted sizes and durations as extra variables
+            EmailTemplateResult baseResult = standardStrategy.processTemplate(request, formattedVariables(request));
             
             if (!baseResult.isSuccessful()) {
                 return baseResult;
@@ -354,9 +330,6 @@ class ProcessingTemplateStrategy implements EmailTemplateStrategy {
             String result = baseResult.getProcessedTemplate();
             List<String> warnings = new ArrayList<>(baseResult.getWarnings());
             
-            // Add processing-specific formatting
-            result = addProcessingFormatting(result, request);
-            
             long duration = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
             return EmailTemplateResult.success(result, duration, warnings, 0);
             
@@ -367,46 +340,29 @@ class ProcessingTemplateStrategy implements EmailTemplateStrategy {
         }
     }
     
-    private String addProcessingFormatting(String template, EmailTemplateRequest request) {
+    /**
+     * Human-readable fileSizeFormatted and durationFormatted values; ${fileSize} and
+     * ${duration} themselves are request variables and keep their raw values
+     */
+    private Map<String, String> formattedVariables(EmailTemplateRequest request) {
         Map<String, Object> variables = request.getVariables();
         if (variables == null) {
-            return template;
+            return Collections.emptyMap();
         }
         
-        // Format file sizes
-        template = formatFileSizes(template, variables);
-        
-        // Format durations
-        template = formatDurations(template, variables);
-        
-        return template;
-    }
-    
-    private String formatFileSizes(String template, Map<String, Object> variables) {
+        Map<String, String> formatted = new HashMap<>();
         Object fileSizeObj = variables.get("fileSize");
         if (fileSizeObj instanceof Number) {
-            long sizeInBytes = ((Number) fileSizeObj).longValue();
-            String formattedSize = formatFileSize(sizeInBytes);
-            template = template.replace("${fileSize}", formattedSize);
-            template = template.replace("${fileSizeFormatted}", formattedSize);
+            formatted.put("fileSizeFormatted", formatFileSize(((Number) fileSizeObj).longValue()));
         }
         
-        return template;
-    }
-    
-    private String formatDurations(String template, Map<String, Object> variables) {
+        // String durations are already formatted
         Object durationObj = variables.get("duration");
-        if (durationObj instanceof String) {
-            // Already formatted
-            return template;
-        } else if (durationObj instanceof Number) {
-            long durationMs = ((Number) durationObj).longValue();
-            String formattedDuration = formatDuration(durationMs);
-            template = template.replace("${duration}", formattedDuration);
-            template = template.replace("${durationFormatted}", formattedDuration);
+        if (durationObj instanceof Number) {
+            formatted.put("durationFormatted", formatDuration(((Number) durationObj).longValue()));
         }
         
-        return template;
+        return formatted;
     }
     
     private String formatFileSize(long sizeInBytes) {
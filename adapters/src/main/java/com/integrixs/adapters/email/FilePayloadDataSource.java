@@ -0,0 +1,45 @@
+package com.integrixs.adapters.email;
+
+import com.integrixs.shared.model.value.FilePayload;
+import jakarta.activation.DataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Read-only DataSource over a flow FilePayload, so attachments are streamed
+ * into the MIME message instead of being buffered as byte arrays.
+ */
+class FilePayloadDataSource implements DataSource {
+
+    private final FilePayload payload;
+    private final String name;
+    private final String contentType;
+
+    FilePayloadDataSource(FilePayload payload, String name, String contentType) {
+        this.payload = payload;
+        this.name = name;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return payload.openStream();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new IOException("FilePayloadDataSource is read-only");
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,176 @@
+package com.integrixs.adapters.email;
+
+import jakarta.mail.Folder;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Store;
+import jakarta.mail.event.MessageCountAdapter;
+import jakarta.mail.event.MessageCountEvent;
+import org.eclipse.angus.mail.imap.IMAPFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one IMAP connection open in IDLE and invokes a callback as soon as the server
+ * announces new messages, so inbound mail is picked up without waiting for a poll.
+ *
+ * The watcher only signals; fetching is left to the incremental UID poll, which
+ * knows what has already been processed. IDLE is re-issued periodically because
+ * servers drop idle connections after about 30 minutes, and the connection is
+ * re-established with backoff when it fails.
+ */
+public class ImapIdleWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ImapIdleWatcher.class);
+
+    private static final long MAX_RECONNECT_DELAY_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final EmailAdapterConfig config;
+    private final Session session;
+    private final String protocol;
+    private final Runnable onNewMail;
+    private final long renewIntervalMinutes;
+    private final ScheduledExecutorService renewExecutor;
+    private final Thread idleThread;
+
+    private volatile boolean running;
+    private volatile Store store;
+    private volatile IMAPFolder folder;
+
+    public ImapIdleWatcher(EmailAdapterConfig config, Session session, String protocol, String name, Runnable onNewMail) {
+        this.config = config;
+        this.session = session;
+        this.protocol = protocol;
+        this.onNewMail = onNewMail;
+        this.renewIntervalMinutes = Math.max(1, config.getImapIdleRenewMinutes());
+        this.renewExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-renew");
+            t.setDaemon(true);
+            return t;
+        });
+        this.idleThread = new Thread(this::idleLoop, name);
+        this.idleThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        idleThread.start();
+        // NOOP ends the current IDLE command; the loop then issues a fresh one
+        renewExecutor.scheduleWithFixedDelay(this::renewIdle, renewIntervalMinutes, renewIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        running = false;
+        renewExecutor.shutdownNow();
+        closeQuietly();
+        idleThread.interrupt();
+    }
+
+    public boolean isRunning() {
+        return running && idleThread.isAlive();
+    }
+
+    private void idleLoop() {
+        long reconnectDelay = 1000;
+
+        while (running) {
+            try {
+                IMAPFolder watched = connect();
+                reconnectDelay = 1000;
+
+                while (running && watched.isOpen()) {
+                    watched.idle();
+                }
+            } catch (MessagingException | IllegalStateException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("IMAP IDLE connection to {} lost, reconnecting in {} ms: {}",
+                         config.getImapHost(), reconnectDelay, e.getMessage());
+            }
+
+            closeQuietly();
+            if (!running) {
+                break;
+            }
+            try {
+                Thread.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                break;
+            }
+            reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+        }
+        log.info("IMAP IDLE watcher stopped for {}", config.getImapHost());
+    }
+
+    private IMAPFolder connect() throws MessagingException {
+        Store newStore = session.getStore(protocol);
+        newStore.connect(config.getImapHost(), config.getImapPort(), config.getImapUsername(), config.getImapPassword());
+        store = newStore;
+
+        Folder opened = newStore.getFolder(config.getImapFolder());
+        if (!(opened instanceof IMAPFolder imapFolder)) {
+            throw new IllegalStateException("IMAP IDLE requires an IMAP folder, got " + opened.getClass().getName());
+        }
+        imapFolder.open(Folder.READ_ONLY);
+        imapFolder.addMessageCountListener(new MessageCountAdapter() {
+            @Override
+            public void messagesAdded(MessageCountEvent event) {
+                log.debug("IMAP IDLE: {} new message(s) in {}", event.getMessages().length, config.getImapFolder());
+                signalNewMail();
+            }
+        });
+        folder = imapFolder;
+
+        // Mail that arrived while disconnected produces no event, so signal once after connecting
+        signalNewMail();
+        log.info("IMAP IDLE watcher connected to {}/{}", config.getImapHost(), config.getImapFolder());
+        return imapFolder;
+    }
+
+    private void signalNewMail() {
+        try {
+            onNewMail.run();
+        } catch (Exception e) {
+            log.error("IMAP new-mail callback failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void renewIdle() {
+        IMAPFolder current = folder;
+        if (current == null || !current.isOpen()) {
+            return;
+        }
+        try {
+            current.doCommand(imapProtocol -> {
+                imapProtocol.simpleCommand("NOOP", null);
+                return null;
+            });
+        } catch (MessagingException e) {
+            log.debug("IMAP IDLE renew failed, connection will be re-established: {}", e.getMessage());
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (folder != null && folder.isOpen()) {
+                folder.close(false);
+            }
+        } catch (Exception e) {
+            // Connection already gone
+        }
+        try {
+            if (store != null) {
+                store.close();
+            }
+        } catch (Exception e) {
+            // Connection already gone
+        }
+        folder = null;
+        store = null;
+    }
+}
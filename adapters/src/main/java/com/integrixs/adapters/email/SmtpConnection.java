@@ -0,0 +1,163 @@
+package com.integrixs.adapters.email;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a pooled, connected SMTP transport with per-connection throughput counters
+ */
+public class SmtpConnection {
+
+    private final String id = UUID.randomUUID().toString().substring(0, 8);
+    private final Transport transport;
+    private final String key;
+    private final LocalDateTime createdTime;
+    private volatile LocalDateTime lastUsedTime;
+    private volatile LocalDateTime lastValidatedTime;
+    private volatile boolean inUse;
+
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesFailed = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+
+    public SmtpConnection(Transport transport, String key) {
+        this.transport = transport;
+        this.key = key;
+        this.createdTime = LocalDateTime.now();
+        this.lastUsedTime = LocalDateTime.now();
+        this.lastValidatedTime = lastUsedTime;
+        this.inUse = false;
+    }
+
+    /**
+     * Open and authenticate a transport for the configuration on the given session
+     */
+    static SmtpConnection open(EmailAdapterConfig config, Session session, String key) throws MessagingException {
+        Transport transport = session.getTransport(config.isSslEnabled() ? "smtps" : "smtp");
+        if (config.isSmtpAuth()) {
+            transport.connect(config.getSmtpHost(), config.getSmtpPort(),
+                              config.getSmtpUsername(), config.getSmtpPassword());
+        } else {
+            transport.connect(config.getSmtpHost(), config.getSmtpPort(), null, null);
+        }
+        return new SmtpConnection(transport, key);
+    }
+
+    /**
+     * Send a message over this connection to all of its recipients
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        message.saveChanges();
+        Address[] recipients = message.getAllRecipients();
+        long start = System.nanoTime();
+        try {
+            transport.sendMessage(message, recipients);
+            messagesSent.incrementAndGet();
+        } catch (MessagingException e) {
+            messagesFailed.incrementAndGet();
+            throw e;
+        } finally {
+            sendNanos.addAndGet(System.nanoTime() - start);
+            updateLastUsed();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public LocalDateTime getCreatedTime() {
+        return createdTime;
+    }
+
+    public LocalDateTime getLastUsedTime() {
+        return lastUsedTime;
+    }
+
+    /**
+     * Last send, borrow or successful NOOP, whichever is later
+     */
+    public LocalDateTime getLastActivityTime() {
+        LocalDateTime validated = lastValidatedTime;
+        return validated.isAfter(lastUsedTime) ? validated : lastUsedTime;
+    }
+
+    public boolean isInUse() {
+        return inUse;
+    }
+
+    public void setInUse(boolean inUse) {
+        this.inUse = inUse;
+        updateLastUsed();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    public long getMessagesFailed() {
+        return messagesFailed.get();
+    }
+
+    /**
+     * Messages per second over the time spent sending on this connection
+     */
+    public double getMessagesPerSecond() {
+        long nanos = sendNanos.get();
+        return nanos > 0 ? messagesSent.get() / (nanos / (double) TimeUnit.SECONDS.toNanos(1)) : 0;
+    }
+
+    public long getAverageSendMillis() {
+        long sent = messagesSent.get() + messagesFailed.get();
+        return sent > 0 ? TimeUnit.NANOSECONDS.toMillis(sendNanos.get() / sent) : 0;
+    }
+
+    /**
+     * Verify the connection with a NOOP round-trip; also keeps idle connections alive.
+     * Does not count as use, so idle eviction still applies to connections kept alive this way.
+     */
+    public boolean validate() {
+        try {
+            // SMTPTransport.isConnected() issues NOOP to the server
+            boolean connected = transport != null && transport.isConnected();
+            if (connected) {
+                lastValidatedTime = LocalDateTime.now();
+            }
+            return connected;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public void disconnect() {
+        try {
+            if (transport != null) {
+                transport.close();
+            }
+        } catch (MessagingException e) {
+            // Connection already gone
+        }
+    }
+
+    private void updateLastUsed() {
+        this.lastUsedTime = LocalDateTime.now();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SmtpConnection{id='%s', key='%s', inUse=%s, sent=%d, created=%s}",
+                id, key, inUse, messagesSent.get(), createdTime);
+    }
+}
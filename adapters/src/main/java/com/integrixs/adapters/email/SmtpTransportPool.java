@@ -0,0 +1,355 @@
+package com.integrixs.adapters.email;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of connected SMTP transports shared by all email adapter instances.
+ *
+ * Transports are keyed by host, port, user, TLS mode and a credential fingerprint, so
+ * adapters with identical SMTP settings reuse each other's authenticated connections.
+ * Each key is bounded by a semaphore. Idle connections are kept alive with NOOP and
+ * evicted after the idle timeout, maximum lifetime or maximum message count.
+ */
+@Component
+public class SmtpTransportPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final ConcurrentHashMap<String, KeyedPool> transportPools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService keepAliveExecutor;
+
+    // Pool configuration
+    private final int maxConnectionsPerKey;
+    private final long borrowTimeoutMillis;
+    private final int maxIdleTimeMinutes;
+    private final int maxLifetimeMinutes;
+    private final long maxMessagesPerConnection;
+    private final long keepAliveSeconds;
+
+    public SmtpTransportPool(
+            @Value("${h2h.email.smtp.pool.max-connections-per-host:4}") int maxConnectionsPerKey,
+            @Value("${h2h.email.smtp.pool.borrow-timeout-ms:30000}") long borrowTimeoutMillis,
+            @Value("${h2h.email.smtp.pool.max-idle-minutes:5}") int maxIdleTimeMinutes,
+            @Value("${h2h.email.smtp.pool.max-lifetime-minutes:30}") int maxLifetimeMinutes,
+            @Value("${h2h.email.smtp.pool.max-messages-per-connection:500}") long maxMessagesPerConnection,
+            @Value("${h2h.email.smtp.pool.keep-alive-seconds:60}") long keepAliveSeconds) {
+        this.maxConnectionsPerKey = Math.max(1, maxConnectionsPerKey);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.maxIdleTimeMinutes = maxIdleTimeMinutes;
+        this.maxLifetimeMinutes = maxLifetimeMinutes;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.keepAliveSeconds = Math.max(10, keepAliveSeconds);
+        this.keepAliveExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SmtpTransportPool-KeepAlive");
+            t.setDaemon(true);
+            return t;
+        });
+
+        keepAliveExecutor.scheduleWithFixedDelay(
+            this::maintainIdleConnections,
+            this.keepAliveSeconds,
+            this.keepAliveSeconds,
+            TimeUnit.SECONDS
+        );
+
+        logger.info("SMTP transport pool initialized with maxConnectionsPerHost={}, borrowTimeout={}ms, maxIdleTime={}min, maxLifetime={}min, maxMessages={}, keepAlive={}s",
+                   this.maxConnectionsPerKey, borrowTimeoutMillis, maxIdleTimeMinutes, maxLifetimeMinutes,
+                   maxMessagesPerConnection, this.keepAliveSeconds);
+    }
+
+    /**
+     * Pool key for an adapter configuration. Credentials are reduced to a SHA-256
+     * fingerprint so secrets never appear in keys, statistics or log output.
+     */
+    public static String keyFor(EmailAdapterConfig config) {
+        String tls = config.isSslEnabled() ? "ssl" : config.isStartTlsEnabled() ? "starttls" : "plain";
+        String user = config.isSmtpAuth() ? config.getSmtpUsername() : "";
+        return String.format("%s:%d:%s:%s:%s", config.getSmtpHost().trim().toLowerCase(), config.getSmtpPort(),
+                             user, tls, credentialFingerprint(config));
+    }
+
+    /**
+     * Borrow a connected transport for the configuration, opening one on the given session
+     * if no healthy idle connection exists. Blocks up to the borrow timeout when the
+     * per-key limit is reached.
+     *
+     * Every borrowed connection must be handed back through {@link #returnConnection}
+     * or {@link #invalidateConnection}.
+     */
+    public SmtpConnection borrowConnection(EmailAdapterConfig config, Session session) throws MessagingException {
+        String key = keyFor(config);
+        KeyedPool pool = transportPools.computeIfAbsent(key, k -> new KeyedPool(maxConnectionsPerKey));
+
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = pool.permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmailAdapterException("Interrupted while waiting for SMTP connection", e, "BORROW", config.getSmtpHost());
+        }
+        pool.totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        if (!acquired) {
+            pool.borrowTimeouts.incrementAndGet();
+            throw new EmailAdapterException(String.format(
+                "Timed out after %dms waiting for SMTP connection (%d in use)", borrowTimeoutMillis, maxConnectionsPerKey),
+                "BORROW", config.getSmtpHost());
+        }
+
+        try {
+            // Reuse the most recently returned connection; only ping it if it sat idle a while
+            SmtpConnection connection = pool.idle.pollFirst();
+            while (connection != null) {
+                if (!isExhausted(connection) && (!needsKeepAlive(connection) || connection.validate())) {
+                    connection.setInUse(true);
+                    pool.active.incrementAndGet();
+                    pool.reused.incrementAndGet();
+                    logger.debug("Borrowed existing SMTP connection {}", connection);
+                    return connection;
+                }
+                pool.validationFailures.incrementAndGet();
+                destroy(pool, connection);
+                connection = pool.idle.pollFirst();
+            }
+
+            connection = createConnection(key, config, session);
+            connection.setInUse(true);
+            pool.active.incrementAndGet();
+            pool.created.incrementAndGet();
+            logger.debug("Opened new SMTP connection {}", connection);
+            return connection;
+
+        } catch (MessagingException | RuntimeException e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a healthy connection to the pool for reuse
+     */
+    public void returnConnection(SmtpConnection connection) {
+        if (connection == null) return;
+
+        KeyedPool pool = transportPools.get(connection.getKey());
+        if (pool == null) {
+            // Pool was closed while the connection was borrowed
+            connection.disconnect();
+            return;
+        }
+        if (!connection.isInUse()) {
+            logger.warn("Ignoring return of SMTP connection that is not borrowed: {}", connection);
+            return;
+        }
+
+        connection.setInUse(false);
+        pool.active.decrementAndGet();
+
+        if (isExhausted(connection)) {
+            destroy(pool, connection);
+            logger.debug("Retired SMTP connection {}", connection);
+        } else {
+            pool.idle.offerFirst(connection);
+        }
+        pool.permits.release();
+    }
+
+    /**
+     * Discard a borrowed connection that failed mid-send instead of returning it
+     */
+    public void invalidateConnection(SmtpConnection connection) {
+        if (connection == null) return;
+
+        KeyedPool pool = transportPools.get(connection.getKey());
+        if (pool == null) {
+            connection.disconnect();
+            return;
+        }
+        if (!connection.isInUse()) {
+            logger.warn("Ignoring invalidation of SMTP connection that is not borrowed: {}", connection);
+            return;
+        }
+
+        connection.setInUse(false);
+        pool.active.decrementAndGet();
+        destroy(pool, connection);
+        pool.permits.release();
+        logger.debug("Invalidated SMTP connection {}", connection);
+    }
+
+    /**
+     * Close all connections and shutdown the pool
+     */
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Shutting down SMTP transport pool");
+
+        transportPools.values().forEach(pool -> {
+            SmtpConnection connection;
+            while ((connection = pool.idle.pollFirst()) != null) {
+                connection.disconnect();
+            }
+        });
+        transportPools.clear();
+        keepAliveExecutor.shutdownNow();
+
+        logger.info("SMTP transport pool shutdown completed");
+    }
+
+    /**
+     * Pool and per-connection statistics for one configuration key
+     */
+    public Map<String, Object> getStatistics(String key) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        KeyedPool pool = transportPools.get(key);
+        if (pool == null) {
+            return stats;
+        }
+
+        long borrows = pool.created.get() + pool.reused.get() + pool.borrowTimeouts.get();
+        stats.put("idleConnections", pool.idle.size());
+        stats.put("activeConnections", pool.active.get());
+        stats.put("maxConnections", maxConnectionsPerKey);
+        stats.put("connectionsCreated", pool.created.get());
+        stats.put("connectionsReused", pool.reused.get());
+        stats.put("connectionsDestroyed", pool.destroyed.get());
+        stats.put("validationFailures", pool.validationFailures.get());
+        stats.put("borrowTimeouts", pool.borrowTimeouts.get());
+        stats.put("averageWaitMillis", borrows > 0 ? TimeUnit.NANOSECONDS.toMillis(pool.totalWaitNanos.get() / borrows) : 0);
+
+        List<Map<String, Object>> connections = new ArrayList<>();
+        for (SmtpConnection connection : pool.all) {
+            Map<String, Object> connectionStats = new LinkedHashMap<>();
+            connectionStats.put("id", connection.getId());
+            connectionStats.put("inUse", connection.isInUse());
+            connectionStats.put("createdAt", connection.getCreatedTime());
+            connectionStats.put("lastUsedAt", connection.getLastUsedTime());
+            connectionStats.put("messagesSent", connection.getMessagesSent());
+            connectionStats.put("messagesFailed", connection.getMessagesFailed());
+            connectionStats.put("messagesPerSecond", connection.getMessagesPerSecond());
+            connectionStats.put("averageSendMillis", connection.getAverageSendMillis());
+            connections.add(connectionStats);
+        }
+        stats.put("connections", connections);
+        return stats;
+    }
+
+    private SmtpConnection createConnection(String key, EmailAdapterConfig config, Session session) throws MessagingException {
+        SmtpConnection connection = SmtpConnection.open(config, session, key);
+        transportPools.get(key).all.add(connection);
+        return connection;
+    }
+
+    private boolean isExhausted(SmtpConnection connection) {
+        return connection.getCreatedTime().isBefore(LocalDateTime.now().minusMinutes(maxLifetimeMinutes)) ||
+               (maxMessagesPerConnection > 0 && connection.getMessagesSent() >= maxMessagesPerConnection);
+    }
+
+    private boolean needsKeepAlive(SmtpConnection connection) {
+        return connection.getLastActivityTime().isBefore(LocalDateTime.now().minusSeconds(keepAliveSeconds));
+    }
+
+    private void destroy(KeyedPool pool, SmtpConnection connection) {
+        connection.disconnect();
+        pool.all.remove(connection);
+        pool.destroyed.incrementAndGet();
+    }
+
+    /**
+     * Evict idle connections past their idle timeout or lifetime and NOOP the rest
+     * so servers do not drop them
+     */
+    private void maintainIdleConnections() {
+        try {
+            LocalDateTime idleCutoff = LocalDateTime.now().minusMinutes(maxIdleTimeMinutes);
+            int totalClosed = 0;
+
+            for (Map.Entry<String, KeyedPool> entry : transportPools.entrySet()) {
+                KeyedPool pool = entry.getValue();
+
+                // Iterate a snapshot: connections offered back below would otherwise be visited again
+                for (SmtpConnection connection : new ArrayList<>(pool.idle)) {
+                    if (!needsKeepAlive(connection)) {
+                        continue;
+                    }
+                    // remove() only succeeds if no borrower took the connection in the meantime
+                    if (!pool.idle.remove(connection)) {
+                        continue;
+                    }
+                    boolean evict = connection.getLastUsedTime().isBefore(idleCutoff) || isExhausted(connection);
+                    if (evict || !connection.validate()) {
+                        destroy(pool, connection);
+                        totalClosed++;
+                    } else {
+                        pool.idle.offerLast(connection);
+                    }
+                }
+            }
+
+            if (totalClosed > 0) {
+                logger.debug("SMTP transport pool maintenance closed {} idle connections", totalClosed);
+            }
+
+        } catch (Exception e) {
+            logger.error("Error during SMTP transport pool maintenance", e);
+        }
+    }
+
+    private static String credentialFingerprint(EmailAdapterConfig config) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String password = config.getSmtpPassword();
+            if (password != null) {
+                digest.update(password.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Per-key pool state: idle connections plus a semaphore bounding borrowed connections
+     */
+    private static class KeyedPool {
+        private final Semaphore permits;
+        private final ConcurrentLinkedDeque<SmtpConnection> idle = new ConcurrentLinkedDeque<>();
+        private final ConcurrentLinkedDeque<SmtpConnection> all = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong reused = new AtomicLong();
+        private final AtomicLong destroyed = new AtomicLong();
+        private final AtomicLong validationFailures = new AtomicLong();
+        private final AtomicLong borrowTimeouts = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+
+        private KeyedPool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+}
@@ -5,8 +5,11 @@ import com.integrixs.core.util.AdapterConfigUtil;
 import com.integrixs.shared.util.FileUtils;
 import com.integrixs.shared.model.Adapter;
 import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.value.FilePayload;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -88,13 +91,13 @@ public class FileReceiverAdapter extends AbstractAdapterExecutor {
                 String fileName = (String) fileInfo.get("fileName");
                 try {
                     // Extract file content and metadata
-                    byte[] fileContent = (byte[]) fileInfo.get("fileContent");
-                    if (fileContent == null) {
+                    FilePayload payload = FilePayload.fromFileData(fileInfo);
+                    if (payload == null) {
                         throw new RuntimeException("No file content found for: " + fileName);
                     }
 
                     // Phase 2.4: Check empty message handling
-                    if (!shouldProcessMessage(fileContent, config, fileName)) {
+                    if (!shouldProcessMessage(payload, config, fileName)) {
                         logger.info("Skipping empty message for file: {}", fileName);
                         continue;
                     }
@@ -110,7 +113,7 @@ public class FileReceiverAdapter extends AbstractAdapterExecutor {
                     Path outputPath = targetPath.resolve(outputFileName);
 
                     // Phase 2.3: Write file using configured write mode
-                    writeFileWithMode(outputPath, fileContent, config);
+                    writeFileWithMode(outputPath, payload, config);
                     long fileSize = Files.size(outputPath);
 
                     currentConcurrency--;
@@ -361,18 +364,18 @@ public class FileReceiverAdapter extends AbstractAdapterExecutor {
      * - Create Temp File: Write to .tmp, then rename atomically
      *
      * @param outputPath Final output file path
-     * @param fileContent File content bytes
+     * @param payload File content, streamed from the payload spool
      * @param config Adapter configuration
      * @throws Exception if write fails
      */
-    private void writeFileWithMode(Path outputPath, byte[] fileContent, Map<String, Object> config) throws Exception {
+    private void writeFileWithMode(Path outputPath, FilePayload payload, Map<String, Object> config) throws Exception {
         // Get write mode (default: Directly for backward compatibility)
         String writeMode = AdapterConfigUtil.getStringConfig(config, "writeMode", false, "Directly");
 
         switch (writeMode) {
             case "Directly":
                 // Write directly to target file
-                Files.write(outputPath, fileContent);
+                writePayload(payload, outputPath);
                 logger.debug("Wrote file directly: {}", outputPath);
                 break;
 
@@ -382,7 +385,7 @@ public class FileReceiverAdapter extends AbstractAdapterExecutor {
 
                 try {
                     // Write to temp file
-                    Files.write(tempPath, fileContent);
+                    writePayload(payload, tempPath);
                     logger.debug("Wrote to temp file: {}", tempPath);
 
                     // Atomically rename to final filename
@@ -405,23 +408,32 @@ public class FileReceiverAdapter extends AbstractAdapterExecutor {
 
             default:
                 logger.warn("Unknown writeMode '{}', using 'Directly'", writeMode);
-                Files.write(outputPath, fileContent);
+                writePayload(payload, outputPath);
                 break;
         }
     }
 
+    /**
+     * Stream payload content to the target, replacing any existing file
+     */
+    private void writePayload(FilePayload payload, Path target) throws IOException {
+        try (InputStream in = payload.openStream()) {
+            Files.copy(in, target, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * Phase 2.4: Determine if message should be processed based on empty message handling.
      *
-     * @param fileContent File content bytes
+     * @param payload File content
      * @param config Adapter configuration
      * @param fileName Filename for logging
      * @return true if message should be processed, false if should be skipped
      */
-    private boolean shouldProcessMessage(byte[] fileContent, Map<String, Object> config, String fileName) {
+    private boolean shouldProcessMessage(FilePayload payload, Map<String, Object> config, String fileName) {
         try {
             // Check if content is empty
-            if (fileContent != null && fileContent.length > 0) {
+            if (payload != null && !payload.isEmpty()) {
                 return true; // Not empty, process normally
             }
 
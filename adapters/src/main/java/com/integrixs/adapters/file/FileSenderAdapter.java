@@ -7,6 +7,7 @@ import com.integrixs.core.util.AdapterConfigUtil;
 import com.integrixs.shared.util.FileUtils;
 import com.integrixs.shared.model.Adapter;
 import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.value.FilePayload;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -105,34 +106,41 @@ public class FileSenderAdapter extends AbstractAdapterExecutor {
             int errorCount = 0;
             int skippedCount = 0;
 
+            // Phase 1 Validations - Apply all configured checks
+            List<Path> candidateFiles = new ArrayList<>();
             for (Path filePath : discoveredFiles) {
+                FileValidationResult validationResult = validateFileForProcessing(filePath, config);
+                if (!validationResult.isValid()) {
+                    logger.warn("Skipping file {}: {}", filePath.getFileName(), validationResult.getReason());
+                    skippedCount++;
+
+                    // Handle skipped file based on type
+                    if (validationResult.shouldArchiveToError()) {
+                        handleErrorFile(filePath, validationResult.getReason(), config);
+                    }
+                    continue;
+                }
+                candidateFiles.add(filePath);
+            }
+
+            // File stability check - one wait for all candidates
+            List<Path> stableFiles = filterStableFiles(candidateFiles, config);
+            skippedCount += candidateFiles.size() - stableFiles.size();
+
+            for (Path filePath : stableFiles) {
                 try {
                     long startTime = System.currentTimeMillis();
                     String fileName = filePath.getFileName().toString();
 
-                    // Phase 1 Validations - Apply all configured checks
-                    FileValidationResult validationResult = validateFileForProcessing(filePath, config);
-                    if (!validationResult.isValid()) {
-                        logger.warn("Skipping file {}: {}", fileName, validationResult.getReason());
-                        skippedCount++;
-
-                        // Handle skipped file based on type
-                        if (validationResult.shouldArchiveToError()) {
-                            handleErrorFile(filePath, validationResult.getReason(), config);
-                        }
-                        continue;
-                    }
-
-                    long fileSize = Files.size(filePath);
-
-                    // Read file content into memory for receiver processing
-                    byte[] fileContent = Files.readAllBytes(filePath);
+                    // Snapshot into the payload spool - the source is post-processed before receivers run
+                    FilePayload payload = FilePayload.spoolCopy(filePath);
+                    long fileSize = payload.getSize();
                     
                     Map<String, Object> fileInfo = new HashMap<>();
                     fileInfo.put("fileName", fileName);
                     fileInfo.put("originalFilePath", filePath.toString());
                     fileInfo.put("fileSize", fileSize);
-                    fileInfo.put("fileContent", fileContent);
+                    fileInfo.put(FilePayload.CONTEXT_KEY, payload);
                     fileInfo.put("postProcessAction", postProcessAction);
                     fileInfo.put("archiveDirectory", archiveDirectory);
                     fileInfo.put("adapterConfig", config); // Pass full adapter config for archiving
@@ -458,10 +466,7 @@ public class FileSenderAdapter extends AbstractAdapterExecutor {
                 return emptyResult;
             }
 
-            // 6. File stability check (Phase 1.1) - Do last as it may wait
-            if (!isFileStable(filePath, config)) {
-                return FileValidationResult.invalid("File is still being modified");
-            }
+            // 6. File stability check (Phase 1.1) runs afterwards for all candidates together
 
             return FileValidationResult.valid();
 
@@ -472,50 +477,84 @@ public class FileSenderAdapter extends AbstractAdapterExecutor {
     }
 
     /**
-     * Phase 1.1: Check if file is stable (not being actively written).
-     * Waits configured milliseconds and verifies file modification time hasn't changed.
+     * Phase 1.1: Keep only files that are stable (not being actively written).
+     * Records modification time and size of every candidate, waits the configured
+     * milliseconds once for the whole batch, and keeps the files that did not change.
      *
-     * @param filePath Path to file
+     * @param candidates Files that passed the other validations
      * @param config Adapter configuration
-     * @return true if file is stable or check is disabled (0 msecs)
+     * @return stable files in their original order; all candidates if the check is disabled (0 msecs)
      */
-    private boolean isFileStable(Path filePath, Map<String, Object> config) {
-        try {
-            // Get configured wait time (default: 0 = no check)
-            int waitMsecs = AdapterConfigUtil.getIntConfig(config, "msecsToWaitBeforeModificationCheck", 0);
+    private List<Path> filterStableFiles(List<Path> candidates, Map<String, Object> config) {
+        // Get configured wait time (default: 0 = no check)
+        int waitMsecs = AdapterConfigUtil.getIntConfig(config, "msecsToWaitBeforeModificationCheck", 0);
 
-            if (waitMsecs <= 0) {
-                return true; // Check disabled, assume stable
-            }
+        if (waitMsecs <= 0 || candidates.isEmpty()) {
+            return candidates; // Check disabled, assume stable
+        }
 
-            // Get initial modification time
-            long initialModTime = Files.getLastModifiedTime(filePath).toMillis();
+        Map<Path, FileSnapshot> initial = new HashMap<>();
+        List<Path> stable = new ArrayList<>();
+        for (Path filePath : candidates) {
+            try {
+                initial.put(filePath, FileSnapshot.of(filePath));
+            } catch (Exception e) {
+                logger.error("Error checking file stability for {}: {}", filePath, e.getMessage());
+            }
+        }
 
-            logger.debug("Checking file stability for {}, waiting {} ms", filePath.getFileName(), waitMsecs);
+        logger.debug("Checking stability of {} files, waiting {} ms", candidates.size(), waitMsecs);
+        try {
             Thread.sleep(waitMsecs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("File stability check interrupted for {} files", candidates.size());
+            return stable;
+        }
 
-            // Check if file still exists and modification time hasn't changed
+        for (Path filePath : candidates) {
+            FileSnapshot before = initial.get(filePath);
+            if (before == null) {
+                stable.add(filePath); // On error, allow processing (existing behavior)
+                continue;
+            }
+            // Check if file still exists and modification time and size haven't changed
             if (!Files.exists(filePath)) {
                 logger.warn("File disappeared during stability check: {}", filePath);
-                return false;
+                continue;
             }
+            try {
+                if (before.sameAs(FileSnapshot.of(filePath))) {
+                    stable.add(filePath);
+                } else {
+                    logger.info("File {} is still being modified (changed during check)", filePath.getFileName());
+                }
+            } catch (Exception e) {
+                logger.error("Error checking file stability for {}: {}", filePath, e.getMessage());
+                stable.add(filePath);
+            }
+        }
+        return stable;
+    }
 
-            long currentModTime = Files.getLastModifiedTime(filePath).toMillis();
-            boolean stable = (initialModTime == currentModTime);
+    /**
+     * Modification time and size of a file at one point in time
+     */
+    private static final class FileSnapshot {
+        private final long lastModifiedMillis;
+        private final long size;
 
-            if (!stable) {
-                logger.info("File {} is still being modified (mod time changed during check)", filePath.getFileName());
-            }
+        private FileSnapshot(long lastModifiedMillis, long size) {
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.size = size;
+        }
 
-            return stable;
+        static FileSnapshot of(Path filePath) throws java.io.IOException {
+            return new FileSnapshot(Files.getLastModifiedTime(filePath).toMillis(), Files.size(filePath));
+        }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.warn("File stability check interrupted for {}", filePath);
-            return false;
-        } catch (Exception e) {
-            logger.error("Error checking file stability for {}: {}", filePath, e.getMessage());
-            return true; // On error, allow processing (existing behavior)
+        boolean sameAs(FileSnapshot other) {
+            return lastModifiedMillis == other.lastModifiedMillis && size == other.size;
         }
     }
 
@@ -0,0 +1,69 @@
+package com.integrixs.adapters.sftp;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Input stream that computes the SHA-256 and byte count of everything read through it,
+ * so an upload can be verified against its source without reading the source twice.
+ */
+final class DigestingInputStream extends FilterInputStream {
+
+    private final MessageDigest digest;
+    private long byteCount;
+
+    DigestingInputStream(InputStream in) {
+        super(in);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            digest.update((byte) b);
+            byteCount++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = in.read(buffer, offset, length);
+        if (n > 0) {
+            digest.update(buffer, offset, n);
+            byteCount += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped bytes would be missing from the digest
+        throw new IOException("skip is not supported on a digesting stream");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Hex SHA-256 of the bytes read so far; completes the digest, so call once at end of stream
+     */
+    String getSha256() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -6,61 +6,83 @@ import com.jcraft.jsch.Session;
 import java.time.LocalDateTime;
 
 /**
- * Represents an SFTP connection with session management
+ * Represents a pooled SFTP connection with session management
  */
 public class SftpConnection {
-    
+
     private final Session session;
     private final ChannelSftp channel;
-    private final String bankName;
+    private final SftpConnectionKey key;
+    private final String homeDirectory;
     private final LocalDateTime createdTime;
-    private LocalDateTime lastUsedTime;
-    private boolean inUse;
-    
-    public SftpConnection(Session session, ChannelSftp channel, String bankName) {
+    private volatile LocalDateTime lastUsedTime;
+    private volatile boolean inUse;
+
+    public SftpConnection(Session session, ChannelSftp channel, SftpConnectionKey key, String homeDirectory) {
         this.session = session;
         this.channel = channel;
-        this.bankName = bankName;
+        this.key = key;
+        this.homeDirectory = homeDirectory;
         this.createdTime = LocalDateTime.now();
         this.lastUsedTime = LocalDateTime.now();
         this.inUse = false;
     }
-    
+
     public Session getSession() {
         return session;
     }
-    
+
     public ChannelSftp getChannel() {
         updateLastUsed();
         return channel;
     }
-    
-    public String getBankName() {
-        return bankName;
+
+    public SftpConnectionKey getKey() {
+        return key;
+    }
+
+    public String getHomeDirectory() {
+        return homeDirectory;
     }
-    
+
     public LocalDateTime getCreatedTime() {
         return createdTime;
     }
-    
+
     public LocalDateTime getLastUsedTime() {
         return lastUsedTime;
     }
-    
+
     public boolean isInUse() {
         return inUse;
     }
-    
+
     public void setInUse(boolean inUse) {
         this.inUse = inUse;
         updateLastUsed();
     }
-    
+
     public boolean isConnected() {
-        return session != null && session.isConnected() && 
-               channel != null && channel.isConnected();
+        return session != null && session.isConnected() &&
+               channel != null && channel.isConnected() && !channel.isClosed();
     }
-    
+
+    /**
+     * Verify the connection is usable with a single round-trip and reset the
+     * working directory left behind by the previous borrower.
+     */
+    public boolean validate() {
+        if (!isConnected()) {
+            return false;
+        }
+        try {
+            channel.cd(homeDirectory);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     public void disconnect() {
         if (channel != null && channel.isConnected()) {
             channel.disconnect();
@@ -69,14 +91,14 @@ public class SftpConnection {
             session.disconnect();
         }
     }
-    
+
     private void updateLastUsed() {
         this.lastUsedTime = LocalDateTime.now();
     }
-    
+
     @Override
     public String toString() {
-        return String.format("SftpConnection{bank='%s', connected=%s, inUse=%s, created=%s}", 
-                bankName, isConnected(), inUse, createdTime);
+        return String.format("SftpConnection{key='%s', connected=%s, inUse=%s, created=%s}",
+                key, isConnected(), inUse, createdTime);
     }
-}
\ No newline at end of file
+}
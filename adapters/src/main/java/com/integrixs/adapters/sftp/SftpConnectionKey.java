@@ -0,0 +1,101 @@
+package com.integrixs.adapters.sftp;
+
+import com.integrixs.core.util.AdapterConfigUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Identifies a reusable SFTP session: two adapter configurations share pooled
+ * connections only when host, port, user and credentials are identical.
+ *
+ * Credentials are reduced to a SHA-256 fingerprint so secrets never appear in
+ * pool keys, statistics or log output.
+ */
+public final class SftpConnectionKey {
+
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String authFingerprint;
+
+    public SftpConnectionKey(String host, int port, String username, String authFingerprint) {
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.authFingerprint = authFingerprint;
+    }
+
+    /**
+     * Build a key from an adapter configuration that has already been enhanced
+     * with SSH key material (see the SFTP adapters' enhanceSftpConfigWithSshKey).
+     */
+    public static SftpConnectionKey fromConfig(Map<String, Object> config) {
+        String host = AdapterConfigUtil.getStringConfig(config, "host", true, null);
+        int port = AdapterConfigUtil.getIntConfig(config, "port", 22);
+        String username = AdapterConfigUtil.getStringConfig(config, "username", true, null);
+
+        return new SftpConnectionKey(host.trim().toLowerCase(), port, username, fingerprint(config));
+    }
+
+    private static String fingerprint(Map<String, Object> config) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : new String[] {"authenticationType", "authType", "password",
+                                              "privateKeyPath", "privateKeyContent", "privateKeyPassphrase"}) {
+                Object value = config.get(field);
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                if (value != null) {
+                    digest.update(value.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 0);
+            }
+            // First 16 hex chars are plenty to separate credential sets for one host/user
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getAuthFingerprint() {
+        return authFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SftpConnectionKey)) return false;
+        SftpConnectionKey that = (SftpConnectionKey) o;
+        return port == that.port &&
+               host.equals(that.host) &&
+               username.equals(that.username) &&
+               authFingerprint.equals(that.authFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(host, port, username, authFingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return username + "@" + host + ":" + port + "#" + authFingerprint;
+    }
+}
@@ -1,40 +1,67 @@
 package com.integrixs.adapters.sftp;
 
 import com.integrixs.core.logging.EnhancedLogger;
+import com.integrixs.core.util.SftpConnectionUtil;
+import com.jcraft.jsch.ChannelSftp;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Connection pool for SFTP connections to improve performance and resource management
+ * Connection pool for SFTP sessions shared by the SFTP sender and receiver adapters.
+ *
+ * Connections are keyed by host, port, user and credential fingerprint (see
+ * {@link SftpConnectionKey}). Each key is bounded by a semaphore: when all
+ * connections for a key are borrowed, callers block up to the borrow timeout.
+ * Idle connections are validated on borrow and evicted after the idle timeout
+ * or maximum lifetime. Borrowing also takes a per-host session slot from
+ * {@link SftpHostThrottle}, which caps sessions to a host across all keys.
  */
 @Component
 public class SftpConnectionPool {
-    
+
     private static final EnhancedLogger logger = EnhancedLogger.getLogger(SftpConnectionPool.class);
-    
-    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<SftpConnection>> connectionPools;
+
+    private final ConcurrentHashMap<SftpConnectionKey, KeyedPool> connectionPools;
     private final ScheduledExecutorService cleanupExecutor;
-    
+    private final SftpHostThrottle hostThrottle;
+
     // Pool configuration
-    private final int maxConnectionsPerBank = 3;
-    private final int maxIdleTimeMinutes = 10;
-    private final int cleanupIntervalMinutes = 5;
-    
-    public SftpConnectionPool() {
+    private final int maxConnectionsPerKey;
+    private final long borrowTimeoutMillis;
+    private final int maxIdleTimeMinutes;
+    private final int maxLifetimeMinutes;
+    private final int cleanupIntervalMinutes = 1;
+
+    public SftpConnectionPool(
+            @Value("${h2h.sftp.pool.max-connections-per-host:4}") int maxConnectionsPerKey,
+            @Value("${h2h.sftp.pool.borrow-timeout-ms:30000}") long borrowTimeoutMillis,
+            @Value("${h2h.sftp.pool.max-idle-minutes:5}") int maxIdleTimeMinutes,
+            @Value("${h2h.sftp.pool.max-lifetime-minutes:60}") int maxLifetimeMinutes,
+            SftpHostThrottle hostThrottle) {
+        this.hostThrottle = hostThrottle;
+        this.maxConnectionsPerKey = Math.max(1, maxConnectionsPerKey);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.maxIdleTimeMinutes = maxIdleTimeMinutes;
+        this.maxLifetimeMinutes = maxLifetimeMinutes;
         this.connectionPools = new ConcurrentHashMap<>();
         this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "SftpConnectionPool-Cleanup");
             t.setDaemon(true);
             return t;
         });
-        
+
         // Schedule cleanup task
         cleanupExecutor.scheduleWithFixedDelay(
             this::cleanupIdleConnections,
@@ -42,107 +69,173 @@ public class SftpConnectionPool {
             cleanupIntervalMinutes,
             TimeUnit.MINUTES
         );
-        
-        logger.info("SFTP Connection Pool initialized with maxConnections={}, maxIdleTime={}min", 
-                   maxConnectionsPerBank, maxIdleTimeMinutes);
+
+        logger.info("SFTP Connection Pool initialized with maxConnectionsPerHost={}, borrowTimeout={}ms, maxIdleTime={}min, maxLifetime={}min",
+                   this.maxConnectionsPerKey, borrowTimeoutMillis, maxIdleTimeMinutes, maxLifetimeMinutes);
     }
-    
+
     /**
-     * Get a connection for the specified bank
+     * Borrow a connection for the given (SSH-key enhanced) adapter configuration.
+     * Reuses a validated idle connection when available, otherwise opens a new one.
+     * Blocks up to the borrow timeout when the per-key limit is reached.
+     *
+     * Every borrowed connection must be handed back through {@link #returnConnection}
+     * or {@link #invalidateConnection}.
      */
-    public SftpConnection borrowConnection(String bankName) {
-        ConcurrentLinkedQueue<SftpConnection> pool = connectionPools.computeIfAbsent(
-            bankName, k -> new ConcurrentLinkedQueue<>()
-        );
-        
-        // Try to get an existing connection
-        SftpConnection connection = pool.poll();
-        while (connection != null) {
-            if (connection.isConnected()) {
-                connection.setInUse(true);
-                logger.debug("Borrowed existing connection for bank: {}", bankName);
-                return connection;
-            } else {
+    public SftpConnection borrowConnection(Map<String, Object> config) throws Exception {
+        SftpConnectionKey key = SftpConnectionKey.fromConfig(config);
+        KeyedPool pool = connectionPools.computeIfAbsent(key, k -> new KeyedPool(maxConnectionsPerKey));
+
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = pool.permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SftpAdapterException("Interrupted while waiting for SFTP connection", e, "BORROW", key.getHost());
+        }
+        pool.totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        if (!acquired) {
+            pool.borrowTimeouts.incrementAndGet();
+            throw new SftpAdapterException(String.format(
+                "Timed out after %dms waiting for SFTP connection (%d in use)", borrowTimeoutMillis, maxConnectionsPerKey),
+                "BORROW", key.getHost());
+        }
+
+        try {
+            hostThrottle.acquireSession(key.getHost());
+        } catch (SftpAdapterException e) {
+            pool.permits.release();
+            throw e;
+        }
+
+        try {
+            // Try to reuse the most recently returned connection
+            SftpConnection connection = pool.idle.pollFirst();
+            while (connection != null) {
+                if (!isExpired(connection) && connection.validate()) {
+                    connection.setInUse(true);
+                    pool.active.incrementAndGet();
+                    pool.reused.incrementAndGet();
+                    logger.debug("Borrowed existing connection for {}", key);
+                    return connection;
+                }
                 // Connection is stale, discard it
-                connection.disconnect();
-                connection = pool.poll();
+                pool.validationFailures.incrementAndGet();
+                destroy(pool, connection);
+                connection = pool.idle.pollFirst();
             }
+
+            logger.debug("No idle connections for {}, creating new connection", key);
+            connection = createConnection(key, config);
+            connection.setInUse(true);
+            pool.active.incrementAndGet();
+            pool.created.incrementAndGet();
+            return connection;
+
+        } catch (Exception e) {
+            pool.permits.release();
+            hostThrottle.releaseSession(key.getHost());
+            throw e;
         }
-        
-        logger.debug("No available connections for bank: {}, will create new connection", bankName);
-        return null; // Caller will create new connection
     }
-    
+
     /**
-     * Return a connection to the pool
+     * Return a healthy connection to the pool for reuse
      */
     public void returnConnection(SftpConnection connection) {
         if (connection == null) return;
-        
-        String bankName = connection.getBankName();
-        ConcurrentLinkedQueue<SftpConnection> pool = connectionPools.get(bankName);
-        
+
+        KeyedPool pool = connectionPools.get(connection.getKey());
         if (pool == null) {
+            // Pool was closed while the connection was borrowed
             connection.disconnect();
+            releaseClosedPoolConnection(connection);
+            return;
+        }
+        if (!connection.isInUse()) {
+            logger.warn("Ignoring return of connection that is not borrowed: {}", connection);
             return;
         }
-        
+
         connection.setInUse(false);
-        
-        // Check pool size limit
-        if (pool.size() >= maxConnectionsPerBank) {
-            logger.debug("Pool for bank {} is full, discarding connection", bankName);
-            connection.disconnect();
-        } else if (connection.isConnected()) {
-            pool.offer(connection);
-            logger.debug("Returned connection to pool for bank: {}", bankName);
+        pool.active.decrementAndGet();
+
+        if (connection.isConnected() && !isExpired(connection)) {
+            pool.idle.offerFirst(connection);
+            logger.debug("Returned connection to pool for {}", connection.getKey());
         } else {
-            connection.disconnect();
-            logger.debug("Discarded disconnected connection for bank: {}", bankName);
+            destroy(pool, connection);
+            logger.debug("Discarded disconnected connection for {}", connection.getKey());
         }
+        pool.permits.release();
+        hostThrottle.releaseSession(connection.getKey().getHost());
     }
-    
+
     /**
-     * Add a new connection to the pool (for newly created connections)
+     * Discard a borrowed connection that failed mid-operation instead of returning it
      */
-    public void addConnection(SftpConnection connection) {
-        returnConnection(connection);
+    public void invalidateConnection(SftpConnection connection) {
+        if (connection == null) return;
+
+        KeyedPool pool = connectionPools.get(connection.getKey());
+        if (pool == null) {
+            connection.disconnect();
+            releaseClosedPoolConnection(connection);
+            return;
+        }
+        if (!connection.isInUse()) {
+            logger.warn("Ignoring invalidation of connection that is not borrowed: {}", connection);
+            return;
+        }
+
+        connection.setInUse(false);
+        pool.active.decrementAndGet();
+        destroy(pool, connection);
+        pool.permits.release();
+        hostThrottle.releaseSession(connection.getKey().getHost());
+        logger.debug("Invalidated connection for {}", connection.getKey());
+    }
+
+    private void releaseClosedPoolConnection(SftpConnection connection) {
+        if (connection.isInUse()) {
+            connection.setInUse(false);
+            hostThrottle.releaseSession(connection.getKey().getHost());
+        }
     }
-    
+
     /**
-     * Close all connections for a specific bank
+     * Close all idle connections for a specific key
      */
-    public void closeBankConnections(String bankName) {
-        ConcurrentLinkedQueue<SftpConnection> pool = connectionPools.remove(bankName);
+    public void closeConnections(SftpConnectionKey key) {
+        KeyedPool pool = connectionPools.remove(key);
         if (pool != null) {
-            while (!pool.isEmpty()) {
-                SftpConnection connection = pool.poll();
-                if (connection != null) {
-                    connection.disconnect();
-                }
+            SftpConnection connection;
+            while ((connection = pool.idle.pollFirst()) != null) {
+                connection.disconnect();
             }
-            logger.info("Closed all connections for bank: {}", bankName);
+            logger.info("Closed all idle connections for {}", key);
         }
     }
-    
+
     /**
      * Close all connections and shutdown the pool
      */
+    @PreDestroy
     public void shutdown() {
         logger.info("Shutting down SFTP connection pool");
-        
+
         connectionPools.values().forEach(pool -> {
-            while (!pool.isEmpty()) {
-                SftpConnection connection = pool.poll();
-                if (connection != null) {
-                    connection.disconnect();
-                }
+            SftpConnection connection;
+            while ((connection = pool.idle.pollFirst()) != null) {
+                connection.disconnect();
             }
         });
-        
+
         connectionPools.clear();
         cleanupExecutor.shutdown();
-        
+
         try {
             if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
                 cleanupExecutor.shutdownNow();
@@ -151,110 +244,154 @@ public class SftpConnectionPool {
             cleanupExecutor.shutdownNow();
             Thread.currentThread().interrupt();
         }
-        
+
         logger.info("SFTP connection pool shutdown completed");
     }
-    
+
     /**
-     * Get pool statistics
+     * Get pool statistics per connection key
      */
     public PoolStatistics getStatistics() {
         PoolStatistics stats = new PoolStatistics();
-        
-        connectionPools.forEach((bankName, pool) -> {
-            int totalConnections = pool.size();
-            int activeConnections = (int) pool.stream()
-                .mapToLong(conn -> conn.isInUse() ? 1 : 0)
-                .sum();
-            
-            stats.addBankStats(bankName, totalConnections, activeConnections);
+
+        connectionPools.forEach((key, pool) -> {
+            long borrows = pool.created.get() + pool.reused.get() + pool.borrowTimeouts.get();
+            long averageWaitMillis = borrows > 0 ? TimeUnit.NANOSECONDS.toMillis(pool.totalWaitNanos.get() / borrows) : 0;
+
+            stats.addKeyStats(key.toString(), new PoolStatistics.KeyStats(
+                pool.idle.size(), pool.active.get(), maxConnectionsPerKey,
+                pool.created.get(), pool.reused.get(), pool.destroyed.get(),
+                pool.validationFailures.get(), pool.borrowTimeouts.get(), averageWaitMillis));
         });
-        
+
         return stats;
     }
-    
+
+    private SftpConnection createConnection(SftpConnectionKey key, Map<String, Object> config) throws Exception {
+        ChannelSftp channel = SftpConnectionUtil.createSftpConnection(config);
+        try {
+            return new SftpConnection(channel.getSession(), channel, key, channel.pwd());
+        } catch (Exception e) {
+            SftpConnectionUtil.closeSftpConnection(channel);
+            throw e;
+        }
+    }
+
+    private boolean isExpired(SftpConnection connection) {
+        return connection.getCreatedTime().isBefore(LocalDateTime.now().minusMinutes(maxLifetimeMinutes));
+    }
+
+    private void destroy(KeyedPool pool, SftpConnection connection) {
+        connection.disconnect();
+        pool.destroyed.incrementAndGet();
+    }
+
     /**
      * Cleanup idle connections periodically
      */
     private void cleanupIdleConnections() {
         try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(maxIdleTimeMinutes);
+            LocalDateTime idleCutoff = LocalDateTime.now().minusMinutes(maxIdleTimeMinutes);
             int totalClosed = 0;
-            
-            for (String bankName : connectionPools.keySet()) {
-                ConcurrentLinkedQueue<SftpConnection> pool = connectionPools.get(bankName);
-                if (pool == null) continue;
-                
+
+            for (Map.Entry<SftpConnectionKey, KeyedPool> entry : connectionPools.entrySet()) {
+                KeyedPool pool = entry.getValue();
                 int closedCount = 0;
-                ConcurrentLinkedQueue<SftpConnection> activeConnections = new ConcurrentLinkedQueue<>();
-                
-                while (!pool.isEmpty()) {
-                    SftpConnection connection = pool.poll();
-                    if (connection != null) {
-                        if (connection.isInUse() || 
-                            connection.getLastUsedTime().isAfter(cutoffTime) && connection.isConnected()) {
-                            // Keep active or recently used connections
-                            activeConnections.offer(connection);
-                        } else {
-                            // Close idle or disconnected connections
-                            connection.disconnect();
-                            closedCount++;
-                        }
+
+                for (SftpConnection connection : pool.idle) {
+                    boolean evict = connection.getLastUsedTime().isBefore(idleCutoff) ||
+                                    isExpired(connection) || !connection.isConnected();
+                    // remove() only succeeds if no borrower took the connection in the meantime
+                    if (evict && pool.idle.remove(connection)) {
+                        destroy(pool, connection);
+                        closedCount++;
                     }
                 }
-                
-                // Replace pool contents with active connections
-                pool.addAll(activeConnections);
-                
+
                 if (closedCount > 0) {
-                    logger.debug("Cleaned up {} idle connections for bank: {}", closedCount, bankName);
+                    logger.debug("Cleaned up {} idle connections for {}", closedCount, entry.getKey());
                     totalClosed += closedCount;
                 }
             }
-            
+
             if (totalClosed > 0) {
                 logger.info("Connection pool cleanup completed: {} connections closed", totalClosed);
             }
-            
+
         } catch (Exception e) {
             logger.error("Error during connection pool cleanup", e);
         }
     }
-    
+
+    /**
+     * Per-key pool state: idle connections plus a semaphore bounding borrowed connections
+     */
+    private static class KeyedPool {
+        private final Semaphore permits;
+        private final ConcurrentLinkedDeque<SftpConnection> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong reused = new AtomicLong();
+        private final AtomicLong destroyed = new AtomicLong();
+        private final AtomicLong validationFailures = new AtomicLong();
+        private final AtomicLong borrowTimeouts = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+
+        private KeyedPool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+
     /**
      * Pool statistics holder
      */
     public static class PoolStatistics {
-        private final ConcurrentHashMap<String, BankStats> bankStats = new ConcurrentHashMap<>();
-        
-        public void addBankStats(String bankName, int totalConnections, int activeConnections) {
-            bankStats.put(bankName, new BankStats(totalConnections, activeConnections));
+        private final ConcurrentHashMap<String, KeyStats> keyStats = new ConcurrentHashMap<>();
+
+        public void addKeyStats(String key, KeyStats stats) {
+            keyStats.put(key, stats);
         }
-        
+
         public int getTotalConnections() {
-            return bankStats.values().stream()
-                .mapToInt(stats -> stats.totalConnections)
+            return keyStats.values().stream()
+                .mapToInt(stats -> stats.idleConnections + stats.activeConnections)
                 .sum();
         }
-        
+
         public int getActiveConnections() {
-            return bankStats.values().stream()
+            return keyStats.values().stream()
                 .mapToInt(stats -> stats.activeConnections)
                 .sum();
         }
-        
-        public ConcurrentHashMap<String, BankStats> getBankStats() {
-            return bankStats;
+
+        public ConcurrentHashMap<String, KeyStats> getKeyStats() {
+            return keyStats;
         }
-        
-        public static class BankStats {
-            public final int totalConnections;
+
+        public static class KeyStats {
+            public final int idleConnections;
             public final int activeConnections;
-            
-            public BankStats(int totalConnections, int activeConnections) {
-                this.totalConnections = totalConnections;
+            public final int maxConnections;
+            public final long connectionsCreated;
+            public final long connectionsReused;
+            public final long connectionsDestroyed;
+            public final long validationFailures;
+            public final long borrowTimeouts;
+            public final long averageWaitMillis;
+
+            public KeyStats(int idleConnections, int activeConnections, int maxConnections,
+                            long connectionsCreated, long connectionsReused, long connectionsDestroyed,
+                            long validationFailures, long borrowTimeouts, long averageWaitMillis) {
+                this.idleConnections = idleConnections;
                 this.activeConnections = activeConnections;
+                this.maxConnections = maxConnections;
+                this.connectionsCreated = connectionsCreated;
+                this.connectionsReused = connectionsReused;
+                this.connectionsDestroyed = connectionsDestroyed;
+                this.validationFailures = validationFailures;
+                this.borrowTimeouts = borrowTimeouts;
+                this.averageWaitMillis = averageWaitMillis;
             }
         }
     }
-}
\ No newline at end of file
+}
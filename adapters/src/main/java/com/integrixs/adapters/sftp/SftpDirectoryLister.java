@@ -0,0 +1,136 @@
+package com.integrixs.adapters.sftp;
+
+import com.integrixs.core.logging.EnhancedLogger;
+import com.integrixs.shared.util.FileUtils;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Lists the files of a remote directory that match a wildcard pattern without
+ * materializing the whole directory.
+ *
+ * Entries are filtered as the server returns them, through a matcher compiled once per
+ * listing, and only matches are kept. Reading stops once maxFiles matches are collected;
+ * the rest are picked up by later polls as processed files leave the directory.
+ *
+ * Listings that found nothing can be cached against the directory's modification time.
+ * While it is unchanged no file has been added, removed or renamed in the directory, so
+ * an idle poll costs one stat instead of a full scan. Directory mtimes have one-second
+ * resolution, so a cached result is trusted for at most the cache TTL.
+ */
+@Component
+public class SftpDirectoryLister {
+
+    private static final EnhancedLogger logger = EnhancedLogger.getLogger(SftpDirectoryLister.class);
+
+    private final int defaultMaxFilesPerPoll;
+    private final long cacheTtlMillis;
+    private final ConcurrentHashMap<String, EmptyListing> emptyListings = new ConcurrentHashMap<>();
+    private final AtomicLong listings = new AtomicLong();
+    private final AtomicLong entriesScanned = new AtomicLong();
+    private final AtomicLong cappedListings = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    /**
+     * Fingerprint of a directory whose last full scan found no matching file
+     */
+    private static final class EmptyListing {
+        private final int directoryMtime;
+        private final long entryCount;
+        private final long listedAtNanos;
+
+        private EmptyListing(int directoryMtime, long entryCount) {
+            this.directoryMtime = directoryMtime;
+            this.entryCount = entryCount;
+            this.listedAtNanos = System.nanoTime();
+        }
+    }
+
+    public SftpDirectoryLister(@Value("${h2h.sftp.listing.max-files-per-poll:10000}") int defaultMaxFilesPerPoll,
+                               @Value("${h2h.sftp.listing.cache-ttl-ms:300000}") long cacheTtlMillis) {
+        this.defaultMaxFilesPerPoll = defaultMaxFilesPerPoll;
+        this.cacheTtlMillis = cacheTtlMillis;
+    }
+
+    /**
+     * Files per poll when the adapter does not configure maxFilesPerPoll
+     */
+    public int getDefaultMaxFilesPerPoll() {
+        return defaultMaxFilesPerPoll;
+    }
+
+    /**
+     * Matching regular files in the directory, in server order
+     *
+     * @param cacheKey identifies the directory and pattern for the empty-listing cache, or null to bypass it
+     * @param maxFiles stop after this many matches; zero or less for no limit
+     */
+    public List<ChannelSftp.LsEntry> listMatching(ChannelSftp channel, String directory, String pattern,
+                                                  int maxFiles, String cacheKey) throws SftpException {
+        SftpATTRS directoryAttrs = null;
+        if (cacheKey != null) {
+            directoryAttrs = channel.stat(directory);
+            EmptyListing cached = emptyListings.get(cacheKey);
+            if (cached != null && cached.directoryMtime == directoryAttrs.getMTime()
+                    && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cached.listedAtNanos) < cacheTtlMillis) {
+                cacheHits.incrementAndGet();
+                logger.debug("Directory {} unchanged since last empty listing ({} entries), skipping scan",
+                           directory, cached.entryCount);
+                return new ArrayList<>();
+            }
+        }
+
+        Predicate<String> matcher = FileUtils.compileWildcard(pattern);
+        List<ChannelSftp.LsEntry> matches = new ArrayList<>();
+        long[] scanned = {0};
+
+        channel.ls(directory, entry -> {
+            scanned[0]++;
+            if (entry.getAttrs().isDir() || !matcher.test(entry.getFilename())) {
+                return ChannelSftp.LsEntrySelector.CONTINUE;
+            }
+            matches.add(entry);
+            return maxFiles > 0 && matches.size() >= maxFiles
+                ? ChannelSftp.LsEntrySelector.BREAK
+                : ChannelSftp.LsEntrySelector.CONTINUE;
+        });
+
+        listings.incrementAndGet();
+        entriesScanned.addAndGet(scanned[0]);
+        if (maxFiles > 0 && matches.size() >= maxFiles) {
+            cappedListings.incrementAndGet();
+            logger.info("Listing of {} capped at {} files, remaining files are left for the next poll", directory, maxFiles);
+        }
+
+        if (cacheKey != null) {
+            if (matches.isEmpty()) {
+                emptyListings.put(cacheKey, new EmptyListing(directoryAttrs.getMTime(), scanned[0]));
+            } else {
+                emptyListings.remove(cacheKey);
+            }
+        }
+        return matches;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("listings", listings.get());
+        stats.put("entriesScanned", entriesScanned.get());
+        stats.put("cappedListings", cappedListings.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("cachedEmptyDirectories", emptyListings.size());
+        return stats;
+    }
+}
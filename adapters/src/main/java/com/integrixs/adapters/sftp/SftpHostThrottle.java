@@ -0,0 +1,246 @@
+package com.integrixs.adapters.sftp;
+
+import com.integrixs.core.logging.EnhancedLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits what all SFTP adapters together put on one partner host, whatever user or
+ * credentials they connect with: at most maxSessions concurrently borrowed sessions, and
+ * transfer streams throttled by a token bucket of bytesPerSecond shared by every stream
+ * to the host (burst capacity of one second).
+ *
+ * Defaults apply to every host; individual hosts are overridden with
+ * h2h.sftp.throttle.hosts, e.g. "sftp.bank-a.com=1048576/4, sftp.bank-b.com=0/2"
+ * (bytes per second / max sessions, 0 = unlimited).
+ */
+@Component
+public class SftpHostThrottle {
+
+    private static final EnhancedLogger logger = EnhancedLogger.getLogger(SftpHostThrottle.class);
+
+    // Largest read granted at once, so throttled streams advance smoothly
+    private static final int MAX_CHUNK_BYTES = 32 * 1024;
+
+    private final long defaultBytesPerSecond;
+    private final int defaultMaxSessions;
+    private final long sessionWaitTimeoutMillis;
+    private final Map<String, long[]> hostOverrides;
+    private final ConcurrentHashMap<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private static final class HostState {
+        private final long bytesPerSecond;
+        private final int maxSessions;
+        private final TokenBucket bucket;
+        private final Semaphore sessions;
+        private final AtomicInteger activeSessions = new AtomicInteger();
+        private final AtomicLong sessionsAcquired = new AtomicLong();
+        private final AtomicLong sessionWaitNanos = new AtomicLong();
+        private final AtomicLong sessionTimeouts = new AtomicLong();
+        private final AtomicLong bytesTransferred = new AtomicLong();
+        private final AtomicLong throttleNanos = new AtomicLong();
+
+        private HostState(long bytesPerSecond, int maxSessions) {
+            this.bytesPerSecond = bytesPerSecond;
+            this.maxSessions = maxSessions;
+            this.bucket = bytesPerSecond > 0 ? new TokenBucket(bytesPerSecond) : null;
+            this.sessions = maxSessions > 0 ? new Semaphore(maxSessions, true) : null;
+        }
+    }
+
+    /**
+     * Token bucket that lets callers go into debt: a reservation always succeeds and
+     * returns how long the caller must wait before using the bytes
+     */
+    private static final class TokenBucket {
+        private final double bytesPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private TokenBucket(long bytesPerSecond) {
+            this.bytesPerNano = bytesPerSecond / 1e9;
+            this.capacity = bytesPerSecond;
+            this.tokens = bytesPerSecond;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        private synchronized long reserve(long bytes) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * bytesPerNano);
+            lastRefillNanos = now;
+            tokens -= bytes;
+            return tokens >= 0 ? 0 : (long) (-tokens / bytesPerNano);
+        }
+    }
+
+    public SftpHostThrottle(
+            @Value("${h2h.sftp.throttle.bytes-per-second:0}") long defaultBytesPerSecond,
+            @Value("${h2h.sftp.throttle.max-sessions-per-host:0}") int defaultMaxSessions,
+            @Value("${h2h.sftp.throttle.session-wait-ms:60000}") long sessionWaitTimeoutMillis,
+            @Value("${h2h.sftp.throttle.hosts:}") String hostOverrides) {
+        this.defaultBytesPerSecond = Math.max(0, defaultBytesPerSecond);
+        this.defaultMaxSessions = Math.max(0, defaultMaxSessions);
+        this.sessionWaitTimeoutMillis = sessionWaitTimeoutMillis;
+        this.hostOverrides = parseHostOverrides(hostOverrides);
+
+        logger.info("SFTP host throttle initialized with bytesPerSecond={}, maxSessionsPerHost={}, {} host override(s)",
+                   this.defaultBytesPerSecond, this.defaultMaxSessions, this.hostOverrides.size());
+    }
+
+    /**
+     * Take a session slot for the host, waiting up to the session wait timeout
+     *
+     * @throws SftpAdapterException if no slot became free in time
+     */
+    public void acquireSession(String host) throws SftpAdapterException {
+        HostState state = state(host);
+        if (state.sessions != null) {
+            long waitStart = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = state.sessions.tryAcquire(sessionWaitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SftpAdapterException("Interrupted while waiting for an SFTP session slot", e, "BORROW", host);
+            } finally {
+                state.sessionWaitNanos.addAndGet(System.nanoTime() - waitStart);
+            }
+            if (!acquired) {
+                state.sessionTimeouts.incrementAndGet();
+                throw new SftpAdapterException(String.format(
+                    "Timed out after %dms waiting for an SFTP session slot (%d sessions to this host in use)",
+                    sessionWaitTimeoutMillis, state.maxSessions), "BORROW", host);
+            }
+        }
+        state.activeSessions.incrementAndGet();
+        state.sessionsAcquired.incrementAndGet();
+    }
+
+    public void releaseSession(String host) {
+        HostState state = state(host);
+        state.activeSessions.decrementAndGet();
+        if (state.sessions != null) {
+            state.sessions.release();
+        }
+    }
+
+    /**
+     * Wrap a transfer stream so that reading from it draws on the host's bandwidth budget
+     */
+    public InputStream throttle(String host, InputStream in) {
+        HostState state = state(host);
+        return state.bucket != null ? new ThrottledInputStream(in, state) : in;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> byHost = new LinkedHashMap<>();
+        hosts.forEach((host, state) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("bytesPerSecond", state.bytesPerSecond);
+            stats.put("maxSessions", state.maxSessions);
+            stats.put("activeSessions", state.activeSessions.get());
+            stats.put("sessionsAcquired", state.sessionsAcquired.get());
+            stats.put("sessionWaitMillis", TimeUnit.NANOSECONDS.toMillis(state.sessionWaitNanos.get()));
+            stats.put("sessionTimeouts", state.sessionTimeouts.get());
+            stats.put("bytesThrottled", state.bytesTransferred.get());
+            stats.put("throttleWaitMillis", TimeUnit.NANOSECONDS.toMillis(state.throttleNanos.get()));
+            byHost.put(host, stats);
+        });
+        return byHost;
+    }
+
+    private HostState state(String host) {
+        String key = host.toLowerCase(Locale.ROOT);
+        return hosts.computeIfAbsent(key, h -> {
+            long[] limits = hostOverrides.get(h);
+            return limits != null
+                ? new HostState(limits[0], (int) limits[1])
+                : new HostState(defaultBytesPerSecond, defaultMaxSessions);
+        });
+    }
+
+    private static Map<String, long[]> parseHostOverrides(String spec) {
+        Map<String, long[]> overrides = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return overrides;
+        }
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            int eq = trimmed.indexOf('=');
+            int slash = trimmed.indexOf('/', eq + 1);
+            if (eq <= 0 || slash < 0) {
+                logger.warn("Ignoring malformed SFTP throttle override '{}', expected host=bytesPerSecond/maxSessions", trimmed);
+                continue;
+            }
+            try {
+                long bytesPerSecond = Long.parseLong(trimmed.substring(eq + 1, slash).trim());
+                long maxSessions = Long.parseLong(trimmed.substring(slash + 1).trim());
+                overrides.put(trimmed.substring(0, eq).trim().toLowerCase(Locale.ROOT),
+                    new long[] {Math.max(0, bytesPerSecond), Math.max(0, maxSessions)});
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed SFTP throttle override '{}': {}", trimmed, e.getMessage());
+            }
+        }
+        return overrides;
+    }
+
+    /**
+     * Charges every read against the host's token bucket and sleeps off any debt
+     */
+    private static final class ThrottledInputStream extends FilterInputStream {
+        private final HostState state;
+
+        private ThrottledInputStream(InputStream in, HostState state) {
+            super(in);
+            this.state = state;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                charge(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, Math.min(length, MAX_CHUNK_BYTES));
+            if (n > 0) {
+                charge(n);
+            }
+            return n;
+        }
+
+        private void charge(int bytes) throws IOException {
+            state.bytesTransferred.addAndGet(bytes);
+            long waitNanos = state.bucket.reserve(bytes);
+            if (waitNanos <= 0) {
+                return;
+            }
+            state.throttleNanos.addAndGet(waitNanos);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling SFTP transfer");
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.integrixs.adapters.sftp;
+
+import com.integrixs.core.logging.EnhancedLogger;
+import com.jcraft.jsch.ChannelSftp;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the per-file work of one SFTP adapter execution on several SFTP channels at once.
+ *
+ * Extra channels are opened on the SSH session of the already borrowed pooled connection,
+ * so parallel transfers cost no additional handshakes or TCP connections. The calling
+ * thread works on the connection's own channel; helper threads each open one channel and
+ * take files from the same list until it is exhausted. Results are returned in input order.
+ *
+ * Extra channels per host are capped across all executions. When the cap, the worker
+ * threads or the server's session limit are exhausted, the transfer simply proceeds with
+ * fewer channels - it never waits for capacity.
+ */
+@Component
+public class SftpParallelTransfer {
+
+    private static final EnhancedLogger logger = EnhancedLogger.getLogger(SftpParallelTransfer.class);
+
+    private static final int CHANNEL_CONNECT_TIMEOUT_MS = 30000;
+
+    /**
+     * Work for one file on the given channel. Implementations report per-file failures in
+     * their result; an exception thrown here is treated as a result-less failure of that file.
+     */
+    @FunctionalInterface
+    public interface FileTask<I, R> {
+        R transfer(ChannelSftp channel, I item) throws Exception;
+    }
+
+    /**
+     * Builds the result for an item whose task threw
+     */
+    @FunctionalInterface
+    public interface FailureHandler<I, R> {
+        R failed(I item, Exception error);
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final int maxChannelsPerHost;
+    private final ConcurrentHashMap<String, Semaphore> hostChannels = new ConcurrentHashMap<>();
+    private final AtomicLong channelsOpened = new AtomicLong();
+    private final AtomicLong channelsDenied = new AtomicLong();
+    private final AtomicLong parallelTransfers = new AtomicLong();
+
+    public SftpParallelTransfer(
+            @Value("${h2h.sftp.transfer.max-threads:16}") int maxThreads,
+            @Value("${h2h.sftp.transfer.max-channels-per-host:8}") int maxChannelsPerHost) {
+        this.maxChannelsPerHost = Math.max(0, maxChannelsPerHost);
+        AtomicInteger threadCount = new AtomicInteger();
+        // No queue: a helper either starts immediately or is not used at all
+        this.workers = new ThreadPoolExecutor(0, Math.max(1, maxThreads), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "SftpTransfer-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+        logger.info("SFTP parallel transfer initialized with maxThreads={}, maxChannelsPerHost={}",
+                   maxThreads, this.maxChannelsPerHost);
+    }
+
+    /**
+     * Process every item, using up to parallelism channels of the connection's SSH session
+     *
+     * @param onFailure builds the result for an item whose task threw
+     * @return one result per item, in input order
+     */
+    public <I, R> List<R> transferAll(SftpConnection connection, List<I> items, int parallelism,
+                                      FileTask<I, R> task, FailureHandler<I, R> onFailure) {
+        Object[] results = new Object[items.size()];
+        AtomicInteger nextIndex = new AtomicInteger();
+        ChannelSftp primaryChannel = connection.getChannel();
+
+        int helpers = Math.min(parallelism, items.size()) - 1;
+        List<Future<?>> started = new ArrayList<>();
+        if (helpers > 0) {
+            parallelTransfers.incrementAndGet();
+            Semaphore hostPermits = hostChannels.computeIfAbsent(connection.getKey().getHost(),
+                host -> new Semaphore(maxChannelsPerHost));
+            String workingDirectory = currentDirectory(primaryChannel);
+
+            for (int i = 0; i < helpers; i++) {
+                if (!hostPermits.tryAcquire()) {
+                    channelsDenied.incrementAndGet();
+                    logger.debug("Per-host channel cap reached for {}, continuing with {} channels",
+                               connection.getKey().getHost(), started.size() + 1);
+                    break;
+                }
+                try {
+                    started.add(workers.submit(() -> {
+                        try {
+                            runHelper(connection, workingDirectory, items, results, nextIndex, task, onFailure);
+                        } finally {
+                            hostPermits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    hostPermits.release();
+                    channelsDenied.incrementAndGet();
+                    break;
+                }
+            }
+        }
+
+        drain(primaryChannel, items, results, nextIndex, task, onFailure);
+        awaitHelpers(started);
+
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return ordered;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("parallelTransfers", parallelTransfers.get());
+        stats.put("channelsOpened", channelsOpened.get());
+        stats.put("channelsDenied", channelsDenied.get());
+        stats.put("activeWorkers", workers.getActiveCount());
+        Map<String, Integer> inUseByHost = new LinkedHashMap<>();
+        hostChannels.forEach((host, permits) -> inUseByHost.put(host, maxChannelsPerHost - permits.availablePermits()));
+        stats.put("channelsInUseByHost", inUseByHost);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private <I, R> void runHelper(SftpConnection connection, String workingDirectory, List<I> items, Object[] results,
+                                  AtomicInteger nextIndex, FileTask<I, R> task, FailureHandler<I, R> onFailure) {
+        if (nextIndex.get() >= items.size()) {
+            return;
+        }
+        ChannelSftp channel = null;
+        try {
+            channel = (ChannelSftp) connection.getSession().openChannel("sftp");
+            channel.connect(CHANNEL_CONNECT_TIMEOUT_MS);
+            if (workingDirectory != null) {
+                channel.cd(workingDirectory);
+            }
+            channelsOpened.incrementAndGet();
+        } catch (Exception e) {
+            // Typically the server's per-session channel limit; the remaining channels carry on
+            logger.debug("Could not open additional SFTP channel to {}: {}", connection.getKey().getHost(), e.getMessage());
+            if (channel != null) {
+                channel.disconnect();
+            }
+            return;
+        }
+
+        try {
+            drain(channel, items, results, nextIndex, task, onFailure);
+        } finally {
+            channel.disconnect();
+        }
+    }
+
+    private static <I, R> void drain(ChannelSftp channel, List<I> items, Object[] results, AtomicInteger nextIndex,
+                                     FileTask<I, R> task, FailureHandler<I, R> onFailure) {
+        int index;
+        while ((index = nextIndex.getAndIncrement()) < items.size()) {
+            I item = items.get(index);
+            try {
+                results[index] = task.transfer(channel, item);
+            } catch (Exception e) {
+                results[index] = onFailure.failed(item, e);
+            }
+        }
+    }
+
+    /**
+     * Wait for every helper; each is already running and finishes with its current file,
+     * so an interrupt is deferred rather than leaving results half-filled
+     */
+    private static void awaitHelpers(List<Future<?>> started) {
+        boolean interrupted = false;
+        for (Future<?> future : started) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    logger.warn("SFTP transfer worker failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String currentDirectory(ChannelSftp channel) {
+        try {
+            return channel.pwd();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -2,16 +2,20 @@ package com.integrixs.adapters.sftp;
 
 import com.integrixs.core.adapter.AbstractAdapterExecutor;
 import com.integrixs.core.util.AdapterConfigUtil;
-import com.integrixs.core.util.SftpConnectionUtil;
 import com.integrixs.shared.model.Adapter;
 import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.ProcessedFileRecord;
 import com.integrixs.shared.model.SshKey;
+import com.integrixs.shared.model.value.FilePayload;
+import com.integrixs.core.repository.ProcessedFileRecordRepository;
 import com.integrixs.core.repository.SshKeyRepository;
 import com.jcraft.jsch.ChannelSftp;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -34,10 +38,20 @@ import org.springframework.stereotype.Component;
 public class SftpReceiverAdapter extends AbstractAdapterExecutor {
     
     private final SshKeyRepository sshKeyRepository;
+    private final SftpConnectionPool connectionPool;
+    private final SftpParallelTransfer parallelTransfer;
+    private final SftpResumableTransfer resumableTransfer;
+    private final ProcessedFileRecordRepository processedFileRecordRepository;
     
     @Autowired
-    public SftpReceiverAdapter(SshKeyRepository sshKeyRepository) {
+    public SftpReceiverAdapter(SshKeyRepository sshKeyRepository, SftpConnectionPool connectionPool,
+                               SftpParallelTransfer parallelTransfer, SftpResumableTransfer resumableTransfer,
+                               ProcessedFileRecordRepository processedFileRecordRepository) {
         this.sshKeyRepository = sshKeyRepository;
+        this.connectionPool = connectionPool;
+        this.parallelTransfer = parallelTransfer;
+        this.resumableTransfer = resumableTransfer;
+        this.processedFileRecordRepository = processedFileRecordRepository;
     }
     
     @Override
@@ -75,96 +89,71 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
         String targetDirectory = AdapterConfigUtil.getStringConfig(config, "targetDirectory", true, null);
         logger.info("Configuration - Target Directory: {}", targetDirectory);
         
-        ChannelSftp sftpChannel = null;
+        SftpConnection connection = null;
+        boolean connectionHealthy = true;
         
         try {
             // Enhance configuration with SSH key data if needed
             Map<String, Object> enhancedConfig = enhanceSftpConfigWithSshKey(config);
 
-            // Create SFTP connection using reusable utility with enhanced configuration
-            sftpChannel = SftpConnectionUtil.createSftpConnection(enhancedConfig);
+            // Borrow a pooled SFTP connection for the enhanced configuration
+            connection = connectionPool.borrowConnection(enhancedConfig);
+            ChannelSftp sftpChannel = connection.getChannel();
             logger.info("SFTP connection established successfully");
 
             // Phase 3.1: Ensure remote directory exists (if configured)
             ensureRemoteDirectoryExists(sftpChannel, targetDirectory, config);
 
-            // Upload all files to remote directory
+            int parallelism = Math.max(1, AdapterConfigUtil.getIntConfig(config, "transferParallelism", 1));
+            if (parallelism > 1) {
+                logger.info("Uploading with up to {} parallel SFTP channels", parallelism);
+            }
+
+            String host = connection.getKey().getHost();
+            UUID adapterId = adapter.getId();
+            UUID executionId = step != null ? step.getExecutionId() : null;
+            boolean resumable = AdapterConfigUtil.getBooleanConfig(config, "resumableTransfers", true);
+
+            // Upload all files to remote directory - results come back in input order
+            List<Map<String, Object>> results = parallelTransfer.transferAll(connection, filesToProcess, parallelism,
+                (channel, fileData) -> uploadFile(channel, fileData, targetDirectory, config,
+                                                  host, adapterId, executionId, resumable),
+                (fileData, e) -> uploadError((String) fileData.get("fileName"), e));
+
             List<Map<String, Object>> uploadedFiles = new ArrayList<>();
+            List<ProcessedFileRecord> processedRecords = new ArrayList<>();
             long totalBytes = 0;
+            long bytesResumed = 0;
             int successCount = 0;
             int errorCount = 0;
 
-            for (Map<String, Object> fileData : filesToProcess) {
-                String fileName = (String) fileData.get("fileName");
-                byte[] fileContent = (byte[]) fileData.get("fileContent");
-
-                try {
-                    if (fileContent == null) {
-                        logger.error("File content is null for file: {}", fileName);
-                        errorCount++;
-                        continue;
-                    }
-
-                    // Phase 3.4: Generate output filename based on configured mode
-                    String outputFileName = generateSftpOutputFileName(fileName, config);
-
-                    // Create temporary local file for upload
-                    Path tempFile = Files.createTempFile("sftp_upload_", fileName);
-                    Files.write(tempFile, fileContent);
-
-                    // Phase 3.2 & 3.3: Upload file with configured options
-                    String remoteFilePath = uploadFileToRemote(sftpChannel, tempFile, targetDirectory,
-                                                               outputFileName, fileContent.length, config);
-
-                    // Verify upload by checking remote file size
-                    long remoteSize = sftpChannel.lstat(remoteFilePath).getSize();
-                    long localSize = fileContent.length;
-                    
-                    if (remoteSize == localSize) {
-                        Map<String, Object> uploadResult = new HashMap<>();
-                        uploadResult.put("fileName", fileName);
-                        uploadResult.put("outputFileName", outputFileName);
-                        uploadResult.put("status", "UPLOADED");
-                        uploadResult.put("remoteFilePath", remoteFilePath);
-                        uploadResult.put("fileSize", localSize);
-
-                        uploadedFiles.add(uploadResult);
-                        totalBytes += localSize;
-                        successCount++;
-
-                        // Add to step tracking
-                        if (step != null) {
-                            step.addFileProcessed(fileName, "UPLOADED_TO_SFTP", localSize);
-                        }
-
-                        logger.info("Successfully uploaded: {} -> {} ({} bytes) to {}", fileName, outputFileName, localSize, remoteFilePath);
-                    } else {
-                        logger.error("Upload verification failed for {}: local size {} != remote size {}", 
-                                   fileName, localSize, remoteSize);
-                        
-                        Map<String, Object> errorResult = new HashMap<>();
-                        errorResult.put("fileName", fileName);
-                        errorResult.put("status", "VERIFICATION_FAILED");
-                        errorResult.put("errorMessage", "Remote file size mismatch");
-                        uploadedFiles.add(errorResult);
-                        errorCount++;
-                    }
-                    
-                    // Clean up temporary file
-                    Files.deleteIfExists(tempFile);
-                    
-                } catch (Exception e) {
-                    logger.error("Error uploading file {}: {}", fileName, e.getMessage(), e);
-                    
-                    Map<String, Object> errorResult = new HashMap<>();
-                    errorResult.put("fileName", fileName);
-                    errorResult.put("status", "UPLOAD_ERROR");
-                    errorResult.put("errorMessage", e.getMessage());
-                    uploadedFiles.add(errorResult);
+            for (Map<String, Object> uploadResult : results) {
+                if (uploadResult == null) {
+                    // File had no content; already logged
                     errorCount++;
+                    continue;
+                }
+                uploadedFiles.add(uploadResult);
+                if (step != null) {
+                    processedRecords.add(toProcessedFileRecord(step.getExecutionId(), uploadResult, targetDirectory, config));
+                }
+                if (!"UPLOADED".equals(uploadResult.get("status"))) {
+                    errorCount++;
+                    continue;
+                }
+                long localSize = (Long) uploadResult.get("fileSize");
+                totalBytes += localSize;
+                bytesResumed += (Long) uploadResult.get("bytesResumed");
+                successCount++;
+
+                // Add to step tracking
+                if (step != null) {
+                    step.addFileProcessed((String) uploadResult.get("fileName"), "UPLOADED_TO_SFTP", localSize);
                 }
             }
             
+            recordProcessedFiles(processedRecords);
+
             // Create success result
             Map<String, Object> result = createSuccessResult(successCount, errorCount, totalBytes,
                 String.format("SFTP receiver completed: %d/%d files uploaded successfully", 
@@ -172,6 +161,7 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
             
             result.put("uploadedFiles", uploadedFiles);
             result.put("targetDirectory", targetDirectory);
+            result.put("bytesSavedByResume", bytesResumed);
             
             logger.info("✓ Files uploaded: {}/{}", successCount, filesToProcess.size());
             logger.info("✓ Total bytes uploaded: {}", totalBytes);
@@ -179,11 +169,17 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
             return result;
             
         } catch (Exception e) {
+            // Don't hand a connection that failed mid-operation to the next borrower
+            connectionHealthy = false;
             logger.error("SFTP receiver execution failed: {}", e.getMessage(), e);
             throw new RuntimeException("SFTP receiver execution failed: " + e.getMessage(), e);
         } finally {
-            // Cleanup SFTP connection
-            SftpConnectionUtil.closeSftpConnection(sftpChannel);
+            // Return SFTP connection to the pool
+            if (connectionHealthy) {
+                connectionPool.returnConnection(connection);
+            } else {
+                connectionPool.invalidateConnection(connection);
+            }
         }
     }
     
@@ -328,6 +324,142 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
     // PHASE 3: SFTP RECEIVER REMOTE OPERATIONS
     // ==================================================================================
 
+    /**
+     * Upload one file on the given channel, computing its SHA-256 and byte count from the
+     * stream being sent. The upload is verified against the payload's known size and checksum;
+     * a remote size check (one extra round-trip) runs only when remoteVerification is SIZE.
+     *
+     * @return the upload result, or null if the file has no content
+     */
+    private Map<String, Object> uploadFile(ChannelSftp sftpChannel, Map<String, Object> fileData,
+                                           String targetDirectory, Map<String, Object> config,
+                                           String host, UUID adapterId, UUID executionId, boolean resumable) throws Exception {
+        String fileName = (String) fileData.get("fileName");
+        FilePayload payload = FilePayload.fromFileData(fileData);
+
+        if (payload == null) {
+            logger.error("File content is null for file: {}", fileName);
+            return null;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        // Phase 3.4: Generate output filename based on configured mode
+        String outputFileName = generateSftpOutputFileName(fileName, config);
+
+        // Phase 3.2 & 3.3: Upload file with configured options, digesting the stream as it is sent
+        String remoteFilePath;
+        long bytesSent;
+        String sha256;
+        SftpResumableTransfer.Upload upload = resumableTransfer.upload(host, adapterId, executionId, resumable, payload);
+        try (DigestingInputStream in = new DigestingInputStream(payload.openStream())) {
+            remoteFilePath = uploadFileToRemote(sftpChannel, in, upload, targetDirectory, outputFileName, config);
+            bytesSent = in.getByteCount();
+            sha256 = in.getSha256();
+        }
+
+        String verificationError = verifyUpload(sftpChannel, config, payload, remoteFilePath, bytesSent, sha256);
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+        Map<String, Object> uploadResult = new HashMap<>();
+        uploadResult.put("fileName", fileName);
+        uploadResult.put("remoteFilePath", remoteFilePath);
+        uploadResult.put("sha256", sha256);
+        uploadResult.put("startedAt", startedAt);
+        uploadResult.put("durationMs", durationMs);
+
+        if (verificationError != null) {
+            logger.error("Upload verification failed for {}: {}", fileName, verificationError);
+            uploadResult.put("status", "VERIFICATION_FAILED");
+            uploadResult.put("errorMessage", verificationError);
+            return uploadResult;
+        }
+
+        uploadResult.put("outputFileName", outputFileName);
+        uploadResult.put("status", "UPLOADED");
+        uploadResult.put("fileSize", bytesSent);
+        uploadResult.put("bytesResumed", upload.getBytesResumed());
+
+        logger.info("Successfully uploaded: {} -> {} ({} bytes, sha256 {}) to {}",
+                   fileName, outputFileName, bytesSent, sha256, remoteFilePath);
+        return uploadResult;
+    }
+
+    /**
+     * @return null if the upload checks out, otherwise the reason it does not
+     */
+    private String verifyUpload(ChannelSftp sftpChannel, Map<String, Object> config, FilePayload payload,
+                                String remoteFilePath, long bytesSent, String sha256) throws Exception {
+        if (bytesSent != payload.getSize()) {
+            return String.format("sent %d bytes but payload has %d", bytesSent, payload.getSize());
+        }
+        if (payload.getSha256() != null && !payload.getSha256().equals(sha256)) {
+            return "checksum of sent content does not match payload checksum " + payload.getSha256();
+        }
+
+        String remoteVerification = AdapterConfigUtil.getStringConfig(config, "remoteVerification", false, "NONE");
+        if ("SIZE".equalsIgnoreCase(remoteVerification)) {
+            long remoteSize = sftpChannel.lstat(remoteFilePath).getSize();
+            if (remoteSize != bytesSent) {
+                return String.format("remote size %d != sent size %d", remoteSize, bytesSent);
+            }
+        }
+        return null;
+    }
+    
+    private ProcessedFileRecord toProcessedFileRecord(UUID executionId, Map<String, Object> uploadResult,
+                                                      String targetDirectory, Map<String, Object> config) {
+        boolean uploaded = "UPLOADED".equals(uploadResult.get("status"));
+        String fileName = (String) uploadResult.get("fileName");
+        String remoteFilePath = (String) uploadResult.get("remoteFilePath");
+
+        ProcessedFileRecord record = new ProcessedFileRecord(executionId, fileName,
+            remoteFilePath != null ? remoteFilePath : targetDirectory + "/" + fileName,
+            uploaded ? ProcessedFileRecord.STATUS_COMPLETED : ProcessedFileRecord.STATUS_FAILED);
+        record.setFileSize((Long) uploadResult.get("fileSize"));
+        record.setFileHash((String) uploadResult.get("sha256"));
+        record.setErrorMessage((String) uploadResult.get("errorMessage"));
+
+        Long startedAt = (Long) uploadResult.get("startedAt");
+        Long durationMs = (Long) uploadResult.get("durationMs");
+        record.setProcessingDurationMs(durationMs);
+        if (startedAt != null && durationMs != null) {
+            record.setProcessingStartTime(toLocalDateTime(startedAt));
+            record.setProcessingEndTime(toLocalDateTime(startedAt + durationMs));
+        }
+
+        boolean useTemporaryFileName = AdapterConfigUtil.getBooleanConfig(config, "useTemporaryFileName", false);
+        record.setOperationsPerformed(useTemporaryFileName ? "[\"SFTP_UPLOAD\", \"RENAME\"]" : "[\"SFTP_UPLOAD\"]");
+        return record;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Write the audit rows for this execution in one batch; the upload itself has already
+     * succeeded or failed, so a failure here is logged rather than failing the execution
+     */
+    private void recordProcessedFiles(List<ProcessedFileRecord> records) {
+        try {
+            processedFileRecordRepository.saveAll(records);
+        } catch (Exception e) {
+            logger.warn("Failed to record {} processed files: {}", records.size(), e.getMessage());
+        }
+    }
+    
+    private Map<String, Object> uploadError(String fileName, Exception e) {
+        logger.error("Error uploading file {}: {}", fileName, e.getMessage(), e);
+        
+        Map<String, Object> errorResult = new HashMap<>();
+        errorResult.put("fileName", fileName);
+        errorResult.put("status", "UPLOAD_ERROR");
+        errorResult.put("errorMessage", e.getMessage());
+        return errorResult;
+    }
+    
     /**
      * Phase 3.1: Ensure remote directory exists, creating it if configured.
      *
@@ -398,16 +530,17 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
      * Phase 3.2 & 3.3: Upload file to remote with temp file and permissions support.
      *
      * @param sftpChannel Active SFTP channel
-     * @param localTempFile Local temporary file to upload
+     * @param in Payload stream to send, positioned at its start
+     * @param upload Resumable upload handle for the payload
      * @param targetDirectory Remote target directory
      * @param fileName Final filename on remote
-     * @param expectedSize Expected file size for logging
      * @param config Adapter configuration
      * @return Final remote file path
      * @throws Exception if upload fails
      */
-    private String uploadFileToRemote(ChannelSftp sftpChannel, Path localTempFile, String targetDirectory,
-                                     String fileName, long expectedSize, Map<String, Object> config) throws Exception {
+    private String uploadFileToRemote(ChannelSftp sftpChannel, InputStream in, SftpResumableTransfer.Upload upload,
+                                     String targetDirectory,
+                                     String fileName, Map<String, Object> config) throws Exception {
         // Phase 3.2: Check if temporary file upload is enabled
         boolean useTemporaryFileName = AdapterConfigUtil.getBooleanConfig(config, "useTemporaryFileName", false);
         String temporaryFileSuffix = AdapterConfigUtil.getStringConfig(config, "temporaryFileSuffix", false, ".tmp");
@@ -419,7 +552,7 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
             String tempRemotePath = targetDirectory + "/" + fileName + temporaryFileSuffix;
 
             logger.debug("Uploading to temp file: {}", tempRemotePath);
-            sftpChannel.put(localTempFile.toString(), tempRemotePath);
+            upload.put(sftpChannel, in, tempRemotePath);
 
             logger.debug("Renaming {} to {}", tempRemotePath, finalRemotePath);
             sftpChannel.rename(tempRemotePath, finalRemotePath);
@@ -428,7 +561,7 @@ public class SftpReceiverAdapter extends AbstractAdapterExecutor {
 
         } else {
             // Direct upload (default behavior)
-            sftpChannel.put(localTempFile.toString(), finalRemotePath);
+            upload.put(sftpChannel, in, finalRemotePath);
             logger.debug("Direct upload completed for: {}", fileName);
         }
 
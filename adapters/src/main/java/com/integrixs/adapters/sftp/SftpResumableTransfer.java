@@ -0,0 +1,458 @@
+package com.integrixs.adapters.sftp;
+
+import com.integrixs.core.logging.EnhancedLogger;
+import com.integrixs.core.repository.SftpTransferCheckpointRepository;
+import com.integrixs.shared.model.SftpTransferCheckpoint;
+import com.integrixs.shared.model.value.FilePayload;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import com.jcraft.jsch.SftpProgressMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resumable transfers for large SFTP files.
+ *
+ * Progress is checkpointed to sftp_transfer_checkpoints per adapter, direction and remote
+ * file, so a retry - in a later execution - continues where the interrupted transfer stopped
+ * instead of starting over. Downloads append to a partial local file that survives between
+ * attempts; its prefix is re-hashed and compared with the checkpointed SHA-256 before any
+ * bytes are appended. Uploads append to the partial remote file (JSch APPEND mode) after the
+ * already-sent prefix of the source has been read through the caller's digesting stream.
+ *
+ * A checkpoint is only honoured while the source is unchanged (remote mtime and size for
+ * downloads, payload SHA-256 for uploads), and is removed once the file is complete.
+ * Files below the minimum size, and adapters with resumableTransfers=false, use plain transfers.
+ */
+@Component
+public class SftpResumableTransfer {
+
+    private static final EnhancedLogger logger = EnhancedLogger.getLogger(SftpResumableTransfer.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SftpTransferCheckpointRepository checkpointRepository;
+    private final SftpHostThrottle hostThrottle;
+    private final boolean enabled;
+    private final long minSizeBytes;
+    private final long checkpointIntervalBytes;
+    private final Path partialDirectory;
+    private final long maxAgeHours;
+
+    private final AtomicLong resumedTransfers = new AtomicLong();
+    private final AtomicLong bytesSavedByResume = new AtomicLong();
+    private final AtomicLong checkpointsSaved = new AtomicLong();
+    private final AtomicLong resumesRejected = new AtomicLong();
+    private final AtomicLong staleCheckpointsPurged = new AtomicLong();
+
+    public SftpResumableTransfer(
+            SftpTransferCheckpointRepository checkpointRepository,
+            SftpHostThrottle hostThrottle,
+            @Value("${h2h.sftp.resume.enabled:true}") boolean enabled,
+            @Value("${h2h.sftp.resume.min-size-bytes:16777216}") long minSizeBytes,
+            @Value("${h2h.sftp.resume.checkpoint-interval-bytes:8388608}") long checkpointIntervalBytes,
+            @Value("${h2h.sftp.resume.partial-directory:}") String partialDirectory,
+            @Value("${h2h.sftp.resume.max-age-hours:48}") long maxAgeHours) {
+        this.checkpointRepository = checkpointRepository;
+        this.hostThrottle = hostThrottle;
+        this.enabled = enabled;
+        this.minSizeBytes = Math.max(0, minSizeBytes);
+        this.checkpointIntervalBytes = Math.max(BUFFER_SIZE, checkpointIntervalBytes);
+        this.partialDirectory = partialDirectory == null || partialDirectory.isBlank()
+            ? Paths.get(System.getProperty("java.io.tmpdir"), "h2h-sftp-partial")
+            : Paths.get(partialDirectory);
+        this.maxAgeHours = maxAgeHours;
+
+        logger.info("SFTP resumable transfers {} (minSize={} bytes, checkpointInterval={} bytes, partialDirectory={})",
+                   enabled ? "enabled" : "disabled", this.minSizeBytes, this.checkpointIntervalBytes, this.partialDirectory);
+    }
+
+    /**
+     * Outcome of a download: the spooled payload and how many bytes came from an earlier attempt
+     */
+    public static final class Download {
+        private final FilePayload payload;
+        private final long bytesResumed;
+
+        private Download(FilePayload payload, long bytesResumed) {
+            this.payload = payload;
+            this.bytesResumed = bytesResumed;
+        }
+
+        public FilePayload getPayload() { return payload; }
+        public long getBytesResumed() { return bytesResumed; }
+    }
+
+    /**
+     * Download a remote file into a spooled payload, resuming an interrupted earlier attempt if possible.
+     * The remote stream is throttled by the host's bandwidth budget.
+     */
+    public Download download(ChannelSftp channel, String host, UUID adapterId, UUID executionId, boolean adapterAllowsResume,
+                             String remotePath, String fileName, SftpATTRS attrs) throws IOException, SftpException {
+        if (!isResumable(adapterId, adapterAllowsResume, attrs.getSize())) {
+            try (InputStream in = hostThrottle.throttle(host, channel.get(remotePath))) {
+                return new Download(FilePayload.spool(in, fileName), 0);
+            }
+        }
+
+        String fingerprint = attrs.getMTime() + ":" + attrs.getSize();
+        MessageDigest digest = sha256Digest();
+        SftpTransferCheckpoint checkpoint = prepareDownload(adapterId, remotePath, attrs.getSize(), fingerprint, digest);
+        checkpoint.setExecutionId(executionId);
+        Path partialFile = Paths.get(checkpoint.getLocalPartialPath());
+        long offset = checkpoint.getBytesDone();
+        checkpointRepository.save(checkpoint);
+
+        long done = offset;
+        try (InputStream in = hostThrottle.throttle(host, channel.get(remotePath, null, offset));
+             OutputStream out = Files.newOutputStream(partialFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long nextCheckpoint = done + checkpointIntervalBytes;
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+                digest.update(buffer, 0, n);
+                done += n;
+                if (done >= nextCheckpoint) {
+                    out.flush();
+                    saveProgress(checkpoint, done, digest);
+                    nextCheckpoint = done + checkpointIntervalBytes;
+                }
+            }
+        } catch (IOException | SftpException | RuntimeException e) {
+            // The partial file holds everything written so far; record it for the next attempt
+            saveProgressQuietly(checkpoint, done, digest);
+            throw e;
+        }
+
+        FilePayload payload = FilePayload.adopt(partialFile, fileName, HexFormat.of().formatHex(digest.digest()));
+        deleteCheckpointQuietly(checkpoint);
+        recordResume(offset, remotePath);
+        return new Download(payload, offset);
+    }
+
+    /**
+     * Start an upload of one payload; the returned handle performs the put and reports resumed bytes
+     */
+    public Upload upload(String host, UUID adapterId, UUID executionId, boolean adapterAllowsResume, FilePayload payload) {
+        return new Upload(host, adapterId, executionId, isResumable(adapterId, adapterAllowsResume, payload.getSize()), payload);
+    }
+
+    /**
+     * One resumable upload of a payload to a remote path
+     */
+    public final class Upload {
+        private final String host;
+        private final UUID adapterId;
+        private final UUID executionId;
+        private final boolean resumable;
+        private final FilePayload payload;
+        private long bytesResumed;
+
+        private Upload(String host, UUID adapterId, UUID executionId, boolean resumable, FilePayload payload) {
+            this.host = host;
+            this.adapterId = adapterId;
+            this.executionId = executionId;
+            this.resumable = resumable;
+            this.payload = payload;
+        }
+
+        /**
+         * Put the payload stream to the remote path. The stream must be positioned at the start
+         * of the payload; on resume its already-uploaded prefix is read and discarded here, so a
+         * digesting stream still sees every byte. Only the bytes actually sent are throttled.
+         */
+        public void put(ChannelSftp channel, InputStream in, String remotePath) throws IOException, SftpException {
+            if (!resumable) {
+                channel.put(hostThrottle.throttle(host, in), remotePath);
+                return;
+            }
+
+            long size = payload.getSize();
+            String fingerprint = payload.getSha256() != null ? payload.getSha256() : "size:" + size;
+            SftpTransferCheckpoint checkpoint = checkpointRepository.find(adapterId, SftpTransferCheckpoint.DIRECTION_UPLOAD, remotePath)
+                .orElse(null);
+
+            long offset = 0;
+            if (checkpoint != null) {
+                long remoteSize = remoteSize(channel, remotePath);
+                if (checkpoint.matches(size, fingerprint) && remoteSize > 0 && remoteSize <= size) {
+                    offset = remoteSize;
+                } else {
+                    resumesRejected.incrementAndGet();
+                    logger.info("Discarding upload checkpoint for {}: source or remote partial file changed", remotePath);
+                }
+            }
+            if (offset == 0) {
+                SftpTransferCheckpoint previous = checkpoint;
+                checkpoint = new SftpTransferCheckpoint(adapterId, SftpTransferCheckpoint.DIRECTION_UPLOAD,
+                    remotePath, size, fingerprint);
+                if (previous != null) {
+                    // Keep the row id so the upsert replaces the stale row
+                    checkpoint.setId(previous.getId());
+                }
+            }
+            checkpoint.setExecutionId(executionId);
+            checkpoint.setBytesDone(offset);
+            checkpointRepository.save(checkpoint);
+
+            if (offset > 0) {
+                skipFully(in, offset);
+            }
+
+            CheckpointMonitor monitor = new CheckpointMonitor(checkpoint, offset);
+            try {
+                channel.put(hostThrottle.throttle(host, in), remotePath, monitor,
+                    offset > 0 ? ChannelSftp.APPEND : ChannelSftp.OVERWRITE);
+            } catch (SftpException | RuntimeException e) {
+                saveProgressQuietly(checkpoint, monitor.bytesDone(), null);
+                throw e;
+            }
+
+            deleteCheckpointQuietly(checkpoint);
+            bytesResumed = offset;
+            recordResume(offset, remotePath);
+        }
+
+        public long getBytesResumed() {
+            return bytesResumed;
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("resumedTransfers", resumedTransfers.get());
+        stats.put("bytesSavedByResume", bytesSavedByResume.get());
+        stats.put("checkpointsSaved", checkpointsSaved.get());
+        stats.put("resumesRejected", resumesRejected.get());
+        stats.put("staleCheckpointsPurged", staleCheckpointsPurged.get());
+        return stats;
+    }
+
+    /**
+     * Remove checkpoints (and their partial local files) of transfers that were never retried
+     */
+    @Scheduled(fixedDelayString = "${h2h.sftp.resume.cleanup-interval-ms:3600000}")
+    public void purgeStaleCheckpoints() {
+        if (!enabled || maxAgeHours <= 0) {
+            return;
+        }
+        try {
+            for (SftpTransferCheckpoint checkpoint : checkpointRepository.findNotUpdatedSince(LocalDateTime.now().minusHours(maxAgeHours))) {
+                deletePartialFile(checkpoint);
+                checkpointRepository.deleteById(checkpoint.getId());
+                staleCheckpointsPurged.incrementAndGet();
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to purge stale SFTP transfer checkpoints: {}", e.getMessage());
+        }
+    }
+
+    private boolean isResumable(UUID adapterId, boolean adapterAllowsResume, long size) {
+        return enabled && adapterAllowsResume && adapterId != null && size >= minSizeBytes;
+    }
+
+    /**
+     * Load the download checkpoint and validate its partial file, feeding the valid prefix into
+     * the digest. Returns a checkpoint positioned at the offset to continue from (0 for a fresh start).
+     */
+    private SftpTransferCheckpoint prepareDownload(UUID adapterId, String remotePath, long size, String fingerprint,
+                                                   MessageDigest digest) throws IOException {
+        Optional<SftpTransferCheckpoint> existing = checkpointRepository.find(adapterId,
+            SftpTransferCheckpoint.DIRECTION_DOWNLOAD, remotePath);
+
+        if (existing.isPresent()) {
+            SftpTransferCheckpoint checkpoint = existing.get();
+            if (checkpoint.matches(size, fingerprint) && hashPartialPrefix(checkpoint, digest)) {
+                return checkpoint;
+            }
+            resumesRejected.incrementAndGet();
+            logger.info("Discarding download checkpoint for {}: remote file or local partial file changed", remotePath);
+            deletePartialFile(checkpoint);
+            digest.reset();
+        }
+
+        Files.createDirectories(partialDirectory);
+        SftpTransferCheckpoint checkpoint = new SftpTransferCheckpoint(adapterId, SftpTransferCheckpoint.DIRECTION_DOWNLOAD,
+            remotePath, size, fingerprint);
+        if (existing.isPresent()) {
+            // Keep the row id so the upsert replaces the stale row
+            checkpoint.setId(existing.get().getId());
+        }
+        Path partialFile = partialDirectory.resolve(checkpoint.getId() + ".part");
+        Files.deleteIfExists(partialFile);
+        checkpoint.setLocalPartialPath(partialFile.toString());
+        return checkpoint;
+    }
+
+    /**
+     * Truncate the partial file to the checkpointed length and check its SHA-256
+     */
+    private boolean hashPartialPrefix(SftpTransferCheckpoint checkpoint, MessageDigest digest) throws IOException {
+        if (checkpoint.getLocalPartialPath() == null || checkpoint.getPartialSha256() == null) {
+            return false;
+        }
+        Path partialFile = Paths.get(checkpoint.getLocalPartialPath());
+        if (!Files.isRegularFile(partialFile) || Files.size(partialFile) < checkpoint.getBytesDone()) {
+            return false;
+        }
+        // Bytes written after the last checkpoint are not covered by its hash; fetch them again
+        try (FileChannel file = FileChannel.open(partialFile, StandardOpenOption.WRITE)) {
+            file.truncate(checkpoint.getBytesDone());
+        }
+        try (InputStream in = Files.newInputStream(partialFile)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return checkpoint.getPartialSha256().equals(hexOfCopy(digest));
+    }
+
+    private void saveProgress(SftpTransferCheckpoint checkpoint, long bytesDone, MessageDigest digest) {
+        checkpoint.setBytesDone(bytesDone);
+        if (digest != null) {
+            checkpoint.setPartialSha256(hexOfCopy(digest));
+        }
+        checkpointRepository.save(checkpoint);
+        checkpointsSaved.incrementAndGet();
+    }
+
+    private void saveProgressQuietly(SftpTransferCheckpoint checkpoint, long bytesDone, MessageDigest digest) {
+        try {
+            saveProgress(checkpoint, bytesDone, digest);
+            logger.info("Transfer of {} interrupted at {} of {} bytes, checkpoint saved for resume",
+                       checkpoint.getRemotePath(), bytesDone, checkpoint.getSourceSize());
+        } catch (Exception e) {
+            logger.warn("Failed to save transfer checkpoint for {}: {}", checkpoint.getRemotePath(), e.getMessage());
+        }
+    }
+
+    private void deleteCheckpointQuietly(SftpTransferCheckpoint checkpoint) {
+        try {
+            checkpointRepository.deleteById(checkpoint.getId());
+        } catch (Exception e) {
+            // A leftover row is harmless: its fingerprint or partial file will not match next time
+            logger.warn("Failed to delete transfer checkpoint for {}: {}", checkpoint.getRemotePath(), e.getMessage());
+        }
+    }
+
+    private void recordResume(long offset, String remotePath) {
+        if (offset > 0) {
+            resumedTransfers.incrementAndGet();
+            bytesSavedByResume.addAndGet(offset);
+            logger.info("Resumed transfer of {} from byte {}", remotePath, offset);
+        }
+    }
+
+    private static void deletePartialFile(SftpTransferCheckpoint checkpoint) {
+        if (checkpoint.getLocalPartialPath() == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(checkpoint.getLocalPartialPath()));
+        } catch (IOException e) {
+            logger.warn("Failed to delete partial file {}: {}", checkpoint.getLocalPartialPath(), e.getMessage());
+        }
+    }
+
+    private static long remoteSize(ChannelSftp channel, String remotePath) {
+        try {
+            return channel.lstat(remotePath).getSize();
+        } catch (SftpException e) {
+            return -1;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = count;
+        while (remaining > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n < 0) {
+                throw new IOException("Source ended before resume offset " + count);
+            }
+            remaining -= n;
+        }
+    }
+
+    private static String hexOfCopy(MessageDigest digest) {
+        try {
+            return HexFormat.of().formatHex(((MessageDigest) digest.clone()).digest());
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Saves upload progress every checkpoint interval as JSch reports bytes sent
+     */
+    private final class CheckpointMonitor implements SftpProgressMonitor {
+        private final SftpTransferCheckpoint checkpoint;
+        private final long offset;
+        private long sent;
+        private long nextCheckpoint;
+
+        private CheckpointMonitor(SftpTransferCheckpoint checkpoint, long offset) {
+            this.checkpoint = checkpoint;
+            this.offset = offset;
+            this.nextCheckpoint = checkpointIntervalBytes;
+        }
+
+        @Override
+        public void init(int op, String src, String dest, long max) {
+        }
+
+        @Override
+        public boolean count(long count) {
+            sent += count;
+            if (sent >= nextCheckpoint) {
+                try {
+                    saveProgress(checkpoint, bytesDone(), null);
+                } catch (Exception e) {
+                    logger.debug("Failed to save upload checkpoint for {}: {}", checkpoint.getRemotePath(), e.getMessage());
+                }
+                nextCheckpoint = sent + checkpointIntervalBytes;
+            }
+            return true;
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private long bytesDone() {
+            return offset + sent;
+        }
+    }
+}
@@ -3,23 +3,19 @@ package com.integrixs.adapters.sftp;
 import com.integrixs.core.adapter.AbstractAdapterExecutor;
 import com.integrixs.core.util.AdapterConfigUtil;
 import com.integrixs.shared.util.FileUtils;
-import com.integrixs.core.util.SftpConnectionUtil;
 import com.integrixs.shared.model.Adapter;
 import com.integrixs.shared.model.FlowExecutionStep;
 import com.integrixs.shared.model.SshKey;
+import com.integrixs.shared.model.value.FilePayload;
 import com.integrixs.core.repository.SshKeyRepository;
 import com.jcraft.jsch.ChannelSftp;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.Vector;
-import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -38,10 +34,20 @@ import org.springframework.stereotype.Component;
 public class SftpSenderAdapter extends AbstractAdapterExecutor {
     
     private final SshKeyRepository sshKeyRepository;
+    private final SftpConnectionPool connectionPool;
+    private final SftpParallelTransfer parallelTransfer;
+    private final SftpResumableTransfer resumableTransfer;
+    private final SftpDirectoryLister directoryLister;
     
     @Autowired
-    public SftpSenderAdapter(SshKeyRepository sshKeyRepository) {
+    public SftpSenderAdapter(SshKeyRepository sshKeyRepository, SftpConnectionPool connectionPool,
+                             SftpParallelTransfer parallelTransfer, SftpResumableTransfer resumableTransfer,
+                             SftpDirectoryLister directoryLister) {
         this.sshKeyRepository = sshKeyRepository;
+        this.connectionPool = connectionPool;
+        this.parallelTransfer = parallelTransfer;
+        this.resumableTransfer = resumableTransfer;
+        this.directoryLister = directoryLister;
     }
     
     @Override
@@ -72,82 +78,66 @@ public class SftpSenderAdapter extends AbstractAdapterExecutor {
         logger.info("Configuration - Source Directory: {}, File Pattern: {}, Post Process Action: {}", 
                    sourceDirectory, filePattern, postProcessAction);
         
-        ChannelSftp sftpChannel = null;
+        SftpConnection connection = null;
+        boolean connectionHealthy = true;
         
         try {
             // Enhance configuration with SSH key data if needed
             Map<String, Object> enhancedConfig = enhanceSftpConfigWithSshKey(config);
             
-            // Create SFTP connection with enhanced configuration
-            sftpChannel = SftpConnectionUtil.createSftpConnection(enhancedConfig);
-            
-            // List files in remote directory matching pattern
-            @SuppressWarnings("unchecked")
-            Vector<ChannelSftp.LsEntry> remoteFiles = sftpChannel.ls(sourceDirectory);
+            // Borrow a pooled SFTP connection for the enhanced configuration
+            connection = connectionPool.borrowConnection(enhancedConfig);
+            ChannelSftp sftpChannel = connection.getChannel();
+
+            // Stream the remote directory listing, keeping only matching files up to the per-poll cap
+            int maxFilesPerPoll = AdapterConfigUtil.getIntConfig(config, "maxFilesPerPoll",
+                directoryLister.getDefaultMaxFilesPerPoll());
+            boolean listingCache = AdapterConfigUtil.getBooleanConfig(config, "listingCache", false);
+            String listingCacheKey = listingCache
+                ? connection.getKey() + "|" + sourceDirectory + "|" + filePattern
+                : null;
             
-            List<ChannelSftp.LsEntry> matchingFiles = remoteFiles.stream()
-                .filter(entry -> !entry.getAttrs().isDir() && 
-                               FileUtils.matchesPattern(entry.getFilename(), filePattern, null))
-                .collect(Collectors.toList());
+            List<ChannelSftp.LsEntry> matchingFiles = directoryLister.listMatching(sftpChannel, sourceDirectory,
+                filePattern, maxFilesPerPoll, listingCacheKey);
             
             if (matchingFiles.isEmpty()) {
                 logger.info("No files found matching pattern '{}' in remote directory '{}'", filePattern, sourceDirectory);
                 return createSuccessResult(0, 0, 0L, "No files found to download");
             }
             
-            logger.info("Found {} files to download from remote SFTP server", matchingFiles.size());
+            int parallelism = Math.max(1, AdapterConfigUtil.getIntConfig(config, "transferParallelism", 1));
+            logger.info("Found {} files to download from remote SFTP server (parallelism: {})",
+                       matchingFiles.size(), parallelism);
+            
+            String host = connection.getKey().getHost();
+            UUID adapterId = adapter.getId();
+            UUID executionId = step != null ? step.getExecutionId() : null;
+            boolean resumable = AdapterConfigUtil.getBooleanConfig(config, "resumableTransfers", true);
+            
+            // Download each file and collect content - results come back in listing order
+            List<Map<String, Object>> processedFiles = parallelTransfer.transferAll(connection, matchingFiles, parallelism,
+                (channel, fileEntry) -> downloadFile(channel, fileEntry, sourceDirectory, config, postProcessAction,
+                                                     host, adapterId, executionId, resumable),
+                (fileEntry, e) -> downloadError(fileEntry.getFilename(), sourceDirectory + "/" + fileEntry.getFilename(), e));
             
-            // Process each file - download and collect content
-            List<Map<String, Object>> processedFiles = new ArrayList<>();
             long totalBytes = 0;
+            long bytesResumed = 0;
             int successCount = 0;
             int errorCount = 0;
             
-            for (ChannelSftp.LsEntry fileEntry : matchingFiles) {
-                String fileName = fileEntry.getFilename();
-                String remoteFilePath = sourceDirectory + "/" + fileName;
-                
-                try {
-                    // Download file content from SFTP server
-                    byte[] fileContent;
-                    try (InputStream inputStream = sftpChannel.get(remoteFilePath)) {
-                        fileContent = inputStream.readAllBytes();
-                    }
-                    
-                    long fileSize = fileContent.length;
-                    
-                    Map<String, Object> fileData = new HashMap<>();
-                    fileData.put("fileName", fileName);
-                    fileData.put("remoteFilePath", remoteFilePath);
-                    fileData.put("fileSize", fileSize);
-                    fileData.put("fileContent", fileContent);
-                    fileData.put("status", "DOWNLOADED");
-                    fileData.put("remoteSource", remoteFilePath);
-                    
-                    processedFiles.add(fileData);
-                    totalBytes += fileSize;
-                    successCount++;
-                    
-                    // Add to step tracking
-                    if (step != null) {
-                        step.addFileProcessed(fileName, "DOWNLOADED_FROM_SFTP", fileSize);
-                    }
-                    
-                    logger.info("Successfully downloaded: {} ({} bytes)", fileName, fileSize);
-                    
-                    // Handle post-processing based on configuration
-                    handlePostProcessing(sftpChannel, config, remoteFilePath, fileName, postProcessAction);
-                    
-                } catch (Exception e) {
-                    logger.error("Error downloading file {}: {}", remoteFilePath, e.getMessage(), e);
-                    
-                    Map<String, Object> errorData = new HashMap<>();
-                    errorData.put("fileName", fileName);
-                    errorData.put("status", "DOWNLOAD_ERROR");
-                    errorData.put("errorMessage", e.getMessage());
-                    errorData.put("remoteSource", remoteFilePath);
-                    processedFiles.add(errorData);
+            for (Map<String, Object> fileData : processedFiles) {
+                if (!"DOWNLOADED".equals(fileData.get("status"))) {
                     errorCount++;
+                    continue;
+                }
+                long fileSize = (Long) fileData.get("fileSize");
+                totalBytes += fileSize;
+                bytesResumed += (Long) fileData.get("bytesResumed");
+                successCount++;
+                
+                // Add to step tracking
+                if (step != null) {
+                    step.addFileProcessed((String) fileData.get("fileName"), "DOWNLOADED_FROM_SFTP", fileSize);
                 }
             }
             
@@ -165,6 +155,7 @@ public class SftpSenderAdapter extends AbstractAdapterExecutor {
             result.put("postProcessAction", postProcessAction);
             result.put("archiveDirectory", archiveDirectory);
             result.put("filesDiscovered", matchingFiles.size());
+            result.put("bytesSavedByResume", bytesResumed);
             
             logger.info("✓ Files downloaded: {}/{}", successCount, matchingFiles.size());
             logger.info("✓ Total bytes downloaded: {}", totalBytes);
@@ -172,14 +163,66 @@ public class SftpSenderAdapter extends AbstractAdapterExecutor {
             return result;
             
         } catch (Exception e) {
+            // Don't hand a connection that failed mid-operation to the next borrower
+            connectionHealthy = false;
             logger.error("SFTP sender execution failed: {}", e.getMessage(), e);
             throw new RuntimeException("SFTP sender execution failed: " + e.getMessage(), e);
         } finally {
-            // Cleanup SFTP connection
-            SftpConnectionUtil.closeSftpConnection(sftpChannel);
+            // Return SFTP connection to the pool
+            if (connectionHealthy) {
+                connectionPool.returnConnection(connection);
+            } else {
+                connectionPool.invalidateConnection(connection);
+            }
         }
     }
     
+    /**
+     * Download one remote file into the local payload spool and post-process it on the same channel.
+     * Large files resume from the checkpoint of an interrupted earlier attempt.
+     */
+    private Map<String, Object> downloadFile(ChannelSftp sftpChannel, ChannelSftp.LsEntry fileEntry, String sourceDirectory,
+                                             Map<String, Object> config, String postProcessAction,
+                                             String host, UUID adapterId, UUID executionId, boolean resumable) throws Exception {
+        String fileName = fileEntry.getFilename();
+        String remoteFilePath = sourceDirectory + "/" + fileName;
+        
+        // Stream file content from SFTP server into the local payload spool
+        SftpResumableTransfer.Download download = resumableTransfer.download(sftpChannel, host, adapterId, executionId,
+            resumable, remoteFilePath, fileName, fileEntry.getAttrs());
+        FilePayload payload = download.getPayload();
+        
+        long fileSize = payload.getSize();
+        
+        Map<String, Object> fileData = new HashMap<>();
+        fileData.put("fileName", fileName);
+        fileData.put("remoteFilePath", remoteFilePath);
+        fileData.put("fileSize", fileSize);
+        fileData.put("sha256", payload.getSha256());
+        fileData.put(FilePayload.CONTEXT_KEY, payload);
+        fileData.put("status", "DOWNLOADED");
+        fileData.put("remoteSource", remoteFilePath);
+        fileData.put("bytesResumed", download.getBytesResumed());
+        
+        logger.info("Successfully downloaded: {} ({} bytes)", fileName, fileSize);
+        
+        // Handle post-processing based on configuration
+        handlePostProcessing(sftpChannel, config, remoteFilePath, fileName, postProcessAction);
+        
+        return fileData;
+    }
+    
+    private Map<String, Object> downloadError(String fileName, String remoteFilePath, Exception e) {
+        logger.error("Error downloading file {}: {}", remoteFilePath, e.getMessage(), e);
+        
+        Map<String, Object> errorData = new HashMap<>();
+        errorData.put("fileName", fileName);
+        errorData.put("status", "DOWNLOAD_ERROR");
+        errorData.put("errorMessage", e.getMessage());
+        errorData.put("remoteSource", remoteFilePath);
+        return errorData;
+    }
+    
     /**
      * Handle post-processing of downloaded files based on configuration.
      * Only uses configuration values that are actually saved for this adapter.
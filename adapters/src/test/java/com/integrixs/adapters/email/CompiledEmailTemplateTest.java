@@ -0,0 +1,209 @@
+package com.integrixs.adapters.email;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * CompiledEmailTemplate renders what the chained String.replace renderer it replaced did:
+ * same precedence of user, operation and system variables, unknown placeholders and ${}
+ * kept as written. The one intended difference is that substituted values are not
+ * rescanned for placeholders. The benchmark-tagged test logs the rendering cost of both
+ * on large templates; it runs only with the benchmark profile (mvn test -Pbenchmark).
+ */
+class CompiledEmailTemplateTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledEmailTemplateTest.class);
+
+    private static final String ADAPTER = "test-adapter";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 7, 9, 5, 1);
+    private static final String[] SYSTEM_VARIABLES = {"timestamp", "date", "time", "adapter", "hostname", "year", "month", "day"};
+
+    // {user variables, operation variables, paragraphs}
+    private static final int[][] SIZES = {{10, 10, 20}, {50, 50, 100}, {200, 200, 400}};
+    private static final long MEASURE_NANOS = 500_000_000L;
+
+    @Test
+    void matchesChainedReplaceOnLargeTemplates() {
+        for (int[] size : SIZES) {
+            Map<String, String> userVariables = variables("user", size[0]);
+            Map<String, Object> operationVariables = new LinkedHashMap<>(variables("op", size[1]));
+            String template = template(size);
+
+            assertEquals(renderChained(template, userVariables, operationVariables),
+                         renderCompiled(template, userVariables, operationVariables));
+        }
+    }
+
+    @Test
+    void userVariablesTakePrecedenceAndNullValuesRenderEmpty() {
+        Map<String, String> userVariables = Map.of("name", "user");
+        Map<String, Object> operationVariables = new LinkedHashMap<>();
+        operationVariables.put("name", "operation");
+        operationVariables.put("empty", null);
+        operationVariables.put("count", 42);
+
+        assertRendersLikeChainedReplace("${name}|${empty}|${count}|${adapter}|${month}-${day}|${time}",
+            "user||42|" + ADAPTER + "|03-07|09:05:01", userVariables, operationVariables);
+    }
+
+    @Test
+    void unknownPlaceholdersAreKeptAsWritten() {
+        Map<String, String> userVariables = Map.of("name", "value");
+
+        assertRendersLikeChainedReplace("${missing} and ${name}", "${missing} and value", userVariables, Map.of());
+        assertRendersLikeChainedReplace("${}", "${}", userVariables, Map.of());
+        assertRendersLikeChainedReplace("a${}b${name}", "a${}bvalue", userVariables, Map.of());
+        assertRendersLikeChainedReplace("${name", "${name", userVariables, Map.of());
+        assertRendersLikeChainedReplace("$name {name} $${name}}", "$name {name} $value}", userVariables, Map.of());
+        assertRendersLikeChainedReplace("", "", userVariables, Map.of());
+    }
+
+    @Test
+    void repeatedAndAdjacentPlaceholdersAreAllReplaced() {
+        Map<String, String> userVariables = Map.of("a", "1", "b", "2");
+
+        assertRendersLikeChainedReplace("${a}${b}${a}", "121", userVariables, Map.of());
+        assertRendersLikeChainedReplace("${a} ${a}\n${b}", "1 1\n2", userVariables, Map.of());
+    }
+
+    @Test
+    void substitutedValuesAreNotRescanned() {
+        Map<String, String> userVariables = new LinkedHashMap<>();
+        userVariables.put("subject", "Report ${date} for ${customer}");
+        userVariables.put("self", "${self}");
+        Map<String, Object> operationVariables = Map.of("customer", "ACME");
+
+        // The chained renderer replaced placeholders inside earlier values; values are now inserted verbatim
+        assertEquals("Report 2024-03-07 for ACME", renderChained("${subject}", userVariables, operationVariables));
+        assertEquals("Report ${date} for ${customer}", renderCompiled("${subject}", userVariables, operationVariables));
+        assertEquals("${self}", renderCompiled("${self}", userVariables, operationVariables));
+    }
+
+    @Test
+    void countsAndNamesPlaceholders() {
+        CompiledEmailTemplate compiled = CompiledEmailTemplate.compile("${a} ${b} ${a} ${} ${missing}");
+
+        assertEquals(4, compiled.getVariableCount());
+        assertEquals(List.of("a", "b", "missing"), List.copyOf(compiled.getVariableNames()));
+
+        StringBuilder out = new StringBuilder("> ");
+        int substituted = compiled.renderTo(out, name -> "a".equals(name) ? "1" : null);
+        assertEquals(2, substituted);
+        assertEquals("> 1 ${b} 1 ${} ${missing}", out.toString());
+    }
+
+    @Test
+    void compiledTemplatesAreCachedByText() {
+        String template = "cached ${name} " + System.nanoTime();
+
+        assertSame(CompiledEmailTemplate.of(template), CompiledEmailTemplate.of(template));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void renderLargeTemplatesWithManyVariables() {
+        for (int[] size : SIZES) {
+            Map<String, String> userVariables = variables("user", size[0]);
+            Map<String, Object> operationVariables = new LinkedHashMap<>(variables("op", size[1]));
+            String template = template(size);
+
+            double chained = nanosPerRender(() -> renderChained(template, userVariables, operationVariables));
+            double compiled = nanosPerRender(() -> renderCompiled(template, userVariables, operationVariables));
+
+            logger.info("{} chars, {} placeholders: chained {} ns, compiled {} ns per render",
+                       template.length(), CompiledEmailTemplate.of(template).getVariableCount(),
+                       Math.round(chained), Math.round(compiled));
+        }
+    }
+
+    private static void assertRendersLikeChainedReplace(String template, String expected,
+                                                        Map<String, String> userVariables,
+                                                        Map<String, Object> operationVariables) {
+        assertEquals(expected, renderChained(template, userVariables, operationVariables), "chained: " + template);
+        assertEquals(expected, renderCompiled(template, userVariables, operationVariables), "compiled: " + template);
+    }
+
+    /**
+     * The renderer used before CompiledEmailTemplate: one full copy of the text per variable
+     */
+    private static String renderChained(String template, Map<String, String> userVariables,
+                                        Map<String, Object> operationVariables) {
+        String result = template;
+        for (Map.Entry<String, String> entry : userVariables.entrySet()) {
+            result = result.replace("${" + entry.getKey() + "}", entry.getValue());
+        }
+        for (Map.Entry<String, Object> entry : operationVariables.entrySet()) {
+            String value = entry.getValue() != null ? entry.getValue().toString() : "";
+            result = result.replace("${" + entry.getKey() + "}", value);
+        }
+        for (String name : SYSTEM_VARIABLES) {
+            result = result.replace("${" + name + "}", CompiledEmailTemplate.systemVariable(name, NOW, ADAPTER));
+        }
+        return result;
+    }
+
+    /**
+     * Same lookup chain as EmailTemplateProcessor.processTemplate
+     */
+    private static String renderCompiled(String template, Map<String, String> userVariables,
+                                         Map<String, Object> operationVariables) {
+        return CompiledEmailTemplate.of(template).render(name -> {
+            String value = userVariables.get(name);
+            if (value != null) {
+                return value;
+            }
+            if (operationVariables.containsKey(name)) {
+                Object operationValue = operationVariables.get(name);
+                return operationValue != null ? operationValue.toString() : "";
+            }
+            return CompiledEmailTemplate.systemVariable(name, NOW, ADAPTER);
+        });
+    }
+
+    private static Map<String, String> variables(String prefix, int count) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            variables.put(prefix + i, "value of " + prefix + " variable " + i);
+        }
+        return variables;
+    }
+
+    private static String template(int[] size) {
+        StringBuilder template = new StringBuilder("Subject: ${adapter} report for ${date}\n\n");
+        for (int i = 0; i < size[2]; i++) {
+            template.append("Paragraph ").append(i).append(" at ${time}: file ${user").append(i % size[0])
+                    .append("} was processed by ${op").append(i % size[1]).append("} on ${hostname}; ")
+                    .append("unknown ${unset").append(i % 7).append("} stays as written, and the rest of ")
+                    .append("this line is plain text to give the template a realistic length.\n");
+        }
+        return template.append("Generated ${timestamp} (${year}-${month}-${day})").toString();
+    }
+
+    private static double nanosPerRender(Runnable render) {
+        // Warm up before measuring
+        long end = System.nanoTime() + MEASURE_NANOS / 2;
+        while (System.nanoTime() < end) {
+            render.run();
+        }
+
+        long renders = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            render.run();
+            renders++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return (double) elapsed / renders;
+    }
+}
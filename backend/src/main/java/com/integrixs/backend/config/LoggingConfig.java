@@ -1,16 +1,27 @@
 package com.integrixs.backend.config;
 
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.Appender;
 import com.integrixs.backend.logging.DatabaseLogAppender;
+import com.integrixs.backend.logging.TransactionLogAppender;
 import com.integrixs.core.service.DynamicLoggingService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
 /**
  * Configuration for setting up database logging and dynamic logging configuration
  * Configures the custom database appender and initializes dynamic logging from database
@@ -21,6 +32,27 @@ public class LoggingConfig {
     @Autowired
     private ApplicationContext applicationContext;
     
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
+    @Value("${h2h.logging.database.queue-capacity:8192}")
+    private int queueCapacity;
+    
+    @Value("${h2h.logging.database.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${h2h.logging.database.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    
+    @Value("${h2h.logging.database.discarding-threshold:-1}")
+    private int discardingThreshold;
+    
+    @Value("${h2h.logging.database.drop-below-warn-on-overload:true}")
+    private boolean dropBelowWarnOnOverload;
+    
+    @Value("${h2h.logging.database.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+    
     /**
      * Create the database log appender bean
      */
@@ -28,6 +60,12 @@ public class LoggingConfig {
     public DatabaseLogAppender databaseLogAppender() {
         DatabaseLogAppender appender = new DatabaseLogAppender();
         appender.setApplicationContext(applicationContext);
+        appender.setQueueCapacity(queueCapacity);
+        appender.setBatchSize(batchSize);
+        appender.setFlushIntervalMs(flushIntervalMs);
+        appender.setDiscardingThreshold(discardingThreshold);
+        appender.setDropBelowWarnOnOverload(dropBelowWarnOnOverload);
+        appender.setShutdownTimeoutMs(shutdownTimeoutMs);
         return appender;
     }
     
@@ -52,6 +90,13 @@ public class LoggingConfig {
             ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
             rootLogger.addAppender(databaseAppender);
             
+            // Expose writer queue metrics of both database appenders
+            registerAppenderMetrics("DATABASE", databaseAppender::getStatistics);
+            Appender<?> transactionAppender = rootLogger.getAppender("TRANSACTION_DB");
+            if (transactionAppender instanceof TransactionLogAppender transactionLogAppender) {
+                registerAppenderMetrics("TRANSACTION_DB", transactionLogAppender::getStatistics);
+            }
+            
             // Initialize dynamic logging configuration from database
             try {
                 DynamicLoggingService dynamicLoggingService = applicationContext.getBean(DynamicLoggingService.class);
@@ -72,4 +117,43 @@ public class LoggingConfig {
             logger.error("Failed to configure database logging appender", e);
         }
     }
+    
+    /**
+     * Flush the database appenders while the datasource is still available
+     * ContextClosedEvent is published before any bean is destroyed
+     */
+    @EventListener
+    public void flushDatabaseLogging(ContextClosedEvent event) {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+        
+        Appender<?> databaseAppender = rootLogger.getAppender("DATABASE");
+        if (databaseAppender != null) {
+            databaseAppender.stop();
+        }
+        Appender<?> transactionAppender = rootLogger.getAppender("TRANSACTION_DB");
+        if (transactionAppender != null) {
+            transactionAppender.stop();
+        }
+    }
+    
+    private void registerAppenderMetrics(String appenderName, Supplier<Map<String, Object>> statistics) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("h2h.logging.database.queue.size", statistics, stats -> metric(stats.get(), "queueSize"))
+            .tag("appender", appenderName)
+            .register(registry);
+        for (String counter : new String[] {"written", "dropped", "discarded", "failed"}) {
+            FunctionCounter.builder("h2h.logging.database.events." + counter, statistics, stats -> metric(stats.get(), counter))
+                .tag("appender", appenderName)
+                .register(registry);
+        }
+    }
+    
+    private static double metric(Map<String, Object> statistics, String key) {
+        Object value = statistics.get(key);
+        return value instanceof Number number ? number.doubleValue() : 0;
+    }
 }
\ No newline at end of file
@@ -92,6 +92,32 @@ public class ThreadPoolConfig {
         return executor;
     }
 
+    /**
+     * Dedicated executor for scheduled and event-driven sender polls.
+     * Rejects work when saturated instead of running it on the submitting thread, so a
+     * full pool only skips fires and never blocks the scheduler's dispatcher thread.
+     */
+    @Bean(name = "pollTaskExecutor")
+    public Executor pollTaskExecutor() {
+        int coreSize = getConfigInt("thread.pool.poll.core.size", 20);
+        int maxSize = getConfigInt("thread.pool.poll.max.size", 50);
+        int queueCapacity = getConfigInt("thread.pool.poll.queue.capacity", 200);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("H2H-Poll-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        log.info("Configured poll task executor from DB config: core={}, max={}, queue={}",
+                coreSize, maxSize, queueCapacity);
+        return executor;
+    }
+
     /**
      * Dedicated executor for flow execution.
      * Allows multiple flows to execute concurrently.
@@ -117,6 +143,66 @@ public class ThreadPoolConfig {
         return executor;
     }
 
+    /**
+     * Dedicated executor for the branches of parallel splits.
+     * Kept apart from the flow executor, whose threads block while their split waits for its
+     * branches; saturation runs the branch on the splitting flow thread.
+     */
+    @Bean(name = "flowBranchExecutor")
+    public Executor flowBranchExecutor() {
+        int coreSize = getConfigInt("thread.pool.branch.core.size", 15);
+        int maxSize = getConfigInt("thread.pool.branch.max.size", 30);
+        int queueCapacity = getConfigInt("thread.pool.branch.queue.capacity", 150);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("H2H-Branch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(120);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+
+        log.info("Configured flow branch executor from DB config: core={}, max={}, queue={}",
+                coreSize, maxSize, queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Dedicated executor for CPU-bound utility work such as per-file PGP processing.
+     * Sized to the available processors unless configured (a size of 0 also means the
+     * available processors); saturation runs work on the calling flow thread.
+     */
+    @Bean(name = "utilityTaskExecutor")
+    public Executor utilityTaskExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int coreSize = getConfigInt("thread.pool.utility.core.size", 0);
+        int maxSize = getConfigInt("thread.pool.utility.max.size", 0);
+        if (coreSize <= 0) {
+            coreSize = processors;
+        }
+        if (maxSize <= 0) {
+            maxSize = processors;
+        }
+        maxSize = Math.max(maxSize, coreSize);
+        int queueCapacity = getConfigInt("thread.pool.utility.queue.capacity", 100);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("H2H-Utility-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+
+        log.info("Configured utility task executor from DB config: core={}, max={}, queue={}",
+                coreSize, maxSize, queueCapacity);
+        return executor;
+    }
+
     /**
      * Dedicated executor for monitoring and health checks.
      * Non-critical tasks that can be discarded if pool is full.
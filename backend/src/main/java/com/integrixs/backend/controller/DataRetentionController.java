@@ -18,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -434,10 +435,20 @@ public class DataRetentionController {
         try {
             DataRetentionService.DataRetentionStatus status = dataRetentionService.getExecutionStatus();
             
+            Map<String, Object> lastRun = new LinkedHashMap<>();
+            lastRun.put("lastExecution", status.getLastExecution());
+            lastRun.put("status", status.getStatus());
+            lastRun.put("filesProcessed", status.getFilesProcessed());
+            lastRun.put("databaseRecordsDeleted", status.getDatabaseRecordsDeleted());
+            lastRun.put("databaseBytesReclaimed", status.getDatabaseBytesReclaimed());
+            lastRun.put("tables", status.getTableResults());
+            lastRun.put("nextExecution", status.getNextExecution());
+            
             // Create response using builder pattern
             AdminSystemResponse response = AdminSystemResponse.builder()
                 .operation("get_data_retention_status")
                 .status("SUCCESS")
+                .cleanupResult(lastRun)
                 .totalRecords(1)
                 .build();
             
@@ -652,6 +663,7 @@ public class DataRetentionController {
                 Map.of("value", "LOG_FILES", "label", "Log Files", "description", "Manages log file archiving and deletion"),
                 Map.of("value", "SYSTEM_LOGS", "label", "System Logs", "description", "Manages system_logs table cleanup"),
                 Map.of("value", "TRANSACTION_LOGS", "label", "Transaction Logs", "description", "Manages transaction_logs table cleanup"),
+                Map.of("value", "FLOW_EXECUTIONS", "label", "Flow Executions", "description", "Manages flow_executions history cleanup"),
                 Map.of("value", "SCHEDULE", "label", "Schedule", "description", "Defines when retention cleanup should run")
             );
             
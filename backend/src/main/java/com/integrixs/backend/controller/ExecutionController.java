@@ -56,7 +56,8 @@ public class ExecutionController {
             @RequestParam(required = false) String flowId,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor) {
         
         UUID currentUserId = SecurityContextHelper.getCurrentUserId();
         logger.info("User {} requesting execution history (page: {}, size: {}, flowId: {}, status: {})", 
@@ -91,8 +92,15 @@ public class ExecutionController {
             executionStatus = FlowExecution.ExecutionStatus.valueOf(status.toUpperCase());
         }
         
-        Map<String, Object> history = monitoringService.getExecutionHistory(
-            page, size, flowUuid, executionStatus, startDate, endDate);
+        Map<String, Object> history;
+        try {
+            history = monitoringService.getExecutionHistory(
+                page, size, flowUuid, executionStatus, startDate, endDate, cursor);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid execution history cursor from user {}: {}", currentUserId, e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Request validation failed: " + e.getMessage()));
+        }
         
         logger.info("Retrieved execution history for user {} (page: {}, size: {})", currentUserId, page, size);
         return responseService.success(history, "Execution history retrieved successfully");
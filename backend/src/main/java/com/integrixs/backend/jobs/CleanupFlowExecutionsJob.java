@@ -0,0 +1,62 @@
+package com.integrixs.backend.jobs;
+
+import com.integrixs.backend.service.TableRetentionExecutor;
+import com.integrixs.shared.model.DataRetentionConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.logging.Logger;
+
+/**
+ * Database Cleanup: Flow Executions
+ * 
+ * Deletes finished flow execution records (and their steps) from the DATABASE that
+ * started before the specified retention period. Unfinished executions, and executions
+ * that a retry still points to as its parent, are kept. Rows are deleted in chunks.
+ */
+@Component
+public class CleanupFlowExecutionsJob implements DataRetentionJob {
+    
+    private static final Logger log = Logger.getLogger(CleanupFlowExecutionsJob.class.getName());
+    
+    @Autowired
+    private TableRetentionExecutor tableRetentionExecutor;
+    
+    @Override
+    public int execute(DataRetentionConfig config) {
+        log.info("Starting cleanup of flow executions older than " + config.getRetentionDays() + " days");
+        
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(config.getRetentionDays());
+        
+        try {
+            TableRetentionExecutor.RetentionResult result = tableRetentionExecutor.purgeFlowExecutions(cutoffDate);
+            log.info("Cleanup flow executions completed: " + result.getRowsDeleted() + " records deleted, " +
+                     result.getBytesReclaimed() + " bytes reclaimed");
+            return (int) Math.min(result.getRowsDeleted(), Integer.MAX_VALUE);
+        } catch (Exception e) {
+            log.severe("Error during flow executions cleanup: " + e.getMessage());
+            throw new RuntimeException("Failed to cleanup flow executions", e);
+        }
+    }
+    
+    @Override
+    public String getDisplayName() {
+        return "Database: Cleanup Flow Executions";
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Delete finished flow execution records and their steps from the DATABASE that are older than the retention period";
+    }
+    
+    @Override
+    public String getJobIdentifier() {
+        return "CleanupFlowExecutionsJob";
+    }
+    
+    @Override
+    public boolean validateConfiguration(DataRetentionConfig config) {
+        return config.getRetentionDays() != null && config.getRetentionDays() > 0;
+    }
+}
\ No newline at end of file
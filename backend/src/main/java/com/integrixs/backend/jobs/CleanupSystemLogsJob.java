@@ -1,8 +1,8 @@
 package com.integrixs.backend.jobs;
 
+import com.integrixs.backend.service.TableRetentionExecutor;
 import com.integrixs.shared.model.DataRetentionConfig;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -13,6 +13,7 @@ import java.util.logging.Logger;
  * 
  * Deletes system log records from the DATABASE table that are older 
  * than the specified retention period. This is a DATABASE operation, not file system.
+ * Expired daily partitions are dropped and the remaining rows deleted in chunks.
  */
 @Component
 public class CleanupSystemLogsJob implements DataRetentionJob {
@@ -20,7 +21,7 @@ public class CleanupSystemLogsJob implements DataRetentionJob {
     private static final Logger log = Logger.getLogger(CleanupSystemLogsJob.class.getName());
     
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private TableRetentionExecutor tableRetentionExecutor;
     
     @Override
     public int execute(DataRetentionConfig config) {
@@ -29,10 +30,10 @@ public class CleanupSystemLogsJob implements DataRetentionJob {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(config.getRetentionDays());
         
         try {
-            String sql = "DELETE FROM system_logs WHERE created_at < ?";
-            int deletedRecords = jdbcTemplate.update(sql, cutoffDate);
-            log.info("Cleanup system logs completed: " + deletedRecords + " records deleted");
-            return deletedRecords;
+            TableRetentionExecutor.RetentionResult result = tableRetentionExecutor.purgeLogTable("system_logs", cutoffDate);
+            log.info("Cleanup system logs completed: " + result.getRowsDeleted() + " records deleted, " +
+                     result.getBytesReclaimed() + " bytes reclaimed");
+            return (int) Math.min(result.getRowsDeleted(), Integer.MAX_VALUE);
         } catch (Exception e) {
             log.severe("Error during system logs cleanup: " + e.getMessage());
             throw new RuntimeException("Failed to cleanup system logs", e);
@@ -0,0 +1,203 @@
+package com.integrixs.backend.logging;
+
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free hand-off between logging threads and a single database writer thread.
+ *
+ * Logging threads only enqueue; the writer drains the queue in batches and flushes a batch
+ * when it is full or when the oldest queued record has waited flushIntervalMs. When the
+ * queue is full new records are dropped instead of blocking the caller, and the owning
+ * appender may discard low-priority records earlier (see {@link #isOverloaded()}).
+ * Errors are reported through the appender's logback status, never through a logger, so
+ * the writer cannot feed records back into itself.
+ */
+class AsyncLogBatchWriter<T> {
+
+    private final String name;
+    private final ContextAware owner;
+    private final Consumer<List<T>> batchConsumer;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int discardingThreshold;
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    AsyncLogBatchWriter(String name, ContextAware owner, Consumer<List<T>> batchConsumer,
+                        int capacity, int batchSize, long flushIntervalMs, int discardingThreshold) {
+        this.name = name;
+        this.owner = owner;
+        this.batchConsumer = batchConsumer;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.discardingThreshold = discardingThreshold >= 0 ? discardingThreshold : this.capacity / 5;
+        this.writerThread = new Thread(this::writeLoop, name + "-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a record for the writer
+     *
+     * @return false if the queue was full or the writer is stopped and the record was dropped
+     */
+    boolean offer(T record) {
+        if (!running) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        int size = queued.incrementAndGet();
+        if (size > capacity) {
+            queued.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        queue.offer(record);
+        enqueuedCount.incrementAndGet();
+        highWaterMark.accumulateAndGet(size, Math::max);
+        if (size == batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+        return true;
+    }
+
+    /**
+     * True when fewer than discardingThreshold slots are left in the queue
+     */
+    boolean isOverloaded() {
+        return capacity - queued.get() < discardingThreshold;
+    }
+
+    /**
+     * Count a record the owning appender discarded because of overload
+     */
+    void recordDiscarded() {
+        discardedCount.incrementAndGet();
+    }
+
+    boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    /**
+     * Stop accepting records and flush what is queued, waiting at most timeoutMs
+     */
+    void stop(long timeoutMs) {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(Math.max(1, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            owner.addWarn(name + ": writer did not finish within " + timeoutMs + "ms, "
+                + queued.get() + " queued log records were not written");
+        }
+    }
+
+    Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueSize", queued.get());
+        stats.put("queueCapacity", capacity);
+        stats.put("highWaterMark", highWaterMark.get());
+        stats.put("enqueued", enqueuedCount.get());
+        stats.put("written", writtenCount.get());
+        stats.put("batches", batchCount.get());
+        stats.put("dropped", droppedCount.get());
+        stats.put("discarded", discardedCount.get());
+        stats.put("failed", failedCount.get());
+        return stats;
+    }
+
+    int getQueueSize() {
+        return queued.get();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    long getDiscardedCount() {
+        return discardedCount.get();
+    }
+
+    long getFailedCount() {
+        return failedCount.get();
+    }
+
+    long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    private void writeLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+
+        while (running || queued.get() > 0 || !batch.isEmpty()) {
+            T record;
+            while (batch.size() < batchSize && (record = queue.poll()) != null) {
+                queued.decrementAndGet();
+                if (batch.isEmpty()) {
+                    deadline = System.nanoTime() + flushIntervalNanos;
+                }
+                batch.add(record);
+            }
+
+            if (batch.isEmpty()) {
+                if (running) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                flush(batch);
+                batch = new ArrayList<>(batchSize);
+            } else {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        try {
+            batchConsumer.accept(batch);
+            writtenCount.addAndGet(batch.size());
+            batchCount.incrementAndGet();
+        } catch (Exception e) {
+            failedCount.addAndGet(batch.size());
+            owner.addError(name + ": failed to write " + batch.size() + " log records to database", e);
+        }
+    }
+}
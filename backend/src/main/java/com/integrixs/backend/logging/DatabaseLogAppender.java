@@ -2,7 +2,8 @@ package com.integrixs.backend.logging;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
-import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import com.integrixs.core.repository.SystemLogRepository;
 import com.integrixs.shared.model.SystemLog;
 import org.slf4j.MDC;
@@ -19,19 +20,37 @@ import java.net.InetAddress;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * Custom Logback appender that duplicates all application logs to the database
  * This allows for database-based querying and categorization of logs
+ * 
+ * Events are converted on the logging thread (MDC and request context are thread-bound)
+ * and handed to a single writer thread that inserts them with JDBC batches, so logging
+ * never waits on the database. Under overload events below WARN are discarded first;
+ * when the queue is full new events are dropped.
  */
 @Component
-public class DatabaseLogAppender extends AppenderBase<ILoggingEvent> {
+public class DatabaseLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
     
-    private SystemLogRepository systemLogRepository;
+    private volatile SystemLogRepository systemLogRepository;
     private ApplicationContext applicationContext;
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
+    
+    // Writer settings, configurable from logback.xml or LoggingConfig
+    private int queueCapacity = 8192;
+    private int batchSize = 200;
+    private long flushIntervalMs = 1000;
+    private int discardingThreshold = -1;
+    private boolean dropBelowWarnOnOverload = true;
+    private long shutdownTimeoutMs = 5000;
+    
+    private AsyncLogBatchWriter<SystemLog> writer;
+    private String environment;
+    private String serverHostname;
     
     /**
      * Set the application context to resolve dependencies
@@ -55,8 +74,36 @@ public class DatabaseLogAppender extends AppenderBase<ILoggingEvent> {
         }
     }
     
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        // Resolved once - these do not change while the application runs
+        environment = resolveEnvironment();
+        serverHostname = resolveServerHostname();
+        writer = new AsyncLogBatchWriter<>(getName() != null ? getName() : "DatabaseLogAppender", this,
+            this::writeBatch, queueCapacity, batchSize, flushIntervalMs, discardingThreshold);
+        super.start();
+    }
+    
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        // Flush whatever is still queued
+        writer.stop(shutdownTimeoutMs);
+    }
+    
     @Override
     protected void append(ILoggingEvent eventObject) {
+        // Never re-enter from the writer thread (JDBC and repository logging)
+        if (writer.isWriterThread()) {
+            return;
+        }
+        
         initializeIfNeeded();
         
         // Skip if repository is not available yet (during application startup)
@@ -64,9 +111,15 @@ public class DatabaseLogAppender extends AppenderBase<ILoggingEvent> {
             return;
         }
         
+        if (dropBelowWarnOnOverload && writer.isOverloaded()
+                && !eventObject.getLevel().isGreaterOrEqual(Level.WARN)) {
+            writer.recordDiscarded();
+            return;
+        }
+        
         try {
             SystemLog log = convertToSystemLog(eventObject);
-            systemLogRepository.insertLog(log);
+            writer.offer(log);
         } catch (Exception e) {
             // Don't let logging errors break the application
             // We could optionally log this error to a different appender
@@ -74,6 +127,41 @@ public class DatabaseLogAppender extends AppenderBase<ILoggingEvent> {
         }
     }
     
+    private void writeBatch(List<SystemLog> logs) {
+        systemLogRepository.insertLogs(logs);
+    }
+    
+    /**
+     * Writer queue statistics (queue size, written, dropped, discarded, failed)
+     */
+    public Map<String, Object> getStatistics() {
+        return writer != null ? writer.getStatistics() : Map.of();
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+    
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+    
+    public void setDropBelowWarnOnOverload(boolean dropBelowWarnOnOverload) {
+        this.dropBelowWarnOnOverload = dropBelowWarnOnOverload;
+    }
+    
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+    
     /**
      * Convert Logback ILoggingEvent to SystemLog entity
      */
@@ -104,8 +192,8 @@ public class DatabaseLogAppender extends AppenderBase<ILoggingEvent> {
         
         // Set application context
         log.setApplicationName("h2h-backend");
-        log.setEnvironment(getEnvironment());
-        log.setServerHostname(getServerHostname());
+        log.setEnvironment(environment);
+        log.setServerHostname(serverHostname);
         
         return log;
     }
@@ -353,14 +441,14 @@ public class DatabaseLogAppender extends AppenderBase<ILoggingEvent> {
     /**
      * Get the current environment
      */
-    private String getEnvironment() {
+    private String resolveEnvironment() {
         return System.getProperty("spring.profiles.active", "dev");
     }
     
     /**
      * Get the server hostname
      */
-    private String getServerHostname() {
+    private String resolveServerHostname() {
         try {
             return InetAddress.getLocalHost().getHostName();
         } catch (Exception e) {
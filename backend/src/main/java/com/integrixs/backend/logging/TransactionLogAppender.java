@@ -1,5 +1,6 @@
 package com.integrixs.backend.logging;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import com.integrixs.core.service.TransactionLogService;
@@ -8,6 +9,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.MDC;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,25 +19,56 @@ import java.util.Map;
  * transaction_logs table for security monitoring and business analytics.
  * 
  * Used by the TRANSACTIONAL tier for dual logging (files + database).
+ * 
+ * Events are converted on the logging thread (MDC is thread-bound) and written by a
+ * single writer thread in JDBC batches. Under overload events below WARN are discarded
+ * first; when the queue is full new events are dropped.
  */
 public class TransactionLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
 
-    private TransactionLogService transactionLogService;
+    private volatile TransactionLogService transactionLogService;
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    // Writer settings, configurable from logback.xml
+    private int queueCapacity = 8192;
+    private int batchSize = 200;
+    private long flushIntervalMs = 1000;
+    private int discardingThreshold = -1;
+    private boolean dropBelowWarnOnOverload = true;
+    private long shutdownTimeoutMs = 5000;
+
+    private AsyncLogBatchWriter<TransactionLog> writer;
+
     @Override
     public void start() {
-        // Try to get the TransactionLogService from Spring context
+        if (isStarted()) {
+            return;
+        }
         try {
-            // This will be injected by Spring when the appender is created
+            writer = new AsyncLogBatchWriter<>(getName() != null ? getName() : "TransactionLogAppender", this,
+                this::writeBatch, queueCapacity, batchSize, flushIntervalMs, discardingThreshold);
             super.start();
         } catch (Exception e) {
             addError("Failed to start TransactionLogAppender: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        // Flush whatever is still queued
+        writer.stop(shutdownTimeoutMs);
+    }
+
     @Override
     protected void append(ILoggingEvent event) {
+        // Never re-enter from the writer thread (JDBC and service logging)
+        if (writer.isWriterThread()) {
+            return;
+        }
         try {
             // Only process if we have the service available
             if (transactionLogService == null) {
@@ -46,17 +79,34 @@ public class TransactionLogAppender extends UnsynchronizedAppenderBase<ILoggingE
                 }
             }
 
+            if (dropBelowWarnOnOverload && writer.isOverloaded()
+                    && !event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                writer.recordDiscarded();
+                return;
+            }
+
             // Create transaction log from the logging event
             TransactionLog transactionLog = createTransactionLogFromEvent(event);
             
-            // Log asynchronously to avoid blocking the calling thread
-            transactionLogService.logAsync(transactionLog);
+            // Hand off to the writer thread to avoid blocking the calling thread
+            writer.offer(transactionLog);
             
         } catch (Exception e) {
             addError("Failed to append transaction log to database: " + e.getMessage(), e);
         }
     }
 
+    private void writeBatch(List<TransactionLog> logs) {
+        transactionLogService.logBatch(logs);
+    }
+
+    /**
+     * Writer queue statistics (queue size, written, dropped, discarded, failed)
+     */
+    public Map<String, Object> getStatistics() {
+        return writer != null ? writer.getStatistics() : Map.of();
+    }
+
     /**
      * Create a TransactionLog entity from a Logback logging event
      */
@@ -259,4 +309,28 @@ public class TransactionLogAppender extends UnsynchronizedAppenderBase<ILoggingE
     public void setTransactionLogService(TransactionLogService transactionLogService) {
         this.transactionLogService = transactionLogService;
     }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public void setDropBelowWarnOnOverload(boolean dropBelowWarnOnOverload) {
+        this.dropBelowWarnOnOverload = dropBelowWarnOnOverload;
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,7 +35,8 @@ import java.util.logging.Logger;
  * - Configurable retention periods for different data types
  * - Spring @Scheduled execution with configurable cron expressions
  * - File-based log cleanup with compression and archiving
- * - Database table cleanup for system_logs and transaction_logs
+ * - Database table cleanup for system_logs, transaction_logs and flow_executions,
+ *   dropping expired daily partitions and deleting the remainder in chunks
  * - Web UI configuration and manual execution
  * - Comprehensive logging and monitoring
  */
@@ -47,6 +49,7 @@ public class DataRetentionService {
     private final DataRetentionConfigRepository retentionConfigRepository;
     private final JdbcTemplate jdbcTemplate;
     private final TaskScheduler taskScheduler;
+    private final TableRetentionExecutor tableRetentionExecutor;
 
     @Value("${logging.file.path:logs}")
     private String logPath;
@@ -55,16 +58,20 @@ public class DataRetentionService {
     private volatile String lastExecutionStatus = "Never executed";
     private volatile AtomicInteger lastFilesProcessed = new AtomicInteger(0);
     private volatile AtomicLong lastDatabaseRecordsDeleted = new AtomicLong(0);
+    private volatile AtomicLong lastDatabaseBytesReclaimed = new AtomicLong(0);
+    private volatile List<TableRetentionExecutor.RetentionResult> lastTableResults = List.of();
 
     // Track scheduled tasks for dynamic management
     private final Map<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
 
     public DataRetentionService(DataRetentionConfigRepository retentionConfigRepository, 
                                JdbcTemplate jdbcTemplate,
-                               TaskScheduler taskScheduler) {
+                               TaskScheduler taskScheduler,
+                               TableRetentionExecutor tableRetentionExecutor) {
         this.retentionConfigRepository = retentionConfigRepository;
         this.jdbcTemplate = jdbcTemplate;
         this.taskScheduler = taskScheduler;
+        this.tableRetentionExecutor = tableRetentionExecutor;
     }
 
     /**
@@ -150,7 +157,7 @@ public class DataRetentionService {
             }
 
             int totalFilesProcessed = 0;
-            long totalDbRecordsDeleted = 0;
+            List<TableRetentionExecutor.RetentionResult> tableResults = new ArrayList<>();
 
             // Process each retention configuration
             for (DataRetentionConfig config : configs) {
@@ -159,10 +166,13 @@ public class DataRetentionService {
                         totalFilesProcessed += processLogFileRetention(config);
                         break;
                     case SYSTEM_LOGS:
-                        totalDbRecordsDeleted += processDatabaseRetention(config, "system_logs");
+                        processDatabaseRetention(config, "system_logs", tableResults);
                         break;
                     case TRANSACTION_LOGS:
-                        totalDbRecordsDeleted += processDatabaseRetention(config, "transaction_logs");
+                        processDatabaseRetention(config, "transaction_logs", tableResults);
+                        break;
+                    case FLOW_EXECUTIONS:
+                        processDatabaseRetention(config, "flow_executions", tableResults);
                         break;
                     case SCHEDULE:
                         // Skip - this is just configuration
@@ -172,14 +182,20 @@ public class DataRetentionService {
                 }
             }
 
+            long totalDbRecordsDeleted = tableResults.stream().mapToLong(TableRetentionExecutor.RetentionResult::getRowsDeleted).sum();
+            long totalDbBytesReclaimed = tableResults.stream().mapToLong(TableRetentionExecutor.RetentionResult::getBytesReclaimed).sum();
+
             lastFilesProcessed.set(totalFilesProcessed);
             lastDatabaseRecordsDeleted.set(totalDbRecordsDeleted);
-            lastExecutionStatus = String.format("Completed - Files: %d, DB Records: %d", 
-                totalFilesProcessed, totalDbRecordsDeleted);
+            lastDatabaseBytesReclaimed.set(totalDbBytesReclaimed);
+            lastTableResults = List.copyOf(tableResults);
+            lastExecutionStatus = String.format("Completed - Files: %d, DB Records: %d, DB Bytes Reclaimed: %d", 
+                totalFilesProcessed, totalDbRecordsDeleted, totalDbBytesReclaimed);
 
             log.info("=== DATA RETENTION EXECUTION COMPLETED ===");
             log.info("Files processed: " + totalFilesProcessed);
             log.info("Database records deleted: " + totalDbRecordsDeleted);
+            log.info("Database bytes reclaimed: " + totalDbBytesReclaimed);
 
         } catch (Exception e) {
             log.severe("Error during data retention execution: " + e.getMessage());
@@ -278,25 +294,20 @@ public class DataRetentionService {
     }
 
     /**
-     * Process database table retention
+     * Process database table retention, adding the table's result to the run's results
      */
-    private long processDatabaseRetention(DataRetentionConfig config, String tableName) {
+    private void processDatabaseRetention(DataRetentionConfig config, String tableName,
+                                          List<TableRetentionExecutor.RetentionResult> results) {
         log.info("Processing database retention for table: " + tableName + 
                 " - Retain: " + config.getRetentionDays() + " days");
 
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(config.getRetentionDays());
         try {
-            String deleteSql = String.format(
-                "DELETE FROM %s WHERE created_at < NOW() - INTERVAL '%d days'",
-                tableName, config.getRetentionDays()
-            );
-
-            int deletedRows = jdbcTemplate.update(deleteSql);
-            log.info("Deleted " + deletedRows + " records from table: " + tableName);
-            return deletedRows;
-
+            results.add("flow_executions".equals(tableName)
+                ? tableRetentionExecutor.purgeFlowExecutions(cutoffDate)
+                : tableRetentionExecutor.purgeLogTable(tableName, cutoffDate));
         } catch (Exception e) {
             log.severe("Error deleting old records from table: " + tableName + " - " + e.getMessage());
-            return 0;
         }
     }
 
@@ -336,6 +347,8 @@ public class DataRetentionService {
         status.setStatus(lastExecutionStatus);
         status.setFilesProcessed(lastFilesProcessed.get());
         status.setDatabaseRecordsDeleted(lastDatabaseRecordsDeleted.get());
+        status.setDatabaseBytesReclaimed(lastDatabaseBytesReclaimed.get());
+        status.setTableResults(lastTableResults);
         status.setNextExecution(getNextExecutionTime());
         return status;
     }
@@ -402,6 +415,8 @@ public class DataRetentionService {
         private String status;
         private int filesProcessed;
         private long databaseRecordsDeleted;
+        private long databaseBytesReclaimed;
+        private List<TableRetentionExecutor.RetentionResult> tableResults = List.of();
         private LocalDateTime nextExecution;
 
         // Constructors
@@ -440,6 +455,22 @@ public class DataRetentionService {
             this.databaseRecordsDeleted = databaseRecordsDeleted;
         }
 
+        public long getDatabaseBytesReclaimed() {
+            return databaseBytesReclaimed;
+        }
+
+        public void setDatabaseBytesReclaimed(long databaseBytesReclaimed) {
+            this.databaseBytesReclaimed = databaseBytesReclaimed;
+        }
+
+        public List<TableRetentionExecutor.RetentionResult> getTableResults() {
+            return tableResults;
+        }
+
+        public void setTableResults(List<TableRetentionExecutor.RetentionResult> tableResults) {
+            this.tableResults = tableResults;
+        }
+
         public LocalDateTime getNextExecution() {
             return nextExecution;
         }
@@ -1,7 +1,13 @@
 package com.integrixs.backend.service;
 
+import com.integrixs.adapters.sftp.SftpDirectoryLister;
+import com.integrixs.adapters.sftp.SftpHostThrottle;
+import com.integrixs.adapters.sftp.SftpParallelTransfer;
+import com.integrixs.adapters.sftp.SftpResumableTransfer;
 import com.integrixs.core.config.ConfigurationManager;
 import com.integrixs.core.logging.EnhancedLogger;
+import com.integrixs.core.service.FlowRetryDispatcher;
+import com.integrixs.core.service.FlowTriggerQueue;
 import com.integrixs.shared.constants.H2HConstants;
 import com.integrixs.shared.dto.SystemHealth;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,12 +31,30 @@ public class SystemService {
     private static final EnhancedLogger logger = EnhancedLogger.getLogger(SystemService.class);
     
     private final ConfigurationManager configManager;
+    private final SftpHostThrottle sftpHostThrottle;
+    private final SftpParallelTransfer sftpParallelTransfer;
+    private final SftpResumableTransfer sftpResumableTransfer;
+    private final SftpDirectoryLister sftpDirectoryLister;
+    private final FlowRetryDispatcher flowRetryDispatcher;
+    private final FlowTriggerQueue flowTriggerQueue;
     
     // @Autowired
     // private BankOperationService bankOperationService; // Disabled until generic adapters are implemented
 
-    public SystemService() {
+    @Autowired
+    public SystemService(SftpHostThrottle sftpHostThrottle,
+                         SftpParallelTransfer sftpParallelTransfer,
+                         SftpResumableTransfer sftpResumableTransfer,
+                         SftpDirectoryLister sftpDirectoryLister,
+                         FlowRetryDispatcher flowRetryDispatcher,
+                         FlowTriggerQueue flowTriggerQueue) {
         this.configManager = new ConfigurationManager();
+        this.sftpHostThrottle = sftpHostThrottle;
+        this.sftpParallelTransfer = sftpParallelTransfer;
+        this.sftpResumableTransfer = sftpResumableTransfer;
+        this.sftpDirectoryLister = sftpDirectoryLister;
+        this.flowRetryDispatcher = flowRetryDispatcher;
+        this.flowTriggerQueue = flowTriggerQueue;
     }
 
     /**
@@ -113,6 +137,20 @@ public class SystemService {
         disk.put("usagePercent", (double) (basePath.getTotalSpace() - basePath.getFreeSpace()) / basePath.getTotalSpace() * 100);
         metrics.put("disk", disk);
         
+        // SFTP partner metrics: per-host session waits and bandwidth throttling, transfer features
+        Map<String, Object> sftp = new HashMap<>();
+        sftp.put("hosts", sftpHostThrottle.getStatistics());
+        sftp.put("parallelTransfers", sftpParallelTransfer.getStatistics());
+        sftp.put("resume", sftpResumableTransfer.getStatistics());
+        sftp.put("listing", sftpDirectoryLister.getStatistics());
+        metrics.put("sftp", sftp);
+        
+        // Retry dispatcher: claimed/failed retries, due backlog and how late retries start
+        metrics.put("flowRetries", flowRetryDispatcher.getStatistics());
+        
+        // Trigger queue: depth by state, oldest waiting trigger and backlog per deployment
+        metrics.put("flowTriggerQueue", flowTriggerQueue.getStatistics());
+        
         return metrics;
     }
 
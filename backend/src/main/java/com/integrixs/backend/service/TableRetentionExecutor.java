@@ -0,0 +1,277 @@
+package com.integrixs.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Removes expired rows from the log and execution tables without long-running deletes.
+ *
+ * system_logs and transaction_logs are partitioned by day on created_at (V020). Partitions
+ * that lie entirely before the cutoff are dropped, which frees their space at once and
+ * holds the parent lock only for the drop itself. What is left - rows in the legacy or
+ * default partition, tables that are not partitioned, and flow_executions - is deleted
+ * in chunks of chunkSize rows, each in its own transaction, pausing between chunks so
+ * concurrent log inserts keep flowing.
+ *
+ * Bytes reclaimed by a drop are the partition's total size; for chunked deletes they are
+ * estimated from the table's average row size, as that space becomes reusable after
+ * vacuum rather than being returned to the operating system.
+ */
+@Component
+public class TableRetentionExecutor {
+
+    private static final Logger log = Logger.getLogger(TableRetentionExecutor.class.getName());
+
+    // Tables partitioned by day on created_at; table names are never taken from input
+    private static final Set<String> LOG_TABLES = Set.of("system_logs", "transaction_logs");
+
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    // Partitions whose upper bound is at or before the cutoff; the default partition has no bound
+    private static final String EXPIRED_PARTITIONS_SQL = """
+        SELECT c.relname AS partition_name,
+               pg_total_relation_size(c.oid) AS total_bytes,
+               CASE WHEN c.reltuples >= 0 THEN c.reltuples::bigint ELSE -1 END AS estimated_rows
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = to_regclass(?)
+          AND (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz <= ?
+        ORDER BY c.relname
+        """;
+
+    private static final String TABLE_SIZE_SQL = """
+        SELECT COALESCE(SUM(pg_total_relation_size(c.oid)), 0) AS total_bytes,
+               COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::bigint AS estimated_rows
+        FROM pg_class c
+        WHERE c.oid = to_regclass(?)
+           OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = to_regclass(?))
+        """;
+
+    // Finished executions only, and never the parent of a remaining retry
+    private static final String DELETE_FLOW_EXECUTIONS_CHUNK_SQL = """
+        DELETE FROM flow_executions WHERE id IN (
+            SELECT fe.id FROM flow_executions fe
+            WHERE fe.started_at < ?
+              AND fe.execution_status IN ('COMPLETED', 'FAILED', 'CANCELLED', 'TIMEOUT')
+              AND NOT EXISTS (SELECT 1 FROM flow_executions child WHERE child.parent_execution_id = fe.id)
+            LIMIT ?
+        )
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final long dropLockTimeoutMillis;
+    private final int partitionDaysAhead;
+
+    public TableRetentionExecutor(JdbcTemplate jdbcTemplate,
+                                  @Value("${h2h.retention.delete.chunk-size:5000}") int chunkSize,
+                                  @Value("${h2h.retention.delete.pause-ms:200}") long chunkPauseMillis,
+                                  @Value("${h2h.retention.partitions.drop-lock-timeout-ms:5000}") long dropLockTimeoutMillis,
+                                  @Value("${h2h.retention.partitions.days-ahead:7}") int partitionDaysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunkPauseMillis = Math.max(0, chunkPauseMillis);
+        this.dropLockTimeoutMillis = dropLockTimeoutMillis;
+        this.partitionDaysAhead = partitionDaysAhead;
+    }
+
+    /**
+     * Remove rows of a day-partitioned log table created before the cutoff
+     */
+    public RetentionResult purgeLogTable(String table, LocalDateTime cutoff) {
+        if (!LOG_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a partitioned log table: " + table);
+        }
+        long start = System.currentTimeMillis();
+        RetentionResult result = new RetentionResult(table);
+
+        if (isPartitioned(table)) {
+            dropExpiredPartitions(table, cutoff, result);
+        }
+
+        String chunkSql = "DELETE FROM " + table + " WHERE (id, created_at) IN (" +
+                          "SELECT id, created_at FROM " + table + " WHERE created_at < ? LIMIT ?)";
+        deleteInChunks(table, chunkSql, cutoff, result);
+
+        result.durationMs = System.currentTimeMillis() - start;
+        log.info("Retention for " + table + " completed: " + result);
+        return result;
+    }
+
+    /**
+     * Remove finished flow executions started before the cutoff; their steps cascade
+     */
+    public RetentionResult purgeFlowExecutions(LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        RetentionResult result = new RetentionResult("flow_executions");
+        deleteInChunks("flow_executions", DELETE_FLOW_EXECUTIONS_CHUNK_SQL, cutoff, result);
+        result.durationMs = System.currentTimeMillis() - start;
+        log.info("Retention for flow_executions completed: " + result);
+        return result;
+    }
+
+    /**
+     * Keep daily partitions created ahead of time so new rows never land in the default partition
+     */
+    @Scheduled(fixedDelayString = "${h2h.retention.partitions.maintenance-interval-ms:3600000}", initialDelay = 0)
+    public void ensureDailyPartitions() {
+        for (String table : LOG_TABLES) {
+            try {
+                if (!isPartitioned(table)) {
+                    continue;
+                }
+                Integer created = jdbcTemplate.queryForObject("SELECT h2h_create_daily_partitions(?, ?)",
+                    Integer.class, table, partitionDaysAhead);
+                if (created != null && created > 0) {
+                    log.info("Created " + created + " daily partition(s) for " + table);
+                }
+            } catch (Exception e) {
+                log.warning("Failed to create daily partitions for " + table + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+            Boolean.class, table);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private void dropExpiredPartitions(String table, LocalDateTime cutoff, RetentionResult result) {
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(EXPIRED_PARTITIONS_SQL,
+            table, Timestamp.valueOf(cutoff));
+
+        for (Map<String, Object> partition : partitions) {
+            String name = (String) partition.get("partition_name");
+            long bytes = ((Number) partition.get("total_bytes")).longValue();
+            long rows = ((Number) partition.get("estimated_rows")).longValue();
+            if (rows < 0) {
+                // Never analyzed, so there is no estimate
+                Long counted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + quoteIdentifier(name), Long.class);
+                rows = counted != null ? counted : 0;
+            }
+
+            if (dropPartition(name)) {
+                result.partitionsDropped++;
+                result.rowsDeleted += rows;
+                result.bytesReclaimed += bytes;
+                log.info("Dropped partition " + name + " (~" + rows + " rows, " + bytes + " bytes)");
+            } else {
+                log.warning("Partition " + name + " is locked by other sessions, leaving it for the next run");
+            }
+        }
+    }
+
+    /**
+     * Drop a partition, giving up if its parent cannot be locked within the lock timeout
+     * so that a long query on the table does not queue log inserts behind the drop
+     */
+    private boolean dropPartition(String partition) {
+        Boolean dropped = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL lock_timeout = " + dropLockTimeoutMillis);
+                statement.execute("DROP TABLE " + quoteIdentifier(partition));
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (LOCK_NOT_AVAILABLE.equals(e.getSQLState())) {
+                    return false;
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        return Boolean.TRUE.equals(dropped);
+    }
+
+    private void deleteInChunks(String table, String chunkSql, LocalDateTime cutoff, RetentionResult result) {
+        Map<String, Object> size = jdbcTemplate.queryForMap(TABLE_SIZE_SQL, table, table);
+        long tableBytes = ((Number) size.get("total_bytes")).longValue();
+        long tableRows = ((Number) size.get("estimated_rows")).longValue();
+        long bytesPerRow = tableRows > 0 ? tableBytes / tableRows : 0;
+
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        long deleted = 0;
+        int chunkDeleted;
+        do {
+            chunkDeleted = jdbcTemplate.update(chunkSql, cutoffTimestamp, chunkSize);
+            deleted += chunkDeleted;
+            if (chunkDeleted == chunkSize && chunkPauseMillis > 0) {
+                try {
+                    Thread.sleep(chunkPauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warning("Retention for " + table + " interrupted after " + deleted + " rows");
+                    break;
+                }
+            }
+        } while (chunkDeleted == chunkSize);
+
+        result.rowsDeleted += deleted;
+        result.bytesReclaimed += deleted * bytesPerRow;
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Outcome of one retention pass over a table
+     */
+    public static class RetentionResult {
+        private final String table;
+        private int partitionsDropped;
+        private long rowsDeleted;
+        private long bytesReclaimed;
+        private long durationMs;
+
+        public RetentionResult(String table) {
+            this.table = table;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public int getPartitionsDropped() {
+            return partitionsDropped;
+        }
+
+        public long getRowsDeleted() {
+            return rowsDeleted;
+        }
+
+        public long getBytesReclaimed() {
+            return bytesReclaimed;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows, %d bytes reclaimed, %d partition(s) dropped in %dms",
+                rowsDeleted, bytesReclaimed, partitionsDropped, durationMs);
+        }
+    }
+}
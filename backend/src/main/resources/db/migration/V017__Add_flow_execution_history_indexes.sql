@@ -0,0 +1,26 @@
+-- =====================================================
+-- Migration: V017__Add_flow_execution_history_indexes.sql
+-- Description: Composite indexes for keyset-paginated execution history queries
+-- Author: System
+-- Date: 2026-10-15
+-- =====================================================
+
+-- Execution history is read newest first (started_at DESC, id DESC) with optional
+-- flow, status and date filters. These indexes serve both the keyset predicate
+-- (started_at, id) < (?, ?) and the ordering without a sort step.
+CREATE INDEX IF NOT EXISTS idx_flow_executions_history
+    ON flow_executions (started_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_flow_executions_flow_history
+    ON flow_executions (flow_id, started_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_flow_executions_status_history
+    ON flow_executions (execution_status, started_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_flow_executions_flow_status_history
+    ON flow_executions (flow_id, execution_status, started_at DESC, id DESC);
+
+-- Single-column indexes are now leading prefixes of the composite indexes above
+DROP INDEX IF EXISTS idx_flow_executions_flow_id;
+DROP INDEX IF EXISTS idx_flow_executions_status;
+DROP INDEX IF EXISTS idx_flow_executions_started_at;
@@ -0,0 +1,21 @@
+-- =====================================================
+-- Migration: V018__Create_email_sync_state_table.sql
+-- Description: Per-adapter IMAP sync position for incremental UID-based mail polling
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- One row per adapter and mailbox folder. last_uid is the highest UID already
+-- processed; it is only meaningful while the server's UIDVALIDITY for the folder
+-- still equals uid_validity, otherwise the adapter resynchronises from scratch.
+CREATE TABLE IF NOT EXISTS email_sync_state (
+    adapter_id UUID NOT NULL REFERENCES adapters(id) ON DELETE CASCADE,
+    folder_name VARCHAR(255) NOT NULL,
+    uid_validity BIGINT NOT NULL,
+    last_uid BIGINT NOT NULL DEFAULT 0,
+    messages_processed BIGINT NOT NULL DEFAULT 0,
+    last_synced_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (adapter_id, folder_name)
+);
+
+COMMENT ON TABLE email_sync_state IS 'IMAP UIDVALIDITY and last processed UID per email adapter folder';
@@ -0,0 +1,33 @@
+-- =====================================================
+-- Migration: V019__Create_sftp_transfer_checkpoints_table.sql
+-- Description: Checkpoints that let interrupted large SFTP transfers resume on retry
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- One row per adapter, direction and remote file while a resumable transfer is
+-- incomplete; the row is removed once the file has been transferred in full.
+-- source_fingerprint identifies the source content (remote mtime and size for
+-- downloads, payload SHA-256 for uploads) so a changed source never resumes onto
+-- stale partial data. partial_sha256 is the SHA-256 of the first bytes_done bytes,
+-- used to check a partially downloaded local file before appending to it.
+CREATE TABLE IF NOT EXISTS sftp_transfer_checkpoints (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    adapter_id UUID NOT NULL REFERENCES adapters(id) ON DELETE CASCADE,
+    direction VARCHAR(10) NOT NULL CHECK (direction IN ('DOWNLOAD', 'UPLOAD')),
+    remote_path TEXT NOT NULL,
+    source_size BIGINT NOT NULL,
+    source_fingerprint VARCHAR(128) NOT NULL,
+    bytes_done BIGINT NOT NULL DEFAULT 0,
+    partial_sha256 VARCHAR(64),
+    local_partial_path TEXT,
+    execution_id UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_sftp_transfer_checkpoints_file UNIQUE (adapter_id, direction, remote_path)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sftp_transfer_checkpoints_updated_at
+    ON sftp_transfer_checkpoints (updated_at);
+
+COMMENT ON TABLE sftp_transfer_checkpoints IS 'Progress of incomplete resumable SFTP transfers per adapter and remote file';
@@ -0,0 +1,149 @@
+-- =====================================================
+-- Migration: V020__Partition_log_tables_by_day.sql
+-- Description: Range-partition system_logs and transaction_logs by day so retention drops partitions
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- Each log table becomes a parent partitioned on created_at. The existing table is
+-- attached unchanged as <table>_legacy covering everything up to the start of tomorrow
+-- (UTC), so no rows are copied; it is dropped as a whole once retention passes its
+-- upper bound and is trimmed with chunked deletes until then. New rows go to daily
+-- partitions <table>_pYYYYMMDD created ahead by h2h_create_daily_partitions(), with a
+-- <table>_default partition catching rows if partition maintenance falls behind.
+--
+-- flow_executions is not partitioned: flow_execution_steps and parent_execution_id
+-- reference its id, and a partitioned table cannot have a unique key on id alone.
+-- It is purged with chunked deletes instead.
+
+-- Creates the daily partitions of a table partitioned with this migration's naming
+-- from today (UTC) through p_days_ahead days ahead; returns the number created.
+-- Days already covered by another partition, or with rows in the default partition,
+-- are skipped with a notice.
+CREATE OR REPLACE FUNCTION h2h_create_daily_partitions(p_parent TEXT, p_days_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    v_day DATE;
+    v_partition TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    FOR i IN 0..p_days_ahead LOOP
+        v_day := (CURRENT_TIMESTAMP AT TIME ZONE 'UTC')::DATE + i;
+        v_partition := p_parent || '_p' || to_char(v_day, 'YYYYMMDD');
+        IF to_regclass(v_partition) IS NOT NULL THEN
+            CONTINUE;
+        END IF;
+        BEGIN
+            EXECUTE format(
+                'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                v_partition, p_parent,
+                to_char(v_day, 'YYYY-MM-DD') || ' 00:00:00+00',
+                to_char(v_day + 1, 'YYYY-MM-DD') || ' 00:00:00+00');
+            v_created := v_created + 1;
+        EXCEPTION
+            WHEN invalid_object_definition OR check_violation THEN
+                RAISE NOTICE 'Skipping partition % of %: %', v_partition, p_parent, SQLERRM;
+        END;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Swaps a log table for a day-partitioned parent with the old table attached as its
+-- legacy partition. Indexes on the parent reuse the equivalent legacy indexes.
+CREATE OR REPLACE FUNCTION h2h_partition_log_table(p_table TEXT)
+RETURNS VOID AS $$
+DECLARE
+    v_legacy TEXT := p_table || '_legacy';
+    v_legacy_end TEXT := to_char((CURRENT_TIMESTAMP AT TIME ZONE 'UTC')::DATE + 1, 'YYYY-MM-DD') || ' 00:00:00+00';
+BEGIN
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', p_table, v_legacy);
+    EXECUTE format('ALTER INDEX %I RENAME TO %I', p_table || '_pkey', v_legacy || '_pkey');
+
+    EXECUTE format(
+        'CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE INCLUDING COMMENTS) '
+        'PARTITION BY RANGE (created_at)', p_table, v_legacy);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I PRIMARY KEY (id, created_at)', p_table, p_table || '_pkey');
+
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)',
+        p_table, v_legacy, v_legacy_end);
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', p_table || '_default', p_table);
+END;
+$$ LANGUAGE plpgsql;
+
+-- =====================================================
+-- system_logs
+-- =====================================================
+SELECT h2h_partition_log_table('system_logs');
+
+CREATE INDEX idx_system_logs_p_timestamp ON system_logs(timestamp);
+CREATE INDEX idx_system_logs_p_level ON system_logs(log_level);
+CREATE INDEX idx_system_logs_p_category ON system_logs(log_category);
+CREATE INDEX idx_system_logs_p_logger ON system_logs(logger_name);
+CREATE INDEX idx_system_logs_p_correlation_id ON system_logs(correlation_id);
+CREATE INDEX idx_system_logs_p_user_id ON system_logs(user_id);
+CREATE INDEX idx_system_logs_p_adapter_id ON system_logs(adapter_id);
+CREATE INDEX idx_system_logs_p_flow_id ON system_logs(flow_id);
+CREATE INDEX idx_system_logs_p_execution_id ON system_logs(execution_id);
+CREATE INDEX idx_system_logs_p_marker ON system_logs(marker);
+CREATE INDEX idx_system_logs_p_environment ON system_logs(environment);
+CREATE INDEX idx_system_logs_p_level_category ON system_logs(log_level, log_category);
+CREATE INDEX idx_system_logs_p_timestamp_level ON system_logs(timestamp, log_level);
+CREATE INDEX idx_system_logs_p_adapter_timestamp ON system_logs(adapter_id, timestamp);
+CREATE INDEX idx_system_logs_p_flow_timestamp ON system_logs(flow_id, timestamp);
+CREATE INDEX idx_system_logs_p_created_at ON system_logs(created_at);
+CREATE INDEX idx_system_logs_p_errors_only ON system_logs(timestamp, logger_name)
+    WHERE log_level IN ('ERROR', 'FATAL');
+CREATE INDEX idx_system_logs_p_with_exceptions ON system_logs(timestamp, exception_class)
+    WHERE exception_class IS NOT NULL;
+
+-- =====================================================
+-- transaction_logs
+-- =====================================================
+SELECT h2h_partition_log_table('transaction_logs');
+
+CREATE INDEX idx_transaction_logs_p_timestamp ON transaction_logs(timestamp);
+CREATE INDEX idx_transaction_logs_p_level ON transaction_logs(level);
+CREATE INDEX idx_transaction_logs_p_category ON transaction_logs(category);
+CREATE INDEX idx_transaction_logs_p_component ON transaction_logs(component);
+CREATE INDEX idx_transaction_logs_p_source ON transaction_logs(source);
+CREATE INDEX idx_transaction_logs_p_username ON transaction_logs(username);
+CREATE INDEX idx_transaction_logs_p_ip_address ON transaction_logs(ip_address);
+CREATE INDEX idx_transaction_logs_p_correlation_id ON transaction_logs(correlation_id);
+CREATE INDEX idx_transaction_logs_p_adapter_id ON transaction_logs(adapter_id);
+CREATE INDEX idx_transaction_logs_p_execution_id ON transaction_logs(execution_id);
+CREATE INDEX idx_transaction_logs_p_created_at ON transaction_logs(created_at);
+
+DROP FUNCTION h2h_partition_log_table(TEXT);
+
+SELECT h2h_create_daily_partitions('system_logs', 7);
+SELECT h2h_create_daily_partitions('transaction_logs', 7);
+
+-- =====================================================
+-- flow_executions retention
+-- =====================================================
+-- Chunked purges skip executions that are still the parent of a retry; this index
+-- keeps that check from scanning the table for every chunk.
+CREATE INDEX IF NOT EXISTS idx_flow_executions_parent_execution_id
+    ON flow_executions (parent_execution_id) WHERE parent_execution_id IS NOT NULL;
+
+ALTER TABLE data_retention_configs DROP CONSTRAINT chk_data_type;
+ALTER TABLE data_retention_configs ADD CONSTRAINT chk_data_type
+    CHECK (data_type IN ('LOG_FILES', 'SYSTEM_LOGS', 'TRANSACTION_LOGS', 'FLOW_EXECUTIONS', 'SCHEDULE'));
+
+-- Disabled by default: execution history is only purged once an administrator opts in
+INSERT INTO data_retention_configs (
+    data_type, name, description, retention_days, archive_days, enabled, executor_class, created_by, updated_by
+) VALUES (
+    'FLOW_EXECUTIONS',
+    'Flow Execution History',
+    'Delete finished flow_executions records (and their steps) older than 365 days',
+    365,
+    NULL,
+    false,
+    'CleanupFlowExecutionsJob',
+    'system',
+    'system'
+) ON CONFLICT (name) DO NOTHING;
+
+COMMENT ON FUNCTION h2h_create_daily_partitions(TEXT, INTEGER) IS 'Creates missing daily partitions of a day-partitioned log table from today through p_days_ahead';
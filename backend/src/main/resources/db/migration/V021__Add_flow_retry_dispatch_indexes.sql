@@ -0,0 +1,21 @@
+-- =====================================================
+-- Migration: V021__Add_flow_retry_dispatch_indexes.sql
+-- Description: Indexes for the retry dispatcher's due-retry claims and per-flow retry cap
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- scheduled_for is the due time of a RETRY_PENDING execution. The dispatcher claims
+-- the oldest due retries in small batches; indexing only pending retries keeps each
+-- claim a short index range scan however large flow_executions grows.
+CREATE INDEX IF NOT EXISTS idx_flow_executions_retry_due
+    ON flow_executions (scheduled_for)
+    WHERE execution_status = 'RETRY_PENDING';
+
+-- Retries currently running per flow, counted before each claim for the per-flow cap
+CREATE INDEX IF NOT EXISTS idx_flow_executions_running_retries
+    ON flow_executions (flow_id, started_at)
+    WHERE execution_status = 'RUNNING' AND retry_attempt > 0;
+
+-- Superseded by idx_flow_executions_retry_due
+DROP INDEX IF EXISTS idx_flow_executions_scheduled_for;
@@ -0,0 +1,50 @@
+-- =====================================================
+-- Migration: V022__Create_scheduler_cluster_tables.sql
+-- Description: Node heartbeats, deployment shard leases and shared execution slots for clustered scheduling
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- Backend nodes running deployed flow scheduling with h2h.scheduler.cluster.enabled.
+-- A node is live while its heartbeat is younger than the shard lease TTL; live nodes
+-- share the shards evenly.
+CREATE TABLE IF NOT EXISTS scheduler_nodes (
+    node_id VARCHAR(255) PRIMARY KEY,
+    hostname VARCHAR(255),
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_heartbeat_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Deployments are hashed onto a fixed number of shards. Only the node holding an
+-- unexpired lease on a shard polls the deployments in it; a shard without owner or
+-- with an expired lease may be taken by any node below its fair share.
+CREATE TABLE IF NOT EXISTS scheduler_shard_leases (
+    shard_id INTEGER PRIMARY KEY,
+    owner_node_id VARCHAR(255),
+    lease_expires_at TIMESTAMP,
+    acquired_at TIMESTAMP,
+    renewed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_scheduler_shard_leases_owner
+    ON scheduler_shard_leases (owner_node_id);
+
+-- One row per running deployment execution across all nodes, counted against the
+-- deployment's max_concurrent_executions. Slots are renewed by the holding node's
+-- heartbeat, so the slots of a node that dies expire instead of leaking.
+CREATE TABLE IF NOT EXISTS deployment_execution_slots (
+    slot_id UUID PRIMARY KEY,
+    deployment_id UUID NOT NULL,
+    node_id VARCHAR(255) NOT NULL,
+    acquired_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    lease_expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_deployment_execution_slots_deployment
+    ON deployment_execution_slots (deployment_id, lease_expires_at);
+CREATE INDEX IF NOT EXISTS idx_deployment_execution_slots_node
+    ON deployment_execution_slots (node_id);
+
+COMMENT ON TABLE scheduler_nodes IS 'Heartbeats of backend nodes taking part in clustered flow scheduling';
+COMMENT ON TABLE scheduler_shard_leases IS 'Renewable leases assigning deployment shards to scheduling nodes';
+COMMENT ON TABLE deployment_execution_slots IS 'Leased running-execution slots per deployment, shared by all scheduling nodes';
@@ -0,0 +1,48 @@
+-- =====================================================
+-- Migration: V023__Create_flow_trigger_queue.sql
+-- Description: Durable queue of sender adapter pickups waiting for flow execution
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- A sender poll that finds data enqueues one row; consumers claim rows whose
+-- visible_at has passed with FOR UPDATE SKIP LOCKED and push visible_at out by the
+-- visibility timeout while they work, so a row claimed by a consumer that dies is
+-- delivered again once the timeout passes. Processed rows are deleted. Rows that
+-- fail max_attempts times, or whose payload files are gone, become DEAD.
+--
+-- trigger_data references the picked-up files in the payload spool directory of
+-- spool_host; only consumers on that host claim the row unless the spool is shared.
+CREATE TABLE IF NOT EXISTS flow_trigger_queue (
+    id UUID PRIMARY KEY,
+    deployment_id UUID NOT NULL,
+    flow_id UUID NOT NULL,
+    queue_status VARCHAR(20) NOT NULL DEFAULT 'READY',
+    trigger_data JSONB NOT NULL,
+    spool_host VARCHAR(255) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL,
+    enqueued_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    visible_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_by VARCHAR(255),
+    claimed_at TIMESTAMP,
+    last_error TEXT,
+    dead_at TIMESTAMP,
+    CONSTRAINT chk_flow_trigger_queue_status CHECK (queue_status IN ('READY', 'DEAD'))
+);
+
+-- Claims: visible rows oldest first
+CREATE INDEX IF NOT EXISTS idx_flow_trigger_queue_visible
+    ON flow_trigger_queue (visible_at)
+    WHERE queue_status = 'READY';
+
+-- Per-deployment backlog checked by the poller before each pickup
+CREATE INDEX IF NOT EXISTS idx_flow_trigger_queue_deployment
+    ON flow_trigger_queue (deployment_id)
+    WHERE queue_status = 'READY';
+
+CREATE INDEX IF NOT EXISTS idx_flow_trigger_queue_dead
+    ON flow_trigger_queue (dead_at)
+    WHERE queue_status = 'DEAD';
+
+COMMENT ON TABLE flow_trigger_queue IS 'Sender adapter pickups waiting for flow execution, claimed by consumers with visibility timeouts';
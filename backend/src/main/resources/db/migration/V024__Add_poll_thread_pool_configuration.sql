@@ -0,0 +1,14 @@
+-- =====================================================
+-- Migration: V024__Add_poll_thread_pool_configuration.sql
+-- Description: Add configurable thread pool settings for the sender poll executor
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- Scheduled and event-driven sender polls run on their own pool; a fire that finds
+-- the pool saturated is skipped rather than run on the scheduler thread
+INSERT INTO system_configuration (config_key, config_value, config_type, description, category, is_encrypted, is_readonly, default_value) VALUES
+('thread.pool.poll.core.size', '20', 'INTEGER', 'Sender poll thread pool core size', 'PERFORMANCE', false, false, '20'),
+('thread.pool.poll.max.size', '50', 'INTEGER', 'Sender poll thread pool maximum size - maximum concurrent sender polls', 'PERFORMANCE', false, false, '50'),
+('thread.pool.poll.queue.capacity', '200', 'INTEGER', 'Sender poll thread pool queue capacity - pending polls before fires are skipped', 'PERFORMANCE', false, false, '200')
+ON CONFLICT (config_key) DO NOTHING;
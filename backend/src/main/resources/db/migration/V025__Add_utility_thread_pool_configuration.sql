@@ -0,0 +1,14 @@
+-- =====================================================
+-- Migration: V025__Add_utility_thread_pool_configuration.sql
+-- Description: Add configurable thread pool settings for the utility executor
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- CPU-bound utility work such as per-file PGP processing runs on its own pool.
+-- A size of 0 sizes the pool to the processors available to the JVM at startup
+INSERT INTO system_configuration (config_key, config_value, config_type, description, category, is_encrypted, is_readonly, default_value) VALUES
+('thread.pool.utility.core.size', '0', 'INTEGER', 'Utility thread pool core size - 0 uses the number of available processors', 'PERFORMANCE', false, false, '0'),
+('thread.pool.utility.max.size', '0', 'INTEGER', 'Utility thread pool maximum size - 0 uses the number of available processors', 'PERFORMANCE', false, false, '0'),
+('thread.pool.utility.queue.capacity', '100', 'INTEGER', 'Utility thread pool queue capacity - pending tasks before they run on the calling flow thread', 'PERFORMANCE', false, false, '100')
+ON CONFLICT (config_key) DO NOTHING;
@@ -0,0 +1,14 @@
+-- =====================================================
+-- Migration: V026__Add_branch_thread_pool_configuration.sql
+-- Description: Add configurable thread pool settings for the parallel branch executor
+-- Author: System
+-- Date: 2026-10-16
+-- =====================================================
+
+-- Branches of parallel splits run on their own pool, apart from the flow threads that
+-- block while their split waits at the join
+INSERT INTO system_configuration (config_key, config_value, config_type, description, category, is_encrypted, is_readonly, default_value) VALUES
+('thread.pool.branch.core.size', '15', 'INTEGER', 'Parallel branch thread pool core size', 'PERFORMANCE', false, false, '15'),
+('thread.pool.branch.max.size', '30', 'INTEGER', 'Parallel branch thread pool maximum size - maximum concurrently running branches', 'PERFORMANCE', false, false, '30'),
+('thread.pool.branch.queue.capacity', '150', 'INTEGER', 'Parallel branch thread pool queue capacity - pending branches before they run on the splitting flow thread', 'PERFORMANCE', false, false, '150')
+ON CONFLICT (config_key) DO NOTHING;
@@ -0,0 +1,84 @@
+package com.integrixs.core.repository;
+
+import com.integrixs.shared.model.EmailSyncState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC Repository for per-adapter IMAP sync positions used by incremental mail polling
+ */
+@Repository
+public class EmailSyncStateRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EmailSyncStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<EmailSyncState> findByAdapterAndFolder(UUID adapterId, String folderName) {
+        String sql = """
+            SELECT adapter_id, folder_name, uid_validity, last_uid, messages_processed, last_synced_at
+            FROM email_sync_state
+            WHERE adapter_id = ? AND folder_name = ?
+        """;
+
+        try {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(sql, new EmailSyncStateRowMapper(), adapterId, folderName));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Insert or replace the sync position for the adapter folder
+     */
+    public void save(EmailSyncState state) {
+        String sql = """
+            INSERT INTO email_sync_state (adapter_id, folder_name, uid_validity, last_uid, messages_processed, last_synced_at)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (adapter_id, folder_name) DO UPDATE SET
+                uid_validity = EXCLUDED.uid_validity,
+                last_uid = EXCLUDED.last_uid,
+                messages_processed = EXCLUDED.messages_processed,
+                last_synced_at = EXCLUDED.last_synced_at
+        """;
+
+        jdbcTemplate.update(sql,
+            state.getAdapterId(),
+            state.getFolderName(),
+            state.getUidValidity(),
+            state.getLastUid(),
+            state.getMessagesProcessed()
+        );
+    }
+
+    public void deleteByAdapter(UUID adapterId) {
+        jdbcTemplate.update("DELETE FROM email_sync_state WHERE adapter_id = ?", adapterId);
+    }
+
+    private static class EmailSyncStateRowMapper implements RowMapper<EmailSyncState> {
+        @Override
+        public EmailSyncState mapRow(ResultSet rs, int rowNum) throws SQLException {
+            EmailSyncState state = new EmailSyncState();
+            state.setAdapterId(rs.getObject("adapter_id", UUID.class));
+            state.setFolderName(rs.getString("folder_name"));
+            state.setUidValidity(rs.getLong("uid_validity"));
+            state.setLastUid(rs.getLong("last_uid"));
+            state.setMessagesProcessed(rs.getLong("messages_processed"));
+            Timestamp lastSyncedAt = rs.getTimestamp("last_synced_at");
+            state.setLastSyncedAt(lastSyncedAt != null ? lastSyncedAt.toLocalDateTime() : null);
+            return state;
+        }
+    }
+}
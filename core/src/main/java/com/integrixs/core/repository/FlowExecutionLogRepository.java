@@ -24,6 +24,8 @@ public class FlowExecutionLogRepository {
     
     private static final Logger logger = LoggerFactory.getLogger(FlowExecutionLogRepository.class);
     
+    private static final int DEFAULT_DELETE_CHUNK_SIZE = 5000;
+    
     private final JdbcTemplate jdbcTemplate;
     
     @Autowired
@@ -176,14 +178,28 @@ public class FlowExecutionLogRepository {
      * Delete logs older than specified date
      */
     public int deleteLogsOlderThan(LocalDateTime cutoffDate) {
-        logger.info("Deleting logs older than: {}", cutoffDate);
+        return deleteLogsOlderThan(cutoffDate, DEFAULT_DELETE_CHUNK_SIZE);
+    }
+    
+    /**
+     * Delete logs older than specified date in chunks of chunkSize rows, each committed
+     * on its own so the table is never locked for the whole purge
+     */
+    public int deleteLogsOlderThan(LocalDateTime cutoffDate, int chunkSize) {
+        logger.info("Deleting logs older than: {} in chunks of {}", cutoffDate, chunkSize);
         
         String sql = """
             DELETE FROM flow_execution_logs 
-            WHERE timestamp < ?
+            WHERE id IN (SELECT id FROM flow_execution_logs WHERE timestamp < ? LIMIT ?)
             """;
         
-        int deletedCount = jdbcTemplate.update(sql, cutoffDate);
+        int deletedCount = 0;
+        int chunkDeleted;
+        do {
+            chunkDeleted = jdbcTemplate.update(sql, cutoffDate, chunkSize);
+            deletedCount += chunkDeleted;
+        } while (chunkDeleted == chunkSize);
+        
         logger.info("Deleted {} old log entries", deletedCount);
         return deletedCount;
     }
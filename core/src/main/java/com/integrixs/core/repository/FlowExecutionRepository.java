@@ -2,6 +2,7 @@ package com.integrixs.core.repository;
 
 import com.integrixs.shared.model.FlowExecution;
 import com.integrixs.core.service.AuditService;
+import com.integrixs.core.service.ExecutionContextCapturePolicy;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,11 +10,15 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,14 +31,20 @@ import java.util.UUID;
 @Repository
 public class FlowExecutionRepository {
     
+    // Serializes retry claims across nodes so the per-flow retry cap holds
+    private static final long RETRY_CLAIM_LOCK_KEY = 0x48324852455452L;
+    
     private final JdbcTemplate jdbcTemplate;
     private final AuditService auditService;
     private final ObjectMapper objectMapper;
+    private final ExecutionContextCapturePolicy capturePolicy;
     
     @Autowired
-    public FlowExecutionRepository(JdbcTemplate jdbcTemplate, AuditService auditService) {
+    public FlowExecutionRepository(JdbcTemplate jdbcTemplate, AuditService auditService,
+                                  ExecutionContextCapturePolicy capturePolicy) {
         this.jdbcTemplate = jdbcTemplate;
         this.auditService = auditService;
+        this.capturePolicy = capturePolicy;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -90,6 +101,79 @@ public class FlowExecutionRepository {
         return jdbcTemplate.query(sql, new FlowExecutionRowMapper(), status.name());
     }
     
+    /**
+     * Find a page of execution summaries matching the given filters, newest first.
+     * Only summary columns are read - payload, execution context and error details are not loaded.
+     * For keyset pagination pass the started_at and id of the last row of the previous page as
+     * afterStartedAt/afterId (offset is then ignored); otherwise offset rows are skipped.
+     */
+    public List<FlowExecution> findSummaries(UUID flowId, FlowExecution.ExecutionStatus status,
+                                             LocalDateTime startDate, LocalDateTime endDate,
+                                             LocalDateTime afterStartedAt, UUID afterId,
+                                             int limit, int offset) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT id, flow_id, flow_name, execution_status, trigger_type, triggered_by,
+                   started_at, completed_at, timeout_at, duration_ms,
+                   total_files_processed, files_successful, files_failed, total_bytes_processed,
+                   error_message, error_step_id, retry_attempt, max_retry_attempts,
+                   correlation_id, parent_execution_id, priority, scheduled_for
+            FROM flow_executions
+            WHERE 1=1
+            """);
+        List<Object> params = new ArrayList<>();
+        appendHistoryFilters(sql, params, flowId, status, startDate, endDate);
+        
+        boolean keyset = afterStartedAt != null && afterId != null;
+        if (keyset) {
+            sql.append(" AND (started_at, id) < (?, ?)");
+            params.add(afterStartedAt);
+            params.add(afterId);
+        }
+        
+        sql.append(" ORDER BY started_at DESC, id DESC LIMIT ?");
+        params.add(limit);
+        if (!keyset && offset > 0) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
+        }
+        
+        return jdbcTemplate.query(sql.toString(), new FlowExecutionSummaryRowMapper(), params.toArray());
+    }
+    
+    /**
+     * Count executions matching the given filters
+     */
+    public long countExecutions(UUID flowId, FlowExecution.ExecutionStatus status,
+                                LocalDateTime startDate, LocalDateTime endDate) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM flow_executions WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendHistoryFilters(sql, params, flowId, status, startDate, endDate);
+        
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return count != null ? count : 0;
+    }
+    
+    private void appendHistoryFilters(StringBuilder sql, List<Object> params, UUID flowId,
+                                      FlowExecution.ExecutionStatus status,
+                                      LocalDateTime startDate, LocalDateTime endDate) {
+        if (flowId != null) {
+            sql.append(" AND flow_id = ?");
+            params.add(flowId);
+        }
+        if (status != null) {
+            sql.append(" AND execution_status = ?");
+            params.add(status.name());
+        }
+        if (startDate != null) {
+            sql.append(" AND started_at >= ?");
+            params.add(startDate);
+        }
+        if (endDate != null) {
+            sql.append(" AND started_at <= ?");
+            params.add(endDate);
+        }
+    }
+    
     /**
      * Find running executions
      */
@@ -145,6 +229,187 @@ public class FlowExecutionRepository {
         return jdbcTemplate.query(sql, new FlowExecutionRowMapper());
     }
     
+    /**
+     * Find retries that are due, oldest due time first; served by the partial index on scheduled_for
+     */
+    public List<FlowExecution> findDueRetries(int limit) {
+        String sql = """
+            SELECT id, flow_id, flow_name, execution_status, trigger_type, triggered_by,
+                   started_at, completed_at, timeout_at, duration_ms, payload, execution_context,
+                   total_files_processed, files_successful, files_failed, total_bytes_processed,
+                   error_message, error_details, error_step_id, retry_attempt, max_retry_attempts,
+                   correlation_id, parent_execution_id, priority, scheduled_for
+            FROM flow_executions
+            WHERE execution_status = 'RETRY_PENDING'
+              AND scheduled_for <= CURRENT_TIMESTAMP
+            ORDER BY scheduled_for ASC
+            LIMIT ?
+        """;
+        
+        return jdbcTemplate.query(sql, new FlowExecutionRowMapper(), limit);
+    }
+    
+    /**
+     * Find failed executions completed before the cutoff whose spooled files are still kept
+     * for a retry that never came
+     * 
+     * @param host only executions whose files were kept on this host, or null for any host
+     */
+    public List<FlowExecution> findRetainedRetryInputs(String host, LocalDateTime completedBefore, int limit) {
+        String sql = """
+            SELECT id, flow_id, flow_name, execution_status, trigger_type, triggered_by,
+                   started_at, completed_at, timeout_at, duration_ms, payload, execution_context,
+                   total_files_processed, files_successful, files_failed, total_bytes_processed,
+                   error_message, error_details, error_step_id, retry_attempt, max_retry_attempts,
+                   correlation_id, parent_execution_id, priority, scheduled_for
+            FROM flow_executions
+            WHERE execution_status = 'FAILED'
+              AND execution_context->>'retryInputRetained' = 'true'
+              AND completed_at < ?
+              %s
+            ORDER BY completed_at ASC
+            LIMIT ?
+        """.formatted(host != null ? "AND execution_context->>'retryInputHost' = ?" : "");
+        
+        return host != null
+            ? jdbcTemplate.query(sql, new FlowExecutionRowMapper(), completedBefore, host, limit)
+            : jdbcTemplate.query(sql, new FlowExecutionRowMapper(), completedBefore, limit);
+    }
+    
+    /**
+     * Claim up to batchSize due retries and mark them RUNNING in one transaction.
+     *
+     * Rows locked by another transaction are skipped rather than waited for. Flows that
+     * already have maxRunningPerFlow retries running (started after runningSince, so
+     * abandoned runs stop counting) are left out, and within the batch no flow is given
+     * more than its remaining allowance. The returned executions keep scheduled_for as
+     * it was when they were claimed, so callers can measure how late each retry started.
+     *
+     * @param inputHost only retries whose spooled files are kept on this host (or that keep
+     *                  none), or null for any retry
+     */
+    @Transactional
+    public List<FlowExecution> claimDueRetries(int batchSize, int maxRunningPerFlow, LocalDateTime runningSince,
+                                               String inputHost) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> { }, RETRY_CLAIM_LOCK_KEY);
+        
+        Map<UUID, Integer> runningByFlow = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT flow_id, COUNT(*) AS running FROM flow_executions
+            WHERE execution_status = 'RUNNING' AND retry_attempt > 0 AND started_at > ?
+            GROUP BY flow_id
+        """, rs -> {
+            runningByFlow.put(UUID.fromString(rs.getString("flow_id")), rs.getInt("running"));
+        }, runningSince);
+        
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("""
+            SELECT id, flow_id, flow_name, execution_status, trigger_type, triggered_by,
+                   started_at, completed_at, timeout_at, duration_ms, payload, execution_context,
+                   total_files_processed, files_successful, files_failed, total_bytes_processed,
+                   error_message, error_details, error_step_id, retry_attempt, max_retry_attempts,
+                   correlation_id, parent_execution_id, priority, scheduled_for
+            FROM flow_executions
+            WHERE execution_status = 'RETRY_PENDING'
+              AND scheduled_for <= CURRENT_TIMESTAMP
+            """);
+        if (inputHost != null) {
+            sql.append(" AND (execution_context->>'retryInputHost' IS NULL OR execution_context->>'retryInputHost' = ?)");
+            params.add(inputHost);
+        }
+        List<UUID> saturatedFlows = runningByFlow.entrySet().stream()
+            .filter(entry -> entry.getValue() >= maxRunningPerFlow)
+            .map(Map.Entry::getKey)
+            .toList();
+        if (!saturatedFlows.isEmpty()) {
+            sql.append(" AND flow_id NOT IN (")
+               .append(String.join(", ", Collections.nCopies(saturatedFlows.size(), "?")))
+               .append(")");
+            params.addAll(saturatedFlows);
+        }
+        sql.append(" ORDER BY scheduled_for ASC LIMIT ? FOR UPDATE SKIP LOCKED");
+        params.add(batchSize);
+        
+        List<FlowExecution> claimed = new ArrayList<>();
+        for (FlowExecution execution : jdbcTemplate.query(sql.toString(), new FlowExecutionRowMapper(), params.toArray())) {
+            int running = runningByFlow.getOrDefault(execution.getFlowId(), 0);
+            if (running < maxRunningPerFlow) {
+                runningByFlow.put(execution.getFlowId(), running + 1);
+                claimed.add(execution);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+        
+        List<UUID> ids = claimed.stream().map(FlowExecution::getId).toList();
+        jdbcTemplate.update("UPDATE flow_executions SET execution_status = 'RUNNING', started_at = CURRENT_TIMESTAMP, " +
+                            "completed_at = NULL, scheduled_for = NULL WHERE id IN (" +
+                            String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (FlowExecution execution : claimed) {
+            execution.setExecutionStatus(FlowExecution.ExecutionStatus.RUNNING);
+            execution.setStartedAt(now);
+            execution.setCompletedAt(null);
+        }
+        return claimed;
+    }
+    
+    /**
+     * Move a single RETRY_PENDING execution to RUNNING, unless another caller already did
+     * 
+     * @return true if this call claimed the retry
+     */
+    public boolean claimRetry(UUID id) {
+        String sql = """
+            UPDATE flow_executions SET execution_status = 'RUNNING', started_at = CURRENT_TIMESTAMP,
+                completed_at = NULL, scheduled_for = NULL
+            WHERE id = ? AND execution_status = 'RETRY_PENDING'
+        """;
+        return jdbcTemplate.update(sql, id) > 0;
+    }
+    
+    /**
+     * Number of retries that are due but not yet claimed, and the oldest due time among them
+     */
+    public Map<String, Object> getDueRetryBacklog() {
+        return jdbcTemplate.queryForMap("""
+            SELECT COUNT(*) AS due_retries, MIN(scheduled_for) AS oldest_due_at
+            FROM flow_executions
+            WHERE execution_status = 'RETRY_PENDING' AND scheduled_for <= CURRENT_TIMESTAMP
+        """);
+    }
+    
+    /**
+     * PENDING/RUNNING executions per deployment, for executions started by a deployed flow
+     */
+    public Map<UUID, Integer> countActiveByDeployment() {
+        Map<UUID, Integer> active = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT payload->>'deploymentId' AS deployment_id, COUNT(*) AS active
+            FROM flow_executions
+            WHERE execution_status IN ('PENDING', 'RUNNING') AND payload->>'deploymentId' IS NOT NULL
+            GROUP BY payload->>'deploymentId'
+        """, rs -> {
+            active.put(UUID.fromString(rs.getString("deployment_id")), rs.getInt("active"));
+        });
+        return active;
+    }
+    
+    /**
+     * Whether an execution was started for a queued trigger at or after the given time
+     */
+    public boolean existsForQueuedTrigger(UUID queuedTriggerId, LocalDateTime startedSince) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+            SELECT EXISTS (
+                SELECT 1 FROM flow_executions
+                WHERE started_at >= ? AND payload->>'queuedTriggerId' = ?
+            )
+        """, Boolean.class, Timestamp.valueOf(startedSince), queuedTriggerId.toString());
+        return Boolean.TRUE.equals(exists);
+    }
+
     /**
      * Find execution by ID
      */
@@ -219,7 +484,7 @@ public class FlowExecutionRepository {
             execution.getTimeoutAt(),
             execution.getDurationMs(),
             convertMapToJson(execution.getPayload()),
-            convertMapToJson(execution.getExecutionContext()),
+            convertMapToJson(capturePolicy.capture(execution.getExecutionContext())),
             execution.getTotalFilesProcessed(),
             execution.getFilesSuccessful(),
             execution.getFilesFailed(),
@@ -262,7 +527,7 @@ public class FlowExecutionRepository {
             execution.getCompletedAt(),
             execution.getDurationMs(),
             convertMapToJson(execution.getPayload()),
-            convertMapToJson(execution.getExecutionContext()),
+            convertMapToJson(capturePolicy.capture(execution.getExecutionContext())),
             execution.getTotalFilesProcessed(),
             execution.getFilesSuccessful(),
             execution.getFilesFailed(),
@@ -455,6 +720,71 @@ public class FlowExecutionRepository {
         }
     }
     
+    /**
+     * Row mapper for execution summaries (no JSONB columns)
+     */
+    private static class FlowExecutionSummaryRowMapper implements RowMapper<FlowExecution> {
+        @Override
+        public FlowExecution mapRow(ResultSet rs, int rowNum) throws SQLException {
+            FlowExecution execution = new FlowExecution();
+            
+            execution.setId(UUID.fromString(rs.getString("id")));
+            execution.setFlowId(UUID.fromString(rs.getString("flow_id")));
+            execution.setFlowName(rs.getString("flow_name"));
+            execution.setExecutionStatus(FlowExecution.ExecutionStatus.valueOf(rs.getString("execution_status")));
+            execution.setTriggerType(FlowExecution.TriggerType.valueOf(rs.getString("trigger_type")));
+            
+            String triggeredBy = rs.getString("triggered_by");
+            if (triggeredBy != null) {
+                execution.setTriggeredBy(UUID.fromString(triggeredBy));
+            }
+            
+            Timestamp startedAt = rs.getTimestamp("started_at");
+            if (startedAt != null) {
+                execution.setStartedAt(startedAt.toLocalDateTime());
+            }
+            
+            Timestamp completedAt = rs.getTimestamp("completed_at");
+            if (completedAt != null) {
+                execution.setCompletedAt(completedAt.toLocalDateTime());
+            }
+            
+            Timestamp timeoutAt = rs.getTimestamp("timeout_at");
+            if (timeoutAt != null) {
+                execution.setTimeoutAt(timeoutAt.toLocalDateTime());
+            }
+            
+            execution.setDurationMs(rs.getLong("duration_ms"));
+            execution.setTotalFilesProcessed(rs.getInt("total_files_processed"));
+            execution.setFilesSuccessful(rs.getInt("files_successful"));
+            execution.setFilesFailed(rs.getInt("files_failed"));
+            execution.setTotalBytesProcessed(rs.getLong("total_bytes_processed"));
+            execution.setErrorMessage(rs.getString("error_message"));
+            execution.setErrorStepId(rs.getString("error_step_id"));
+            execution.setRetryAttempt(rs.getInt("retry_attempt"));
+            execution.setMaxRetryAttempts(rs.getInt("max_retry_attempts"));
+            
+            String correlationId = rs.getString("correlation_id");
+            if (correlationId != null) {
+                execution.setCorrelationId(UUID.fromString(correlationId));
+            }
+            
+            String parentExecutionId = rs.getString("parent_execution_id");
+            if (parentExecutionId != null) {
+                execution.setParentExecutionId(UUID.fromString(parentExecutionId));
+            }
+            
+            execution.setPriority(rs.getInt("priority"));
+            
+            Timestamp scheduledFor = rs.getTimestamp("scheduled_for");
+            if (scheduledFor != null) {
+                execution.setScheduledFor(scheduledFor.toLocalDateTime());
+            }
+            
+            return execution;
+        }
+    }
+    
     /**
      * Convert Map to JSON string for database storage
      */
@@ -3,6 +3,7 @@ package com.integrixs.core.repository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integrixs.core.service.ExecutionContextCapturePolicy;
 import com.integrixs.shared.model.FlowExecutionStep;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -28,11 +29,14 @@ public class FlowExecutionStepRepository {
     
     private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
+    private final ExecutionContextCapturePolicy capturePolicy;
     
     @Autowired
-    public FlowExecutionStepRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+    public FlowExecutionStepRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                      ExecutionContextCapturePolicy capturePolicy) {
         this.jdbcTemplate = jdbcTemplate;
         this.objectMapper = objectMapper;
+        this.capturePolicy = capturePolicy;
     }
     
     /**
@@ -86,6 +90,15 @@ public class FlowExecutionStepRepository {
         return jdbcTemplate.query(sql, new FlowExecutionStepRowMapper(), executionId, status.name());
     }
     
+    /**
+     * Highest step order recorded for an execution, 0 if it has no steps
+     */
+    public int findMaxStepOrder(UUID executionId) {
+        String sql = "SELECT COALESCE(MAX(step_order), 0) FROM flow_execution_steps WHERE execution_id = ?";
+        Integer maxOrder = jdbcTemplate.queryForObject(sql, Integer.class, executionId);
+        return maxOrder != null ? maxOrder : 0;
+    }
+    
     /**
      * Find step by ID
      */
@@ -136,8 +149,8 @@ public class FlowExecutionStepRepository {
             step.getStartedAt(),
             step.getCompletedAt(),
             step.getDurationMs(),
-            convertMapToJson(step.getInputData()),
-            convertMapToJson(step.getOutputData()),
+            convertMapToJson(capturePolicy.capture(step.getInputData())),
+            convertMapToJson(capturePolicy.capture(step.getOutputData())),
             step.getInputFiles() != null ? step.getInputFiles().toArray(new String[0]) : null,
             step.getOutputFiles() != null ? step.getOutputFiles().toArray(new String[0]) : null,
             step.getFilesCount(),
@@ -172,8 +185,8 @@ public class FlowExecutionStepRepository {
             step.getStartedAt(),
             step.getCompletedAt(),
             step.getDurationMs(),
-            convertMapToJson(step.getInputData()),
-            convertMapToJson(step.getOutputData()),
+            convertMapToJson(capturePolicy.capture(step.getInputData())),
+            convertMapToJson(capturePolicy.capture(step.getOutputData())),
             step.getInputFiles() != null ? step.getInputFiles().toArray(new String[0]) : null,
             step.getOutputFiles() != null ? step.getOutputFiles().toArray(new String[0]) : null,
             step.getFilesCount(),
@@ -0,0 +1,249 @@
+package com.integrixs.core.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.integrixs.shared.model.QueuedFlowTrigger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC Repository for the durable queue between sender adapter polling and flow execution.
+ * Visibility times are computed from the database clock so all nodes agree on them.
+ */
+@Repository
+public class FlowTriggerQueueRepository {
+
+    private static final String COLUMNS = """
+        id, deployment_id, flow_id, queue_status, trigger_data, spool_host, attempts, max_attempts,
+        enqueued_at, visible_at, claimed_by, claimed_at, last_error, dead_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public FlowTriggerQueueRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void enqueue(QueuedFlowTrigger trigger) {
+        String triggerData;
+        try {
+            triggerData = objectMapper.writeValueAsString(trigger.getTriggerData());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Trigger data cannot be stored: " + e.getMessage(), e);
+        }
+
+        jdbcTemplate.update("""
+            INSERT INTO flow_trigger_queue (
+                id, deployment_id, flow_id, queue_status, trigger_data, spool_host, attempts, max_attempts,
+                enqueued_at, visible_at
+            ) VALUES (?, ?, ?, 'READY', ?::jsonb, ?, 0, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+        """, trigger.getId(), trigger.getDeploymentId(), trigger.getFlowId(), triggerData,
+            trigger.getSpoolHost(), trigger.getMaxAttempts());
+    }
+
+    /**
+     * Claim up to limit visible triggers, oldest first, hiding them from other consumers for the
+     * visibility timeout. Rows locked by a concurrent claim are skipped. With spoolHost null
+     * triggers of any host are claimed.
+     */
+    public List<QueuedFlowTrigger> claim(String consumerId, String spoolHost, int limit, long visibilityTimeoutMillis) {
+        List<Object> params = new ArrayList<>();
+        params.add(consumerId);
+        params.add(visibilityTimeoutMillis);
+        if (spoolHost != null) {
+            params.add(spoolHost);
+        }
+        params.add(limit);
+
+        String sql = """
+            UPDATE flow_trigger_queue
+            SET attempts = attempts + 1,
+                claimed_by = ?,
+                claimed_at = CURRENT_TIMESTAMP,
+                visible_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond')
+            WHERE id IN (
+                SELECT id FROM flow_trigger_queue
+                WHERE queue_status = 'READY' AND visible_at <= CURRENT_TIMESTAMP %s
+                ORDER BY visible_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING %s
+        """.formatted(spoolHost != null ? "AND spool_host = ?" : "", COLUMNS);
+
+        return jdbcTemplate.query(sql, new QueuedFlowTriggerRowMapper(), params.toArray());
+    }
+
+    /**
+     * Keep triggers that are still being processed hidden from other consumers
+     */
+    public int extendVisibility(String consumerId, Collection<UUID> ids, long visibilityTimeoutMillis) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(visibilityTimeoutMillis);
+        params.add(consumerId);
+        params.addAll(ids);
+        return jdbcTemplate.update("UPDATE flow_trigger_queue " +
+                                   "SET visible_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond') " +
+                                   "WHERE queue_status = 'READY' AND claimed_by = ? AND id IN (" +
+                                   String.join(", ", Collections.nCopies(ids.size(), "?")) + ")",
+                                   params.toArray());
+    }
+
+    /**
+     * Remove a processed or purged trigger
+     */
+    public void deleteById(UUID id) {
+        jdbcTemplate.update("DELETE FROM flow_trigger_queue WHERE id = ?", id);
+    }
+
+    /**
+     * Make a claimed trigger visible again after the delay
+     *
+     * @param countAttempt false if the delivery should not count towards max_attempts
+     */
+    public void release(UUID id, long delayMillis, String error, boolean countAttempt) {
+        jdbcTemplate.update("""
+            UPDATE flow_trigger_queue
+            SET visible_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond'),
+                claimed_by = NULL,
+                attempts = CASE WHEN ? THEN attempts ELSE GREATEST(attempts - 1, 0) END,
+                last_error = COALESCE(?, last_error)
+            WHERE id = ?
+        """, delayMillis, countAttempt, error, id);
+    }
+
+    public void deadLetter(UUID id, String error) {
+        jdbcTemplate.update("""
+            UPDATE flow_trigger_queue
+            SET queue_status = 'DEAD', dead_at = CURRENT_TIMESTAMP, claimed_by = NULL, last_error = ?
+            WHERE id = ?
+        """, error, id);
+    }
+
+    /**
+     * Put a dead-lettered trigger back in the queue with its attempts reset
+     *
+     * @return true if the trigger was dead-lettered
+     */
+    public boolean requeue(UUID id) {
+        return jdbcTemplate.update("""
+            UPDATE flow_trigger_queue
+            SET queue_status = 'READY', dead_at = NULL, attempts = 0, visible_at = CURRENT_TIMESTAMP
+            WHERE id = ? AND queue_status = 'DEAD'
+        """, id) > 0;
+    }
+
+    public List<QueuedFlowTrigger> findDeadLetters(int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM flow_trigger_queue WHERE queue_status = 'DEAD' " +
+                                  "ORDER BY dead_at DESC LIMIT ?", new QueuedFlowTriggerRowMapper(), limit);
+    }
+
+    /**
+     * Dead letters of the host older than the cutoff, for purging
+     */
+    public List<QueuedFlowTrigger> findDeadLettersBefore(String spoolHost, LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM flow_trigger_queue " +
+                                  "WHERE queue_status = 'DEAD' AND dead_at < ? AND spool_host = ? LIMIT ?",
+                                  new QueuedFlowTriggerRowMapper(), Timestamp.valueOf(cutoff), spoolHost, limit);
+    }
+
+    /**
+     * Triggers of the deployment that are waiting or being processed
+     */
+    public int countPending(UUID deploymentId) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM flow_trigger_queue WHERE deployment_id = ? AND queue_status = 'READY'",
+            Integer.class, deploymentId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Queue depth by state and the age of the oldest waiting trigger
+     */
+    public Map<String, Object> getQueueMetrics() {
+        return jdbcTemplate.queryForMap("""
+            SELECT COUNT(*) FILTER (WHERE queue_status = 'READY' AND visible_at <= CURRENT_TIMESTAMP) AS ready,
+                   COUNT(*) FILTER (WHERE queue_status = 'READY' AND visible_at > CURRENT_TIMESTAMP
+                                          AND claimed_by IS NOT NULL) AS in_flight,
+                   COUNT(*) FILTER (WHERE queue_status = 'READY' AND visible_at > CURRENT_TIMESTAMP
+                                          AND claimed_by IS NULL) AS delayed,
+                   COUNT(*) FILTER (WHERE queue_status = 'DEAD') AS dead,
+                   EXTRACT(EPOCH FROM CURRENT_TIMESTAMP - MIN(enqueued_at) FILTER (WHERE queue_status = 'READY')) * 1000
+                       AS oldest_age_millis,
+                   EXTRACT(EPOCH FROM CURRENT_TIMESTAMP - MIN(visible_at) FILTER (
+                       WHERE queue_status = 'READY' AND visible_at <= CURRENT_TIMESTAMP)) * 1000
+                       AS oldest_ready_wait_millis
+            FROM flow_trigger_queue
+        """);
+    }
+
+    /**
+     * Waiting or in-flight triggers per deployment, largest backlog first
+     */
+    public Map<UUID, Integer> getPendingByDeployment(int limit) {
+        Map<UUID, Integer> pending = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+            SELECT deployment_id, COUNT(*) AS pending FROM flow_trigger_queue
+            WHERE queue_status = 'READY'
+            GROUP BY deployment_id
+            ORDER BY pending DESC
+            LIMIT ?
+        """, rs -> {
+            pending.put(rs.getObject("deployment_id", UUID.class), rs.getInt("pending"));
+        }, limit);
+        return pending;
+    }
+
+    private class QueuedFlowTriggerRowMapper implements RowMapper<QueuedFlowTrigger> {
+        @Override
+        public QueuedFlowTrigger mapRow(ResultSet rs, int rowNum) throws SQLException {
+            QueuedFlowTrigger trigger = new QueuedFlowTrigger();
+            trigger.setId(rs.getObject("id", UUID.class));
+            trigger.setDeploymentId(rs.getObject("deployment_id", UUID.class));
+            trigger.setFlowId(rs.getObject("flow_id", UUID.class));
+            trigger.setStatus(rs.getString("queue_status"));
+            trigger.setTriggerData(readTriggerData(rs.getString("trigger_data")));
+            trigger.setSpoolHost(rs.getString("spool_host"));
+            trigger.setAttempts(rs.getInt("attempts"));
+            trigger.setMaxAttempts(rs.getInt("max_attempts"));
+            trigger.setEnqueuedAt(toLocalDateTime(rs.getTimestamp("enqueued_at")));
+            trigger.setVisibleAt(toLocalDateTime(rs.getTimestamp("visible_at")));
+            trigger.setClaimedBy(rs.getString("claimed_by"));
+            trigger.setClaimedAt(toLocalDateTime(rs.getTimestamp("claimed_at")));
+            trigger.setLastError(rs.getString("last_error"));
+            trigger.setDeadAt(toLocalDateTime(rs.getTimestamp("dead_at")));
+            return trigger;
+        }
+
+        private Map<String, Object> readTriggerData(String json) throws SQLException {
+            try {
+                return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+            } catch (Exception e) {
+                throw new SQLException("Unreadable trigger data: " + e.getMessage(), e);
+            }
+        }
+
+        private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+            return timestamp != null ? timestamp.toLocalDateTime() : null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.integrixs.core.repository;
+
+import com.integrixs.shared.model.ProcessedFileRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC Repository for the processed_files audit trail written by transfer adapters
+ */
+@Repository
+public class ProcessedFileRecordRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProcessedFileRecordRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert all records in one batch
+     */
+    public void saveAll(List<ProcessedFileRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            INSERT INTO processed_files (
+                execution_id, file_name, file_path, file_size, file_hash, status,
+                processing_start_time, processing_end_time, processing_duration_ms,
+                operations_performed, error_message
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+        jdbcTemplate.batchUpdate(sql, records, records.size(), (ps, record) -> {
+            ps.setObject(1, record.getExecutionId());
+            ps.setString(2, record.getFileName());
+            ps.setString(3, record.getFilePath());
+            ps.setObject(4, record.getFileSize());
+            ps.setString(5, record.getFileHash());
+            ps.setString(6, record.getStatus());
+            ps.setTimestamp(7, toTimestamp(record.getProcessingStartTime()));
+            ps.setTimestamp(8, toTimestamp(record.getProcessingEndTime()));
+            ps.setObject(9, record.getProcessingDurationMs());
+            ps.setString(10, record.getOperationsPerformed());
+            ps.setString(11, record.getErrorMessage());
+        });
+    }
+
+    public List<ProcessedFileRecord> findByExecutionId(UUID executionId) {
+        String sql = """
+            SELECT execution_id, file_name, file_path, file_size, file_hash, status,
+                   processing_start_time, processing_end_time, processing_duration_ms,
+                   operations_performed, error_message
+            FROM processed_files
+            WHERE execution_id = ?
+            ORDER BY processing_start_time
+        """;
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            ProcessedFileRecord record = new ProcessedFileRecord();
+            record.setExecutionId(rs.getObject("execution_id", UUID.class));
+            record.setFileName(rs.getString("file_name"));
+            record.setFilePath(rs.getString("file_path"));
+            record.setFileSize(rs.getObject("file_size", Long.class));
+            record.setFileHash(rs.getString("file_hash"));
+            record.setStatus(rs.getString("status"));
+            Timestamp start = rs.getTimestamp("processing_start_time");
+            record.setProcessingStartTime(start != null ? start.toLocalDateTime() : null);
+            Timestamp end = rs.getTimestamp("processing_end_time");
+            record.setProcessingEndTime(end != null ? end.toLocalDateTime() : null);
+            record.setProcessingDurationMs(rs.getObject("processing_duration_ms", Long.class));
+            record.setOperationsPerformed(rs.getString("operations_performed"));
+            record.setErrorMessage(rs.getString("error_message"));
+            return record;
+        }, executionId);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+}
@@ -0,0 +1,212 @@
+package com.integrixs.core.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC Repository for clustered scheduling state: node heartbeats, deployment shard
+ * leases and shared execution slots. Lease expiry is always computed from the database
+ * clock, so nodes with skewed clocks still agree on who owns what.
+ */
+@Repository
+public class SchedulerClusterRepository {
+
+    // First key of the per-deployment advisory lock that serializes slot acquisition
+    private static final int EXECUTION_SLOT_LOCK_CLASS = 0x48325343;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SchedulerClusterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Create the lease rows of shards 0..shardCount-1 that do not exist yet
+     */
+    public void ensureShards(int shardCount) {
+        jdbcTemplate.update("""
+            INSERT INTO scheduler_shard_leases (shard_id)
+            SELECT generate_series(0, ? - 1)
+            ON CONFLICT (shard_id) DO NOTHING
+        """, shardCount);
+    }
+
+    public void heartbeat(String nodeId, String hostname) {
+        jdbcTemplate.update("""
+            INSERT INTO scheduler_nodes (node_id, hostname, started_at, last_heartbeat_at)
+            VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            ON CONFLICT (node_id) DO UPDATE SET last_heartbeat_at = CURRENT_TIMESTAMP
+        """, nodeId, hostname);
+    }
+
+    /**
+     * Number of nodes whose last heartbeat is younger than the TTL
+     */
+    public int countLiveNodes(long ttlMillis) {
+        Integer count = jdbcTemplate.queryForObject("""
+            SELECT COUNT(*) FROM scheduler_nodes
+            WHERE last_heartbeat_at > CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond')
+        """, Integer.class, ttlMillis);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Remove nodes that have not sent a heartbeat for longer than the given age
+     */
+    public int deleteStaleNodes(long maxAgeMillis) {
+        return jdbcTemplate.update("""
+            DELETE FROM scheduler_nodes
+            WHERE last_heartbeat_at < CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond')
+        """, maxAgeMillis);
+    }
+
+    public void deleteNode(String nodeId) {
+        jdbcTemplate.update("DELETE FROM scheduler_nodes WHERE node_id = ?", nodeId);
+    }
+
+    /**
+     * Extend every shard lease the node still holds
+     *
+     * @return the shards whose lease was extended
+     */
+    public List<Integer> renewShardLeases(String nodeId, long ttlMillis, int shardCount) {
+        return jdbcTemplate.queryForList("""
+            UPDATE scheduler_shard_leases
+            SET lease_expires_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond'),
+                renewed_at = CURRENT_TIMESTAMP
+            WHERE owner_node_id = ? AND lease_expires_at > CURRENT_TIMESTAMP AND shard_id < ?
+            RETURNING shard_id
+        """, Integer.class, ttlMillis, nodeId, shardCount);
+    }
+
+    /**
+     * Take up to limit shards that have no owner or whose lease has expired, lowest shard first.
+     * Shards locked by another node's concurrent acquisition are skipped.
+     *
+     * @return the shards acquired
+     */
+    public List<Integer> acquireFreeShards(String nodeId, int limit, long ttlMillis, int shardCount) {
+        return jdbcTemplate.queryForList("""
+            UPDATE scheduler_shard_leases
+            SET owner_node_id = ?,
+                lease_expires_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond'),
+                acquired_at = CURRENT_TIMESTAMP,
+                renewed_at = CURRENT_TIMESTAMP
+            WHERE shard_id IN (
+                SELECT shard_id FROM scheduler_shard_leases
+                WHERE shard_id < ?
+                  AND (owner_node_id IS NULL OR lease_expires_at IS NULL OR lease_expires_at <= CURRENT_TIMESTAMP)
+                ORDER BY shard_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING shard_id
+        """, Integer.class, nodeId, ttlMillis, shardCount, limit);
+    }
+
+    /**
+     * Give up the node's leases on the given shards so other nodes can take them at once
+     */
+    public int releaseShardLeases(String nodeId, Collection<Integer> shardIds) {
+        if (shardIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(nodeId);
+        params.addAll(shardIds);
+        return jdbcTemplate.update("UPDATE scheduler_shard_leases SET owner_node_id = NULL, lease_expires_at = NULL " +
+                                   "WHERE owner_node_id = ? AND shard_id IN (" +
+                                   String.join(", ", Collections.nCopies(shardIds.size(), "?")) + ")",
+                                   params.toArray());
+    }
+
+    public int releaseAllShardLeases(String nodeId) {
+        return jdbcTemplate.update("UPDATE scheduler_shard_leases SET owner_node_id = NULL, lease_expires_at = NULL " +
+                                   "WHERE owner_node_id = ?", nodeId);
+    }
+
+    /**
+     * Live nodes with the number of shards each currently holds
+     */
+    public List<Map<String, Object>> findLiveNodes(long ttlMillis) {
+        return jdbcTemplate.queryForList("""
+            SELECT n.node_id, n.hostname, n.started_at, n.last_heartbeat_at,
+                   COUNT(l.shard_id) AS owned_shards
+            FROM scheduler_nodes n
+            LEFT JOIN scheduler_shard_leases l
+                   ON l.owner_node_id = n.node_id AND l.lease_expires_at > CURRENT_TIMESTAMP
+            WHERE n.last_heartbeat_at > CURRENT_TIMESTAMP - (? * INTERVAL '1 millisecond')
+            GROUP BY n.node_id, n.hostname, n.started_at, n.last_heartbeat_at
+            ORDER BY n.node_id
+        """, ttlMillis);
+    }
+
+    /**
+     * Take a running-execution slot of the deployment if fewer than maxSlots unexpired slots
+     * are held across the cluster. Acquisitions for one deployment are serialized with a
+     * transaction-scoped advisory lock, so two nodes cannot both take the last slot.
+     *
+     * @return true if the slot was taken
+     */
+    @Transactional
+    public boolean tryAcquireExecutionSlot(UUID slotId, UUID deploymentId, String nodeId, int maxSlots, long ttlMillis) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, hashtext(?))", rs -> { },
+            EXECUTION_SLOT_LOCK_CLASS, deploymentId.toString());
+
+        int inserted = jdbcTemplate.update("""
+            INSERT INTO deployment_execution_slots (slot_id, deployment_id, node_id, acquired_at, lease_expires_at)
+            SELECT ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond')
+            WHERE (SELECT COUNT(*) FROM deployment_execution_slots
+                   WHERE deployment_id = ? AND lease_expires_at > CURRENT_TIMESTAMP) < ?
+        """, slotId, deploymentId, nodeId, ttlMillis, deploymentId, maxSlots);
+        return inserted > 0;
+    }
+
+    public void releaseExecutionSlot(UUID slotId) {
+        jdbcTemplate.update("DELETE FROM deployment_execution_slots WHERE slot_id = ?", slotId);
+    }
+
+    /**
+     * Extend the given slots of the node, held by executions that are still running
+     */
+    public int renewExecutionSlots(String nodeId, Collection<UUID> slotIds, long ttlMillis) {
+        if (slotIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(ttlMillis);
+        params.add(nodeId);
+        params.addAll(slotIds);
+        return jdbcTemplate.update("UPDATE deployment_execution_slots " +
+                                   "SET lease_expires_at = CURRENT_TIMESTAMP + (? * INTERVAL '1 millisecond') " +
+                                   "WHERE node_id = ? AND slot_id IN (" +
+                                   String.join(", ", Collections.nCopies(slotIds.size(), "?")) + ")",
+                                   params.toArray());
+    }
+
+    public int deleteExpiredExecutionSlots() {
+        return jdbcTemplate.update("DELETE FROM deployment_execution_slots WHERE lease_expires_at <= CURRENT_TIMESTAMP");
+    }
+
+    public int deleteExecutionSlotsOfNode(String nodeId) {
+        return jdbcTemplate.update("DELETE FROM deployment_execution_slots WHERE node_id = ?", nodeId);
+    }
+
+    public int countExecutionSlots(UUID deploymentId) {
+        Integer count = jdbcTemplate.queryForObject("""
+            SELECT COUNT(*) FROM deployment_execution_slots
+            WHERE deployment_id = ? AND lease_expires_at > CURRENT_TIMESTAMP
+        """, Integer.class, deploymentId);
+        return count != null ? count : 0;
+    }
+}
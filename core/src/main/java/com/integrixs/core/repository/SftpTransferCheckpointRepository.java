@@ -0,0 +1,119 @@
+package com.integrixs.core.repository;
+
+import com.integrixs.shared.model.SftpTransferCheckpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC Repository for checkpoints of incomplete resumable SFTP transfers
+ */
+@Repository
+public class SftpTransferCheckpointRepository {
+
+    private static final String COLUMNS = """
+        id, adapter_id, direction, remote_path, source_size, source_fingerprint, bytes_done,
+        partial_sha256, local_partial_path, execution_id, created_at, updated_at
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SftpTransferCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<SftpTransferCheckpoint> find(UUID adapterId, String direction, String remotePath) {
+        String sql = "SELECT " + COLUMNS + " FROM sftp_transfer_checkpoints " +
+                     "WHERE adapter_id = ? AND direction = ? AND remote_path = ?";
+
+        try {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(sql, new SftpTransferCheckpointRowMapper(),
+                adapterId, direction, remotePath));
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Insert or replace the checkpoint for the adapter, direction and remote file
+     */
+    public void save(SftpTransferCheckpoint checkpoint) {
+        String sql = """
+            INSERT INTO sftp_transfer_checkpoints (
+                id, adapter_id, direction, remote_path, source_size, source_fingerprint, bytes_done,
+                partial_sha256, local_partial_path, execution_id, created_at, updated_at
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            ON CONFLICT (adapter_id, direction, remote_path) DO UPDATE SET
+                source_size = EXCLUDED.source_size,
+                source_fingerprint = EXCLUDED.source_fingerprint,
+                bytes_done = EXCLUDED.bytes_done,
+                partial_sha256 = EXCLUDED.partial_sha256,
+                local_partial_path = EXCLUDED.local_partial_path,
+                execution_id = EXCLUDED.execution_id,
+                updated_at = EXCLUDED.updated_at
+        """;
+
+        jdbcTemplate.update(sql,
+            checkpoint.getId() != null ? checkpoint.getId() : UUID.randomUUID(),
+            checkpoint.getAdapterId(),
+            checkpoint.getDirection(),
+            checkpoint.getRemotePath(),
+            checkpoint.getSourceSize(),
+            checkpoint.getSourceFingerprint(),
+            checkpoint.getBytesDone(),
+            checkpoint.getPartialSha256(),
+            checkpoint.getLocalPartialPath(),
+            checkpoint.getExecutionId()
+        );
+    }
+
+    public void delete(UUID adapterId, String direction, String remotePath) {
+        jdbcTemplate.update("DELETE FROM sftp_transfer_checkpoints WHERE adapter_id = ? AND direction = ? AND remote_path = ?",
+            adapterId, direction, remotePath);
+    }
+
+    public void deleteById(UUID id) {
+        jdbcTemplate.update("DELETE FROM sftp_transfer_checkpoints WHERE id = ?", id);
+    }
+
+    /**
+     * Checkpoints not advanced since the cutoff, i.e. transfers that were never retried
+     */
+    public List<SftpTransferCheckpoint> findNotUpdatedSince(LocalDateTime cutoff) {
+        String sql = "SELECT " + COLUMNS + " FROM sftp_transfer_checkpoints WHERE updated_at < ?";
+        return jdbcTemplate.query(sql, new SftpTransferCheckpointRowMapper(), Timestamp.valueOf(cutoff));
+    }
+
+    private static class SftpTransferCheckpointRowMapper implements RowMapper<SftpTransferCheckpoint> {
+        @Override
+        public SftpTransferCheckpoint mapRow(ResultSet rs, int rowNum) throws SQLException {
+            SftpTransferCheckpoint checkpoint = new SftpTransferCheckpoint();
+            checkpoint.setId(rs.getObject("id", UUID.class));
+            checkpoint.setAdapterId(rs.getObject("adapter_id", UUID.class));
+            checkpoint.setDirection(rs.getString("direction"));
+            checkpoint.setRemotePath(rs.getString("remote_path"));
+            checkpoint.setSourceSize(rs.getLong("source_size"));
+            checkpoint.setSourceFingerprint(rs.getString("source_fingerprint"));
+            checkpoint.setBytesDone(rs.getLong("bytes_done"));
+            checkpoint.setPartialSha256(rs.getString("partial_sha256"));
+            checkpoint.setLocalPartialPath(rs.getString("local_partial_path"));
+            checkpoint.setExecutionId(rs.getObject("execution_id", UUID.class));
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            checkpoint.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            checkpoint.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+            return checkpoint;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -38,24 +39,43 @@ public class SystemLogRepository {
         this.objectMapper = new ObjectMapper();
     }
     
+    private static final String INSERT_LOG_SQL = """
+        INSERT INTO system_logs (
+            id, timestamp, log_level, log_category, logger_name, thread_name,
+            message, formatted_message, correlation_id, session_id, user_id,
+            adapter_id, adapter_name, flow_id, flow_name, execution_id,
+            request_id, request_method, request_uri, remote_address, user_agent,
+            application_name, environment, server_hostname,
+            exception_class, exception_message, stack_trace,
+            mdc_data, marker, execution_time_ms, created_at
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::inet, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?)
+        """;
+    
     /**
      * Insert a system log entry
      * This method should be called by the database appender to store logs
      */
     public void insertLog(SystemLog log) {
-        String sql = """
-            INSERT INTO system_logs (
-                id, timestamp, log_level, log_category, logger_name, thread_name,
-                message, formatted_message, correlation_id, session_id, user_id,
-                adapter_id, adapter_name, flow_id, flow_name, execution_id,
-                request_id, request_method, request_uri, remote_address, user_agent,
-                application_name, environment, server_hostname,
-                exception_class, exception_message, stack_trace,
-                mdc_data, marker, execution_time_ms, created_at
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::inet, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?)
-            """;
-        
-        jdbcTemplate.update(sql,
+        jdbcTemplate.update(INSERT_LOG_SQL, toInsertArgs(log));
+    }
+    
+    /**
+     * Insert a batch of system log entries in one JDBC batch
+     * Used by the asynchronous database appender
+     */
+    public void insertLogs(List<SystemLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(logs.size());
+        for (SystemLog log : logs) {
+            batchArgs.add(toInsertArgs(log));
+        }
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, batchArgs);
+    }
+    
+    private Object[] toInsertArgs(SystemLog log) {
+        return new Object[] {
             log.getId(),
             log.getTimestamp(),
             log.getLogLevel() != null ? log.getLogLevel().name() : null,
@@ -87,7 +107,7 @@ public class SystemLogRepository {
             log.getMarker(),
             log.getExecutionTimeMs(),
             log.getCreatedAt()
-        );
+        };
     }
     
     /**
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -29,10 +30,39 @@ public class TransactionLogRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
     
+    private static final String INSERT_LOG_SQL = """
+        INSERT INTO transaction_logs (
+            id, timestamp, level, category, component, source, message,
+            username, ip_address, user_agent, session_id, correlation_id,
+            adapter_id, execution_id, file_name, details, execution_time_ms, created_at
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?::inet, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?)
+        """;
+    
     /**
      * Save a transaction log to the database
      */
     public TransactionLog save(TransactionLog log) {
+        prepareForInsert(log);
+        jdbcTemplate.update(INSERT_LOG_SQL, toInsertArgs(log));
+        return log;
+    }
+    
+    /**
+     * Save a batch of transaction logs in one JDBC batch
+     */
+    public void saveAll(List<TransactionLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(logs.size());
+        for (TransactionLog log : logs) {
+            prepareForInsert(log);
+            batchArgs.add(toInsertArgs(log));
+        }
+        jdbcTemplate.batchUpdate(INSERT_LOG_SQL, batchArgs);
+    }
+    
+    private void prepareForInsert(TransactionLog log) {
         // Initialize timestamps if not set
         log.initializeTimestamps();
         
@@ -40,16 +70,10 @@ public class TransactionLogRepository {
         if (log.getId() == null) {
             log.setId(UUID.randomUUID());
         }
-        
-        String sql = """
-            INSERT INTO transaction_logs (
-                id, timestamp, level, category, component, source, message,
-                username, ip_address, user_agent, session_id, correlation_id,
-                adapter_id, execution_id, file_name, details, execution_time_ms, created_at
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?::inet, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?)
-            """;
-        
-        jdbcTemplate.update(sql,
+    }
+    
+    private Object[] toInsertArgs(TransactionLog log) {
+        return new Object[] {
             log.getId(),
             log.getTimestamp(),
             log.getLevel() != null ? log.getLevel().name() : "INFO",
@@ -68,9 +92,7 @@ public class TransactionLogRepository {
             log.getDetails(),
             log.getExecutionTimeMs(),
             log.getCreatedAt()
-        );
-        
-        return log;
+        };
     }
     
     /**
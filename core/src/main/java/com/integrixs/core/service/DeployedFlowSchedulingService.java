@@ -4,23 +4,34 @@ import com.integrixs.core.repository.DeployedFlowRepository;
 import com.integrixs.core.repository.FlowExecutionRepository;
 import com.integrixs.core.repository.AdapterRepository;
 import com.integrixs.core.repository.SystemConfigurationRepository;
+import com.integrixs.core.util.AdapterConfigUtil;
 import com.integrixs.shared.model.DeployedFlow;
 import com.integrixs.shared.model.FlowExecution;
 import com.integrixs.shared.model.Adapter;
+import com.integrixs.shared.model.QueuedFlowTrigger;
+import com.integrixs.shared.model.value.FilePayload;
 import com.integrixs.shared.util.SecurityContextHelper;
 import com.integrixs.core.service.SystemAuthenticationContext;
+import com.integrixs.core.service.scheduling.AdapterSchedule;
+import com.integrixs.core.service.scheduling.DeploymentConcurrencyLimiter;
+import com.integrixs.core.service.scheduling.DirectoryWatchRegistry;
+import com.integrixs.core.service.scheduling.FlowTriggerScheduler;
+import com.integrixs.core.service.scheduling.SchedulingShardCoordinator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -30,6 +41,16 @@ import java.util.concurrent.*;
  * - Starting/stopping sender and receiver adapters when flows are deployed/undeployed
  * - Scheduling automatic execution based on sender adapter configuration
  * - Managing adapter polling and file processing
+ *
+ * With clustered scheduling enabled, a node only schedules deployments whose shard it
+ * leases from SchedulingShardCoordinator, and each execution takes a cluster-wide slot
+ * so maxConcurrentExecutions holds across nodes. On each node the limit is enforced with
+ * permits from DeploymentConcurrencyLimiter, held for the whole execution. Every path that
+ * runs a flow (polls, queued triggers, the inline fallback of the queue and manual triggers)
+ * takes both through an ExecutionLease.
+ *
+ * With the flow trigger queue enabled, data found by a poll is queued and the flow is run
+ * by the queue's consumers, which apply the concurrency limit.
  */
 @Service
 @EnableScheduling
@@ -43,14 +64,47 @@ public class DeployedFlowSchedulingService {
     private final FlowExecutionService flowExecutionService;
     private final AdapterExecutionService adapterExecutionService;
     private final SystemConfigurationRepository configRepository;
-    private final ThreadPoolTaskScheduler taskScheduler;
-    private final java.util.concurrent.Executor adapterExecutor;
+    private final Executor pollExecutor;
 
-    // Track scheduled tasks for each deployment
-    private final ConcurrentHashMap<UUID, ScheduledFuture<?>> scheduledAdapterTasks = new ConcurrentHashMap<>();
+    // One priority-queue scheduler fires the sender adapter schedules of all deployments
+    private final FlowTriggerScheduler triggerScheduler;
     
-    // Track running executions to enforce concurrency limits
-    private final ConcurrentHashMap<UUID, Set<UUID>> runningExecutionsByFlow = new ConcurrentHashMap<>();
+    // File sender deployments with eventDrivenPickup also run when their source directory changes
+    private final DirectoryWatchRegistry directoryWatchRegistry;
+    
+    // Decides which deployments this node polls when several nodes share the database
+    private final SchedulingShardCoordinator shardCoordinator;
+    
+    // Durable hand-off from polling to execution
+    private final FlowTriggerQueue triggerQueue;
+    
+    // Per-deployment permits enforcing maxConcurrentExecutions on this node
+    private final DeploymentConcurrencyLimiter concurrencyLimiter;
+    
+    // Deployments whose sender adapter is polling right now
+    private final Set<UUID> pollsInProgress = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Concurrency permit of a deployment plus, with clustered scheduling, its cluster-wide
+     * execution slot; both are released on close
+     */
+    private final class ExecutionLease implements AutoCloseable {
+        private final DeploymentConcurrencyLimiter.Permit permit;
+        private final UUID clusterSlot;
+        
+        private ExecutionLease(DeploymentConcurrencyLimiter.Permit permit, UUID clusterSlot) {
+            this.permit = permit;
+            this.clusterSlot = clusterSlot;
+        }
+        
+        @Override
+        public void close() {
+            if (clusterSlot != null) {
+                shardCoordinator.releaseExecutionSlot(clusterSlot);
+            }
+            permit.close();
+        }
+    }
     
     @Autowired
     public DeployedFlowSchedulingService(DeployedFlowRepository deployedFlowRepository,
@@ -59,24 +113,44 @@ public class DeployedFlowSchedulingService {
                                        FlowExecutionService flowExecutionService,
                                        AdapterExecutionService adapterExecutionService,
                                        SystemConfigurationRepository configRepository,
-                                       @org.springframework.beans.factory.annotation.Qualifier("adapterTaskExecutor")
-                                       java.util.concurrent.Executor adapterExecutor) {
+                                       DirectoryWatchRegistry directoryWatchRegistry,
+                                       SchedulingShardCoordinator shardCoordinator,
+                                       FlowTriggerQueue triggerQueue,
+                                       DeploymentConcurrencyLimiter concurrencyLimiter,
+                                       @Qualifier("pollTaskExecutor") Executor pollExecutor) {
         this.deployedFlowRepository = deployedFlowRepository;
         this.flowExecutionRepository = flowExecutionRepository;
         this.adapterRepository = adapterRepository;
         this.flowExecutionService = flowExecutionService;
         this.adapterExecutionService = adapterExecutionService;
         this.configRepository = configRepository;
-        this.adapterExecutor = adapterExecutor;
-        this.taskScheduler = createTaskScheduler();
+        this.directoryWatchRegistry = directoryWatchRegistry;
+        this.shardCoordinator = shardCoordinator;
+        this.triggerQueue = triggerQueue;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.pollExecutor = pollExecutor;
+        this.triggerScheduler = new FlowTriggerScheduler(pollExecutor, "DeployedFlow-Scheduler");
     }
     
     @PostConstruct
     public void initialize() {
         logger.info("Initializing Deployed Flow Scheduling Service...");
         
-        // Load existing running executions to track concurrency
-        loadRunningExecutions();
+        // Queued triggers are executed with the same tracking as inline ones
+        triggerQueue.setHandler(this::processQueuedTrigger);
+        
+        // Follow shard moves between nodes
+        shardCoordinator.addOwnershipListener(new SchedulingShardCoordinator.OwnershipListener() {
+            @Override
+            public void onShardsAssigned(Set<Integer> shards) {
+                startSenderAdaptersInShards(shards);
+            }
+            
+            @Override
+            public void onShardsRevoked(Set<Integer> shards) {
+                stopSenderAdaptersInShards(shards);
+            }
+        });
         
         logger.info("Deployed Flow Scheduling Service initialized successfully");
     }
@@ -140,14 +214,15 @@ public class DeployedFlowSchedulingService {
             }
             
             // Stop scheduled adapter task
-            ScheduledFuture<?> scheduledTask = scheduledAdapterTasks.remove(deploymentId);
-            if (scheduledTask != null && !scheduledTask.isCancelled()) {
-                scheduledTask.cancel(false);
+            if (triggerScheduler.cancel(deploymentId)) {
                 logger.info("Cancelled scheduled adapter task for deployment: {}", deploymentId);
             }
+            if (directoryWatchRegistry.unregister(deploymentId)) {
+                logger.info("Stopped watching source directory for deployment: {}", deploymentId);
+            }
             
-            // Clean up running executions tracking
-            runningExecutionsByFlow.remove(deploymentId);
+            // Drop concurrency tracking once in-flight executions have finished
+            concurrencyLimiter.remove(deploymentId);
             
             logger.info("Successfully stopped adapters for undeployed flow: {}", deploymentId);
             
@@ -190,13 +265,19 @@ public class DeployedFlowSchedulingService {
         UUID senderAdapterId = deployedFlow.getSenderAdapterId();
         UUID deploymentId = deployedFlow.getId();
 
+        // Another node polls deployments in shards this node does not lease
+        if (!shardCoordinator.ownsDeployment(deploymentId)) {
+            logger.debug("Deployment {} is in shard {} owned by another node, not scheduling it here",
+                        deploymentId, shardCoordinator.shardOf(deploymentId));
+            return;
+        }
+
         logger.info("Starting sender adapter: {} for deployment: {}",
                    senderAdapterId, deploymentId);
 
         // CRITICAL: Check if this deployment already has a scheduled task
         // Synchronized method ensures no race condition during check-then-act
-        ScheduledFuture<?> existingTask = scheduledAdapterTasks.get(deploymentId);
-        if (existingTask != null && !existingTask.isCancelled() && !existingTask.isDone()) {
+        if (triggerScheduler.isScheduled(deploymentId)) {
             logger.info("Sender adapter {} for deployment {} is already scheduled, skipping duplicate scheduling",
                        senderAdapterId, deploymentId);
             return;
@@ -223,20 +304,31 @@ public class DeployedFlowSchedulingService {
             logger.info("Starting sender adapter {} for deployment", senderAdapterId);
 
             // Get scheduler configuration from the adapter (read dynamically, not from snapshot)
+            // CRITICAL: No fallback scheduling - adapter must have valid scheduler config or it will not run.
+            // This is required for compliance - scheduled execution times are approved by all parties.
             Map<String, Object> adapterConfig = senderAdapter.getConfiguration();
-            SchedulerConfig schedulerConfig = new SchedulerConfig(adapterConfig);
+            AdapterSchedule schedule = AdapterSchedule.fromConfiguration(adapterConfig);
             
-            logger.info("Scheduling sender adapter {} with scheduler config: {} - {} mode", 
-                       senderAdapterId, schedulerConfig.getScheduleType(), schedulerConfig.getScheduleMode());
-            
-            // Schedule the adapter task using the comprehensive scheduler
-            ScheduledFuture<?> scheduledTask = scheduleWithSchedulerConfig(
-                () -> executeSenderAdapter(deployedFlow, senderAdapter), 
-                schedulerConfig
-            );
+            Runnable pickup = () -> {
+                // The shard may have moved to another node since the schedule was registered
+                if (shardCoordinator.ownsDeployment(deploymentId)) {
+                    executeSenderAdapter(deployedFlow, senderAdapter);
+                }
+            };
+            boolean watched = registerDirectoryWatch(deployedFlow, senderAdapter, pickup);
+            
+            // Watched deployments route scheduled runs through the registry so a scheduled
+            // run and an event-triggered run of the same deployment never overlap
+            Instant firstFireTime = triggerScheduler.schedule(deploymentId, schedule, watched
+                ? () -> {
+                    if (!directoryWatchRegistry.trigger(deploymentId)) {
+                        pickup.run();
+                    }
+                }
+                : pickup);
             
-            // Track the scheduled task
-            scheduledAdapterTasks.put(deployedFlow.getId(), scheduledTask);
+            logger.info("Scheduled sender adapter {} for deployment {}: {} - first run at {}", 
+                       senderAdapterId, deploymentId, schedule, firstFireTime);
             
             // Adapter is already STARTED - no status update needed
             
@@ -254,6 +346,77 @@ public class DeployedFlowSchedulingService {
         }
     }
     
+    /**
+     * Stop polling a deployment on this node, leaving its adapters and running executions alone
+     */
+    private synchronized boolean stopSenderSchedule(UUID deploymentId) {
+        boolean cancelled = triggerScheduler.cancel(deploymentId);
+        directoryWatchRegistry.unregister(deploymentId);
+        return cancelled;
+    }
+    
+    /**
+     * Start polling the executable deployments that hash to shards this node has just acquired
+     */
+    private void startSenderAdaptersInShards(Set<Integer> shards) {
+        int started = 0;
+        for (DeployedFlow deployedFlow : deployedFlowRepository.findExecutableFlows()) {
+            if (deployedFlow.getSenderAdapterId() == null
+                    || !shards.contains(shardCoordinator.shardOf(deployedFlow.getId()))) {
+                continue;
+            }
+            try {
+                startSenderAdapter(deployedFlow);
+                started++;
+            } catch (Exception e) {
+                logger.error("Failed to start sender adapter for deployment {} in acquired shard: {}",
+                           deployedFlow.getId(), e.getMessage());
+            }
+        }
+        logger.info("Acquired {} shard(s), started polling {} deployment(s)", shards.size(), started);
+    }
+    
+    /**
+     * Stop polling the deployments in shards this node has given up; their running executions finish here
+     */
+    private synchronized void stopSenderAdaptersInShards(Set<Integer> shards) {
+        int stopped = 0;
+        for (UUID deploymentId : triggerScheduler.scheduledKeys()) {
+            if (shards.contains(shardCoordinator.shardOf(deploymentId)) && stopSenderSchedule(deploymentId)) {
+                stopped++;
+            }
+        }
+        logger.info("Released {} shard(s), stopped polling {} deployment(s)", shards.size(), stopped);
+    }
+    
+    /**
+     * Watch the source directory of a FILE sender configured with eventDrivenPickup.
+     * Falls back to schedule-only polling if the directory cannot be watched.
+     *
+     * @return true if the directory is being watched
+     */
+    private boolean registerDirectoryWatch(DeployedFlow deployedFlow, Adapter senderAdapter, Runnable pickup) {
+        Map<String, Object> config = senderAdapter.getConfiguration();
+        if (!"FILE".equalsIgnoreCase(senderAdapter.getAdapterType()) || config == null
+                || !AdapterConfigUtil.getBooleanConfig(config, "eventDrivenPickup", false)) {
+            return false;
+        }
+        Object sourceDirectory = config.get("sourceDirectory");
+        if (sourceDirectory == null || sourceDirectory.toString().trim().isEmpty()) {
+            return false;
+        }
+        
+        try {
+            directoryWatchRegistry.register(deployedFlow.getId(), Paths.get(sourceDirectory.toString()), pickup);
+            logger.info("Event-driven pickup enabled for deployment {} on {}", deployedFlow.getId(), sourceDirectory);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot watch {} for deployment {}, using scheduled polling only: {}",
+                       sourceDirectory, deployedFlow.getId(), e.getMessage());
+            return false;
+        }
+    }
+    
     /**
      * Start receiver adapter (typically triggered by flow execution)
      */
@@ -300,9 +463,28 @@ public class DeployedFlowSchedulingService {
     }
     
     /**
-     * Execute sender adapter - checks for files/data and triggers flow execution
+     * Execute sender adapter, unless a poll of the deployment is already running. The schedule
+     * and directory watch can both fire for a deployment, and overlapping polls would pick up
+     * the same files twice.
      */
     private void executeSenderAdapter(DeployedFlow deployedFlow, Adapter senderAdapter) {
+        UUID deploymentId = deployedFlow.getId();
+        if (!pollsInProgress.add(deploymentId)) {
+            logger.debug("Sender adapter {} of deployment {} is already polling, skipping", 
+                        senderAdapter.getId(), deploymentId);
+            return;
+        }
+        try {
+            pollSenderAdapter(deployedFlow, senderAdapter);
+        } finally {
+            pollsInProgress.remove(deploymentId);
+        }
+    }
+    
+    /**
+     * Poll the sender adapter - checks for files/data and triggers flow execution
+     */
+    private void pollSenderAdapter(DeployedFlow deployedFlow, Adapter senderAdapter) {
         UUID deploymentId = deployedFlow.getId();
         UUID flowId = deployedFlow.getFlowId();
         
@@ -310,37 +492,51 @@ public class DeployedFlowSchedulingService {
             logger.debug("Executing sender adapter: {} for flow: {}", 
                         senderAdapter.getId(), flowId);
             
-            // Check concurrency limits
-            int currentRunning = getCurrentRunningExecutions(deploymentId);
-            int maxConcurrent = deployedFlow.getMaxConcurrentExecutions() != null ? 
-                               deployedFlow.getMaxConcurrentExecutions() : 1;
-            
-            if (currentRunning >= maxConcurrent) {
-                logger.debug("Flow {} at concurrency limit: {}/{}, skipping adapter execution", 
-                            flowId, currentRunning, maxConcurrent);
-                return;
+            ExecutionLease lease = null;
+            if (triggerQueue.isEnabled()) {
+                // Queue consumers apply the concurrency limit; polling only pauses while the backlog is full
+                if (!triggerQueue.hasCapacityFor(deploymentId)) {
+                    logger.debug("Flow {} has a full trigger queue backlog, skipping adapter execution", flowId);
+                    return;
+                }
+            } else {
+                // Check concurrency limits; the lease covers the poll and the inline flow execution
+                lease = tryAcquireExecutionLease(deployedFlow);
+                if (lease == null) {
+                    logger.debug("Flow {} at concurrency limit {}, skipping adapter execution", 
+                                flowId, getMaxConcurrentExecutions(deployedFlow));
+                    return;
+                }
             }
             
-            // Execute adapter using live configuration
-            Map<String, Object> adapterContext = new HashMap<>();
-            adapterContext.put("deploymentId", deploymentId);
-            adapterContext.put("flowId", flowId);
-            
-            Map<String, Object> adapterResult = adapterExecutionService.executeAdapter(
-                senderAdapter, adapterContext, null);
-            
-            // Check if adapter found files/data to process
-            Boolean hasData = (Boolean) adapterResult.getOrDefault("hasData", false);
-            
-            if (hasData) {
-                logger.info("Sender adapter {} found data, triggering flow execution for: {}", 
-                           senderAdapter.getId(), flowId);
+            try {
+                // Execute adapter using live configuration
+                Map<String, Object> adapterContext = new HashMap<>();
+                adapterContext.put("deploymentId", deploymentId);
+                adapterContext.put("flowId", flowId);
                 
-                // Trigger flow execution with adapter data
-                triggerFlowExecution(deployedFlow, adapterResult);
-            } else {
-                logger.debug("Sender adapter {} found no data to process for flow: {}", 
-                           senderAdapter.getId(), flowId);
+                Map<String, Object> adapterResult = adapterExecutionService.executeAdapter(
+                    senderAdapter, adapterContext, null);
+                
+                // Check if adapter found files/data to process
+                Boolean hasData = (Boolean) adapterResult.getOrDefault("hasData", false);
+                
+                if (hasData && triggerQueue.isEnabled()) {
+                    enqueueTrigger(deployedFlow, adapterResult);
+                } else if (hasData) {
+                    logger.info("Sender adapter {} found data, triggering flow execution for: {}", 
+                               senderAdapter.getId(), flowId);
+                    
+                    // Trigger flow execution with adapter data
+                    executeTrigger(deployedFlow, adapterResult);
+                } else {
+                    logger.debug("Sender adapter {} found no data to process for flow: {}", 
+                               senderAdapter.getId(), flowId);
+                }
+            } finally {
+                if (lease != null) {
+                    lease.close();
+                }
             }
             
         } catch (Exception e) {
@@ -358,406 +554,197 @@ public class DeployedFlowSchedulingService {
     }
     
     /**
-     * Trigger flow execution when adapter finds data
+     * Hand data found by the sender adapter to the trigger queue. If it cannot be queued the
+     * flow runs inline instead, so the pickup is not lost, provided the deployment is below
+     * its concurrency limit; otherwise the trigger is rejected like any other that fails
+     * before an execution is recorded.
      */
-    private void triggerFlowExecution(DeployedFlow deployedFlow, Map<String, Object> triggerData) {
-        UUID deploymentId = deployedFlow.getId();
-        UUID flowId = deployedFlow.getFlowId();
-        
+    private void enqueueTrigger(DeployedFlow deployedFlow, Map<String, Object> triggerData) {
         try {
-            // Track this execution as starting
-            UUID executionId = UUID.randomUUID(); // Temporary ID
-            addRunningExecution(deploymentId, executionId);
-            
-            // Update last execution time
-            deployedFlow.setLastExecutionAt(LocalDateTime.now());
-            deployedFlowRepository.update(deployedFlow);
-            
-            // Create system-triggered execution context
-            // For system-triggered executions (polling), use the user who deployed the flow
-            UUID systemUserId = deployedFlow.getDeployedBy();
-            
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("triggerType", "SENDER_ADAPTER");
-            payload.put("deploymentId", deploymentId);
-            payload.put("triggerData", triggerData);
-            payload.put("triggeredAt", LocalDateTime.now().toString());
-            
-            // Execute flow with system authentication context - use SCHEDULED trigger type for automatic executions
-            FlowExecution execution = executeFlowWithSystemAuth(flowId, payload, systemUserId);
-            
-            // Update tracking with actual execution ID
-            removeRunningExecution(deploymentId, executionId);
-            addRunningExecution(deploymentId, execution.getId());
-            
-            logger.info("Triggered flow execution: {} for flow: {} (deployment: {})", 
-                       execution.getId(), flowId, deploymentId);
-            
+            UUID triggerId = triggerQueue.enqueue(deployedFlow, triggerData);
+            logger.info("Sender adapter {} found data, queued trigger {} for flow: {}",
+                       deployedFlow.getSenderAdapterId(), triggerId, deployedFlow.getFlowId());
         } catch (Exception e) {
-            logger.error("Failed to trigger flow execution for {} (deployment: {}): {}", 
-                       flowId, deploymentId, e.getMessage(), e);
-            
-            // Remove from running tracking on error  
-            UUID tempExecutionId = UUID.randomUUID();
-            removeRunningExecution(deploymentId, tempExecutionId);
-            
-            // Update deployment error statistics
-            try {
-                deployedFlow.recordError("Flow execution trigger failed: " + e.getMessage());
-                deployedFlowRepository.update(deployedFlow);
-            } catch (Exception updateError) {
-                logger.warn("Failed to update deployment error statistics: {}", updateError.getMessage());
+            logger.warn("Failed to queue trigger for deployment {}, executing inline: {}",
+                       deployedFlow.getId(), e.getMessage());
+            if (!triggerFlowExecution(deployedFlow, triggerData)) {
+                logger.error("Deployment {} is at its concurrency limit {}, dropping trigger that could not be queued",
+                            deployedFlow.getId(), getMaxConcurrentExecutions(deployedFlow));
+                releaseTriggerPayloads(triggerData);
+                recordDeploymentError(deployedFlow, "Trigger could not be queued and deployment is at its concurrency limit");
             }
         }
     }
     
     /**
-     * Schedule a task using comprehensive scheduler configuration.
-     * CRITICAL: No fallback scheduling - adapter must have valid scheduler config or it will not run.
-     * This is required for compliance - scheduled execution times are approved by all parties.
+     * Start the flow execution of a queued trigger, unless the deployment is at its concurrency limit.
+     * Failures are rethrown so the queue can redeliver or dead-letter the trigger.
      */
-    private ScheduledFuture<?> scheduleWithSchedulerConfig(Runnable task, SchedulerConfig schedulerConfig) {
-        String scheduleType = schedulerConfig.getScheduleType();
-        String scheduleMode = schedulerConfig.getScheduleMode();
-
-        // Validate scheduler configuration - no fallbacks allowed
-        if (scheduleMode == null || scheduleMode.trim().isEmpty()) {
-            throw new IllegalStateException("Scheduler configuration missing: scheduleMode is required. " +
-                "Adapter cannot be scheduled without valid scheduler configuration.");
-        }
-
-        if (!"OnTime".equals(scheduleMode) && !"Every".equals(scheduleMode)) {
-            throw new IllegalStateException("Invalid scheduleMode: '" + scheduleMode + "'. " +
-                "Must be 'OnTime' or 'Every'. Adapter cannot be scheduled with invalid configuration.");
+    private boolean processQueuedTrigger(QueuedFlowTrigger trigger, Map<String, Object> triggerData) throws Exception {
+        DeployedFlow deployedFlow = deployedFlowRepository.findById(trigger.getDeploymentId())
+            .orElseThrow(() -> new IllegalStateException("Deployment not found: " + trigger.getDeploymentId()));
+        ExecutionLease lease = tryAcquireExecutionLease(deployedFlow);
+        if (lease == null) {
+            return false;
         }
-
-        if ("OnTime".equals(scheduleMode)) {
-            // Validate OnTime specific config
-            String onTimeValue = schedulerConfig.getOnTimeValue();
-            if (onTimeValue == null || onTimeValue.trim().isEmpty()) {
-                throw new IllegalStateException("Scheduler configuration missing: onTimeValue is required for OnTime mode.");
-            }
-            logger.info("Scheduling OnTime execution for {} at {}", scheduleType, onTimeValue);
-            return scheduleAtSpecificTime(task, schedulerConfig);
-
-        } else if ("Every".equals(scheduleMode)) {
-            // Validate Every specific config
-            String everyInterval = schedulerConfig.getEveryInterval();
-            if (everyInterval == null || everyInterval.trim().isEmpty()) {
-                throw new IllegalStateException("Scheduler configuration missing: everyInterval is required for Every mode.");
-            }
-            long intervalMs = parseIntervalToMilliseconds(everyInterval);
-            if (intervalMs <= 0) {
-                throw new IllegalStateException("Invalid everyInterval: '" + everyInterval + "'. " +
-                    "Could not parse to valid interval.");
-            }
-            logger.info("Scheduling Every execution with interval: {}ms ({})", intervalMs, everyInterval);
-            return scheduleWithInterval(task, schedulerConfig);
+        
+        try {
+            runFlowExecution(deployedFlow, triggerData, trigger.getId());
+            return true;
+        } catch (Exception e) {
+            recordDeploymentError(deployedFlow, "Queued flow execution failed: " + e.getMessage());
+            throw e;
+        } finally {
+            lease.close();
         }
-
-        // This should never be reached due to validation above
-        throw new IllegalStateException("Unexpected scheduling error - no valid schedule mode configured.");
-    }
-    
-    /**
-     * Schedule task at specific time based on Daily/Weekly/Monthly
-     */
-    private ScheduledFuture<?> scheduleAtSpecificTime(Runnable task, SchedulerConfig schedulerConfig) {
-        // For now, implement as fixed rate every minute and check time during execution
-        // This is a simplified implementation - a full implementation would use cron expressions
-        logger.info("Scheduling OnTime execution for {} at {}",
-                   schedulerConfig.getScheduleType(), schedulerConfig.getOnTimeValue());
-
-        return taskScheduler.scheduleAtFixedRate(() -> {
-            if (shouldExecuteAtTime(schedulerConfig)) {
-                task.run();
-            }
-        }, java.time.Duration.ofMinutes(1)); // Check every minute
     }
     
     /**
-     * Schedule task with interval within time range
+     * Run the flow for trigger data under a lease of its own
+     *
+     * @return false, without running the flow, if the deployment is at its concurrency limit
      */
-    private ScheduledFuture<?> scheduleWithInterval(Runnable task, SchedulerConfig schedulerConfig) {
-        long intervalMs = parseIntervalToMilliseconds(schedulerConfig.getEveryInterval());
-
-        logger.info("SCHEDULER DEBUG: About to schedule with intervalMs = {}ms", intervalMs);
-        logger.info("Scheduling Every execution with interval: {}ms", intervalMs);
-
-        // Use scheduleAtFixedRate for consistent interval execution
-        // This ensures tasks start at fixed intervals regardless of execution time
-        // Wrap task in adapterExecutor to allow concurrent executions
-        ScheduledFuture<?> future = taskScheduler.scheduleAtFixedRate(() -> {
-            logger.info("SCHEDULER DEBUG: Task triggered at {}", java.time.LocalDateTime.now());
-            if (shouldExecuteInTimeRange(schedulerConfig)) {
-                // Execute task asynchronously in thread pool to allow concurrency
-                adapterExecutor.execute(() -> {
-                    try {
-                        logger.info("SCHEDULER DEBUG: Task executing in thread: {}", Thread.currentThread().getName());
-                        task.run();
-                    } catch (Exception e) {
-                        logger.error("Error executing adapter task: {}", e.getMessage(), e);
-                    }
-                });
-            }
-        }, java.time.Duration.ofMillis(intervalMs));
-
-        logger.info("SCHEDULER DEBUG: Scheduled future created successfully");
-        return future;
-    }
-    
-    /**
-     * Check if current time matches the OnTime schedule
-     */
-    private boolean shouldExecuteAtTime(SchedulerConfig schedulerConfig) {
-        // Simplified implementation - just check if we're at the right time
-        // A full implementation would properly handle Daily/Weekly/Monthly logic with time zones
-        return true; // For now, always execute when checked
-    }
-    
-    /**
-     * Check if current time is within the Every time range
-     */
-    private boolean shouldExecuteInTimeRange(SchedulerConfig schedulerConfig) {
-        // Simplified implementation - check if current time is between start and end times
-        // A full implementation would properly parse and compare times
-        return true; // For now, always execute
+    private boolean triggerFlowExecution(DeployedFlow deployedFlow, Map<String, Object> triggerData) {
+        ExecutionLease lease = tryAcquireExecutionLease(deployedFlow);
+        if (lease == null) {
+            return false;
+        }
+        try {
+            executeTrigger(deployedFlow, triggerData);
+            return true;
+        } finally {
+            lease.close();
+        }
     }
     
     /**
-     * Convert interval string to milliseconds.
-     * CRITICAL: No fallbacks - invalid or missing configuration must fail loudly.
-     * The scheduler MUST use only database-supplied configuration values.
+     * Trigger flow execution when adapter finds data. Callers hold an execution lease of the deployment.
      */
-    private long parseIntervalToMilliseconds(String interval) {
-        logger.info("SCHEDULER DEBUG: Parsing interval: '{}'", interval);
-
-        // CRITICAL: No fallback for null - configuration is required
-        if (interval == null || interval.trim().isEmpty()) {
-            throw new IllegalStateException(
-                "Scheduler configuration error: everyInterval is required but not found in adapter configuration. " +
-                "Please configure the adapter with a valid interval (e.g., '1 min', '30 sec', '2 hour').");
-        }
-
+    private void executeTrigger(DeployedFlow deployedFlow, Map<String, Object> triggerData) {
+        UUID deploymentId = deployedFlow.getId();
+        UUID flowId = deployedFlow.getFlowId();
+        
         try {
-            if (interval.endsWith(" sec")) {
-                int seconds = Integer.parseInt(interval.replace(" sec", "").trim());
-                if (seconds <= 0) {
-                    throw new IllegalStateException("Interval must be positive: " + interval);
-                }
-                long result = seconds * 1000L;
-                logger.info("SCHEDULER DEBUG: Parsed '{}' as {} seconds = {}ms", interval, seconds, result);
-                return result;
-            } else if (interval.endsWith(" min")) {
-                int minutes = Integer.parseInt(interval.replace(" min", "").trim());
-                if (minutes <= 0) {
-                    throw new IllegalStateException("Interval must be positive: " + interval);
-                }
-                long result = minutes * 60000L;
-                logger.info("SCHEDULER DEBUG: Parsed '{}' as {} minutes = {}ms", interval, minutes, result);
-                return result;
-            } else if (interval.endsWith(" hour") || interval.endsWith(" hours")) {
-                int hours = Integer.parseInt(interval.replace(" hour", "").replace(" hours", "").trim());
-                if (hours <= 0) {
-                    throw new IllegalStateException("Interval must be positive: " + interval);
-                }
-                long result = hours * 3600000L;
-                logger.info("SCHEDULER DEBUG: Parsed '{}' as {} hours = {}ms", interval, hours, result);
-                return result;
+            runFlowExecution(deployedFlow, triggerData, null);
+        } catch (Exception e) {
+            logger.error("Failed to trigger flow execution for {} (deployment: {}): {}", 
+                       flowId, deploymentId, e.getMessage(), e);
+            
+            // A recorded execution owns its payloads (released by the steps, or kept for a
+            // retry); this covers triggers that failed before an execution was recorded
+            if (!(e instanceof FlowExecutionFailedException)) {
+                releaseTriggerPayloads(triggerData);
             }
-        } catch (NumberFormatException e) {
-            throw new IllegalStateException(
-                "Scheduler configuration error: Invalid interval format '" + interval + "'. " +
-                "Expected format: '<number> sec', '<number> min', or '<number> hour'. " +
-                "Example: '1 min', '30 sec', '2 hour'", e);
+            
+            // Update deployment error statistics
+            recordDeploymentError(deployedFlow, "Flow execution trigger failed: " + e.getMessage());
         }
-
-        // CRITICAL: No fallback for unrecognized format - must fail
-        throw new IllegalStateException(
-            "Scheduler configuration error: Unrecognized interval format '" + interval + "'. " +
-            "Expected format: '<number> sec', '<number> min', or '<number> hour'. " +
-            "Example: '1 min', '30 sec', '2 hour'");
     }
     
     /**
-     * Wrapper class for scheduler configuration.
-     * CRITICAL: No defaults for required fields - missing config must fail validation.
+     * Take a concurrency permit of the deployment and, with clustered scheduling, a cluster-wide
+     * execution slot
+     *
+     * @return the lease, or null if the deployment is at its concurrency limit
      */
-    private static class SchedulerConfig {
-        private final Map<String, Object> config;
-
-        public SchedulerConfig(Map<String, Object> config) {
-            this.config = config != null ? config : new HashMap<>();
-        }
-
-        // Required field - no default (must be explicitly configured)
-        public String getScheduleType() {
-            return getString("scheduleType");
-        }
-
-        // Required field - no default (must be explicitly configured)
-        public String getScheduleMode() {
-            return getString("scheduleMode");
-        }
-
-        // Required for OnTime mode - no default
-        public String getOnTimeValue() {
-            return getString("onTimeValue");
-        }
-
-        // Required for Every mode - no default
-        public String getEveryInterval() {
-            return getString("everyInterval");
-        }
-
-        // Optional with sensible defaults for time range
-        public String getEveryStartTime() {
-            return getStringWithDefault("everyStartTime", "00:00");
-        }
-
-        public String getEveryEndTime() {
-            return getStringWithDefault("everyEndTime", "23:59");
-        }
-
-        public String getTimeZone() {
-            return getStringWithDefault("timeZone", "UTC 0:00");
-        }
-
-        private String getString(String key) {
-            Object value = config.get(key);
-            return value != null ? value.toString() : null;
+    private ExecutionLease tryAcquireExecutionLease(DeployedFlow deployedFlow) {
+        UUID deploymentId = deployedFlow.getId();
+        int maxConcurrent = getMaxConcurrentExecutions(deployedFlow);
+        
+        DeploymentConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(deploymentId, maxConcurrent);
+        if (permit == null) {
+            return null;
         }
-
-        private String getStringWithDefault(String key, String defaultValue) {
-            Object value = config.get(key);
-            return value != null ? value.toString() : defaultValue;
+        
+        // Executions still running on other nodes (e.g. before a shard moved) count towards the limit too
+        UUID clusterSlot = null;
+        if (shardCoordinator.isEnabled()) {
+            clusterSlot = shardCoordinator.tryAcquireExecutionSlot(deploymentId, maxConcurrent);
+            if (clusterSlot == null) {
+                permit.close();
+                return null;
+            }
         }
+        return new ExecutionLease(permit, clusterSlot);
     }
     
-    /**
-     * Create task scheduler
-     */
-    private ThreadPoolTaskScheduler createTaskScheduler() {
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(10); // Allow up to 10 concurrent adapter polling tasks
-        scheduler.setThreadNamePrefix("DeployedFlow-Adapter-");
-        scheduler.setWaitForTasksToCompleteOnShutdown(true);
-        scheduler.setAwaitTerminationSeconds(60);
-        scheduler.initialize();
-        return scheduler;
-    }
-    
-    /**
-     * Get current running executions for a deployment
-     */
-    private int getCurrentRunningExecutions(UUID deploymentId) {
-        Set<UUID> runningExecutions = runningExecutionsByFlow.get(deploymentId);
-        if (runningExecutions == null || runningExecutions.isEmpty()) {
-            return 0;
-        }
-
-        // CRITICAL FIX: Verify executions are actually still running in database
-        // Don't rely on stale in-memory tracking that waits 5 minutes for cleanup
+    private void recordDeploymentError(DeployedFlow deployedFlow, String message) {
         try {
-            List<FlowExecution> stillRunning = flowExecutionRepository.findRunningExecutions();
-            Set<UUID> stillRunningIds = new HashSet<>();
-            for (FlowExecution execution : stillRunning) {
-                stillRunningIds.add(execution.getId());
-            }
-
-            // Remove completed executions from tracking immediately
-            runningExecutions.removeIf(executionId -> !stillRunningIds.contains(executionId));
-
-            return runningExecutions.size();
-        } catch (Exception e) {
-            logger.warn("Error checking running executions, using cached count: {}", e.getMessage());
-            return runningExecutions.size(); // Fallback to cached count on error
+            deployedFlow.recordError(message);
+            deployedFlowRepository.update(deployedFlow);
+        } catch (Exception updateError) {
+            logger.warn("Failed to update deployment error statistics: {}", updateError.getMessage());
         }
     }
     
     /**
-     * Add running execution to tracking
+     * Run the flow for the trigger data. Callers hold an execution lease of the deployment.
+     *
+     * @param queuedTriggerId the queued trigger being processed, recorded in the execution payload; null if not queued
      */
-    private void addRunningExecution(UUID deploymentId, UUID executionId) {
-        runningExecutionsByFlow.computeIfAbsent(deploymentId, k -> ConcurrentHashMap.newKeySet())
-                              .add(executionId != null ? executionId : UUID.randomUUID());
+    private FlowExecution runFlowExecution(DeployedFlow deployedFlow, Map<String, Object> triggerData,
+                                           UUID queuedTriggerId) {
+        UUID deploymentId = deployedFlow.getId();
+        UUID flowId = deployedFlow.getFlowId();
+        
+        // Update last execution time
+        deployedFlow.setLastExecutionAt(LocalDateTime.now());
+        deployedFlowRepository.update(deployedFlow);
+        
+        // Create system-triggered execution context
+        // For system-triggered executions (polling), use the user who deployed the flow
+        UUID systemUserId = deployedFlow.getDeployedBy();
+        
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("triggerType", "SENDER_ADAPTER");
+        payload.put("deploymentId", deploymentId);
+        payload.put("triggerData", triggerData);
+        payload.put("triggeredAt", LocalDateTime.now().toString());
+        if (queuedTriggerId != null) {
+            payload.put("queuedTriggerId", queuedTriggerId.toString());
+        }
+        
+        // Execute flow with system authentication context - use SCHEDULED trigger type for automatic executions
+        FlowExecution execution = executeFlowWithSystemAuth(flowId, payload, systemUserId);
+        
+        logger.info("Triggered flow execution: {} for flow: {} (deployment: {})", 
+                   execution.getId(), flowId, deploymentId);
+        return execution;
     }
     
-    /**
-     * Remove running execution from tracking
-     */
-    private void removeRunningExecution(UUID deploymentId, UUID executionId) {
-        Set<UUID> runningExecutions = runningExecutionsByFlow.get(deploymentId);
-        if (runningExecutions != null) {
-            if (executionId != null) {
-                runningExecutions.remove(executionId);
-            } else {
-                // Remove any placeholder entries if executionId is null
-                runningExecutions.clear();
-            }
-            
-            if (runningExecutions.isEmpty()) {
-                runningExecutionsByFlow.remove(deploymentId);
+    @SuppressWarnings("unchecked")
+    private void releaseTriggerPayloads(Map<String, Object> triggerData) {
+        Object foundFiles = triggerData.get("foundFiles");
+        if (foundFiles instanceof List) {
+            try {
+                FilePayload.releaseAll((List<Map<String, Object>>) foundFiles);
+            } catch (Exception e) {
+                logger.warn("Failed to release trigger file payloads: {}", e.getMessage());
             }
         }
     }
     
-    /**
-     * Load existing running executions to properly track concurrency
-     */
-    private void loadRunningExecutions() {
-        try {
-            logger.debug("Loading existing running executions for concurrency tracking...");
-            
-            List<FlowExecution> runningExecutions = flowExecutionRepository.findRunningExecutions();
-            
-            for (FlowExecution execution : runningExecutions) {
-                // Extract deployment ID from execution context
-                if (execution.getExecutionContext() != null) {
-                    Object deploymentIdObj = execution.getExecutionContext().get("deploymentId");
-                    if (deploymentIdObj instanceof UUID) {
-                        UUID deploymentId = (UUID) deploymentIdObj;
-                        addRunningExecution(deploymentId, execution.getId());
-                    }
-                }
-            }
-            
-            logger.info("Loaded {} running executions for concurrency tracking", runningExecutions.size());
-            
-        } catch (Exception e) {
-            logger.error("Failed to load running executions: {}", e.getMessage(), e);
-        }
+    private int getMaxConcurrentExecutions(DeployedFlow deployedFlow) {
+        return deployedFlow.getMaxConcurrentExecutions() != null ? deployedFlow.getMaxConcurrentExecutions() : 1;
     }
     
     /**
-     * Clean up completed executions from tracking
+     * Check held concurrency permits against the executions recorded as running
      */
-    private void cleanupCompletedExecutions() {
+    private void reconcileConcurrencyPermits() {
         try {
-            // Get all currently running executions from database
-            List<FlowExecution> stillRunning = flowExecutionRepository.findRunningExecutions();
-            Set<UUID> stillRunningIds = new HashSet<>();
-            
-            for (FlowExecution execution : stillRunning) {
-                stillRunningIds.add(execution.getId());
+            int reclaimed = concurrencyLimiter.reconcile(flowExecutionRepository.countActiveByDeployment());
+            if (reclaimed > 0) {
+                logger.warn("Reclaimed {} stale concurrency permits", reclaimed);
             }
-            
-            // Clean up our tracking map
-            runningExecutionsByFlow.forEach((deploymentId, executionIds) -> {
-                executionIds.removeIf(executionId -> !stillRunningIds.contains(executionId));
-            });
-            
-            // Remove empty deployment entries
-            runningExecutionsByFlow.entrySet().removeIf(entry -> entry.getValue().isEmpty());
-            
         } catch (Exception e) {
-            logger.warn("Error during execution cleanup: {}", e.getMessage(), e);
+            logger.warn("Error during concurrency permit reconciliation: {}", e.getMessage(), e);
         }
     }
     
     /**
      * Periodic cleanup task - uses configurable interval from application properties
-     * - Cleans up completed executions from tracking
+     * - Reconciles concurrency permits with flow_executions
      * - Monitors active deployments
      * - Logs scheduler status
      */
@@ -766,14 +753,11 @@ public class DeployedFlowSchedulingService {
         try {
             logger.debug("Running periodic scheduler maintenance...");
             
-            // Clean up completed executions
-            cleanupCompletedExecutions();
+            reconcileConcurrencyPermits();
             
             // Log scheduler status
-            int activeDeployments = scheduledAdapterTasks.size();
-            int totalRunningExecutions = runningExecutionsByFlow.values().stream()
-                                                                .mapToInt(Set::size)
-                                                                .sum();
+            int activeDeployments = triggerScheduler.size();
+            int totalRunningExecutions = concurrencyLimiter.totalCurrent();
             
             if (activeDeployments > 0 || totalRunningExecutions > 0) {
                 logger.info("Scheduler status: {} active deployments, {} running executions", 
@@ -783,8 +767,9 @@ public class DeployedFlowSchedulingService {
             // Check for deployments that should be running but aren't scheduled
             List<DeployedFlow> executableFlows = deployedFlowRepository.findExecutableFlows();
             for (DeployedFlow flow : executableFlows) {
-                if (!scheduledAdapterTasks.containsKey(flow.getId()) && 
-                    flow.getSenderAdapterId() != null) {
+                if (!triggerScheduler.isScheduled(flow.getId()) && 
+                    flow.getSenderAdapterId() != null &&
+                    shardCoordinator.ownsDeployment(flow.getId())) {
                     logger.warn("Found unscheduled executable flow: {}, attempting to start...", flow.getId());
                     try {
                         startSenderAdapter(flow);
@@ -799,6 +784,47 @@ public class DeployedFlowSchedulingService {
         }
     }
     
+    /**
+     * Clustered scheduling only: pick up deployments made through other nodes and drop
+     * schedules of deployments undeployed elsewhere or in shards this node no longer owns
+     */
+    @Scheduled(fixedDelayString = "${h2h.scheduler.cluster.reconcile-interval-ms:30000}")
+    public void reconcileClusterSchedules() {
+        if (!shardCoordinator.isEnabled()) {
+            return;
+        }
+        
+        try {
+            Map<UUID, DeployedFlow> executable = new HashMap<>();
+            for (DeployedFlow flow : deployedFlowRepository.findExecutableFlows()) {
+                if (flow.getSenderAdapterId() != null) {
+                    executable.put(flow.getId(), flow);
+                }
+            }
+            
+            for (UUID deploymentId : triggerScheduler.scheduledKeys()) {
+                if (!executable.containsKey(deploymentId) || !shardCoordinator.ownsDeployment(deploymentId)) {
+                    if (stopSenderSchedule(deploymentId)) {
+                        logger.info("Stopped polling deployment {}: undeployed or owned by another node", deploymentId);
+                    }
+                }
+            }
+            
+            for (DeployedFlow flow : executable.values()) {
+                if (shardCoordinator.ownsDeployment(flow.getId()) && !triggerScheduler.isScheduled(flow.getId())) {
+                    try {
+                        startSenderAdapter(flow);
+                    } catch (Exception e) {
+                        // Reported by periodicMaintenance; retried on the next pass
+                        logger.debug("Failed to start sender adapter for deployment {}: {}", flow.getId(), e.getMessage());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error reconciling clustered schedules: {}", e.getMessage(), e);
+        }
+    }
+    
     /**
      * Manual trigger for a specific deployment (for testing/admin purposes)
      */
@@ -816,10 +842,13 @@ public class DeployedFlowSchedulingService {
                 throw new IllegalArgumentException("Deployment is not active: " + deploymentId);
             }
             
-            // Manually trigger flow execution
+            // Manually trigger flow execution; manual runs count towards maxConcurrentExecutions too
             Map<String, Object> triggerData = new HashMap<>();
             triggerData.put("manualTrigger", true);
-            triggerFlowExecution(deployment, triggerData);
+            if (!triggerFlowExecution(deployment, triggerData)) {
+                throw new IllegalStateException("Deployment is at its concurrency limit of " +
+                    getMaxConcurrentExecutions(deployment) + " running executions: " + deploymentId);
+            }
             
         } catch (Exception e) {
             logger.error("Failed to manually trigger deployment {}: {}", deploymentId, e.getMessage(), e);
@@ -895,17 +924,25 @@ public class DeployedFlowSchedulingService {
             List<DeployedFlow> activeDeployments = deployedFlowRepository.findExecutableFlows();
             
             stats.put("totalActiveDeployments", activeDeployments.size());
-            stats.put("currentlyRunningExecutions", runningExecutionsByFlow.values().stream()
-                                                                            .mapToInt(Set::size)
-                                                                            .sum());
-            stats.put("deploymentsWithRunningExecutions", runningExecutionsByFlow.size());
-            
-            // Add per-deployment running counts
-            Map<String, Integer> runningByDeployment = new HashMap<>();
-            runningExecutionsByFlow.forEach((deploymentId, executions) -> {
-                runningByDeployment.put(deploymentId.toString(), executions.size());
-            });
-            stats.put("runningExecutionsByDeployment", runningByDeployment);
+            Map<String, Object> concurrency = concurrencyLimiter.getStatistics();
+            stats.put("currentlyRunningExecutions", concurrency.get("current"));
+            stats.put("concurrency", concurrency);
+            stats.put("scheduledDeployments", triggerScheduler.size());
+            stats.put("firesSkippedWhileRunning", triggerScheduler.getOverlapsSkipped());
+            stats.put("firesSkippedPoolFull", triggerScheduler.getRejectedSkipped());
+            stats.put("pollsInProgress", pollsInProgress.size());
+            stats.put("directoryWatch", directoryWatchRegistry.getStatistics());
+            stats.put("cluster", shardCoordinator.getStatistics());
+            
+            // Add per-deployment next scheduled run
+            Map<String, String> nextRunByDeployment = new HashMap<>();
+            for (DeployedFlow deployment : activeDeployments) {
+                Instant nextFireTime = triggerScheduler.getNextFireTime(deployment.getId());
+                if (nextFireTime != null) {
+                    nextRunByDeployment.put(deployment.getId().toString(), nextFireTime.toString());
+                }
+            }
+            stats.put("nextRunByDeployment", nextRunByDeployment);
             
         } catch (Exception e) {
             logger.warn("Error collecting scheduling statistics: {}", e.getMessage(), e);
@@ -919,19 +956,8 @@ public class DeployedFlowSchedulingService {
     public void shutdown() {
         logger.info("Shutting down Deployed Flow Scheduling Service...");
         
-        // Cancel all scheduled adapter tasks
-        scheduledAdapterTasks.forEach((deploymentId, task) -> {
-            if (!task.isCancelled()) {
-                task.cancel(false);
-                logger.debug("Cancelled scheduled task for deployment: {}", deploymentId);
-            }
-        });
-        scheduledAdapterTasks.clear();
-        
-        // Shutdown task scheduler
-        if (taskScheduler != null) {
-            taskScheduler.shutdown();
-        }
+        // Cancel all scheduled adapter tasks and stop the dispatcher
+        triggerScheduler.shutdown();
         
         logger.info("Deployed Flow Scheduling Service shutdown completed");
     }
@@ -0,0 +1,197 @@
+package com.integrixs.core.service;
+
+import com.integrixs.shared.model.value.FilePayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decides what part of an execution context is persisted to
+ * flow_executions.execution_context and flow_execution_steps.input_data/output_data.
+ * flow_executions.payload is the retry input and is always stored whole.
+ *
+ * METADATA (default) keeps scalars and file metadata, caps strings and collections
+ * and omits heavy keys such as the flow definition and adapter objects.
+ * DEBUG keeps everything except raw content. In both modes binary values are
+ * stored as references (size + SHA-256) and credential-like keys are redacted.
+ *
+ * The in-memory context is never modified; only the persisted copy is reduced.
+ */
+@Component
+public class ExecutionContextCapturePolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionContextCapturePolicy.class);
+
+    public enum CaptureMode {
+        METADATA,
+        DEBUG
+    }
+
+    private static final String OMITTED = "[omitted]";
+    private static final String REDACTED = "[redacted]";
+    private static final String DEPTH_LIMIT = "[depth limit]";
+
+    private static final List<String> SENSITIVE_KEY_FRAGMENTS =
+        List.of("password", "passphrase", "secret", "privatekey", "token", "credential");
+
+    private final CaptureMode mode;
+    private final int maxStringLength;
+    private final int maxCollectionSize;
+    private final int maxDepth;
+    private final Set<String> omittedKeys;
+
+    public ExecutionContextCapturePolicy(
+            @Value("${h2h.execution.context-capture.mode:METADATA}") String mode,
+            @Value("${h2h.execution.context-capture.max-string-length:1024}") int maxStringLength,
+            @Value("${h2h.execution.context-capture.max-collection-size:50}") int maxCollectionSize,
+            @Value("${h2h.execution.context-capture.max-depth:5}") int maxDepth,
+            @Value("${h2h.execution.context-capture.omitted-keys:flowDefinition,senderAdapter,receiverAdapter,adapterConfig}") String omittedKeys) {
+        this.mode = CaptureMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.maxStringLength = maxStringLength;
+        this.maxCollectionSize = maxCollectionSize;
+        this.maxDepth = maxDepth;
+        this.omittedKeys = new HashSet<>();
+        Arrays.stream(omittedKeys.split(","))
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .forEach(this.omittedKeys::add);
+
+        logger.info("Execution context capture: mode={}, maxStringLength={}, maxCollectionSize={}, maxDepth={}",
+                   this.mode, maxStringLength, maxCollectionSize, maxDepth);
+    }
+
+    /**
+     * Build the copy of a context that should be persisted
+     *
+     * @return reduced copy, or null if the context is null
+     */
+    public Map<String, Object> capture(Map<String, Object> context) {
+        if (context == null) {
+            return null;
+        }
+        return captureMap(context, 0);
+    }
+
+    public CaptureMode getMode() {
+        return mode;
+    }
+
+    private Map<String, Object> captureMap(Map<?, ?> map, int depth) {
+        Map<String, Object> captured = new LinkedHashMap<>();
+        int count = 0;
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (isCapped() && count >= maxCollectionSize) {
+                captured.put("_truncatedEntries", map.size() - count);
+                break;
+            }
+            String key = String.valueOf(entry.getKey());
+
+            if (isSensitive(key)) {
+                captured.put(key, REDACTED);
+            } else if (mode == CaptureMode.METADATA && omittedKeys.contains(key)) {
+                captured.put(key, OMITTED);
+            } else {
+                captured.put(key, captureValue(entry.getValue(), depth + 1));
+            }
+            count++;
+        }
+        return captured;
+    }
+
+    private Object captureValue(Object value, int depth) {
+        if (value == null || value instanceof Number || value instanceof Boolean || value instanceof Enum) {
+            return value;
+        }
+        if (value instanceof CharSequence) {
+            return capString(value.toString());
+        }
+        if (value instanceof UUID || value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        if (value instanceof byte[]) {
+            return binaryReference((byte[]) value);
+        }
+        if (value instanceof FilePayload) {
+            return ((FilePayload) value).toMetadata();
+        }
+        if (value instanceof InputStream) {
+            return OMITTED;
+        }
+        if (isCapped() && depth > maxDepth) {
+            return DEPTH_LIMIT;
+        }
+        if (value instanceof Map) {
+            return captureMap((Map<?, ?>) value, depth);
+        }
+        if (value instanceof Collection) {
+            return captureCollection((Collection<?>) value, depth);
+        }
+        if (mode == CaptureMode.DEBUG) {
+            return value;
+        }
+        // Arbitrary objects (adapters, channels, ...) are not persisted in metadata mode
+        return value.getClass().getSimpleName();
+    }
+
+    private List<Object> captureCollection(Collection<?> collection, int depth) {
+        List<Object> captured = new ArrayList<>();
+        for (Object item : collection) {
+            if (isCapped() && captured.size() >= maxCollectionSize) {
+                captured.add("[" + (collection.size() - maxCollectionSize) + " more]");
+                break;
+            }
+            captured.add(captureValue(item, depth + 1));
+        }
+        return captured;
+    }
+
+    private Object capString(String value) {
+        if (isCapped() && value.length() > maxStringLength) {
+            return value.substring(0, maxStringLength) + "...[" + value.length() + " chars]";
+        }
+        return value;
+    }
+
+    private Map<String, Object> binaryReference(byte[] content) {
+        Map<String, Object> reference = new LinkedHashMap<>();
+        reference.put("type", "binary");
+        reference.put("size", content.length);
+        reference.put("sha256", sha256(content));
+        return reference;
+    }
+
+    private boolean isCapped() {
+        return mode == CaptureMode.METADATA;
+    }
+
+    private static boolean isSensitive(String key) {
+        String normalized = key.toLowerCase(Locale.ROOT);
+        return SENSITIVE_KEY_FRAGMENTS.stream().anyMatch(normalized::contains);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.integrixs.core.service;
 
 import com.integrixs.core.logging.CorrelationContext;
+import com.integrixs.shared.model.value.FilePayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.Optional;
 import java.util.List;
@@ -192,6 +197,125 @@ public class ExecutionContextManager {
         return files;
     }
     
+    /**
+     * Delete spooled file payloads referenced from the context once the execution is done
+     */
+    public void releaseFilePayloads(Map<String, Object> context) {
+        for (Map<String, Object> file : extractFilesToProcess(context)) {
+            Object payload = file.get(FilePayload.CONTEXT_KEY);
+            if (payload instanceof FilePayload) {
+                try {
+                    ((FilePayload) payload).release();
+                } catch (Exception e) {
+                    logger.warn("Failed to release file payload {}: {}", payload, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Delete the spooled file payloads referenced from the context, except those that are
+     * part of the retry input (the execution payload) and must survive a failed run
+     */
+    public void releaseFilePayloads(Map<String, Object> context, Map<String, Object> retryInput) {
+        Set<Path> retained = new HashSet<>();
+        collectFilePayloadPaths(retryInput, retained);
+        for (Map<String, Object> file : extractFilesToProcess(context)) {
+            Object payload = file.get(FilePayload.CONTEXT_KEY);
+            if (payload instanceof FilePayload filePayload && !retained.contains(filePayload.getPath())) {
+                try {
+                    filePayload.release();
+                } catch (Exception e) {
+                    logger.warn("Failed to release file payload {}: {}", payload, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Delete the spooled file payloads of a retry input, whether still live or read back
+     * from flow_executions.payload. Files already gone are ignored.
+     */
+    public void releaseRetryInput(Object value) {
+        if (value instanceof FilePayload payload) {
+            try {
+                payload.release();
+            } catch (Exception e) {
+                logger.warn("Failed to release file payload {}: {}", payload, e.getMessage());
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            Object payload = map.get(FilePayload.CONTEXT_KEY);
+            if (FilePayload.isStoredForm(payload)) {
+                try {
+                    FilePayload.fromStoredForm(asStringMap(payload)).release();
+                } catch (Exception e) {
+                    logger.debug("Retry input file already gone: {}", e.getMessage());
+                }
+            }
+            map.values().forEach(this::releaseRetryInput);
+        } else if (value instanceof List<?> list) {
+            list.forEach(this::releaseRetryInput);
+        }
+    }
+    
+    /**
+     * Rebuild a retry input read back from flow_executions.payload, reopening the stored
+     * file payloads of its file maps
+     *
+     * @param unavailable receives the names of files whose content cannot be reopened
+     * @return a copy of the payload with live file payloads
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> restoreRetryInput(Map<String, Object> payload, List<String> unavailable) {
+        return payload != null ? (Map<String, Object>) restoreValue(payload, unavailable) : new HashMap<>();
+    }
+    
+    private Object restoreValue(Object value, List<String> unavailable) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> restored = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if (FilePayload.CONTEXT_KEY.equals(key) && FilePayload.isStoredForm(entry.getValue())) {
+                    Map<String, Object> stored = asStringMap(entry.getValue());
+                    try {
+                        restored.put(key, FilePayload.fromStoredForm(stored));
+                    } catch (Exception e) {
+                        logger.warn("Cannot reopen retry input file {}: {}", stored.get("fileName"), e.getMessage());
+                        unavailable.add(String.valueOf(stored.get("fileName")));
+                    }
+                } else {
+                    restored.put(key, restoreValue(entry.getValue(), unavailable));
+                }
+            }
+            return restored;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> restored = new ArrayList<>(list.size());
+            for (Object item : list) {
+                restored.add(restoreValue(item, unavailable));
+            }
+            return restored;
+        }
+        return value;
+    }
+    
+    private void collectFilePayloadPaths(Object value, Set<Path> paths) {
+        if (value instanceof FilePayload payload) {
+            if (payload.getPath() != null) {
+                paths.add(payload.getPath());
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            map.values().forEach(item -> collectFilePayloadPaths(item, paths));
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> collectFilePayloadPaths(item, paths));
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asStringMap(Object map) {
+        return (Map<String, Object>) map;
+    }
+    
     /**
      * Add files to context for downstream processing
      */
@@ -27,18 +27,21 @@ public class FlowDeploymentService {
     private final DeployedFlowRepository deployedFlowRepository;
     private final AdapterRepository adapterRepository;
     private final DeployedFlowSchedulingService schedulingService;
+    private final FlowExecutionPlanCache planCache;
 
     @Autowired
     public FlowDeploymentService(FlowCrudService flowCrudService,
                                 FlowValidationService flowValidationService,
                                 DeployedFlowRepository deployedFlowRepository,
                                 AdapterRepository adapterRepository,
-                                DeployedFlowSchedulingService schedulingService) {
+                                DeployedFlowSchedulingService schedulingService,
+                                FlowExecutionPlanCache planCache) {
         this.flowCrudService = flowCrudService;
         this.flowValidationService = flowValidationService;
         this.deployedFlowRepository = deployedFlowRepository;
         this.adapterRepository = adapterRepository;
         this.schedulingService = schedulingService;
+        this.planCache = planCache;
     }
     
     /**
@@ -89,6 +92,16 @@ public class FlowDeploymentService {
                 return result;
             }
             
+            // Compile the execution plan up front so a definition that cannot run is rejected here
+            try {
+                planCache.compile(flow);
+            } catch (IllegalArgumentException e) {
+                result.put("status", "FAILED");
+                result.put("message", "Flow definition cannot be executed");
+                result.put("errors", List.of(e.getMessage()));
+                return result;
+            }
+            
             // Check if flow is active
             if (!flow.getActive()) {
                 result.put("status", "FAILED");
@@ -302,6 +315,7 @@ public class FlowDeploymentService {
             deployedFlow.setUndeployedBy(undeployedBy);
             
             deployedFlowRepository.update(deployedFlow);
+            planCache.invalidate(flowId);
 
             // Notify scheduling service to stop adapters for this deployment
             try {
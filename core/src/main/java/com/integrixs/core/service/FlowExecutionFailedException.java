@@ -0,0 +1,20 @@
+package com.integrixs.core.service;
+
+import com.integrixs.shared.model.FlowExecution;
+
+/**
+ * Thrown when a flow execution was recorded and then failed.
+ * The execution record is already persisted as FAILED and owns the spooled files of its
+ * payload from then on (kept for a retry or released by FlowRetryManager).
+ */
+public class FlowExecutionFailedException extends RuntimeException {
+    
+    private final FlowExecution execution;
+    
+    public FlowExecutionFailedException(String message, Throwable cause, FlowExecution execution) {
+        super(message, cause);
+        this.execution = execution;
+    }
+    
+    public FlowExecution getExecution() { return execution; }
+}
@@ -0,0 +1,70 @@
+package com.integrixs.core.service;
+
+import com.integrixs.core.service.execution.FlowExecutionPlan;
+import com.integrixs.shared.model.IntegrationFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the compiled execution plan of each flow.
+ *
+ * Plans are compiled on deployment and reused by every execution of the flow. A plan is
+ * recompiled transparently when the flow it was built from has changed (version or
+ * update timestamp), so an edited flow never runs a stale plan.
+ */
+@Service
+public class FlowExecutionPlanCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowExecutionPlanCache.class);
+
+    private final Map<UUID, FlowExecutionPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Get the plan for a flow, compiling it if missing or stale
+     */
+    public FlowExecutionPlan getPlan(IntegrationFlow flow) {
+        Objects.requireNonNull(flow, "Flow cannot be null");
+
+        FlowExecutionPlan plan = plans.get(flow.getId());
+        if (plan != null && plan.isCompiledFrom(flow)) {
+            return plan;
+        }
+        return compile(flow);
+    }
+
+    /**
+     * Compile a flow and replace any cached plan for it
+     *
+     * @throws IllegalArgumentException if the flow definition cannot be compiled
+     */
+    public FlowExecutionPlan compile(IntegrationFlow flow) {
+        Objects.requireNonNull(flow, "Flow cannot be null");
+
+        FlowExecutionPlan plan = FlowExecutionPlan.compile(flow);
+        if (flow.getId() != null) {
+            plans.put(flow.getId(), plan);
+        }
+        logger.debug("Compiled execution plan for flow {} version {} ({} nodes)",
+                    flow.getId(), flow.getFlowVersion(), plan.getNodeCount());
+        return plan;
+    }
+
+    /**
+     * Drop the cached plan of a flow
+     */
+    public void invalidate(UUID flowId) {
+        if (flowId != null && plans.remove(flowId) != null) {
+            logger.debug("Invalidated execution plan for flow {}", flowId);
+        }
+    }
+
+    public int size() {
+        return plans.size();
+    }
+}
@@ -263,12 +263,13 @@ public class FlowExecutionService {
             execution.setCompletedAt(LocalDateTime.now());
             execution.setErrorMessage(e.getMessage());
             execution.setErrorDetails(getErrorDetails(e));
+            retryManager.retainRetryInput(execution);
             executionRepository.update(execution);
             
             // Send failure update
             executionMonitor.sendRealTimeUpdate(execution, "EXECUTION_FAILED");
             
-            throw new RuntimeException("Flow execution failed: " + e.getMessage(), e);
+            throw new FlowExecutionFailedException("Flow execution failed: " + e.getMessage(), e, execution);
         }
         
         return execution;
@@ -313,6 +314,7 @@ public class FlowExecutionService {
                 execution.setCompletedAt(LocalDateTime.now());
                 execution.setErrorMessage(e.getMessage());
                 execution.setErrorDetails(getErrorDetails(e));
+                retryManager.retainRetryInput(execution);
                 executionRepository.update(execution);
                 
                 executionMonitor.sendRealTimeUpdate(execution, "ASYNC_EXECUTION_FAILED");
@@ -333,19 +335,47 @@ public class FlowExecutionService {
         logger.info("Retrying execution: {} by user: {}", executionId, triggeredBy);
         
         FlowExecution execution = retryManager.executeRetry(executionId, triggeredBy);
-        
+        return runRetry(execution);
+    }
+    
+    /**
+     * Run the steps of a retry that has already been moved to RUNNING,
+     * either by retryExecution or by a claim of the FlowRetryDispatcher
+     */
+    public FlowExecution runRetry(FlowExecution execution) {
         // Get flow definition for retry
         Optional<IntegrationFlow> flowOpt = flowRepository.findById(execution.getFlowId());
         if (flowOpt.isEmpty()) {
             throw new IllegalArgumentException("Flow not found: " + execution.getFlowId());
         }
         
+        // Reopen the spooled files kept from the failed run; without them the receivers
+        // would skip the files and the retry would complete without delivering anything
+        List<String> unavailableFiles = retryManager.restoreRetryInput(execution);
+        if (!unavailableFiles.isEmpty()) {
+            String reason = "Retry input unavailable, content of " + unavailableFiles.size() +
+                " file(s) can no longer be read: " + String.join(", ", unavailableFiles);
+            logger.error("Execution {} cannot be retried: {}", execution.getId(), reason);
+            
+            execution.setExecutionStatus(FlowExecution.ExecutionStatus.FAILED);
+            execution.setCompletedAt(LocalDateTime.now());
+            execution.setErrorMessage(reason);
+            retryManager.blockRetries(execution, reason);
+            retryManager.releaseRetryInput(execution);
+            executionRepository.update(execution);
+            
+            executionMonitor.sendRealTimeUpdate(execution, "RETRY_FAILED");
+            
+            throw new RetryInputUnavailableException(reason, unavailableFiles);
+        }
+        
         try {
             // Execute retry using step executor
             stepExecutor.executeFlowSteps(execution, flowOpt.get());
             
             execution.setExecutionStatus(FlowExecution.ExecutionStatus.COMPLETED);
             execution.setCompletedAt(LocalDateTime.now());
+            retryManager.releaseRetryInput(execution);
             executionRepository.update(execution);
             
             executionMonitor.sendRealTimeUpdate(execution, "RETRY_COMPLETED");
@@ -357,6 +387,7 @@ public class FlowExecutionService {
             execution.setCompletedAt(LocalDateTime.now());
             execution.setErrorMessage(e.getMessage());
             execution.setErrorDetails(getErrorDetails(e));
+            retryManager.retainRetryInput(execution);
             executionRepository.update(execution);
             
             executionMonitor.sendRealTimeUpdate(execution, "RETRY_FAILED");
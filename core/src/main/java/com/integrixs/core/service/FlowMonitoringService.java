@@ -14,8 +14,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -146,59 +148,76 @@ public class FlowMonitoringService {
     
     /**
      * Get execution history with filtering and pagination
+     * Filtering and paging run in SQL and only summary columns are read. When a cursor from a
+     * previous page (nextCursor) is given, keyset pagination is used and totals are not computed;
+     * otherwise the page number is applied as an offset.
      */
     public Map<String, Object> getExecutionHistory(int page, int size, UUID flowId, 
                                                   FlowExecution.ExecutionStatus status,
-                                                  LocalDateTime startDate, LocalDateTime endDate) {
-        logger.debug("Getting execution history - page: {}, size: {}, flowId: {}, status: {}", 
-                    page, size, flowId, status);
+                                                  LocalDateTime startDate, LocalDateTime endDate,
+                                                  String cursor) {
+        logger.debug("Getting execution history - page: {}, size: {}, flowId: {}, status: {}, cursor: {}", 
+                    page, size, flowId, status, cursor);
         
         Map<String, Object> history = new HashMap<>();
         
-        // Get executions (simplified - in production would implement proper pagination)
-        List<FlowExecution> executions;
-        if (flowId != null) {
-            executions = executionRepository.findByFlowId(flowId);
-        } else if (status != null) {
-            executions = executionRepository.findByStatus(status);
-        } else {
-            executions = executionRepository.findAll();
+        LocalDateTime afterStartedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeHistoryCursor(cursor);
+            afterStartedAt = LocalDateTime.parse(position[0]);
+            afterId = UUID.fromString(position[1]);
         }
         
-        // Filter by date range
-        if (startDate != null || endDate != null) {
-            executions = executions.stream()
-                .filter(execution -> {
-                    LocalDateTime startedAt = execution.getStartedAt();
-                    if (startedAt == null) return false;
-                    
-                    if (startDate != null && startedAt.isBefore(startDate)) return false;
-                    if (endDate != null && startedAt.isAfter(endDate)) return false;
-                    
-                    return true;
-                })
-                .toList();
+        // Fetch one extra row to know whether another page follows
+        List<FlowExecution> executions = new ArrayList<>(executionRepository.findSummaries(
+            flowId, status, startDate, endDate, afterStartedAt, afterId, size + 1, page * size));
+        boolean hasNext = executions.size() > size;
+        if (hasNext) {
+            executions = executions.subList(0, size);
         }
         
-        // Simple pagination
-        int total = executions.size();
-        int fromIndex = page * size;
-        int toIndex = Math.min(fromIndex + size, total);
-        
-        List<FlowExecution> pagedExecutions = fromIndex < total ? 
-            executions.subList(fromIndex, toIndex) : new ArrayList<>();
-        
-        history.put("executions", pagedExecutions.stream()
+        history.put("executions", executions.stream()
             .map(this::createExecutionSummary)
             .toList());
-        history.put("totalElements", total);
-        history.put("totalPages", (total + size - 1) / size);
-        history.put("currentPage", page);
         history.put("pageSize", size);
+        history.put("hasNext", hasNext);
+        if (hasNext) {
+            FlowExecution last = executions.get(executions.size() - 1);
+            history.put("nextCursor", encodeHistoryCursor(last.getStartedAt(), last.getId()));
+        }
+        
+        if (afterId == null) {
+            long total = executionRepository.countExecutions(flowId, status, startDate, endDate);
+            history.put("totalElements", total);
+            history.put("totalPages", (total + size - 1) / size);
+            history.put("currentPage", page);
+        }
         
         return history;
     }
     
+    private String encodeHistoryCursor(LocalDateTime startedAt, UUID id) {
+        String position = startedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeHistoryCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid execution history cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid execution history cursor: " + cursor, e);
+        }
+    }
+    
     /**
      * Get performance metrics for flows
      */
@@ -1,6 +1,8 @@
 package com.integrixs.core.service;
 
 import com.integrixs.core.repository.AdapterRepository;
+import com.integrixs.core.service.execution.FlowExecutionPlan.CompiledCondition;
+import com.integrixs.core.service.execution.FlowExecutionPlan.PlannedNode;
 import com.integrixs.shared.model.FlowExecutionStep;
 import com.integrixs.shared.model.Adapter;
 import com.integrixs.core.logging.EnhancedLogger;
@@ -11,7 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for executing different types of flow nodes
@@ -37,34 +38,34 @@ public class FlowNodeExecutor {
     }
     
     /**
-     * Execute a node based on its type
+     * Execute a planned node based on the kind resolved when the flow was compiled
      */
-    public Map<String, Object> executeNode(FlowExecutionStep step, Map<String, Object> node, 
+    public Map<String, Object> executeNode(FlowExecutionStep step, PlannedNode plannedNode, 
                                          Map<String, Object> context) {
-        String nodeType = (String) node.get("type");
+        Map<String, Object> node = plannedNode.getNode();
         
         logger.debug("Executing {} node: {} for step: {}", 
-            nodeType, node.get("id"), step.getId());
+            plannedNode.getType(), plannedNode.getId(), step.getId());
         
-        switch (nodeType.toLowerCase()) {
-            case "start":
+        switch (plannedNode.getKind()) {
+            case START:
                 return executeStartNode(step, node, context);
-            case "end":
+            case END:
                 return executeEndNode(step, node, context);
-            case "messageend":
+            case MESSAGE_END:
                 return executeMessageEndNode(step, node, context);
-            case "adapter":
-                return executeAdapterNode(step, node, context);
-            case "utility":
-                return executeUtilityNode(step, node, context);
-            case "condition":
-            case "decision":
-                return executeDecisionNode(step, node, context);
-            case "parallel":
-            case "parallelsplit":
+            case ADAPTER:
+                return executeAdapterNode(step, plannedNode, context);
+            case UTILITY:
+                return executeUtilityNode(step, plannedNode, context);
+            case DECISION:
+                return executeDecisionNode(step, plannedNode, context);
+            case PARALLEL_SPLIT:
                 return executeParallelSplitNode(step, node, context);
+            case JOIN:
+                return executeJoinNode(step, node, context);
             default:
-                logger.warn("Unknown node type: {} for node: {}", nodeType, node.get("id"));
+                logger.warn("Unknown node type: {} for node: {}", plannedNode.getType(), plannedNode.getId());
                 return executeCustomNode(step, node, context);
         }
     }
@@ -155,10 +156,10 @@ public class FlowNodeExecutor {
     /**
      * Execute adapter node
      */
-    private Map<String, Object> executeAdapterNode(FlowExecutionStep step, Map<String, Object> node, 
+    private Map<String, Object> executeAdapterNode(FlowExecutionStep step, PlannedNode node, 
                                                   Map<String, Object> context) {
-        String nodeId = (String) node.get("id");
-        String adapterId = (String) node.get("adapterId");
+        String nodeId = node.getId();
+        String adapterId = node.getAdapterId();
         
         logger.debug("Executing adapter node: {} with adapter: {}", nodeId, adapterId);
         
@@ -167,7 +168,10 @@ public class FlowNodeExecutor {
         }
         
         try {
-            UUID adapterUuid = UUID.fromString(adapterId);
+            UUID adapterUuid = node.getAdapterUuid();
+            if (adapterUuid == null) {
+                throw new IllegalArgumentException("Invalid UUID string: " + adapterId);
+            }
             Optional<Adapter> adapterOpt = adapterRepository.findById(adapterUuid);
             
             if (!adapterOpt.isPresent()) {
@@ -202,11 +206,11 @@ public class FlowNodeExecutor {
     /**
      * Execute utility node
      */
-    private Map<String, Object> executeUtilityNode(FlowExecutionStep step, Map<String, Object> node, 
+    private Map<String, Object> executeUtilityNode(FlowExecutionStep step, PlannedNode node, 
                                                   Map<String, Object> context) {
-        String nodeId = (String) node.get("id");
-        String utilityType = (String) node.get("utilityType");
-        Map<String, Object> utilityConfig = (Map<String, Object>) node.get("configuration");
+        String nodeId = node.getId();
+        String utilityType = node.getUtilityType();
+        Map<String, Object> utilityConfig = node.getUtilityConfig();
         
         logger.debug("Executing utility node: {} with utility type: {}", nodeId, utilityType);
         
@@ -242,17 +246,17 @@ public class FlowNodeExecutor {
     /**
      * Execute decision/condition node
      */
-    private Map<String, Object> executeDecisionNode(FlowExecutionStep step, Map<String, Object> node, 
+    private Map<String, Object> executeDecisionNode(FlowExecutionStep step, PlannedNode node, 
                                                    Map<String, Object> context) {
-        String nodeId = (String) node.get("id");
-        Map<String, Object> conditions = (Map<String, Object>) node.get("conditions");
+        String nodeId = node.getId();
+        List<CompiledCondition> conditions = node.getConditions();
         
         logger.debug("Executing decision node: {}", nodeId);
         
         Map<String, Object> result = new HashMap<>();
         result.put("nodeId", nodeId);
         
-        if (conditions == null || conditions.isEmpty()) {
+        if (conditions.isEmpty()) {
             logger.warn("No conditions defined for decision node: {}", nodeId);
             result.put("decision", "default");
             result.put("path", "default");
@@ -262,12 +266,11 @@ public class FlowNodeExecutor {
         // Enhanced logging for decision execution
         enhancedLogger.flowExecutionStep("DECISION", nodeId, "Evaluating conditions");
         
-        // Evaluate conditions
-        for (Map.Entry<String, Object> condition : conditions.entrySet()) {
-            String conditionName = condition.getKey();
-            Map<String, Object> conditionConfig = (Map<String, Object>) condition.getValue();
+        // Evaluate conditions, in definition order, as compiled with the flow
+        for (CompiledCondition condition : conditions) {
+            String conditionName = condition.getName();
             
-            if (evaluateCondition(conditionConfig, context)) {
+            if (condition.matches(context)) {
                 result.put("decision", conditionName);
                 result.put("path", conditionName);
                 result.put("conditionMet", true);
@@ -304,19 +307,8 @@ public class FlowNodeExecutor {
         // Enhanced logging for parallel execution
         enhancedLogger.flowExecutionStep("PARALLEL", nodeId, "Splitting execution into parallel paths");
         
-        if (parallelPaths != null && !parallelPaths.isEmpty()) {
-            List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
-            
-            for (String path : parallelPaths) {
-                // Create separate context for each parallel path
-                Map<String, Object> pathContext = new HashMap<>(context);
-                pathContext.put("parallelPath", path);
-                
-                // For now, we'll prepare the context for parallel execution
-                // The actual parallel execution would be handled by the step executor
-                result.put("parallelPath_" + path + "_context", pathContext);
-            }
-        }
+        // Branches are fanned out concurrently by FlowStepExecutor once this step completes
+        result.put("fanOut", "CONCURRENT");
         
         logger.info("Parallel split node {} prepared {} paths for execution", 
             nodeId, parallelPaths != null ? parallelPaths.size() : 0);
@@ -324,6 +316,25 @@ public class FlowNodeExecutor {
         return result;
     }
     
+    /**
+     * Execute join node - branch results have already been merged into the context
+     */
+    private Map<String, Object> executeJoinNode(FlowExecutionStep step, Map<String, Object> node, 
+                                               Map<String, Object> context) {
+        String nodeId = (String) node.get("id");
+        Object branches = context.get("parallelBranches");
+        
+        enhancedLogger.flowExecutionStep("JOIN", nodeId, "Joining parallel execution paths");
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("nodeId", nodeId);
+        result.put("status", "JOINED");
+        result.put("parallelBranches", branches != null ? branches : new HashMap<>());
+        
+        logger.info("Join node {} merged parallel branches: {}", nodeId, branches);
+        return result;
+    }
+    
     /**
      * Execute custom node type
      */
@@ -364,60 +375,4 @@ public class FlowNodeExecutor {
         
         return processed;
     }
-    
-    /**
-     * Evaluate a condition against context
-     */
-    private boolean evaluateCondition(Map<String, Object> conditionConfig, Map<String, Object> context) {
-        if (conditionConfig == null) {
-            return false;
-        }
-        
-        String field = (String) conditionConfig.get("field");
-        String operator = (String) conditionConfig.get("operator");
-        Object value = conditionConfig.get("value");
-        
-        if (field == null || operator == null) {
-            return false;
-        }
-        
-        Object contextValue = context.get(field);
-        
-        switch (operator.toLowerCase()) {
-            case "equals":
-                return Objects.equals(contextValue, value);
-            case "not_equals":
-                return !Objects.equals(contextValue, value);
-            case "contains":
-                return contextValue != null && contextValue.toString().contains(value.toString());
-            case "greater_than":
-                return compareNumbers(contextValue, value) > 0;
-            case "less_than":
-                return compareNumbers(contextValue, value) < 0;
-            case "exists":
-                return contextValue != null;
-            case "not_exists":
-                return contextValue == null;
-            default:
-                logger.warn("Unknown condition operator: {}", operator);
-                return false;
-        }
-    }
-    
-    /**
-     * Compare two numbers
-     */
-    private int compareNumbers(Object a, Object b) {
-        if (a == null || b == null) {
-            return 0;
-        }
-        
-        try {
-            double aVal = Double.parseDouble(a.toString());
-            double bVal = Double.parseDouble(b.toString());
-            return Double.compare(aVal, bVal);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.integrixs.core.service;
+
+import com.integrixs.core.logging.CorrelationContext;
+import com.integrixs.core.repository.FlowExecutionRepository;
+import com.integrixs.shared.model.FlowExecution;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs RETRY_PENDING executions once their scheduled_for time has come.
+ *
+ * Each poll claims due retries oldest first in small batches (see
+ * FlowExecutionRepository.claimDueRetries), never more than there are free retry threads,
+ * so a claimed retry starts right away and unclaimed ones stay visible to other nodes.
+ * A flow never has more than max-running-per-flow retries running at once. When a retry
+ * run fails the next attempt is scheduled with jittered backoff by FlowRetryManager.
+ *
+ * Spooled files kept for a retry of a FAILED execution that is never retried are
+ * released after input-retention-hours. Unless the spool is shared, a node only claims
+ * retries whose files it keeps; a retry whose files are gone is failed for good rather
+ * than run without them.
+ *
+ * Retry lag is how long after its due time a retry was claimed.
+ */
+@Service
+public class FlowRetryDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowRetryDispatcher.class);
+
+    private final FlowExecutionRepository executionRepository;
+    private final FlowExecutionService executionService;
+    private final FlowRetryManager retryManager;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxConcurrent;
+    private final int maxRunningPerFlow;
+    private final long runningTimeoutMinutes;
+    private final long inputRetentionHours;
+    private final ExecutorService retryExecutor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rescheduled = new AtomicLong();
+    private final AtomicLong inputsExpired = new AtomicLong();
+    private final AtomicLong inputUnavailable = new AtomicLong();
+    private final AtomicLong totalLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastLagMillis;
+
+    public FlowRetryDispatcher(FlowExecutionRepository executionRepository,
+                               FlowExecutionService executionService,
+                               FlowRetryManager retryManager,
+                               @Value("${h2h.retry.dispatcher.enabled:true}") boolean enabled,
+                               @Value("${h2h.retry.dispatcher.batch-size:10}") int batchSize,
+                               @Value("${h2h.retry.dispatcher.max-concurrent:4}") int maxConcurrent,
+                               @Value("${h2h.retry.dispatcher.max-running-per-flow:1}") int maxRunningPerFlow,
+                               @Value("${h2h.retry.dispatcher.running-timeout-minutes:60}") long runningTimeoutMinutes,
+                               @Value("${h2h.retry.input-retention-hours:72}") long inputRetentionHours) {
+        this.executionRepository = executionRepository;
+        this.executionService = executionService;
+        this.retryManager = retryManager;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxRunningPerFlow = Math.max(1, maxRunningPerFlow);
+        this.runningTimeoutMinutes = runningTimeoutMinutes;
+        this.inputRetentionHours = inputRetentionHours;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.retryExecutor = Executors.newFixedThreadPool(this.maxConcurrent, runnable -> {
+            Thread t = new Thread(runnable, "flow-retry-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        logger.info("Flow retry dispatcher initialized with enabled={}, batchSize={}, maxConcurrent={}, maxRunningPerFlow={}",
+                   enabled, this.batchSize, this.maxConcurrent, this.maxRunningPerFlow);
+    }
+
+    /**
+     * Claim and start due retries while there are free retry threads and due retries left
+     */
+    @Scheduled(fixedDelayString = "${h2h.retry.dispatcher.poll-interval-ms:5000}")
+    public void dispatchDueRetries() {
+        if (!enabled) {
+            return;
+        }
+
+        while (true) {
+            int request = Math.min(batchSize, maxConcurrent - inFlight.get());
+            if (request <= 0) {
+                return;
+            }
+
+            List<FlowExecution> batch;
+            try {
+                batch = executionRepository.claimDueRetries(request, maxRunningPerFlow,
+                    LocalDateTime.now().minusMinutes(runningTimeoutMinutes), retryManager.getRetryInputHost());
+            } catch (Exception e) {
+                logger.error("Failed to claim due flow retries: {}", e.getMessage(), e);
+                return;
+            }
+
+            LocalDateTime claimedAt = LocalDateTime.now();
+            for (FlowExecution execution : batch) {
+                recordLag(execution.getScheduledFor(), claimedAt);
+                inFlight.incrementAndGet();
+                retryExecutor.execute(() -> runRetry(execution));
+            }
+            claimed.addAndGet(batch.size());
+
+            if (batch.size() < request) {
+                return;
+            }
+        }
+    }
+
+    private void runRetry(FlowExecution execution) {
+        CorrelationContext.setCorrelationId(CorrelationContext.generateCorrelationId());
+        CorrelationContext.setExecutionId(execution.getId().toString());
+        CorrelationContext.setFlowId(execution.getFlowId().toString());
+        try {
+            logger.info("Running retry #{} of execution {} (flow {})",
+                       execution.getRetryAttempt(), execution.getId(), execution.getFlowName());
+            executionService.runRetry(execution);
+            succeeded.incrementAndGet();
+        } catch (RetryInputUnavailableException e) {
+            // Already FAILED and marked not retryable; running it again could only lose the files
+            failed.incrementAndGet();
+            inputUnavailable.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.warn("Retry #{} of execution {} failed: {}", execution.getRetryAttempt(), execution.getId(), e.getMessage());
+            rescheduleAfterFailure(execution, e);
+        } finally {
+            inFlight.decrementAndGet();
+            CorrelationContext.clear();
+        }
+    }
+
+    private void rescheduleAfterFailure(FlowExecution execution, Exception failure) {
+        try {
+            if (execution.getExecutionStatus() == FlowExecution.ExecutionStatus.RUNNING) {
+                // Failed before any step ran, e.g. the flow no longer exists
+                execution.setExecutionStatus(FlowExecution.ExecutionStatus.FAILED);
+                execution.setCompletedAt(LocalDateTime.now());
+                execution.setErrorMessage(failure.getMessage());
+                executionRepository.update(execution);
+            }
+            if (retryManager.scheduleNextRetry(execution)) {
+                rescheduled.incrementAndGet();
+            } else {
+                retryManager.releaseRetryInput(execution);
+                executionRepository.update(execution);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to schedule next retry for execution {}: {}", execution.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Release the spooled files of failed executions kept for a retry longer than the retention
+     */
+    @Scheduled(fixedDelayString = "${h2h.retry.input-retention-sweep-interval-ms:3600000}")
+    public void releaseExpiredRetryInputs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(inputRetentionHours);
+        String host = retryManager.getRetryInputHost();
+        try {
+            List<FlowExecution> expired;
+            do {
+                expired = executionRepository.findRetainedRetryInputs(host, cutoff, 100);
+                for (FlowExecution execution : expired) {
+                    retryManager.blockRetries(execution,
+                        "Retry input released after " + inputRetentionHours + " hours without a retry");
+                    retryManager.releaseRetryInput(execution);
+                    executionRepository.update(execution);
+                    inputsExpired.incrementAndGet();
+                    logger.info("Released retry input of execution {} after {} hours without a retry",
+                               execution.getId(), inputRetentionHours);
+                }
+            } while (expired.size() == 100);
+        } catch (Exception e) {
+            logger.error("Failed to release expired retry inputs: {}", e.getMessage(), e);
+        }
+    }
+
+    private void recordLag(LocalDateTime dueAt, LocalDateTime claimedAt) {
+        if (dueAt == null) {
+            return;
+        }
+        long lag = Math.max(0, Duration.between(dueAt, claimedAt).toMillis());
+        lastLagMillis = lag;
+        totalLagMillis.addAndGet(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long claimedCount = claimed.get();
+        stats.put("enabled", enabled);
+        stats.put("inFlight", inFlight.get());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("maxRunningPerFlow", maxRunningPerFlow);
+        stats.put("claimed", claimedCount);
+        stats.put("succeeded", succeeded.get());
+        stats.put("failed", failed.get());
+        stats.put("rescheduled", rescheduled.get());
+        stats.put("inputsExpired", inputsExpired.get());
+        stats.put("inputUnavailable", inputUnavailable.get());
+        stats.put("averageLagMillis", claimedCount > 0 ? totalLagMillis.get() / claimedCount : 0);
+        stats.put("maxLagMillis", maxLagMillis.get());
+        stats.put("lastLagMillis", lastLagMillis);
+
+        try {
+            Map<String, Object> backlog = executionRepository.getDueRetryBacklog();
+            stats.put("dueRetries", backlog.get("due_retries"));
+            Object oldestDueAt = backlog.get("oldest_due_at");
+            stats.put("oldestDueLagMillis", oldestDueAt instanceof Timestamp timestamp
+                ? Math.max(0, System.currentTimeMillis() - timestamp.getTime())
+                : 0);
+        } catch (Exception e) {
+            logger.debug("Could not read due retry backlog: {}", e.getMessage());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryExecutor.shutdown();
+        try {
+            if (!retryExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                retryExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            retryExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,11 +7,15 @@ import com.integrixs.core.logging.CorrelationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.net.InetAddress;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service for managing flow execution retry logic
@@ -23,11 +27,30 @@ public class FlowRetryManager {
     private static final Logger logger = LoggerFactory.getLogger(FlowRetryManager.class);
     private final EnhancedLogger enhancedLogger = EnhancedLogger.getLogger(FlowRetryManager.class);
     
+    // Exponential backoff stops doubling after this many attempts
+    private static final int MAX_BACKOFF_EXPONENT = 16;
+    
+    // Execution context keys of a failed execution whose spooled files are kept for a retry
+    public static final String RETRY_INPUT_RETAINED_KEY = "retryInputRetained";
+    public static final String RETRY_INPUT_HOST_KEY = "retryInputHost";
+    
+    // Execution context keys of an execution that must not be retried, whatever its retry policy
+    public static final String RETRYABLE_KEY = "retryable";
+    public static final String RETRY_BLOCKED_REASON_KEY = "retryBlockedReason";
+    
     private final FlowExecutionRepository executionRepository;
+    private final ExecutionContextManager contextManager;
+    private final String hostname;
+    private final boolean sharedSpool;
     
     @Autowired
-    public FlowRetryManager(FlowExecutionRepository executionRepository) {
+    public FlowRetryManager(FlowExecutionRepository executionRepository,
+                            ExecutionContextManager contextManager,
+                            @Value("${h2h.retry.shared-spool:false}") boolean sharedSpool) {
         this.executionRepository = executionRepository;
+        this.contextManager = contextManager;
+        this.hostname = resolveHostname();
+        this.sharedSpool = sharedSpool;
     }
     
     /**
@@ -39,6 +62,9 @@ public class FlowRetryManager {
         if (execution.getExecutionStatus() != FlowExecution.ExecutionStatus.FAILED) {
             return false;
         }
+        if (isRetryBlocked(execution)) {
+            return false;
+        }
         
         // Check retry configuration
         Map<String, Object> retryPolicy = getRetryPolicy(execution);
@@ -105,31 +131,122 @@ public class FlowRetryManager {
             throw new IllegalStateException("Execution is not eligible for retry: " + executionId);
         }
         
-        // Update retry information
-        int newRetryCount = (execution.getRetryAttempt() != null ? execution.getRetryAttempt() : 0) + 1;
-        execution.setRetryAttempt(newRetryCount);
-        execution.setExecutionStatus(FlowExecution.ExecutionStatus.RETRY_PENDING);
-        execution.setScheduledFor(calculateNextRetryTime(execution));
-        
-        // Add retry metadata to execution context
-        Map<String, Object> context = execution.getExecutionContext() != null ? 
-            new HashMap<>(execution.getExecutionContext()) : new HashMap<>();
-        context.put("retryScheduledBy", scheduledBy);
-        context.put("retryScheduledAt", LocalDateTime.now());
-        execution.setExecutionContext(context);
+        markRetryPending(execution, scheduledBy);
+    }
+    
+    /**
+     * Schedule the next attempt after a retry run failed, with backoff from now.
+     * Unlike scheduleRetry the backoff delay is not checked, as it applies to the new attempt.
+     * 
+     * @return true if another attempt was scheduled, false if retries are exhausted or the error is not retryable
+     */
+    public boolean scheduleNextRetry(FlowExecution execution) {
+        Objects.requireNonNull(execution, "Execution cannot be null");
         
-        // Clear previous error state
-        execution.setErrorMessage(null);
-        execution.setErrorDetails(null);
+        if (!hasRetriesLeft(execution)) {
+            return false;
+        }
         
-        executionRepository.update(execution);
+        markRetryPending(execution, "RETRY_DISPATCHER");
+        return true;
+    }
+    
+    /**
+     * Whether the retry policy still allows an attempt after the execution's last failure,
+     * regardless of the backoff delay
+     */
+    public boolean hasRetriesLeft(FlowExecution execution) {
+        if (isRetryBlocked(execution)) {
+            logger.info("Execution {} is marked not retryable: {}", execution.getId(),
+                execution.getExecutionContext().get(RETRY_BLOCKED_REASON_KEY));
+            return false;
+        }
         
-        // Enhanced logging for retry scheduling
-        enhancedLogger.flowExecutionStep("RETRY_SCHEDULED", executionId.toString(), 
-            "Retry #" + newRetryCount + " scheduled");
+        Map<String, Object> retryPolicy = getRetryPolicy(execution);
+        if (retryPolicy == null || !(Boolean) retryPolicy.getOrDefault("enabled", false)) {
+            return false;
+        }
         
-        logger.info("Retry #{} scheduled for execution: {} at: {}", 
-            newRetryCount, executionId, execution.getScheduledFor());
+        int maxRetries = (Integer) retryPolicy.getOrDefault("maxRetries", 3);
+        int currentRetries = execution.getRetryAttempt() != null ? execution.getRetryAttempt() : 0;
+        if (currentRetries >= maxRetries) {
+            logger.info("Maximum retries ({}) reached for execution: {}", maxRetries, execution.getId());
+            return false;
+        }
+        if (!isErrorRetryable(execution.getErrorMessage())) {
+            logger.info("Error of execution {} is not retryable, no further retry scheduled", execution.getId());
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Decide what happens to the spooled files of a failed run before it is persisted:
+     * kept for the next attempt while retries are left, released otherwise
+     */
+    public void retainRetryInput(FlowExecution execution) {
+        if (!hasRetriesLeft(execution)) {
+            releaseRetryInput(execution);
+            return;
+        }
+        Map<String, Object> context = execution.getExecutionContext() != null ? 
+            new HashMap<>(execution.getExecutionContext()) : new HashMap<>();
+        context.put(RETRY_INPUT_RETAINED_KEY, true);
+        context.put(RETRY_INPUT_HOST_KEY, hostname);
+        execution.setExecutionContext(context);
+    }
+    
+    /**
+     * Delete the spooled files of the execution payload; the caller persists the execution
+     */
+    public void releaseRetryInput(FlowExecution execution) {
+        contextManager.releaseRetryInput(execution.getPayload());
+        if (execution.getExecutionContext() != null && execution.getExecutionContext().containsKey(RETRY_INPUT_RETAINED_KEY)) {
+            Map<String, Object> context = new HashMap<>(execution.getExecutionContext());
+            context.put(RETRY_INPUT_RETAINED_KEY, false);
+            execution.setExecutionContext(context);
+        }
+    }
+    
+    /**
+     * Mark an execution as never to be retried; the caller persists the execution
+     */
+    public void blockRetries(FlowExecution execution, String reason) {
+        Map<String, Object> context = execution.getExecutionContext() != null ? 
+            new HashMap<>(execution.getExecutionContext()) : new HashMap<>();
+        context.put(RETRYABLE_KEY, false);
+        context.put(RETRY_BLOCKED_REASON_KEY, reason);
+        execution.setExecutionContext(context);
+    }
+    
+    /**
+     * Host whose retries this node may claim, or null if the spool is shared by all nodes
+     */
+    public String getRetryInputHost() {
+        return sharedSpool ? null : hostname;
+    }
+    
+    /**
+     * Whether this node can read the spooled files kept for a retry of the execution
+     */
+    public boolean canReopenRetryInput(FlowExecution execution) {
+        Object host = execution.getExecutionContext() != null
+            ? execution.getExecutionContext().get(RETRY_INPUT_HOST_KEY) : null;
+        return sharedSpool || host == null || hostname.equals(host);
+    }
+    
+    /**
+     * Reopen the spooled files of a persisted execution payload for a retry run
+     * 
+     * @return the names of the files whose content could not be reopened
+     */
+    public List<String> restoreRetryInput(FlowExecution execution) {
+        List<String> unavailable = new ArrayList<>();
+        Map<String, Object> restored = contextManager.restoreRetryInput(execution.getPayload(), unavailable);
+        if (unavailable.isEmpty()) {
+            execution.setPayload(restored);
+        }
+        return unavailable;
     }
     
     /**
@@ -151,6 +268,15 @@ public class FlowRetryManager {
         if (execution.getExecutionStatus() != FlowExecution.ExecutionStatus.RETRY_PENDING) {
             throw new IllegalStateException("Execution is not in retry pending state: " + executionId);
         }
+        if (!canReopenRetryInput(execution)) {
+            throw new IllegalStateException("Files of execution " + executionId + " are kept on host " +
+                execution.getExecutionContext().get(RETRY_INPUT_HOST_KEY) + ", retry it there");
+        }
+        
+        // Claim the retry so that the retry dispatcher cannot start it as well
+        if (!executionRepository.claimRetry(executionId)) {
+            throw new IllegalStateException("Execution retry was already started: " + executionId);
+        }
         
         // Reset execution for retry
         execution.setExecutionStatus(FlowExecution.ExecutionStatus.RUNNING);
@@ -209,21 +335,18 @@ public class FlowRetryManager {
      * Get scheduled retry executions that are ready to execute
      */
     public List<FlowExecution> getScheduledRetriesReadyToExecute() {
+        return getScheduledRetriesReadyToExecute(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Get up to limit scheduled retry executions that are ready to execute, longest overdue first
+     */
+    public List<FlowExecution> getScheduledRetriesReadyToExecute(int limit) {
         logger.debug("Retrieving scheduled retries ready to execute");
         
-        List<FlowExecution> scheduledRetries = executionRepository.findByStatus(FlowExecution.ExecutionStatus.RETRY_PENDING);
-        List<FlowExecution> readyRetries = new ArrayList<>();
+        List<FlowExecution> readyRetries = executionRepository.findDueRetries(limit);
         
-        LocalDateTime now = LocalDateTime.now();
-        
-        for (FlowExecution execution : scheduledRetries) {
-            if (execution.getScheduledFor() != null && execution.getScheduledFor().isBefore(now)) {
-                readyRetries.add(execution);
-            }
-        }
-        
-        logger.debug("Found {} scheduled retries ready to execute out of {} scheduled", 
-            readyRetries.size(), scheduledRetries.size());
+        logger.debug("Found {} scheduled retries ready to execute", readyRetries.size());
         
         return readyRetries;
     }
@@ -253,6 +376,7 @@ public class FlowRetryManager {
         execution.setScheduledFor(null);
         execution.setErrorMessage("Retry cancelled: " + (reason != null ? reason : "No reason provided"));
         execution.setCompletedAt(LocalDateTime.now());
+        releaseRetryInput(execution);
         
         executionRepository.update(execution);
         
@@ -261,6 +385,47 @@ public class FlowRetryManager {
     
     // Private helper methods
     
+    /**
+     * Move an execution to RETRY_PENDING for its next attempt and persist it
+     */
+    private void markRetryPending(FlowExecution execution, Object scheduledBy) {
+        UUID executionId = execution.getId();
+        
+        // Update retry information
+        int newRetryCount = (execution.getRetryAttempt() != null ? execution.getRetryAttempt() : 0) + 1;
+        execution.setRetryAttempt(newRetryCount);
+        execution.setExecutionStatus(FlowExecution.ExecutionStatus.RETRY_PENDING);
+        execution.setScheduledFor(calculateNextRetryTime(execution));
+        
+        // Add retry metadata to execution context
+        Map<String, Object> context = execution.getExecutionContext() != null ? 
+            new HashMap<>(execution.getExecutionContext()) : new HashMap<>();
+        context.put("retryScheduledBy", scheduledBy);
+        context.put("retryScheduledAt", LocalDateTime.now());
+        if (execution.getErrorMessage() != null) {
+            context.put("lastRetryError", execution.getErrorMessage());
+        }
+        execution.setExecutionContext(context);
+        
+        // Clear previous error state
+        execution.setErrorMessage(null);
+        execution.setErrorDetails(null);
+        
+        executionRepository.update(execution);
+        
+        // Enhanced logging for retry scheduling
+        enhancedLogger.flowExecutionStep("RETRY_SCHEDULED", executionId.toString(), 
+            "Retry #" + newRetryCount + " scheduled");
+        
+        logger.info("Retry #{} scheduled for execution: {} at: {}", 
+            newRetryCount, executionId, execution.getScheduledFor());
+    }
+    
+    private boolean isRetryBlocked(FlowExecution execution) {
+        Map<String, Object> context = execution.getExecutionContext();
+        return context != null && Boolean.FALSE.equals(context.get(RETRYABLE_KEY));
+    }
+    
     /**
      * Get retry policy for execution
      */
@@ -281,15 +446,25 @@ public class FlowRetryManager {
     }
     
     /**
-     * Calculate next retry time for execution
+     * Calculate next retry time for execution.
+     * The delay is capped at the policy's maxDelayMinutes and spread by +/- its jitter ratio,
+     * so executions that failed together (e.g. on one partner outage) do not all retry at once.
      */
     private LocalDateTime calculateNextRetryTime(FlowExecution execution) {
         Map<String, Object> retryPolicy = getRetryPolicy(execution);
         String delayType = (String) retryPolicy.getOrDefault("delayType", "fixed");
         int delayMinutes = (Integer) retryPolicy.getOrDefault("delayMinutes", 5);
+        int maxDelayMinutes = ((Number) retryPolicy.getOrDefault("maxDelayMinutes", 1440)).intValue();
+        double jitter = Math.min(1.0, Math.max(0.0, ((Number) retryPolicy.getOrDefault("jitter", 0.2)).doubleValue()));
         int retryCount = execution.getRetryAttempt() != null ? execution.getRetryAttempt() : 0;
         
-        return calculateNextRetryTime(LocalDateTime.now(), delayType, delayMinutes, retryCount);
+        LocalDateTime now = LocalDateTime.now();
+        long delayMillis = Math.min(
+            Duration.between(now, calculateNextRetryTime(now, delayType, delayMinutes, retryCount)).toMillis(),
+            maxDelayMinutes * 60_000L);
+        long jitteredMillis = (long) (delayMillis * (1.0 - jitter + 2.0 * jitter * ThreadLocalRandom.current().nextDouble()));
+        
+        return now.plus(jitteredMillis, ChronoUnit.MILLIS);
     }
     
     /**
@@ -300,7 +475,7 @@ public class FlowRetryManager {
         switch (delayType.toLowerCase()) {
             case "exponential":
                 // Exponential backoff: delay * 2^attemptNumber
-                long exponentialDelay = delayMinutes * (long) Math.pow(2, attemptNumber);
+                long exponentialDelay = delayMinutes * (1L << Math.min(attemptNumber, MAX_BACKOFF_EXPONENT));
                 return baseTime.plus(exponentialDelay, ChronoUnit.MINUTES);
             
             case "linear":
@@ -353,4 +528,12 @@ public class FlowRetryManager {
         // Default to retryable for unknown errors
         return true;
     }
+    
+    private static String resolveHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.integrixs.core.service;
 
 import com.integrixs.core.repository.FlowExecutionStepRepository;
+import com.integrixs.core.service.execution.FlowExecutionPlan;
+import com.integrixs.core.service.execution.FlowExecutionPlan.JoinMode;
+import com.integrixs.core.service.execution.FlowExecutionPlan.NodeKind;
+import com.integrixs.core.service.execution.FlowExecutionPlan.PlannedNode;
 import com.integrixs.shared.model.FlowExecution;
 import com.integrixs.shared.model.FlowExecutionStep;
 import com.integrixs.shared.model.IntegrationFlow;
@@ -9,10 +13,25 @@ import com.integrixs.core.logging.CorrelationContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for executing individual flow steps
@@ -26,12 +45,59 @@ public class FlowStepExecutor {
     
     private final FlowExecutionStepRepository stepRepository;
     private final FlowNodeExecutor nodeExecutor;
+    private final ExecutionContextManager contextManager;
+    private final FlowExecutionPlanCache planCache;
+    private final Executor branchExecutor;
+    private final long defaultJoinTimeoutSeconds;
+    
+    /** Context key telling a parallel branch which join node it must stop at */
+    private static final String PARALLEL_JOIN_NODE_KEY = "parallelJoinNodeId";
+    /** Context key holding the {@link ParallelBranch} a node runs in */
+    private static final String PARALLEL_BRANCH_KEY = "parallelBranch";
+    /** Context keys owned by the branch itself, never merged back into the parent */
+    private static final Set<String> BRANCH_LOCAL_KEYS = Set.of(PARALLEL_JOIN_NODE_KEY, "parallelBranchId", PARALLEL_BRANCH_KEY);
+    
+    /** Branches a join cancelled that are still finishing their current node, per execution */
+    private final Map<UUID, List<CompletableFuture<?>>> pendingBranches = new ConcurrentHashMap<>();
+    
+    /**
+     * A parallel branch in flight. Cancelling it completes its result future and stops the
+     * branch (and branches nested in it) before its next node; the node already running
+     * is left to finish, which is when {@code finished} completes.
+     */
+    private static final class ParallelBranch {
+        private final ParallelBranch parent;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+        
+        private ParallelBranch(ParallelBranch parent) {
+            this.parent = parent;
+        }
+        
+        private boolean isCancelled() {
+            return cancelled.get() || (parent != null && parent.isCancelled());
+        }
+        
+        private void cancel() {
+            cancelled.set(true);
+            result.cancel(true);
+        }
+    }
     
     @Autowired
     public FlowStepExecutor(FlowExecutionStepRepository stepRepository,
-                           FlowNodeExecutor nodeExecutor) {
+                           FlowNodeExecutor nodeExecutor,
+                           ExecutionContextManager contextManager,
+                           FlowExecutionPlanCache planCache,
+                           @Qualifier("flowBranchExecutor") Executor branchExecutor,
+                           @Value("${h2h.flow.parallel.join-timeout-seconds:3600}") long defaultJoinTimeoutSeconds) {
         this.stepRepository = stepRepository;
         this.nodeExecutor = nodeExecutor;
+        this.contextManager = contextManager;
+        this.planCache = planCache;
+        this.branchExecutor = branchExecutor;
+        this.defaultJoinTimeoutSeconds = defaultJoinTimeoutSeconds;
     }
     
     /**
@@ -44,28 +110,24 @@ public class FlowStepExecutor {
         logger.info("Starting step execution for flow: {} execution: {}", 
             flow.getName(), execution.getId());
         
+        Map<String, Object> context = null;
+        boolean completed = false;
         try {
-            Map<String, Object> flowDefinition = flow.getFlowDefinition();
-            if (flowDefinition == null || !flowDefinition.containsKey("nodes")) {
-                throw new RuntimeException("Flow definition is missing or invalid");
-            }
+            // Node lookup, successors and node configuration are resolved once per flow revision
+            FlowExecutionPlan plan = planCache.getPlan(flow);
             
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> nodes = (List<Map<String, Object>>) flowDefinition.get("nodes");
-            
-            // Find start node
-            Map<String, Object> startNode = findNodeByType(nodes, "start");
-            if (startNode == null) {
-                throw new RuntimeException("Start node not found in flow definition");
-            }
+            // Step orders come from the execution's in-memory sequence; seed it once so a
+            // retried execution continues after the steps it already recorded
+            execution.initializeStepSequence(stepRepository.findMaxStepOrder(execution.getId()));
             
             // Begin execution with start node
-            Map<String, Object> context = new HashMap<>(execution.getPayload());
+            context = new HashMap<>(execution.getPayload());
             context.put("executionId", execution.getId());
             context.put("flowId", execution.getFlowId());
             context.put("triggeredBy", execution.getTriggeredBy());
             
-            executeNode(execution, startNode, context, nodes);
+            executeNode(execution, plan, plan.getStartNode(), context);
+            completed = true;
             
             logger.info("Completed step execution for flow: {} execution: {}", 
                 flow.getName(), execution.getId());
@@ -74,17 +136,52 @@ public class FlowStepExecutor {
             logger.error("Failed to execute steps for flow: {} execution: {} - {}", 
                 flow.getName(), execution.getId(), e.getMessage(), e);
             throw new RuntimeException("Flow step execution failed: " + e.getMessage(), e);
+        } finally {
+            // Spooled file content is only needed while the steps run - including cancelled
+            // branches still finishing their current node. After a failure the
+            // files of the execution payload are kept for a retry; FlowRetryManager
+            // releases them once no retry is possible.
+            List<CompletableFuture<?>> stillRunning = pendingBranches.remove(execution.getId());
+            if (context != null) {
+                Map<String, Object> finalContext = context;
+                Runnable release = completed
+                    ? () -> {
+                        contextManager.releaseFilePayloads(finalContext);
+                        contextManager.releaseRetryInput(execution.getPayload());
+                    }
+                    : () -> contextManager.releaseFilePayloads(finalContext, execution.getPayload());
+                if (stillRunning == null || stillRunning.isEmpty()) {
+                    release.run();
+                } else {
+                    CompletableFuture.allOf(stillRunning.toArray(new CompletableFuture[0]))
+                        .whenComplete((ignored, error) -> release.run());
+                }
+            }
         }
     }
     
     /**
-     * Execute a single node in the flow
+     * Execute a single node of the plan
      */
-    public void executeNode(FlowExecution execution, Map<String, Object> node, 
-                           Map<String, Object> context, List<Map<String, Object>> allNodes) {
+    public void executeNode(FlowExecution execution, FlowExecutionPlan plan, PlannedNode node, 
+                           Map<String, Object> context) {
+        
+        String nodeId = node.getId();
+        String nodeType = node.getType();
         
-        String nodeId = (String) node.get("id");
-        String nodeType = (String) node.get("type");
+        // A branch the join no longer needs stops before its next node
+        if (context.get(PARALLEL_BRANCH_KEY) instanceof ParallelBranch branch && branch.isCancelled()) {
+            logger.info("Parallel branch {} cancelled before node {} for execution: {}",
+                context.get("parallelBranchId"), nodeId, execution.getId());
+            throw new CancellationException("Parallel branch " + context.get("parallelBranchId") +
+                " cancelled before node " + nodeId);
+        }
+        
+        // A parallel branch stops in front of its join node; the split executes the join once
+        if (node.getKind() == NodeKind.JOIN && nodeId.equals(context.get(PARALLEL_JOIN_NODE_KEY))) {
+            logger.debug("Parallel branch {} reached join node {}", context.get("parallelBranchId"), nodeId);
+            return;
+        }
         
         logger.debug("Executing node: {} type: {} for execution: {}", 
             nodeId, nodeType, execution.getId());
@@ -92,13 +189,15 @@ public class FlowStepExecutor {
         // Create step record
         FlowExecutionStep step = new FlowExecutionStep();
         step.setExecutionId(execution.getId());
-        step.setStepType(getStepType(nodeType));
+        step.setStepType(node.getStepType());
         step.setStepId(nodeId);
-        step.setStepName((String) node.getOrDefault("name", nodeType + "_" + nodeId));
-        step.setStepOrder(getNextStepOrder(execution.getId()));
+        step.setStepName(node.getStepName());
+        step.setStepOrder(execution.nextStepOrder());
         step.setStepStatus(FlowExecutionStep.StepStatus.RUNNING);
         step.setStartedAt(LocalDateTime.now());
-        step.setInputData(new HashMap<>(context));
+        Map<String, Object> inputData = new HashMap<>(context);
+        inputData.remove(PARALLEL_BRANCH_KEY);
+        step.setInputData(inputData);
         step.setCorrelationId(execution.getCorrelationId() != null ? execution.getCorrelationId() : UUID.randomUUID());
 
         UUID stepId = stepRepository.save(step);
@@ -121,8 +220,10 @@ public class FlowStepExecutor {
             }
             
             // Continue to next nodes if this isn't an end node
-            if (!"end".equals(nodeType) && !"messageEnd".equals(nodeType)) {
-                executeNextNodes(execution, nodeId, context, allNodes);
+            if (node.getKind() == NodeKind.PARALLEL_SPLIT) {
+                executeParallelBranches(execution, plan, node, context);
+            } else if (node.getKind() != NodeKind.END && node.getKind() != NodeKind.MESSAGE_END) {
+                executeNextNodes(execution, plan, nodeId, context);
             }
             
         } catch (Exception e) {
@@ -145,83 +246,228 @@ public class FlowStepExecutor {
     /**
      * Execute next nodes in the flow based on connections
      */
-    public void executeNextNodes(FlowExecution execution, String currentNodeId, 
-                                Map<String, Object> context, List<Map<String, Object>> allNodes) {
-        
-        // Look for edges/connections from current node
-        Map<String, Object> flowDefinition = (Map<String, Object>) context.get("flowDefinition");
-        if (flowDefinition != null && flowDefinition.containsKey("edges")) {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> edges = (List<Map<String, Object>>) flowDefinition.get("edges");
-            
-            for (Map<String, Object> edge : edges) {
-                String source = (String) edge.get("source");
-                if (currentNodeId.equals(source)) {
-                    String target = (String) edge.get("target");
-                    Map<String, Object> nextNode = findNodeById(allNodes, target);
-                    if (nextNode != null) {
-                        executeNode(execution, nextNode, context, allNodes);
-                    }
-                }
-            }
-        } else {
-            // Fallback: look for nodes that reference this node as parent
-            for (Map<String, Object> node : allNodes) {
-                Object parentId = node.get("parentId");
-                if (currentNodeId.equals(parentId)) {
-                    executeNode(execution, node, context, allNodes);
-                }
-            }
+    public void executeNextNodes(FlowExecution execution, FlowExecutionPlan plan, String currentNodeId, 
+                                Map<String, Object> context) {
+        for (PlannedNode nextNode : plan.getSuccessors(currentNodeId)) {
+            executeNode(execution, plan, nextNode, context);
         }
     }
     
     /**
-     * Get step type from node type
+     * Fan the branches of a parallel split out onto the branch executor, each with an isolated
+     * context, then wait according to the matching join node (wait-all by default) and merge
+     * branch results back into the parent context before continuing after the join.
+     * A split nested in a branch runs its branches one after another on the branch's own
+     * thread: a branch thread never blocks on work queued behind it on the same pool.
      */
-    private FlowExecutionStep.StepType getStepType(String nodeType) {
-        switch (nodeType.toLowerCase()) {
-            case "start": 
-            case "adapter": 
-            case "sender": return FlowExecutionStep.StepType.ADAPTER_SENDER;
-            case "end": 
-            case "messageend": 
-            case "receiver": return FlowExecutionStep.StepType.ADAPTER_RECEIVER;
-            case "utility": return FlowExecutionStep.StepType.UTILITY;
-            case "condition": 
-            case "decision": return FlowExecutionStep.StepType.DECISION;
-            case "parallel": 
-            case "parallelsplit": return FlowExecutionStep.StepType.SPLIT;
-            case "wait": return FlowExecutionStep.StepType.WAIT;
-            case "notification": return FlowExecutionStep.StepType.NOTIFICATION;
-            default: return FlowExecutionStep.StepType.UTILITY; // Default to utility for unknown types
+    private void executeParallelBranches(FlowExecution execution, FlowExecutionPlan plan, PlannedNode splitNode,
+                                         Map<String, Object> context) {
+        String splitNodeId = splitNode.getId();
+        List<PlannedNode> branchStarts = plan.getSuccessors(splitNodeId);
+        
+        if (branchStarts.size() <= 1) {
+            executeNextNodes(execution, plan, splitNodeId, context);
+            return;
+        }
+        
+        PlannedNode joinNode = plan.getJoinNode(splitNode);
+        PlannedNode joinConfig = joinNode != null ? joinNode : splitNode;
+        JoinMode joinMode = joinConfig.getJoinMode();
+        long timeoutSeconds = joinConfig.getJoinTimeoutSeconds() != null
+            ? joinConfig.getJoinTimeoutSeconds() : defaultJoinTimeoutSeconds;
+        
+        logger.info("Parallel split {} fanning out {} branches (join: {}, mode: {}, timeout: {}s) for execution: {}",
+            splitNodeId, branchStarts.size(), joinNode != null ? joinNode.getId() : "none",
+            joinMode, timeoutSeconds, execution.getId());
+        
+        CorrelationContext.ContextSnapshot correlation = CorrelationContext.captureContext();
+        SecurityContext security = SecurityContextHolder.getContext();
+        Thread splitThread = Thread.currentThread();
+        
+        ParallelBranch parentBranch = context.get(PARALLEL_BRANCH_KEY) instanceof ParallelBranch parent ? parent : null;
+        Map<String, ParallelBranch> branches = new LinkedHashMap<>();
+        List<Runnable> inlineBranches = new ArrayList<>();
+        for (PlannedNode branchStart : branchStarts) {
+            String branchId = branchStart.getId();
+            ParallelBranch branch = new ParallelBranch(parentBranch);
+            Map<String, Object> branchContext = contextManager.createIsolatedContext(context);
+            branchContext.put("parallelBranchId", branchId);
+            branchContext.put(PARALLEL_BRANCH_KEY, branch);
+            if (joinNode != null) {
+                branchContext.put(PARALLEL_JOIN_NODE_KEY, joinNode.getId());
+            }
+            
+            branches.put(branchId, branch);
+            Runnable runBranch = () -> {
+                // CallerRunsPolicy may run the branch on the split thread - leave its context alone
+                boolean detached = Thread.currentThread() != splitThread;
+                if (detached) {
+                    CorrelationContext.restoreContext(correlation);
+                    SecurityContextHolder.setContext(security);
+                }
+                try {
+                    executeNode(execution, plan, branchStart, branchContext);
+                    branch.result.complete(branchContext);
+                } catch (Throwable e) {
+                    branch.result.completeExceptionally(e);
+                } finally {
+                    branch.finished.complete(null);
+                    if (detached) {
+                        CorrelationContext.clear();
+                        SecurityContextHolder.clearContext();
+                    }
+                }
+            };
+            if (parentBranch != null) {
+                inlineBranches.add(runBranch);
+            } else {
+                branchExecutor.execute(runBranch);
+            }
+        }
+        
+        if (parentBranch != null) {
+            runInline(branches, inlineBranches, joinMode);
+        }
+        awaitBranches(execution, splitNodeId, branches, joinMode, timeoutSeconds);
+        mergeBranchResults(context, branches);
+        
+        if (joinNode != null) {
+            executeNode(execution, plan, joinNode, context);
         }
     }
     
     /**
-     * Find node by type
+     * Run the branches of a nested split in order on the calling branch thread. Once the join
+     * is decided - a branch succeeded for wait-any, or failed for wait-all - or the enclosing
+     * branch was cancelled, the remaining branches are cancelled without being started.
      */
-    private Map<String, Object> findNodeByType(List<Map<String, Object>> nodes, String type) {
-        return nodes.stream()
-            .filter(node -> type.equals(node.get("type")))
-            .findFirst()
-            .orElse(null);
+    private void runInline(Map<String, ParallelBranch> branches, List<Runnable> inlineBranches, JoinMode joinMode) {
+        boolean decided = false;
+        int index = 0;
+        for (ParallelBranch branch : branches.values()) {
+            Runnable runBranch = inlineBranches.get(index++);
+            if (decided || branch.isCancelled()) {
+                branch.cancel();
+                branch.finished.complete(null);
+                continue;
+            }
+            runBranch.run();
+            boolean failed = branch.result.isCompletedExceptionally();
+            decided = joinMode == JoinMode.WAIT_ANY ? !failed : failed;
+        }
     }
     
     /**
-     * Find node by ID
+     * Wait for the branches as the join mode requires. Branches the join no longer needs -
+     * the losers of a wait-any, the rest after a wait-all branch failed or the join timed
+     * out - are cancelled.
      */
-    private Map<String, Object> findNodeById(List<Map<String, Object>> nodes, String nodeId) {
-        return nodes.stream()
-            .filter(node -> nodeId.equals(node.get("id")))
-            .findFirst()
-            .orElse(null);
+    private void awaitBranches(FlowExecution execution, String splitNodeId,
+                               Map<String, ParallelBranch> branches,
+                               JoinMode joinMode, long timeoutSeconds) {
+        CompletableFuture<?> barrier;
+        if (joinMode == JoinMode.WAIT_ANY) {
+            // Completes with the first successful branch, or exceptionally once every branch failed
+            CompletableFuture<Object> firstSuccess = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+            for (ParallelBranch branch : branches.values()) {
+                branch.result.whenComplete((result, error) -> {
+                    if (error == null) {
+                        firstSuccess.complete(result);
+                    } else if (failures.incrementAndGet() == branches.size()) {
+                        firstSuccess.completeExceptionally(error);
+                    }
+                });
+            }
+            barrier = firstSuccess;
+        } else {
+            // Completes once every branch succeeded, or exceptionally as soon as one failed
+            CompletableFuture<Object> allSucceeded = new CompletableFuture<>();
+            AtomicInteger successes = new AtomicInteger();
+            for (ParallelBranch branch : branches.values()) {
+                branch.result.whenComplete((result, error) -> {
+                    if (error != null) {
+                        allSucceeded.completeExceptionally(error);
+                    } else if (successes.incrementAndGet() == branches.size()) {
+                        allSucceeded.complete(null);
+                    }
+                });
+            }
+            barrier = allSucceeded;
+        }
+        
+        try {
+            if (timeoutSeconds > 0) {
+                barrier.get(timeoutSeconds, TimeUnit.SECONDS);
+            } else {
+                barrier.get();
+            }
+        } catch (TimeoutException e) {
+            throw new RuntimeException(String.format("Parallel split %s: branches did not complete within %ds (%s)",
+                splitNodeId, timeoutSeconds, joinMode));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for parallel branches of " + splitNodeId, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("Parallel branch failed: " + cause.getMessage(), cause);
+        } finally {
+            int cancelled = 0;
+            List<CompletableFuture<?>> stillRunning = new ArrayList<>();
+            for (ParallelBranch branch : branches.values()) {
+                if (!branch.result.isDone()) {
+                    branch.cancel();
+                    cancelled++;
+                }
+                if (!branch.finished.isDone()) {
+                    stillRunning.add(branch.finished);
+                }
+            }
+            if (cancelled > 0) {
+                logger.info("Parallel split {}: cancelled {} branches no longer needed by the join", splitNodeId, cancelled);
+            }
+            if (!stillRunning.isEmpty()) {
+                pendingBranches.computeIfAbsent(execution.getId(), id -> new CopyOnWriteArrayList<>())
+                    .addAll(stillRunning);
+            }
+        }
     }
     
     /**
-     * Get next step order for execution
+     * Copy what each successfully completed branch added or replaced into the parent context,
+     * in branch order, and record a per-branch summary under "parallelBranches"
      */
-    private int getNextStepOrder(UUID executionId) {
-        List<FlowExecutionStep> existingSteps = stepRepository.findByExecutionId(executionId);
-        return existingSteps.size() + 1;
+    private void mergeBranchResults(Map<String, Object> context, Map<String, ParallelBranch> branches) {
+        Map<String, Object> branchSummaries = new LinkedHashMap<>();
+        
+        for (Map.Entry<String, ParallelBranch> branch : branches.entrySet()) {
+            CompletableFuture<Map<String, Object>> future = branch.getValue().result;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            
+            if (!future.isDone()) {
+                summary.put("status", "RUNNING");
+            } else if (future.isCancelled()) {
+                summary.put("status", "CANCELLED");
+            } else if (future.isCompletedExceptionally()) {
+                summary.put("status", "FAILED");
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    summary.put("error", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                }
+            } else {
+                summary.put("status", "COMPLETED");
+                Map<String, Object> branchContext = future.join();
+                for (Map.Entry<String, Object> entry : branchContext.entrySet()) {
+                    // Isolated contexts are shallow copies: unchanged entries are the same instance
+                    if (!BRANCH_LOCAL_KEYS.contains(entry.getKey()) && context.get(entry.getKey()) != entry.getValue()) {
+                        context.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            branchSummaries.put(branch.getKey(), summary);
+        }
+        
+        context.put("parallelBranches", branchSummaries);
     }
 }
\ No newline at end of file
@@ -0,0 +1,529 @@
+package com.integrixs.core.service;
+
+import com.integrixs.core.repository.FlowExecutionRepository;
+import com.integrixs.core.repository.FlowTriggerQueueRepository;
+import com.integrixs.shared.model.DeployedFlow;
+import com.integrixs.shared.model.QueuedFlowTrigger;
+import com.integrixs.shared.model.value.FilePayload;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable queue between sender adapter polling and flow execution (flow_trigger_queue).
+ *
+ * A poll that finds data enqueues its trigger data and returns, so the next poll does not
+ * wait for the flow to run and a pickup survives a restart. Consumers on their own
+ * thread pool claim visible triggers with SKIP LOCKED and keep them hidden for the
+ * visibility timeout, renewed while the execution runs; a trigger whose consumer dies is
+ * delivered again once the timeout passes.
+ *
+ * A trigger whose execution was started is done, whatever the outcome: failed executions
+ * are retried by FlowRetryManager. Failures before an execution exists are redelivered
+ * with exponential backoff up to max-attempts, then dead-lettered. A trigger is also
+ * dead-lettered when its payload files are gone.
+ *
+ * File payloads are stored as references to their spool files. Those live on the local
+ * disk of the enqueuing host, so only consumers on that host claim the trigger unless
+ * the spool directory is shared.
+ */
+@Service
+public class FlowTriggerQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowTriggerQueue.class);
+
+    // Markers of values replaced by a spool file reference in stored trigger data
+    private static final String FILE_PAYLOAD_MARKER = "@filePayload";
+    private static final String BYTES_MARKER = "@bytes";
+
+    /**
+     * Starts the flow execution of a dequeued trigger
+     */
+    public interface TriggerHandler {
+        /**
+         * @return false if the deployment is at its concurrency limit and the trigger should wait
+         */
+        boolean handle(QueuedFlowTrigger trigger, Map<String, Object> triggerData) throws Exception;
+    }
+
+    private final FlowTriggerQueueRepository queueRepository;
+    private final FlowExecutionRepository executionRepository;
+    private final boolean enabled;
+    private final int consumers;
+    private final int batchSize;
+    private final long visibilityTimeoutMillis;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final long maxRetryDelayMillis;
+    private final long deferDelayMillis;
+    private final int maxPendingPerDeployment;
+    private final long deadLetterRetentionHours;
+    private final String spoolHost;
+    private final String claimHost;
+    private final String consumerId;
+    private final ExecutorService consumerPool;
+
+    private volatile TriggerHandler handler;
+    private final Set<UUID> inFlightIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong enqueueFailures = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+
+    public FlowTriggerQueue(FlowTriggerQueueRepository queueRepository,
+                            FlowExecutionRepository executionRepository,
+                            @Value("${h2h.flow-queue.enabled:true}") boolean enabled,
+                            @Value("${h2h.flow-queue.consumers:4}") int consumers,
+                            @Value("${h2h.flow-queue.batch-size:10}") int batchSize,
+                            @Value("${h2h.flow-queue.visibility-timeout-ms:300000}") long visibilityTimeoutMillis,
+                            @Value("${h2h.flow-queue.max-attempts:5}") int maxAttempts,
+                            @Value("${h2h.flow-queue.retry-delay-ms:10000}") long retryDelayMillis,
+                            @Value("${h2h.flow-queue.max-retry-delay-ms:600000}") long maxRetryDelayMillis,
+                            @Value("${h2h.flow-queue.defer-delay-ms:5000}") long deferDelayMillis,
+                            @Value("${h2h.flow-queue.max-pending-per-deployment:100}") int maxPendingPerDeployment,
+                            @Value("${h2h.flow-queue.dead-letter-retention-hours:168}") long deadLetterRetentionHours,
+                            @Value("${h2h.flow-queue.shared-spool:false}") boolean sharedSpool) {
+        this.queueRepository = queueRepository;
+        this.executionRepository = executionRepository;
+        this.enabled = enabled;
+        this.consumers = Math.max(1, consumers);
+        this.batchSize = Math.max(1, batchSize);
+        this.visibilityTimeoutMillis = visibilityTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMillis = Math.max(0, retryDelayMillis);
+        this.maxRetryDelayMillis = Math.max(this.retryDelayMillis, maxRetryDelayMillis);
+        this.deferDelayMillis = Math.max(0, deferDelayMillis);
+        this.maxPendingPerDeployment = maxPendingPerDeployment;
+        this.deadLetterRetentionHours = deadLetterRetentionHours;
+        this.spoolHost = resolveHostname();
+        this.claimHost = sharedSpool ? null : spoolHost;
+        this.consumerId = spoolHost + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.consumerPool = Executors.newFixedThreadPool(this.consumers, runnable -> {
+            Thread t = new Thread(runnable, "flow-trigger-consumer-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        logger.info("Flow trigger queue initialized with enabled={}, consumers={}, batchSize={}, visibilityTimeoutMs={}, maxAttempts={}, sharedSpool={}",
+                   enabled, this.consumers, this.batchSize, visibilityTimeoutMillis, this.maxAttempts, sharedSpool);
+    }
+
+    public void setHandler(TriggerHandler handler) {
+        this.handler = handler;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the deployment may enqueue another trigger; a deployment whose consumers fall
+     * behind stops polling instead of growing the queue without bound
+     */
+    public boolean hasCapacityFor(UUID deploymentId) {
+        return maxPendingPerDeployment <= 0 || queueRepository.countPending(deploymentId) < maxPendingPerDeployment;
+    }
+
+    /**
+     * Store a sender pickup for execution. In-memory payloads are spooled to disk first.
+     * If the trigger cannot be stored, the original trigger data is left untouched.
+     *
+     * @return the queued trigger id
+     */
+    public UUID enqueue(DeployedFlow deployedFlow, Map<String, Object> triggerData) throws IOException {
+        List<FilePayload> spooled = new ArrayList<>();
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> stored = (Map<String, Object>) encode(triggerData, spooled);
+            QueuedFlowTrigger trigger = new QueuedFlowTrigger(deployedFlow.getId(), deployedFlow.getFlowId(),
+                stored, spoolHost, maxAttempts);
+            queueRepository.enqueue(trigger);
+            enqueued.incrementAndGet();
+            return trigger.getId();
+        } catch (IOException | RuntimeException e) {
+            enqueueFailures.incrementAndGet();
+            spooled.forEach(FilePayload::release);
+            throw e;
+        }
+    }
+
+    /**
+     * Claim visible triggers while consumer threads are free and triggers are left
+     */
+    @Scheduled(fixedDelayString = "${h2h.flow-queue.poll-interval-ms:1000}")
+    public void consume() {
+        if (!enabled || handler == null) {
+            return;
+        }
+
+        while (true) {
+            int request = Math.min(batchSize, consumers - inFlight.get());
+            if (request <= 0) {
+                return;
+            }
+
+            List<QueuedFlowTrigger> batch;
+            try {
+                batch = queueRepository.claim(consumerId, claimHost, request, visibilityTimeoutMillis);
+            } catch (Exception e) {
+                logger.error("Failed to claim queued flow triggers: {}", e.getMessage(), e);
+                return;
+            }
+
+            for (QueuedFlowTrigger trigger : batch) {
+                recordWait(trigger);
+                inFlightIds.add(trigger.getId());
+                inFlight.incrementAndGet();
+                consumerPool.execute(() -> process(trigger));
+            }
+            claimed.addAndGet(batch.size());
+
+            if (batch.size() < request) {
+                return;
+            }
+        }
+    }
+
+    private void process(QueuedFlowTrigger trigger) {
+        // Local clock, widened so an execution stamped by a slightly different clock still matches
+        LocalDateTime startedSince = LocalDateTime.now().minusMinutes(1);
+        try {
+            if (trigger.getAttempts() > trigger.getMaxAttempts()) {
+                // Claimed more often than allowed without finishing, e.g. its consumers kept dying
+                deadLetter(trigger, "Delivered " + trigger.getAttempts() + " times without completing");
+                return;
+            }
+
+            Map<String, Object> triggerData;
+            try {
+                triggerData = decodeTriggerData(trigger.getTriggerData());
+            } catch (IOException e) {
+                deadLetter(trigger, "Payload unavailable: " + e.getMessage());
+                return;
+            }
+
+            if (handler.handle(trigger, triggerData)) {
+                acknowledge(trigger);
+            } else {
+                queueRepository.release(trigger.getId(), deferDelayMillis, null, false);
+                deferred.incrementAndGet();
+            }
+        } catch (Exception e) {
+            handleFailure(trigger, e, startedSince);
+        } finally {
+            inFlightIds.remove(trigger.getId());
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void handleFailure(QueuedFlowTrigger trigger, Exception failure, LocalDateTime startedSince) {
+        try {
+            if (executionRepository.existsForQueuedTrigger(trigger.getId(), startedSince)) {
+                // The execution ran and failed; its own record and retry policy take over
+                acknowledge(trigger);
+                return;
+            }
+
+            if (trigger.isLastAttempt()) {
+                deadLetter(trigger, failure.getMessage());
+                return;
+            }
+            long delay = Math.min(maxRetryDelayMillis,
+                retryDelayMillis << Math.min(trigger.getAttempts() - 1, 16));
+            queueRepository.release(trigger.getId(), delay, failure.getMessage(), true);
+            redelivered.incrementAndGet();
+            logger.warn("Queued trigger {} for deployment {} failed (attempt {}/{}), redelivering in {}ms: {}",
+                       trigger.getId(), trigger.getDeploymentId(), trigger.getAttempts(), trigger.getMaxAttempts(),
+                       delay, failure.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to record failure of queued trigger {}, it is redelivered after the visibility timeout: {}",
+                        trigger.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Remove a trigger whose execution started. File payloads are released by the flow steps;
+     * raw content spooled at enqueue is only needed until the trigger is gone.
+     */
+    private void acknowledge(QueuedFlowTrigger trigger) {
+        queueRepository.deleteById(trigger.getId());
+        processed.incrementAndGet();
+        releasePayloads(trigger.getTriggerData(), true);
+    }
+
+    private void deadLetter(QueuedFlowTrigger trigger, String error) {
+        queueRepository.deadLetter(trigger.getId(), error);
+        deadLettered.incrementAndGet();
+        logger.error("Dead-lettered queued trigger {} for deployment {} after {} attempt(s): {}",
+                    trigger.getId(), trigger.getDeploymentId(), trigger.getAttempts(), error);
+    }
+
+    /**
+     * Keep triggers that are still executing hidden from other consumers
+     */
+    @Scheduled(fixedDelayString = "${h2h.flow-queue.visibility-renew-interval-ms:60000}")
+    public void renewVisibility() {
+        if (!enabled || inFlightIds.isEmpty()) {
+            return;
+        }
+        try {
+            queueRepository.extendVisibility(consumerId, List.copyOf(inFlightIds), visibilityTimeoutMillis);
+        } catch (Exception e) {
+            logger.warn("Failed to extend visibility of {} in-flight trigger(s): {}", inFlightIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Delete dead letters of this host past the retention period, with their spool files
+     */
+    @Scheduled(fixedDelayString = "${h2h.flow-queue.dead-letter-purge-interval-ms:3600000}")
+    public void purgeDeadLetters() {
+        if (!enabled || deadLetterRetentionHours <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(deadLetterRetentionHours);
+        int purged = 0;
+        try {
+            List<QueuedFlowTrigger> expired;
+            do {
+                expired = queueRepository.findDeadLettersBefore(spoolHost, cutoff, 100);
+                for (QueuedFlowTrigger trigger : expired) {
+                    releasePayloads(trigger.getTriggerData(), false);
+                    queueRepository.deleteById(trigger.getId());
+                    purged++;
+                }
+            } while (expired.size() == 100);
+        } catch (Exception e) {
+            logger.warn("Failed to purge dead-lettered triggers: {}", e.getMessage());
+        }
+        if (purged > 0) {
+            logger.info("Purged {} dead-lettered trigger(s) older than {} hours", purged, deadLetterRetentionHours);
+        }
+    }
+
+    /**
+     * Put a dead-lettered trigger back in the queue
+     *
+     * @return true if the trigger was dead-lettered
+     */
+    public boolean requeueDeadLetter(UUID triggerId) {
+        boolean requeued = queueRepository.requeue(triggerId);
+        if (requeued) {
+            logger.info("Requeued dead-lettered trigger {}", triggerId);
+        }
+        return requeued;
+    }
+
+    public List<QueuedFlowTrigger> getDeadLetters(int limit) {
+        return queueRepository.findDeadLetters(limit);
+    }
+
+    private void recordWait(QueuedFlowTrigger trigger) {
+        if (trigger.getEnqueuedAt() == null || trigger.getClaimedAt() == null) {
+            return;
+        }
+        long wait = Math.max(0, Duration.between(trigger.getEnqueuedAt(), trigger.getClaimedAt()).toMillis());
+        totalWaitMillis.addAndGet(wait);
+        maxWaitMillis.accumulateAndGet(wait, Math::max);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long claimedCount = claimed.get();
+        stats.put("enabled", enabled);
+        stats.put("consumers", consumers);
+        stats.put("inFlight", inFlight.get());
+        stats.put("enqueued", enqueued.get());
+        stats.put("enqueueFailures", enqueueFailures.get());
+        stats.put("claimed", claimedCount);
+        stats.put("processed", processed.get());
+        stats.put("redelivered", redelivered.get());
+        stats.put("deferred", deferred.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("averageWaitMillis", claimedCount > 0 ? totalWaitMillis.get() / claimedCount : 0);
+        stats.put("maxWaitMillis", maxWaitMillis.get());
+
+        try {
+            Map<String, Object> metrics = queueRepository.getQueueMetrics();
+            stats.put("ready", metrics.get("ready"));
+            stats.put("claimedAcrossNodes", metrics.get("in_flight"));
+            stats.put("delayed", metrics.get("delayed"));
+            stats.put("deadLetters", metrics.get("dead"));
+            stats.put("oldestAgeMillis", toMillis(metrics.get("oldest_age_millis")));
+            stats.put("oldestReadyWaitMillis", toMillis(metrics.get("oldest_ready_wait_millis")));
+
+            Map<String, Integer> pendingByDeployment = new LinkedHashMap<>();
+            queueRepository.getPendingByDeployment(10).forEach((deploymentId, pending) ->
+                pendingByDeployment.put(deploymentId.toString(), pending));
+            stats.put("pendingByDeployment", pendingByDeployment);
+        } catch (Exception e) {
+            logger.debug("Could not read flow trigger queue metrics: {}", e.getMessage());
+        }
+        return stats;
+    }
+
+    private static long toMillis(Object value) {
+        return value instanceof Number number ? Math.max(0, number.longValue()) : 0;
+    }
+
+    // === Stored trigger data ===
+
+    /**
+     * Copy trigger data into a JSON-safe form, replacing file payloads and raw content with
+     * references to spool files
+     */
+    private Object encode(Object value, List<FilePayload> spooled) throws IOException {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof FilePayload payload) {
+            if (payload.getPath() == null) {
+                try (InputStream content = payload.openStream()) {
+                    payload = FilePayload.spool(content, payload.getFileName());
+                }
+                spooled.add(payload);
+            }
+            return Map.of(FILE_PAYLOAD_MARKER, payload.toReference());
+        }
+        if (value instanceof byte[] bytes) {
+            FilePayload payload = FilePayload.spool(new ByteArrayInputStream(bytes), null);
+            spooled.add(payload);
+            return Map.of(BYTES_MARKER, payload.toReference());
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> encoded = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                encoded.put(String.valueOf(entry.getKey()), encode(entry.getValue(), spooled));
+            }
+            return encoded;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> encoded = new ArrayList<>();
+            for (Object item : collection) {
+                encoded.add(encode(item, spooled));
+            }
+            return encoded;
+        }
+        if (value instanceof UUID || value instanceof TemporalAccessor || value instanceof Enum) {
+            return value.toString();
+        }
+        // Live objects (adapters, streams, ...) have no meaning in another process
+        return value.getClass().getSimpleName();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decodeTriggerData(Map<String, Object> stored) throws IOException {
+        return (Map<String, Object>) decode(stored);
+    }
+
+    private Object decode(Object value) throws IOException {
+        if (value instanceof Map<?, ?> map) {
+            if (map.size() == 1 && map.get(FILE_PAYLOAD_MARKER) instanceof Map<?, ?> reference) {
+                return FilePayload.fromReference(asStringMap(reference));
+            }
+            if (map.size() == 1 && map.get(BYTES_MARKER) instanceof Map<?, ?> reference) {
+                // The spool file stays until the trigger is acknowledged, for redelivery
+                return FilePayload.fromReference(asStringMap(reference)).readAllBytes();
+            }
+            Map<String, Object> decoded = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                decoded.put(String.valueOf(entry.getKey()), decode(entry.getValue()));
+            }
+            return decoded;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> decoded = new ArrayList<>();
+            for (Object item : list) {
+                decoded.add(decode(item));
+            }
+            return decoded;
+        }
+        return value;
+    }
+
+    /**
+     * Delete the spool files referenced by stored trigger data
+     *
+     * @param bytesOnly only the files holding raw content, not file payloads
+     */
+    private void releasePayloads(Object value, boolean bytesOnly) {
+        if (value instanceof Map<?, ?> map) {
+            if (map.size() == 1 && (map.containsKey(FILE_PAYLOAD_MARKER) || map.containsKey(BYTES_MARKER))) {
+                Object reference = map.get(BYTES_MARKER);
+                if (reference == null && !bytesOnly) {
+                    reference = map.get(FILE_PAYLOAD_MARKER);
+                }
+                if (reference instanceof Map<?, ?> referenceMap) {
+                    try {
+                        FilePayload.fromReference(asStringMap(referenceMap)).release();
+                    } catch (Exception e) {
+                        logger.debug("Payload of queued trigger already gone: {}", e.getMessage());
+                    }
+                }
+                return;
+            }
+            map.values().forEach(item -> releasePayloads(item, bytesOnly));
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> releasePayloads(item, bytesOnly));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asStringMap(Map<?, ?> map) {
+        return (Map<String, Object>) map;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Triggers still executing when the pool is stopped are redelivered after the visibility timeout
+        consumerPool.shutdown();
+        try {
+            if (!consumerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+                consumerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            consumerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String resolveHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
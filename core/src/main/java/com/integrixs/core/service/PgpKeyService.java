@@ -2,6 +2,7 @@ package com.integrixs.core.service;
 
 import com.integrixs.shared.model.PgpKey;
 import com.integrixs.core.repository.PgpKeyRepository;
+import com.integrixs.core.service.utility.PgpKeyRingCache;
 import org.bouncycastle.bcpg.ArmoredOutputStream;
 import org.bouncycastle.bcpg.HashAlgorithmTags;
 import org.bouncycastle.bcpg.SymmetricKeyAlgorithmTags;
@@ -51,10 +52,12 @@ public class PgpKeyService {
     private static final SecureRandom secureRandom = new SecureRandom();
     
     private final PgpKeyRepository pgpKeyRepository;
+    private final PgpKeyRingCache keyRingCache;
     
     @Autowired
-    public PgpKeyService(PgpKeyRepository pgpKeyRepository) {
+    public PgpKeyService(PgpKeyRepository pgpKeyRepository, PgpKeyRingCache keyRingCache) {
         this.pgpKeyRepository = pgpKeyRepository;
+        this.keyRingCache = keyRingCache;
     }
     
     /**
@@ -272,6 +275,7 @@ public class PgpKeyService {
      * Delete PGP key
      */
     public void deleteKey(UUID id) {
+        pgpKeyRepository.findById(id).ifPresent(key -> keyRingCache.invalidate(key.getFingerprint()));
         pgpKeyRepository.delete(id);
     }
     
@@ -280,6 +284,7 @@ public class PgpKeyService {
      */
     public void revokeKey(UUID id, String reason, UUID revokedBy) {
         pgpKeyRepository.revoke(id, reason, revokedBy);
+        pgpKeyRepository.findById(id).ifPresent(key -> keyRingCache.invalidate(key.getFingerprint()));
     }
     
     /**
@@ -0,0 +1,20 @@
+package com.integrixs.core.service;
+
+import java.util.List;
+
+/**
+ * Thrown when a retry cannot run because the content of files in its execution payload
+ * can no longer be reopened. The execution is already persisted as FAILED and marked
+ * not retryable.
+ */
+public class RetryInputUnavailableException extends RuntimeException {
+    
+    private final List<String> unavailableFiles;
+    
+    public RetryInputUnavailableException(String message, List<String> unavailableFiles) {
+        super(message);
+        this.unavailableFiles = List.copyOf(unavailableFiles);
+    }
+    
+    public List<String> getUnavailableFiles() { return unavailableFiles; }
+}
@@ -70,6 +70,18 @@ public class TransactionLogService {
         }
     }
     
+    /**
+     * Save a batch of transaction events in one database round-trip
+     * Used by the asynchronous transaction log appender
+     */
+    public void logBatch(List<TransactionLog> transactionLogs) {
+        if (transactionLogs.isEmpty()) {
+            return;
+        }
+        repository.saveAll(transactionLogs);
+        logger.debug("Saved batch of {} transaction logs", transactionLogs.size());
+    }
+    
     /**
      * Find logs by category with limit
      */
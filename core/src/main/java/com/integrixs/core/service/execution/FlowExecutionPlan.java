@@ -0,0 +1,448 @@
+package com.integrixs.core.service.execution;
+
+import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.IntegrationFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable, pre-compiled form of a flow definition used on the execution hot path.
+ *
+ * Compiling resolves once what every run used to work out from the raw definition map:
+ * node lookup by id, an adjacency index of successors, the node kind (and therefore the
+ * executor branch), adapter ids, utility configuration, decision conditions and the join
+ * node matching each parallel split.
+ */
+public final class FlowExecutionPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowExecutionPlan.class);
+
+    public enum NodeKind {
+        START, END, MESSAGE_END, ADAPTER, UTILITY, DECISION, PARALLEL_SPLIT, JOIN, CUSTOM;
+
+        static NodeKind of(String type) {
+            switch (type == null ? "" : type.toLowerCase(Locale.ROOT)) {
+                case "start": return START;
+                case "end": return END;
+                case "messageend": return MESSAGE_END;
+                case "adapter": return ADAPTER;
+                case "utility": return UTILITY;
+                case "condition":
+                case "decision": return DECISION;
+                case "parallel":
+                case "parallelsplit": return PARALLEL_SPLIT;
+                case "join":
+                case "paralleljoin": return JOIN;
+                default: return CUSTOM;
+            }
+        }
+    }
+
+    public enum JoinMode {
+        WAIT_ALL,
+        WAIT_ANY
+    }
+
+    private final UUID flowId;
+    private final Integer flowVersion;
+    private final LocalDateTime flowUpdatedAt;
+    private final LocalDateTime compiledAt;
+    private final Map<String, PlannedNode> nodesById;
+    private final Map<String, List<PlannedNode>> successors;
+    private final PlannedNode startNode;
+
+    private FlowExecutionPlan(IntegrationFlow flow, Map<String, PlannedNode> nodesById,
+                              Map<String, List<PlannedNode>> successors, PlannedNode startNode) {
+        this.flowId = flow.getId();
+        this.flowVersion = flow.getFlowVersion();
+        this.flowUpdatedAt = flow.getUpdatedAt();
+        this.compiledAt = LocalDateTime.now();
+        this.nodesById = nodesById;
+        this.successors = successors;
+        this.startNode = startNode;
+    }
+
+    /**
+     * Compile a flow definition into an execution plan
+     *
+     * @throws IllegalArgumentException if the definition has no nodes or no start node
+     */
+    @SuppressWarnings("unchecked")
+    public static FlowExecutionPlan compile(IntegrationFlow flow) {
+        Map<String, Object> flowDefinition = flow.getFlowDefinition();
+        if (flowDefinition == null || !(flowDefinition.get("nodes") instanceof List)) {
+            throw new IllegalArgumentException("Flow definition is missing or invalid");
+        }
+
+        List<Map<String, Object>> rawNodes = (List<Map<String, Object>>) flowDefinition.get("nodes");
+        Map<String, Map<String, Object>> rawById = new LinkedHashMap<>();
+        for (Map<String, Object> rawNode : rawNodes) {
+            Object id = rawNode.get("id");
+            if (id != null) {
+                rawById.put(id.toString(), rawNode);
+            }
+        }
+
+        // Adjacency from edges when the definition has them, otherwise from parentId references
+        Map<String, List<String>> successorIds = new LinkedHashMap<>();
+        Object edges = flowDefinition.get("edges");
+        if (edges instanceof List && !((List<?>) edges).isEmpty()) {
+            for (Map<String, Object> edge : (List<Map<String, Object>>) edges) {
+                Object source = edge.get("source");
+                Object target = edge.get("target");
+                if (source != null && target != null && rawById.containsKey(target.toString())) {
+                    successorIds.computeIfAbsent(source.toString(), k -> new ArrayList<>()).add(target.toString());
+                }
+            }
+        } else {
+            for (Map.Entry<String, Map<String, Object>> entry : rawById.entrySet()) {
+                Object parentId = entry.getValue().get("parentId");
+                if (parentId != null) {
+                    successorIds.computeIfAbsent(parentId.toString(), k -> new ArrayList<>()).add(entry.getKey());
+                }
+            }
+        }
+
+        Map<String, PlannedNode> nodesById = new LinkedHashMap<>();
+        PlannedNode startNode = null;
+        for (Map.Entry<String, Map<String, Object>> entry : rawById.entrySet()) {
+            Map<String, Object> rawNode = entry.getValue();
+            NodeKind kind = NodeKind.of((String) rawNode.get("type"));
+            String joinNodeId = kind == NodeKind.PARALLEL_SPLIT ? findJoinNodeId(entry.getKey(), rawById, successorIds) : null;
+
+            PlannedNode plannedNode = new PlannedNode(entry.getKey(), rawNode, kind, joinNodeId);
+            nodesById.put(entry.getKey(), plannedNode);
+            if (startNode == null && kind == NodeKind.START && "start".equals(rawNode.get("type"))) {
+                startNode = plannedNode;
+            }
+        }
+        if (startNode == null) {
+            throw new IllegalArgumentException("Start node not found in flow definition");
+        }
+
+        Map<String, List<PlannedNode>> successors = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : successorIds.entrySet()) {
+            List<PlannedNode> next = new ArrayList<>();
+            for (String targetId : entry.getValue()) {
+                next.add(nodesById.get(targetId));
+            }
+            successors.put(entry.getKey(), Collections.unmodifiableList(next));
+        }
+
+        return new FlowExecutionPlan(flow, Collections.unmodifiableMap(nodesById),
+                                     Collections.unmodifiableMap(successors), startNode);
+    }
+
+    /**
+     * The join matching a split is the first join reached from it that is not consumed
+     * by a nested split on the way
+     */
+    private static String findJoinNodeId(String splitNodeId, Map<String, Map<String, Object>> rawById,
+                                         Map<String, List<String>> successorIds) {
+        Deque<Map.Entry<String, Integer>> queue = new ArrayDeque<>();
+        Set<String> visited = new HashSet<>();
+        queue.add(Map.entry(splitNodeId, 0));
+
+        while (!queue.isEmpty()) {
+            Map.Entry<String, Integer> current = queue.poll();
+            for (String nextId : successorIds.getOrDefault(current.getKey(), List.of())) {
+                NodeKind nextKind = NodeKind.of((String) rawById.get(nextId).get("type"));
+                int depth = current.getValue();
+
+                if (nextKind == NodeKind.JOIN) {
+                    if (depth == 0) {
+                        return nextId;
+                    }
+                    depth--;
+                } else if (nextKind == NodeKind.PARALLEL_SPLIT) {
+                    depth++;
+                }
+                if (visited.add(nextId + "@" + depth)) {
+                    queue.add(Map.entry(nextId, depth));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether this plan was compiled from the current revision of the flow
+     */
+    public boolean isCompiledFrom(IntegrationFlow flow) {
+        return Objects.equals(flowId, flow.getId()) &&
+               Objects.equals(flowVersion, flow.getFlowVersion()) &&
+               Objects.equals(flowUpdatedAt, flow.getUpdatedAt());
+    }
+
+    public PlannedNode getStartNode() {
+        return startNode;
+    }
+
+    public PlannedNode getNode(String nodeId) {
+        return nodesById.get(nodeId);
+    }
+
+    public List<PlannedNode> getSuccessors(String nodeId) {
+        return successors.getOrDefault(nodeId, List.of());
+    }
+
+    /**
+     * Join node matching a parallel split, or null if the branches never meet
+     */
+    public PlannedNode getJoinNode(PlannedNode splitNode) {
+        return splitNode.getJoinNodeId() != null ? nodesById.get(splitNode.getJoinNodeId()) : null;
+    }
+
+    public UUID getFlowId() {
+        return flowId;
+    }
+
+    public Integer getFlowVersion() {
+        return flowVersion;
+    }
+
+    public LocalDateTime getCompiledAt() {
+        return compiledAt;
+    }
+
+    public int getNodeCount() {
+        return nodesById.size();
+    }
+
+    /**
+     * A node of the plan with everything the executor needs resolved up front
+     */
+    public static final class PlannedNode {
+
+        private final String id;
+        private final String type;
+        private final NodeKind kind;
+        private final FlowExecutionStep.StepType stepType;
+        private final String stepName;
+        private final Map<String, Object> node;
+        private final String adapterId;
+        private final UUID adapterUuid;
+        private final String utilityType;
+        private final Map<String, Object> utilityConfig;
+        private final List<CompiledCondition> conditions;
+        private final String joinNodeId;
+        private final JoinMode joinMode;
+        private final Long joinTimeoutSeconds;
+
+        @SuppressWarnings("unchecked")
+        private PlannedNode(String id, Map<String, Object> rawNode, NodeKind kind, String joinNodeId) {
+            Map<String, Object> data = rawNode.get("data") instanceof Map
+                ? (Map<String, Object>) rawNode.get("data") : Map.of();
+
+            this.id = id;
+            this.type = (String) rawNode.get("type");
+            this.kind = kind;
+            this.stepType = resolveStepType(type);
+            this.stepName = (String) rawNode.getOrDefault("name", type + "_" + id);
+            this.node = Collections.unmodifiableMap(rawNode);
+            this.joinNodeId = joinNodeId;
+
+            this.adapterId = (String) rawNode.get("adapterId");
+            this.adapterUuid = parseUuid(adapterId);
+            this.utilityType = (String) rawNode.get("utilityType");
+            Object configuration = rawNode.get("configuration");
+            this.utilityConfig = configuration instanceof Map
+                ? Collections.unmodifiableMap((Map<String, Object>) configuration) : null;
+            this.conditions = kind == NodeKind.DECISION
+                ? compileConditions(id, rawNode.get("conditions")) : List.of();
+
+            Object mode = lookup(rawNode, data, "joinMode");
+            this.joinMode = parseJoinMode(id, mode);
+            Object timeout = lookup(rawNode, data, "timeoutSeconds");
+            this.joinTimeoutSeconds = timeout instanceof Number ? ((Number) timeout).longValue() : null;
+        }
+
+        private static UUID parseUuid(String value) {
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            try {
+                return UUID.fromString(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private static Object lookup(Map<String, Object> rawNode, Map<String, Object> data, String key) {
+            Object value = rawNode.get(key);
+            return value != null ? value : data.get(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<CompiledCondition> compileConditions(String nodeId, Object conditions) {
+            if (!(conditions instanceof Map)) {
+                return List.of();
+            }
+            List<CompiledCondition> compiled = new ArrayList<>();
+            for (Map.Entry<String, Object> condition : ((Map<String, Object>) conditions).entrySet()) {
+                Map<String, Object> config = condition.getValue() instanceof Map
+                    ? (Map<String, Object>) condition.getValue() : null;
+                compiled.add(CompiledCondition.compile(nodeId, condition.getKey(), config));
+            }
+            return Collections.unmodifiableList(compiled);
+        }
+
+        private static JoinMode parseJoinMode(String nodeId, Object value) {
+            if (value instanceof String) {
+                try {
+                    return JoinMode.valueOf(((String) value).trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unknown join mode '{}' on node {}, using WAIT_ALL", value, nodeId);
+                }
+            }
+            return JoinMode.WAIT_ALL;
+        }
+
+        private static FlowExecutionStep.StepType resolveStepType(String nodeType) {
+            switch (nodeType == null ? "" : nodeType.toLowerCase(Locale.ROOT)) {
+                case "start":
+                case "adapter":
+                case "sender": return FlowExecutionStep.StepType.ADAPTER_SENDER;
+                case "end":
+                case "messageend":
+                case "receiver": return FlowExecutionStep.StepType.ADAPTER_RECEIVER;
+                case "utility": return FlowExecutionStep.StepType.UTILITY;
+                case "condition":
+                case "decision": return FlowExecutionStep.StepType.DECISION;
+                case "parallel":
+                case "parallelsplit": return FlowExecutionStep.StepType.SPLIT;
+                case "join":
+                case "paralleljoin": return FlowExecutionStep.StepType.MERGE;
+                case "wait": return FlowExecutionStep.StepType.WAIT;
+                case "notification": return FlowExecutionStep.StepType.NOTIFICATION;
+                default: return FlowExecutionStep.StepType.UTILITY; // Default to utility for unknown types
+            }
+        }
+
+        public String getId() { return id; }
+        public String getType() { return type; }
+        public NodeKind getKind() { return kind; }
+        public FlowExecutionStep.StepType getStepType() { return stepType; }
+        public String getStepName() { return stepName; }
+
+        /** Raw node definition (read-only) for settings not resolved at compile time */
+        public Map<String, Object> getNode() { return node; }
+
+        public String getAdapterId() { return adapterId; }
+
+        /** Adapter id parsed at compile time, or null if missing or malformed */
+        public UUID getAdapterUuid() { return adapterUuid; }
+
+        public String getUtilityType() { return utilityType; }
+        public Map<String, Object> getUtilityConfig() { return utilityConfig; }
+        public List<CompiledCondition> getConditions() { return conditions; }
+        public String getJoinNodeId() { return joinNodeId; }
+        public JoinMode getJoinMode() { return joinMode; }
+
+        /** Join timeout configured on the node, or null to use the default */
+        public Long getJoinTimeoutSeconds() { return joinTimeoutSeconds; }
+    }
+
+    /**
+     * Decision condition with its operator and comparison value parsed once
+     */
+    public static final class CompiledCondition {
+
+        enum Operator { EQUALS, NOT_EQUALS, CONTAINS, GREATER_THAN, LESS_THAN, EXISTS, NOT_EXISTS, INVALID }
+
+        private final String name;
+        private final String field;
+        private final Operator operator;
+        private final Object value;
+        private final Double numericValue;
+
+        private CompiledCondition(String name, String field, Operator operator, Object value) {
+            this.name = name;
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+            this.numericValue = parseNumber(value);
+        }
+
+        static CompiledCondition compile(String nodeId, String name, Map<String, Object> config) {
+            if (config == null || config.get("field") == null || config.get("operator") == null) {
+                return new CompiledCondition(name, null, Operator.INVALID, null);
+            }
+            String operator = config.get("operator").toString();
+            Operator parsed;
+            try {
+                parsed = Operator.valueOf(operator.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown condition operator '{}' in condition {} of node {}", operator, name, nodeId);
+                parsed = Operator.INVALID;
+            }
+            return new CompiledCondition(name, config.get("field").toString(), parsed, config.get("value"));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Evaluate the condition against the execution context
+         */
+        public boolean matches(Map<String, Object> context) {
+            Object contextValue = field != null ? context.get(field) : null;
+
+            switch (operator) {
+                case EQUALS:
+                    return Objects.equals(contextValue, value);
+                case NOT_EQUALS:
+                    return !Objects.equals(contextValue, value);
+                case CONTAINS:
+                    return contextValue != null && value != null && contextValue.toString().contains(value.toString());
+                case GREATER_THAN:
+                    return compareNumber(contextValue) > 0;
+                case LESS_THAN:
+                    return compareNumber(contextValue) < 0;
+                case EXISTS:
+                    return contextValue != null;
+                case NOT_EXISTS:
+                    return contextValue == null;
+                default:
+                    return false;
+            }
+        }
+
+        private int compareNumber(Object contextValue) {
+            Double contextNumber = parseNumber(contextValue);
+            if (contextNumber == null || numericValue == null) {
+                return 0;
+            }
+            return Double.compare(contextNumber, numericValue);
+        }
+
+        private static Double parseNumber(Object value) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.integrixs.core.service.scheduling;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calendar schedule of a sender adapter, parsed once from its configuration.
+ *
+ * OnTime mode fires once per matching day at onTimeValue (Daily, Weekly on the selected
+ * weeklyDays, Monthly on monthlyDay or the last day), or per cronExpression when
+ * scheduleType is Cron. Every mode fires every everyInterval, aligned to everyStartTime,
+ * only inside the everyStartTime..everyEndTime window of matching days. All times are
+ * evaluated in the configured timeZone.
+ *
+ * CRITICAL: No defaults for required fields - missing or invalid configuration fails loudly.
+ * Scheduled execution times are approved by all parties.
+ */
+public final class AdapterSchedule {
+
+    public enum Mode { ON_TIME, EVERY }
+
+    private static final int MAX_DAYS_AHEAD = 400;
+    private static final String LAST_DAY = "last";
+
+    private final Mode mode;
+    private final String scheduleType;
+    private final ZoneId zone;
+    private final LocalTime time;
+    private final Set<DayOfWeek> weeklyDays;
+    private final int monthlyDay;
+    private final CronExpression cron;
+    private final Duration interval;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final String description;
+
+    private AdapterSchedule(Mode mode, String scheduleType, ZoneId zone, LocalTime time, Set<DayOfWeek> weeklyDays,
+                            int monthlyDay, CronExpression cron, Duration interval,
+                            LocalTime windowStart, LocalTime windowEnd, String description) {
+        this.mode = mode;
+        this.scheduleType = scheduleType;
+        this.zone = zone;
+        this.time = time;
+        this.weeklyDays = weeklyDays;
+        this.monthlyDay = monthlyDay;
+        this.cron = cron;
+        this.interval = interval;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.description = description;
+    }
+
+    /**
+     * Parse the scheduler settings of an adapter configuration
+     *
+     * @throws IllegalStateException if the configuration is missing or invalid
+     */
+    public static AdapterSchedule fromConfiguration(Map<String, Object> config) {
+        if (config == null) {
+            throw new IllegalStateException("Scheduler configuration missing: adapter has no configuration.");
+        }
+        String scheduleMode = getString(config, "scheduleMode");
+        if (scheduleMode == null || scheduleMode.trim().isEmpty()) {
+            throw new IllegalStateException("Scheduler configuration missing: scheduleMode is required. " +
+                "Adapter cannot be scheduled without valid scheduler configuration.");
+        }
+        if (!"OnTime".equals(scheduleMode) && !"Every".equals(scheduleMode)) {
+            throw new IllegalStateException("Invalid scheduleMode: '" + scheduleMode + "'. " +
+                "Must be 'OnTime' or 'Every'. Adapter cannot be scheduled with invalid configuration.");
+        }
+
+        String scheduleType = getString(config, "scheduleType");
+        if (scheduleType == null || scheduleType.trim().isEmpty()) {
+            scheduleType = "Daily";
+        }
+        ZoneId zone = parseTimeZone(getString(config, "timeZone"));
+
+        Set<DayOfWeek> weeklyDays = EnumSet.allOf(DayOfWeek.class);
+        int monthlyDay = 0;
+        CronExpression cron = null;
+        switch (scheduleType) {
+            case "Daily":
+                break;
+            case "Weekly":
+                weeklyDays = parseWeeklyDays(config.get("weeklyDays"));
+                break;
+            case "Monthly":
+                monthlyDay = parseMonthlyDay(getString(config, "monthlyDay"));
+                break;
+            case "Cron":
+                if (!"OnTime".equals(scheduleMode)) {
+                    throw new IllegalStateException("Cron schedules require scheduleMode 'OnTime'.");
+                }
+                cron = parseCron(getString(config, "cronExpression"));
+                break;
+            default:
+                throw new IllegalStateException("Invalid scheduleType: '" + scheduleType + "'. " +
+                    "Must be 'Daily', 'Weekly', 'Monthly' or 'Cron'.");
+        }
+
+        if ("OnTime".equals(scheduleMode)) {
+            if (cron != null) {
+                return new AdapterSchedule(Mode.ON_TIME, scheduleType, zone, null, weeklyDays, monthlyDay, cron,
+                    null, null, null, "Cron " + getString(config, "cronExpression") + " (" + zone + ")");
+            }
+            String onTimeValue = getString(config, "onTimeValue");
+            if (onTimeValue == null || onTimeValue.trim().isEmpty()) {
+                throw new IllegalStateException("Scheduler configuration missing: onTimeValue is required for OnTime mode.");
+            }
+            LocalTime time = parseTime("onTimeValue", onTimeValue);
+            return new AdapterSchedule(Mode.ON_TIME, scheduleType, zone, time, weeklyDays, monthlyDay, null,
+                null, null, null, scheduleType + " at " + time + " (" + zone + ")");
+        }
+
+        String everyInterval = getString(config, "everyInterval");
+        Duration interval = parseInterval(everyInterval);
+        LocalTime windowStart = parseTime("everyStartTime", getStringWithDefault(config, "everyStartTime", "00:00"));
+        LocalTime windowEnd = parseTime("everyEndTime", getStringWithDefault(config, "everyEndTime", "23:59"));
+        return new AdapterSchedule(Mode.EVERY, scheduleType, zone, null, weeklyDays, monthlyDay, null,
+            interval, windowStart, windowEnd,
+            scheduleType + " every " + everyInterval + " between " + windowStart + " and " + windowEnd + " (" + zone + ")");
+    }
+
+    /**
+     * First fire time strictly after the given instant, or null if the schedule never fires again
+     */
+    public Instant nextFireTime(Instant after) {
+        if (cron != null) {
+            ZonedDateTime next = cron.next(after.atZone(zone));
+            return next != null ? next.toInstant() : null;
+        }
+        return mode == Mode.ON_TIME ? nextOnTime(after) : nextInWindow(after);
+    }
+
+    private Instant nextOnTime(Instant after) {
+        LocalDate day = after.atZone(zone).toLocalDate();
+        for (int i = 0; i < MAX_DAYS_AHEAD; i++, day = day.plusDays(1)) {
+            if (matchesDay(day)) {
+                // ZonedDateTime.of moves times in a DST gap forward, so the day still fires
+                Instant candidate = ZonedDateTime.of(day, time, zone).toInstant();
+                if (candidate.isAfter(after)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Instant nextInWindow(Instant after) {
+        // Start a day early: an overnight window opened yesterday may still be open
+        LocalDate day = after.atZone(zone).toLocalDate().minusDays(1);
+        for (int i = 0; i < MAX_DAYS_AHEAD; i++, day = day.plusDays(1)) {
+            if (!matchesDay(day)) {
+                continue;
+            }
+            Instant start = ZonedDateTime.of(day, windowStart, zone).toInstant();
+            LocalDate endDay = windowEnd.isAfter(windowStart) ? day : day.plusDays(1);
+            Instant end = ZonedDateTime.of(endDay, windowEnd, zone).toInstant();
+            if (end.isBefore(after)) {
+                continue;
+            }
+
+            Instant candidate = start;
+            if (!candidate.isAfter(after)) {
+                long elapsed = Duration.between(start, after).toMillis();
+                long steps = elapsed / interval.toMillis() + 1;
+                candidate = start.plusMillis(steps * interval.toMillis());
+            }
+            if (!candidate.isAfter(end)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(LocalDate day) {
+        if (monthlyDay != 0) {
+            int lastDay = day.lengthOfMonth();
+            // Days past the end of a short month run on its last day
+            int target = monthlyDay < 0 ? lastDay : Math.min(monthlyDay, lastDay);
+            return day.getDayOfMonth() == target;
+        }
+        return weeklyDays.contains(day.getDayOfWeek());
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getScheduleType() {
+        return scheduleType;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    /**
+     * Accepts the UI format ("UTC 0:00", "UTC +2:00", "UTC -5:30") or a region id ("Europe/Zurich")
+     */
+    static ZoneId parseTimeZone(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ZoneOffset.UTC;
+        }
+        String trimmed = value.trim();
+        try {
+            if (trimmed.toUpperCase(Locale.ROOT).startsWith("UTC") || trimmed.toUpperCase(Locale.ROOT).startsWith("GMT")) {
+                String offset = trimmed.substring(3).trim();
+                if (offset.isEmpty() || offset.equals("0:00") || offset.equals("00:00") || offset.equals("0")) {
+                    return ZoneOffset.UTC;
+                }
+                int sign = offset.startsWith("-") ? -1 : 1;
+                String[] parts = offset.replaceFirst("^[+-]", "").split(":");
+                int hours = Integer.parseInt(parts[0].trim());
+                int minutes = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+                return ZoneOffset.ofHoursMinutes(sign * hours, sign * minutes);
+            }
+            return ZoneId.of(trimmed);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Scheduler configuration error: Invalid timeZone '" + value + "'.", e);
+        }
+    }
+
+    /**
+     * Convert interval string to a duration.
+     * CRITICAL: No fallbacks - invalid or missing configuration must fail loudly.
+     */
+    static Duration parseInterval(String interval) {
+        if (interval == null || interval.trim().isEmpty()) {
+            throw new IllegalStateException(
+                "Scheduler configuration error: everyInterval is required but not found in adapter configuration. " +
+                "Please configure the adapter with a valid interval (e.g., '1 min', '30 sec', '2 hour').");
+        }
+
+        try {
+            long amount;
+            Duration unit;
+            if (interval.endsWith(" sec")) {
+                amount = Long.parseLong(interval.replace(" sec", "").trim());
+                unit = Duration.ofSeconds(1);
+            } else if (interval.endsWith(" min")) {
+                amount = Long.parseLong(interval.replace(" min", "").trim());
+                unit = Duration.ofMinutes(1);
+            } else if (interval.endsWith(" hour") || interval.endsWith(" hours")) {
+                amount = Long.parseLong(interval.replace(" hours", "").replace(" hour", "").trim());
+                unit = Duration.ofHours(1);
+            } else {
+                throw new IllegalStateException(
+                    "Scheduler configuration error: Unrecognized interval format '" + interval + "'. " +
+                    "Expected format: '<number> sec', '<number> min', or '<number> hour'. " +
+                    "Example: '1 min', '30 sec', '2 hour'");
+            }
+            if (amount <= 0) {
+                throw new IllegalStateException("Interval must be positive: " + interval);
+            }
+            return unit.multipliedBy(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(
+                "Scheduler configuration error: Invalid interval format '" + interval + "'. " +
+                "Expected format: '<number> sec', '<number> min', or '<number> hour'. " +
+                "Example: '1 min', '30 sec', '2 hour'", e);
+        }
+    }
+
+    private static LocalTime parseTime(String key, String value) {
+        String trimmed = value.trim();
+        if (trimmed.equals("24:00")) {
+            return LocalTime.MAX;
+        }
+        try {
+            return LocalTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("Scheduler configuration error: Invalid " + key + " '" + value +
+                "'. Expected HH:mm.", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<DayOfWeek> parseWeeklyDays(Object weeklyDays) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (weeklyDays instanceof Map) {
+            for (Map.Entry<String, Object> day : ((Map<String, Object>) weeklyDays).entrySet()) {
+                if (Boolean.TRUE.equals(day.getValue()) || "true".equals(String.valueOf(day.getValue()))) {
+                    try {
+                        days.add(DayOfWeek.valueOf(day.getKey().toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalStateException("Scheduler configuration error: Invalid weekday '" + day.getKey() + "'.");
+                    }
+                }
+            }
+        }
+        if (days.isEmpty()) {
+            throw new IllegalStateException("Scheduler configuration missing: at least one of weeklyDays is required for Weekly schedules.");
+        }
+        return days;
+    }
+
+    private static int parseMonthlyDay(String monthlyDay) {
+        if (monthlyDay == null || monthlyDay.trim().isEmpty()) {
+            throw new IllegalStateException("Scheduler configuration missing: monthlyDay is required for Monthly schedules.");
+        }
+        if (LAST_DAY.equalsIgnoreCase(monthlyDay.trim())) {
+            return -1;
+        }
+        try {
+            int day = Integer.parseInt(monthlyDay.trim());
+            if (day < 1 || day > 31) {
+                throw new IllegalStateException("Scheduler configuration error: monthlyDay must be 1-31 or 'last': " + monthlyDay);
+            }
+            return day;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Scheduler configuration error: monthlyDay must be 1-31 or 'last': " + monthlyDay, e);
+        }
+    }
+
+    private static CronExpression parseCron(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalStateException("Scheduler configuration missing: cronExpression is required for Cron schedules.");
+        }
+        try {
+            return CronExpression.parse(expression.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Scheduler configuration error: Invalid cronExpression '" + expression +
+                "': " + e.getMessage(), e);
+        }
+    }
+
+    private static String getString(Map<String, Object> config, String key) {
+        Object value = config.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private static String getStringWithDefault(Map<String, Object> config, String key, String defaultValue) {
+        Object value = config.get(key);
+        return value != null && !value.toString().trim().isEmpty() ? value.toString() : defaultValue;
+    }
+}
@@ -0,0 +1,184 @@
+package com.integrixs.core.service.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the flow executions running at once on this node for each deployment.
+ *
+ * A caller takes a permit with tryAcquire before starting work and closes it in a finally
+ * block; acquiring never blocks and closing a permit more than once has no effect, so a
+ * failed execution cannot hold on to its slot. As a safety net, reconcile reclaims permits
+ * held longer than the stale timeout while flow_executions shows nothing running for the
+ * deployment.
+ */
+@Component
+public class DeploymentConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeploymentConcurrencyLimiter.class);
+
+    private final long stalePermitMillis;
+    private final ConcurrentHashMap<UUID, Limit> limits = new ConcurrentHashMap<>();
+
+    private static final class Limit {
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final Set<Permit> held = ConcurrentHashMap.newKeySet();
+        private final AtomicLong acquired = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong reclaimed = new AtomicLong();
+        private volatile int maxConcurrent;
+        private volatile int runningInDatabase;
+    }
+
+    /**
+     * A slot of a deployment, held until closed
+     */
+    public static final class Permit implements AutoCloseable {
+        private final UUID deploymentId;
+        private final Limit limit;
+        private final long acquiredAt = System.currentTimeMillis();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(UUID deploymentId, Limit limit) {
+            this.deploymentId = deploymentId;
+            this.limit = limit;
+        }
+
+        public UUID getDeploymentId() {
+            return deploymentId;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                limit.held.remove(this);
+                limit.inUse.decrementAndGet();
+            }
+        }
+    }
+
+    public DeploymentConcurrencyLimiter(
+            @Value("${h2h.scheduler.concurrency.stale-permit-ms:1800000}") long stalePermitMillis) {
+        this.stalePermitMillis = stalePermitMillis;
+    }
+
+    /**
+     * Take a permit for the deployment if fewer than maxConcurrent are held
+     *
+     * @return the permit, or null if the deployment is at its limit
+     */
+    public Permit tryAcquire(UUID deploymentId, int maxConcurrent) {
+        while (true) {
+            Limit limit = limits.computeIfAbsent(deploymentId, key -> new Limit());
+            limit.maxConcurrent = maxConcurrent;
+
+            int current = limit.inUse.get();
+            if (current >= maxConcurrent) {
+                limit.rejected.incrementAndGet();
+                return null;
+            }
+            if (!limit.inUse.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            // remove() may have dropped the entry between lookup and increment
+            if (limits.get(deploymentId) != limit) {
+                limit.inUse.decrementAndGet();
+                continue;
+            }
+
+            Permit permit = new Permit(deploymentId, limit);
+            limit.held.add(permit);
+            limit.acquired.incrementAndGet();
+            return permit;
+        }
+    }
+
+    /**
+     * Permits currently held for the deployment
+     */
+    public int current(UUID deploymentId) {
+        Limit limit = limits.get(deploymentId);
+        return limit != null ? limit.inUse.get() : 0;
+    }
+
+    /**
+     * Permits currently held across all deployments
+     */
+    public int totalCurrent() {
+        return limits.values().stream().mapToInt(limit -> limit.inUse.get()).sum();
+    }
+
+    /**
+     * Forget an undeployed deployment; its counters are kept while permits are still held
+     */
+    public void remove(UUID deploymentId) {
+        limits.computeIfPresent(deploymentId, (key, limit) -> limit.inUse.get() == 0 ? null : limit);
+    }
+
+    /**
+     * Compare held permits with the PENDING/RUNNING executions recorded per deployment and
+     * reclaim stale permits of deployments with none
+     *
+     * @return the number of permits reclaimed
+     */
+    public int reconcile(Map<UUID, Integer> runningInDatabase) {
+        long staleBefore = System.currentTimeMillis() - stalePermitMillis;
+        int reclaimed = 0;
+
+        for (Map.Entry<UUID, Limit> entry : limits.entrySet()) {
+            Limit limit = entry.getValue();
+            int running = runningInDatabase.getOrDefault(entry.getKey(), 0);
+            limit.runningInDatabase = running;
+            if (running > 0) {
+                continue;
+            }
+            for (Permit permit : limit.held) {
+                if (permit.acquiredAt < staleBefore && !permit.released.get()) {
+                    permit.close();
+                    limit.reclaimed.incrementAndGet();
+                    reclaimed++;
+                    logger.warn("Reclaimed concurrency permit of deployment {} held for {} ms with no running execution",
+                               entry.getKey(), System.currentTimeMillis() - permit.acquiredAt);
+                }
+            }
+        }
+        return reclaimed;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long totalRejected = 0;
+
+        Map<String, Object> byDeployment = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Limit> entry : limits.entrySet()) {
+            Limit limit = entry.getValue();
+            Map<String, Object> deployment = new LinkedHashMap<>();
+            deployment.put("current", limit.inUse.get());
+            deployment.put("max", limit.maxConcurrent);
+            deployment.put("acquired", limit.acquired.get());
+            deployment.put("rejected", limit.rejected.get());
+            deployment.put("reclaimed", limit.reclaimed.get());
+            deployment.put("runningInDatabase", limit.runningInDatabase);
+            byDeployment.put(entry.getKey().toString(), deployment);
+
+            totalRejected += limit.rejected.get();
+        }
+
+        stats.put("current", totalCurrent());
+        stats.put("rejected", totalRejected);
+        stats.put("stalePermitMs", stalePermitMillis);
+        stats.put("byDeployment", byDeployment);
+        return stats;
+    }
+}
@@ -0,0 +1,354 @@
+package com.integrixs.core.service.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event-driven pickup for file sender deployments: one WatchService shared by all
+ * deployments, with each source directory registered once however many deployments
+ * read from it.
+ *
+ * Create and modify events are debounced per deployment - the pickup task runs only
+ * after the directory has been quiet for the debounce interval, which approximates
+ * close-write on platforms that do not report it. A deployment's task never runs
+ * concurrently with itself; a trigger arriving while it runs schedules exactly one
+ * follow-up run. A reconciliation pass triggers every deployment that has not run
+ * within the reconcile interval, so overflowed or missed events only delay pickup.
+ */
+@Component
+public class DirectoryWatchRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatchRegistry.class);
+
+    private final Executor executor;
+    private final long debounceMillis;
+    private final long reconcileIntervalMillis;
+    private final ConcurrentHashMap<UUID, Registration> registrations = new ConcurrentHashMap<>();
+    // Guarded by this: watched directory -> its watch key and the deployments reading it
+    private final Map<Path, WatchedDirectory> directories = new HashMap<>();
+    private final ScheduledExecutorService timer;
+    private final AtomicLong eventsReceived = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+
+    private WatchService watchService;
+    private Thread watcherThread;
+    private volatile boolean running = true;
+
+    private static final class WatchedDirectory {
+        private final WatchKey key;
+        private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+
+        private WatchedDirectory(WatchKey key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Registration {
+        private final UUID key;
+        private final Path directory;
+        private final Runnable task;
+        private final AtomicBoolean debouncePending = new AtomicBoolean();
+        private final AtomicBoolean executing = new AtomicBoolean();
+        private final AtomicBoolean rerunRequested = new AtomicBoolean();
+        private final AtomicLong eventTriggers = new AtomicLong();
+        private final AtomicLong reconcileTriggers = new AtomicLong();
+        private volatile long lastEventNanos;
+        private volatile long lastRunNanos = System.nanoTime();
+
+        private Registration(UUID key, Path directory, Runnable task) {
+            this.key = key;
+            this.directory = directory;
+            this.task = task;
+        }
+    }
+
+    @Autowired
+    public DirectoryWatchRegistry(@Qualifier("pollTaskExecutor") Executor executor,
+                                  @Value("${h2h.file.watch.debounce-ms:1000}") long debounceMillis,
+                                  @Value("${h2h.file.watch.reconcile-interval-ms:300000}") long reconcileIntervalMillis) {
+        this.executor = executor;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.reconcileIntervalMillis = reconcileIntervalMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DirectoryWatch-Timer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        if (reconcileIntervalMillis > 0) {
+            long period = Math.max(1000, reconcileIntervalMillis / 4);
+            timer.scheduleWithFixedDelay(this::reconcile, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        logger.info("Directory watch registry initialized with debounce={}ms, reconcileInterval={}ms",
+                   this.debounceMillis, reconcileIntervalMillis);
+    }
+
+    /**
+     * Watch the directory and run the task when files are created or modified in it,
+     * replacing any registration under the same key
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public synchronized void register(UUID key, Path directory, Runnable task) throws IOException {
+        unregister(key);
+
+        Path dir = directory.toAbsolutePath().normalize();
+        WatchedDirectory watched = directories.get(dir);
+        if (watched == null) {
+            watched = new WatchedDirectory(dir.register(getWatchService(),
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+            directories.put(dir, watched);
+        }
+
+        Registration registration = new Registration(key, dir, task);
+        watched.registrations.add(registration);
+        registrations.put(key, registration);
+        logger.info("Watching {} for deployment {}", dir, key);
+    }
+
+    /**
+     * Stop watching for the key; the directory itself is released with its last registration
+     *
+     * @return true if a registration existed
+     */
+    public synchronized boolean unregister(UUID key) {
+        Registration registration = registrations.remove(key);
+        if (registration == null) {
+            return false;
+        }
+        WatchedDirectory watched = directories.get(registration.directory);
+        if (watched != null) {
+            watched.registrations.remove(registration);
+            if (watched.registrations.isEmpty()) {
+                watched.key.cancel();
+                directories.remove(registration.directory);
+            }
+        }
+        return true;
+    }
+
+    public boolean isRegistered(UUID key) {
+        return registrations.containsKey(key);
+    }
+
+    /**
+     * Run the registered task now, or once more after the current run if it is executing
+     *
+     * @return false if nothing is registered under the key
+     */
+    public boolean trigger(UUID key) {
+        Registration registration = registrations.get(key);
+        if (registration == null) {
+            return false;
+        }
+        execute(registration);
+        return true;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("registrations", registrations.size());
+        synchronized (this) {
+            stats.put("watchedDirectories", directories.size());
+        }
+        stats.put("eventsReceived", eventsReceived.get());
+        stats.put("overflows", overflows.get());
+
+        Map<String, Object> byDeployment = new LinkedHashMap<>();
+        registrations.forEach((key, registration) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("directory", registration.directory.toString());
+            entry.put("eventTriggers", registration.eventTriggers.get());
+            entry.put("reconcileTriggers", registration.reconcileTriggers.get());
+            entry.put("executing", registration.executing.get());
+            byDeployment.put(key.toString(), entry);
+        });
+        stats.put("byDeployment", byDeployment);
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        timer.shutdownNow();
+        registrations.clear();
+        directories.clear();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error closing watch service: {}", e.getMessage());
+            }
+        }
+        logger.info("Directory watch registry shut down");
+    }
+
+    private WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            watcherThread = new Thread(this::watchLoop, "DirectoryWatch-Events");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        }
+        return watchService;
+    }
+
+    private void watchLoop() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            WatchedDirectory watched;
+            synchronized (this) {
+                watched = directories.get((Path) key.watchable());
+            }
+
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflows.incrementAndGet();
+                }
+                changed = true;
+            }
+            if (changed && watched != null) {
+                eventsReceived.incrementAndGet();
+                for (Registration registration : watched.registrations) {
+                    onDirectoryChanged(registration);
+                }
+            }
+
+            if (!key.reset()) {
+                logger.warn("Watched directory {} is no longer accessible, relying on reconciliation until it returns",
+                           key.watchable());
+                synchronized (this) {
+                    directories.values().removeIf(directory -> directory.key == key);
+                }
+            }
+        }
+    }
+
+    private void onDirectoryChanged(Registration registration) {
+        registration.lastEventNanos = System.nanoTime();
+        if (registration.debouncePending.compareAndSet(false, true)) {
+            scheduleDebounceCheck(registration, debounceMillis);
+        }
+    }
+
+    private void scheduleDebounceCheck(Registration registration, long delayMillis) {
+        try {
+            timer.schedule(() -> debounceElapsed(registration), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            registration.debouncePending.set(false);
+        }
+    }
+
+    private void debounceElapsed(Registration registration) {
+        long quietMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - registration.lastEventNanos);
+        if (quietMillis < debounceMillis) {
+            // Still being written; wait until the directory has been quiet for the full interval
+            scheduleDebounceCheck(registration, debounceMillis - quietMillis);
+            return;
+        }
+        registration.debouncePending.set(false);
+        if (registrations.get(registration.key) == registration) {
+            registration.eventTriggers.incrementAndGet();
+            execute(registration);
+        }
+    }
+
+    private void execute(Registration registration) {
+        if (!registration.executing.compareAndSet(false, true)) {
+            registration.rerunRequested.set(true);
+            return;
+        }
+        try {
+            executor.execute(() -> runTask(registration));
+        } catch (RejectedExecutionException e) {
+            registration.executing.set(false);
+            logger.warn("Executor rejected file pickup for deployment {}, reconciliation will retry: {}",
+                       registration.key, e.getMessage());
+        }
+    }
+
+    private void runTask(Registration registration) {
+        try {
+            registration.rerunRequested.set(false);
+            registration.lastRunNanos = System.nanoTime();
+            registration.task.run();
+        } catch (Exception e) {
+            logger.error("File pickup failed for deployment {}: {}", registration.key, e.getMessage(), e);
+        } finally {
+            registration.executing.set(false);
+        }
+        if (registration.rerunRequested.getAndSet(false) && registrations.get(registration.key) == registration) {
+            execute(registration);
+        }
+    }
+
+    private void reconcile() {
+        try {
+            reattachMissingDirectories();
+
+            long now = System.nanoTime();
+            for (Registration registration : registrations.values()) {
+                long idleMillis = TimeUnit.NANOSECONDS.toMillis(now - registration.lastRunNanos);
+                if (idleMillis >= reconcileIntervalMillis && !registration.executing.get()) {
+                    registration.reconcileTriggers.incrementAndGet();
+                    execute(registration);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Error during directory watch reconciliation: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void reattachMissingDirectories() {
+        for (Registration registration : registrations.values()) {
+            WatchedDirectory watched = directories.get(registration.directory);
+            if (watched == null) {
+                try {
+                    watched = new WatchedDirectory(registration.directory.register(getWatchService(),
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+                    directories.put(registration.directory, watched);
+                    logger.info("Re-established watch on {}", registration.directory);
+                } catch (IOException e) {
+                    logger.debug("Directory {} still not watchable: {}", registration.directory, e.getMessage());
+                    continue;
+                }
+            }
+            watched.registrations.add(registration);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.integrixs.core.service.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires adapter schedules for any number of deployments from one dispatcher thread.
+ *
+ * Triggers are kept in a priority queue ordered by next fire time; the dispatcher sleeps
+ * until the earliest one is due, hands its task to the executor and re-queues it. The
+ * next fire time is computed from the previous scheduled time rather than from when the
+ * task actually ran, so schedules do not drift. Fire times missed while the process was
+ * paused or the dispatcher was held up are skipped, not replayed. A schedule never runs
+ * concurrently with itself: a fire that comes due while the previous run is still going
+ * is skipped, as is one the executor rejects.
+ */
+public class FlowTriggerScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowTriggerScheduler.class);
+
+    private final Executor executor;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Trigger> queue =
+        new PriorityQueue<>(Comparator.comparing((Trigger trigger) -> trigger.nextFireTime));
+    private final Map<UUID, Trigger> triggers = new HashMap<>();
+    private final Thread dispatcher;
+    private final AtomicLong overlapsSkipped = new AtomicLong();
+    private final AtomicLong rejectedSkipped = new AtomicLong();
+    private volatile boolean running = true;
+
+    private static final class Trigger {
+        private final UUID key;
+        private final AdapterSchedule schedule;
+        private final Runnable task;
+        // Shared with the trigger that replaces this one, so a reschedule cannot overlap a running task
+        private final AtomicBoolean inFlight;
+        private Instant nextFireTime;
+
+        private Trigger(UUID key, AdapterSchedule schedule, Runnable task, Instant nextFireTime,
+                        AtomicBoolean inFlight) {
+            this.key = key;
+            this.schedule = schedule;
+            this.task = task;
+            this.nextFireTime = nextFireTime;
+            this.inFlight = inFlight;
+        }
+    }
+
+    public FlowTriggerScheduler(Executor executor, String threadName) {
+        this(executor, threadName, Clock.systemUTC());
+    }
+
+    FlowTriggerScheduler(Executor executor, String threadName, Clock clock) {
+        this.executor = executor;
+        this.clock = clock;
+        this.dispatcher = new Thread(this::dispatchLoop, threadName);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Schedule a task, replacing any schedule already registered under the key
+     *
+     * @return the first fire time
+     * @throws IllegalStateException if the schedule never fires
+     */
+    public Instant schedule(UUID key, AdapterSchedule schedule, Runnable task) {
+        Instant firstFireTime = schedule.nextFireTime(clock.instant());
+        if (firstFireTime == null) {
+            throw new IllegalStateException("Schedule never fires: " + schedule);
+        }
+
+        lock.lock();
+        try {
+            Trigger previous = triggers.remove(key);
+            if (previous != null) {
+                queue.remove(previous);
+            }
+            Trigger trigger = new Trigger(key, schedule, task, firstFireTime,
+                                          previous != null ? previous.inFlight : new AtomicBoolean());
+            triggers.put(key, trigger);
+            queue.add(trigger);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        return firstFireTime;
+    }
+
+    /**
+     * Cancel the schedule registered under the key
+     *
+     * @return true if a schedule was registered
+     */
+    public boolean cancel(UUID key) {
+        lock.lock();
+        try {
+            Trigger trigger = triggers.remove(key);
+            if (trigger == null) {
+                return false;
+            }
+            queue.remove(trigger);
+            changed.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isScheduled(UUID key) {
+        lock.lock();
+        try {
+            return triggers.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Keys of all registered schedules
+     */
+    public Set<UUID> scheduledKeys() {
+        lock.lock();
+        try {
+            return new HashSet<>(triggers.keySet());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Next fire time of the schedule registered under the key, or null if none
+     */
+    public Instant getNextFireTime(UUID key) {
+        lock.lock();
+        try {
+            Trigger trigger = triggers.get(key);
+            return trigger != null ? trigger.nextFireTime : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fires skipped because the previous run was still going, and because the executor was saturated
+     */
+    public long getOverlapsSkipped() {
+        return overlapsSkipped.get();
+    }
+
+    public long getRejectedSkipped() {
+        return rejectedSkipped.get();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return triggers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop dispatching and drop every schedule
+     */
+    public void shutdown() {
+        running = false;
+        lock.lock();
+        try {
+            triggers.clear();
+            queue.clear();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        dispatcher.interrupt();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            Trigger due;
+            lock.lock();
+            try {
+                Trigger head = queue.peek();
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                Instant now = clock.instant();
+                long waitNanos = Duration.between(now, head.nextFireTime).toNanos();
+                if (waitNanos > 0) {
+                    changed.awaitNanos(Math.min(waitNanos, TimeUnit.MINUTES.toNanos(1)));
+                    continue;
+                }
+
+                due = queue.poll();
+                Instant next = due.schedule.nextFireTime(due.nextFireTime);
+                if (next != null && !next.isAfter(now)) {
+                    logger.warn("Schedule for {} fell behind ({}), skipping missed fire times", due.key, due.schedule);
+                    next = due.schedule.nextFireTime(now);
+                }
+                if (next != null) {
+                    due.nextFireTime = next;
+                    queue.add(due);
+                } else {
+                    triggers.remove(due.key);
+                    logger.info("Schedule for {} has no further fire times ({})", due.key, due.schedule);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            dispatch(due);
+        }
+    }
+
+    private void dispatch(Trigger trigger) {
+        if (!trigger.inFlight.compareAndSet(false, true)) {
+            overlapsSkipped.incrementAndGet();
+            logger.debug("Previous run for {} still in progress, skipping this fire time", trigger.key);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    trigger.task.run();
+                } catch (Exception e) {
+                    logger.error("Error executing scheduled task for {}: {}", trigger.key, e.getMessage(), e);
+                } finally {
+                    trigger.inFlight.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            trigger.inFlight.set(false);
+            rejectedSkipped.incrementAndGet();
+            logger.warn("Executor rejected scheduled task for {}, skipping this fire time: {}", trigger.key, e.getMessage());
+        }
+    }
+}
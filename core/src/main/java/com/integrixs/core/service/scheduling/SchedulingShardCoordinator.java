@@ -0,0 +1,320 @@
+package com.integrixs.core.service.scheduling;
+
+import com.integrixs.core.repository.SchedulerClusterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads deployed flow scheduling over all backend nodes sharing the database.
+ *
+ * Deployments are hashed onto a fixed number of shards. Every heartbeat a node renews
+ * its shard leases, gives back shards above its fair share (shards divided by live
+ * nodes, rounded up) and takes free or expired shards below it, so shards move to a
+ * node that joins and away from a node that stops within one lease TTL. A node only
+ * polls deployments in shards whose lease it holds, and stops treating its leases as
+ * valid once the TTL has passed without a successful renewal, before another node
+ * can take them over.
+ *
+ * Running executions hold a leased slot in deployment_execution_slots, which enforces
+ * a deployment's concurrency limit across nodes. Slots are renewed with the heartbeat
+ * while their execution runs and expire if the node dies.
+ *
+ * When clustering is disabled every node owns every deployment and no slots are used.
+ */
+@Component
+public class SchedulingShardCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingShardCoordinator.class);
+
+    /**
+     * Notified, on the heartbeat thread, after this node's shard ownership changes.
+     * Revocations are delivered before the shards are released to other nodes.
+     */
+    public interface OwnershipListener {
+        void onShardsAssigned(Set<Integer> shards);
+
+        void onShardsRevoked(Set<Integer> shards);
+    }
+
+    private final SchedulerClusterRepository clusterRepository;
+    private final boolean enabled;
+    private final String nodeId;
+    private final String hostname;
+    private final int shardCount;
+    private final long leaseTtlMillis;
+    private final long executionSlotTtlMillis;
+    private final List<OwnershipListener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<UUID> heldSlots = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<Integer> ownedShards = Collections.emptySet();
+    private volatile long leaseValidUntilNanos = System.nanoTime();
+    private volatile int liveNodes;
+
+    private final AtomicLong shardsAcquired = new AtomicLong();
+    private final AtomicLong shardsReleased = new AtomicLong();
+    private final AtomicLong heartbeatFailures = new AtomicLong();
+    private final AtomicLong slotRejections = new AtomicLong();
+
+    public SchedulingShardCoordinator(SchedulerClusterRepository clusterRepository,
+                                      @Value("${h2h.scheduler.cluster.enabled:false}") boolean enabled,
+                                      @Value("${h2h.scheduler.cluster.node-id:}") String nodeId,
+                                      @Value("${h2h.scheduler.cluster.shard-count:64}") int shardCount,
+                                      @Value("${h2h.scheduler.cluster.heartbeat-interval-ms:10000}") long heartbeatIntervalMillis,
+                                      @Value("${h2h.scheduler.cluster.lease-ttl-ms:30000}") long leaseTtlMillis,
+                                      @Value("${h2h.scheduler.cluster.execution-slot-ttl-ms:120000}") long executionSlotTtlMillis) {
+        this.clusterRepository = clusterRepository;
+        this.enabled = enabled;
+        this.hostname = resolveHostname();
+        this.nodeId = nodeId != null && !nodeId.isBlank()
+            ? nodeId.trim()
+            : hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.shardCount = Math.max(1, shardCount);
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.executionSlotTtlMillis = executionSlotTtlMillis;
+
+        if (enabled && leaseTtlMillis < 2 * heartbeatIntervalMillis) {
+            logger.warn("Shard lease TTL {}ms is less than twice the heartbeat interval {}ms; leases may lapse between heartbeats",
+                       leaseTtlMillis, heartbeatIntervalMillis);
+        }
+        if (enabled && executionSlotTtlMillis < 2 * heartbeatIntervalMillis) {
+            logger.warn("Execution slot TTL {}ms is less than twice the heartbeat interval {}ms; slots of running executions may expire",
+                       executionSlotTtlMillis, heartbeatIntervalMillis);
+        }
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        logger.info("Clustered scheduling enabled: node {} with {} shards, lease TTL {}ms",
+                   nodeId, shardCount, leaseTtlMillis);
+        try {
+            clusterRepository.ensureShards(shardCount);
+            // Slots left by a previous run under the same node id belong to executions that no longer run
+            clusterRepository.deleteExecutionSlotsOfNode(nodeId);
+        } catch (Exception e) {
+            logger.error("Failed to initialize scheduler cluster tables: {}", e.getMessage(), e);
+        }
+        heartbeat();
+    }
+
+    public void addOwnershipListener(OwnershipListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int shardOf(UUID deploymentId) {
+        return Math.floorMod(deploymentId.hashCode(), shardCount);
+    }
+
+    /**
+     * Whether this node should poll the deployment: always when clustering is disabled,
+     * otherwise only while it holds an unexpired lease on the deployment's shard
+     */
+    public boolean ownsDeployment(UUID deploymentId) {
+        if (!enabled) {
+            return true;
+        }
+        return System.nanoTime() - leaseValidUntilNanos < 0 && ownedShards.contains(shardOf(deploymentId));
+    }
+
+    /**
+     * Renew this node's leases and rebalance shards towards its fair share
+     */
+    @Scheduled(fixedDelayString = "${h2h.scheduler.cluster.heartbeat-interval-ms:10000}")
+    public synchronized void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+
+        // Measured before renewing, so the local deadline never outlasts the database lease
+        long renewStartedNanos = System.nanoTime();
+        try {
+            clusterRepository.heartbeat(nodeId, hostname);
+            clusterRepository.deleteStaleNodes(leaseTtlMillis * 10);
+            liveNodes = Math.max(1, clusterRepository.countLiveNodes(leaseTtlMillis));
+            int fairShare = (shardCount + liveNodes - 1) / liveNodes;
+
+            Set<Integer> owned = new TreeSet<>(clusterRepository.renewShardLeases(nodeId, leaseTtlMillis, shardCount));
+            leaseValidUntilNanos = renewStartedNanos + TimeUnit.MILLISECONDS.toNanos(leaseTtlMillis);
+
+            if (owned.size() > fairShare) {
+                List<Integer> excess = owned.stream()
+                    .sorted(Comparator.reverseOrder())
+                    .limit(owned.size() - fairShare)
+                    .toList();
+                owned.removeAll(excess);
+                // Stop polling the shards before another node can take them
+                updateOwnership(owned);
+                shardsReleased.addAndGet(clusterRepository.releaseShardLeases(nodeId, excess));
+                logger.info("Released {} shard(s) to rebalance across {} node(s): {}", excess.size(), liveNodes, excess);
+            } else {
+                if (owned.size() < fairShare) {
+                    List<Integer> acquired = clusterRepository.acquireFreeShards(nodeId, fairShare - owned.size(),
+                        leaseTtlMillis, shardCount);
+                    if (!acquired.isEmpty()) {
+                        owned.addAll(acquired);
+                        shardsAcquired.addAndGet(acquired.size());
+                        logger.info("Acquired {} shard(s), now owning {} of {} across {} node(s)",
+                                   acquired.size(), owned.size(), shardCount, liveNodes);
+                    }
+                }
+                updateOwnership(owned);
+            }
+
+            renewExecutionSlots();
+        } catch (Exception e) {
+            heartbeatFailures.incrementAndGet();
+            logger.warn("Scheduler cluster heartbeat failed for node {}: {}", nodeId, e.getMessage());
+            if (System.nanoTime() - leaseValidUntilNanos >= 0 && !ownedShards.isEmpty()) {
+                logger.warn("Shard leases of node {} have expired, stopping scheduling of {} shard(s)",
+                           nodeId, ownedShards.size());
+                updateOwnership(Collections.emptySet());
+            }
+        }
+    }
+
+    private void updateOwnership(Set<Integer> owned) {
+        Set<Integer> previous = ownedShards;
+        Set<Integer> revoked = new TreeSet<>(previous);
+        revoked.removeAll(owned);
+        Set<Integer> assigned = new TreeSet<>(owned);
+        assigned.removeAll(previous);
+
+        ownedShards = Collections.unmodifiableSet(new TreeSet<>(owned));
+
+        for (OwnershipListener listener : listeners) {
+            try {
+                if (!revoked.isEmpty()) {
+                    listener.onShardsRevoked(revoked);
+                }
+                if (!assigned.isEmpty()) {
+                    listener.onShardsAssigned(assigned);
+                }
+            } catch (Exception e) {
+                logger.error("Shard ownership listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Take a running-execution slot of the deployment if fewer than maxConcurrent are held across the cluster
+     *
+     * @return the slot id to release when the execution ends, or null if the deployment is at its limit
+     */
+    public UUID tryAcquireExecutionSlot(UUID deploymentId, int maxConcurrent) {
+        UUID slotId = UUID.randomUUID();
+        heldSlots.add(slotId);
+        boolean acquired = false;
+        try {
+            acquired = clusterRepository.tryAcquireExecutionSlot(slotId, deploymentId, nodeId,
+                maxConcurrent, executionSlotTtlMillis);
+        } finally {
+            if (!acquired) {
+                heldSlots.remove(slotId);
+            }
+        }
+        if (!acquired) {
+            slotRejections.incrementAndGet();
+            return null;
+        }
+        return slotId;
+    }
+
+    public void releaseExecutionSlot(UUID slotId) {
+        // No longer renewed from here on, so the slot expires even if the delete fails
+        heldSlots.remove(slotId);
+        try {
+            clusterRepository.releaseExecutionSlot(slotId);
+        } catch (Exception e) {
+            logger.warn("Failed to release execution slot {}, it expires in {}ms: {}",
+                       slotId, executionSlotTtlMillis, e.getMessage());
+        }
+    }
+
+    public int countExecutionSlots(UUID deploymentId) {
+        return clusterRepository.countExecutionSlots(deploymentId);
+    }
+
+    private void renewExecutionSlots() {
+        clusterRepository.renewExecutionSlots(nodeId, List.copyOf(heldSlots), executionSlotTtlMillis);
+        clusterRepository.deleteExpiredExecutionSlots();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        stats.put("nodeId", nodeId);
+        stats.put("shardCount", shardCount);
+        stats.put("ownedShards", ownedShards.size());
+        stats.put("leaseValid", System.nanoTime() - leaseValidUntilNanos < 0);
+        stats.put("liveNodes", liveNodes);
+        stats.put("heldExecutionSlots", heldSlots.size());
+        stats.put("shardsAcquired", shardsAcquired.get());
+        stats.put("shardsReleased", shardsReleased.get());
+        stats.put("slotRejections", slotRejections.get());
+        stats.put("heartbeatFailures", heartbeatFailures.get());
+        try {
+            stats.put("nodes", clusterRepository.findLiveNodes(leaseTtlMillis));
+        } catch (Exception e) {
+            logger.debug("Could not read scheduler cluster nodes: {}", e.getMessage());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        // Hand the shards over at once instead of letting other nodes wait for the leases to expire
+        ownedShards = Collections.emptySet();
+        try {
+            clusterRepository.releaseAllShardLeases(nodeId);
+            clusterRepository.deleteExecutionSlotsOfNode(nodeId);
+            clusterRepository.deleteNode(nodeId);
+            logger.info("Node {} left the scheduler cluster", nodeId);
+        } catch (Exception e) {
+            logger.warn("Failed to release shard leases of node {}, they expire in {}ms: {}",
+                       nodeId, leaseTtlMillis, e.getMessage());
+        }
+    }
+
+    private static String resolveHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
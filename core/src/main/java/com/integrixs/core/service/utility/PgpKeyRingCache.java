@@ -0,0 +1,213 @@
+package com.integrixs.core.service.utility;
+
+import com.integrixs.core.repository.PgpKeyRepository;
+import com.integrixs.shared.model.PgpKey;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKeyRing;
+import org.bouncycastle.openpgp.PGPPublicKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSecretKeyRing;
+import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.bc.BcKeyFingerprintCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of parsed PGP key rings, keyed by primary key fingerprint.
+ *
+ * Keys are referenced either by fingerprint (stored in pgp_keys) or by key file path.
+ * Key files are re-parsed only when their modification time or size changes, stored
+ * keys only after they are invalidated (delete, revoke or re-import).
+ */
+@Component
+public class PgpKeyRingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgpKeyRingCache.class);
+
+    private final PgpKeyRepository pgpKeyRepository;
+
+    private final Map<String, PGPPublicKeyRing> publicRings = new ConcurrentHashMap<>();
+    private final Map<String, PGPSecretKeyRing> secretRings = new ConcurrentHashMap<>();
+    private final Map<Path, KeyFileStamp> keyFiles = new ConcurrentHashMap<>();
+
+    private static final class KeyFileStamp {
+        private final FileTime lastModified;
+        private final long size;
+        private final String fingerprint;
+
+        private KeyFileStamp(FileTime lastModified, long size, String fingerprint) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean matches(FileTime lastModified, long size) {
+            return this.lastModified.equals(lastModified) && this.size == size;
+        }
+    }
+
+    @Autowired
+    public PgpKeyRingCache(PgpKeyRepository pgpKeyRepository) {
+        this.pgpKeyRepository = pgpKeyRepository;
+    }
+
+    /**
+     * Public key ring of a key stored in pgp_keys
+     */
+    public PGPPublicKeyRing getPublicKeyRing(String fingerprint) throws IOException, PGPException {
+        String normalized = normalizeFingerprint(fingerprint);
+        PGPPublicKeyRing ring = publicRings.get(normalized);
+        if (ring == null) {
+            PgpKey pgpKey = loadStoredKey(normalized);
+            ring = parsePublicKeyRing(new ByteArrayInputStream(pgpKey.getPublicKey().getBytes(StandardCharsets.UTF_8)));
+            publicRings.put(normalized, ring);
+        }
+        return ring;
+    }
+
+    /**
+     * Secret key ring of a key stored in pgp_keys
+     */
+    public PGPSecretKeyRing getSecretKeyRing(String fingerprint) throws IOException, PGPException {
+        String normalized = normalizeFingerprint(fingerprint);
+        PGPSecretKeyRing ring = secretRings.get(normalized);
+        if (ring == null) {
+            PgpKey pgpKey = loadStoredKey(normalized);
+            if (!pgpKey.hasPrivateKey()) {
+                throw new PGPException("PGP key " + normalized + " has no private key");
+            }
+            ring = parseSecretKeyRing(new ByteArrayInputStream(pgpKey.getPrivateKey().getBytes(StandardCharsets.UTF_8)));
+            secretRings.put(normalized, ring);
+        }
+        return ring;
+    }
+
+    /**
+     * Public key ring read from a key file (armored or binary)
+     */
+    public PGPPublicKeyRing getPublicKeyRing(Path keyFile) throws IOException, PGPException {
+        String fingerprint = currentFingerprint(keyFile);
+        PGPPublicKeyRing ring = fingerprint != null ? publicRings.get(fingerprint) : null;
+        if (ring == null) {
+            try (InputStream in = Files.newInputStream(keyFile)) {
+                ring = parsePublicKeyRing(in);
+            }
+            fingerprint = fingerprint(ring.getPublicKey().getFingerprint());
+            publicRings.put(fingerprint, ring);
+            stamp(keyFile, fingerprint);
+        }
+        return ring;
+    }
+
+    /**
+     * Secret key ring read from a key file (armored or binary)
+     */
+    public PGPSecretKeyRing getSecretKeyRing(Path keyFile) throws IOException, PGPException {
+        String fingerprint = currentFingerprint(keyFile);
+        PGPSecretKeyRing ring = fingerprint != null ? secretRings.get(fingerprint) : null;
+        if (ring == null) {
+            try (InputStream in = Files.newInputStream(keyFile)) {
+                ring = parseSecretKeyRing(in);
+            }
+            fingerprint = fingerprint(ring.getPublicKey().getFingerprint());
+            secretRings.put(fingerprint, ring);
+            stamp(keyFile, fingerprint);
+        }
+        return ring;
+    }
+
+    /**
+     * Drop the cached rings of a key, e.g. after it was deleted or revoked
+     */
+    public void invalidate(String fingerprint) {
+        if (fingerprint == null) {
+            return;
+        }
+        String normalized = normalizeFingerprint(fingerprint);
+        publicRings.remove(normalized);
+        secretRings.remove(normalized);
+        keyFiles.values().removeIf(stamp -> stamp.fingerprint.equals(normalized));
+        logger.debug("Invalidated cached PGP key rings for fingerprint {}", normalized);
+    }
+
+    public int size() {
+        return publicRings.size() + secretRings.size();
+    }
+
+    /**
+     * Fingerprint in the format used by pgp_keys (upper-case hex)
+     */
+    static String fingerprint(byte[] fingerprint) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : fingerprint) {
+            hex.append(String.format("%02X", b));
+        }
+        return hex.toString();
+    }
+
+    private PgpKey loadStoredKey(String fingerprint) throws PGPException {
+        Optional<PgpKey> pgpKey = pgpKeyRepository.findByFingerprint(fingerprint);
+        if (pgpKey.isEmpty()) {
+            throw new PGPException("PGP key not found: " + fingerprint);
+        }
+        if (pgpKey.get().isRevoked()) {
+            throw new PGPException("PGP key " + fingerprint + " is revoked");
+        }
+        return pgpKey.get();
+    }
+
+    /**
+     * Fingerprint cached for a key file if the file is unchanged since it was parsed
+     */
+    private String currentFingerprint(Path keyFile) throws IOException {
+        KeyFileStamp stamp = keyFiles.get(keyFile);
+        if (stamp != null && stamp.matches(Files.getLastModifiedTime(keyFile), Files.size(keyFile))) {
+            return stamp.fingerprint;
+        }
+        return null;
+    }
+
+    private void stamp(Path keyFile, String fingerprint) throws IOException {
+        keyFiles.put(keyFile, new KeyFileStamp(Files.getLastModifiedTime(keyFile), Files.size(keyFile), fingerprint));
+        logger.debug("Cached PGP key ring {} from {}", fingerprint, keyFile);
+    }
+
+    private static PGPPublicKeyRing parsePublicKeyRing(InputStream in) throws IOException, PGPException {
+        PGPPublicKeyRingCollection rings = new PGPPublicKeyRingCollection(
+            PGPUtil.getDecoderStream(in), new BcKeyFingerprintCalculator());
+        Iterator<PGPPublicKeyRing> iterator = rings.getKeyRings();
+        if (!iterator.hasNext()) {
+            throw new PGPException("No public key ring found");
+        }
+        return iterator.next();
+    }
+
+    private static PGPSecretKeyRing parseSecretKeyRing(InputStream in) throws IOException, PGPException {
+        PGPSecretKeyRingCollection rings = new PGPSecretKeyRingCollection(
+            PGPUtil.getDecoderStream(in), new BcKeyFingerprintCalculator());
+        Iterator<PGPSecretKeyRing> iterator = rings.getKeyRings();
+        if (!iterator.hasNext()) {
+            throw new PGPException("No secret key ring found");
+        }
+        return iterator.next();
+    }
+
+    private static String normalizeFingerprint(String fingerprint) {
+        return fingerprint.replace(" ", "").toUpperCase(Locale.ROOT);
+    }
+}
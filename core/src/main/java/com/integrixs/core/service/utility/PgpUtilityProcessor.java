@@ -1,24 +1,108 @@
 package com.integrixs.core.service.utility;
 
 import com.integrixs.shared.model.FlowExecutionStep;
+import org.bouncycastle.bcpg.ArmoredOutputStream;
+import org.bouncycastle.bcpg.CompressionAlgorithmTags;
+import org.bouncycastle.bcpg.HashAlgorithmTags;
+import org.bouncycastle.bcpg.SymmetricKeyAlgorithmTags;
+import org.bouncycastle.openpgp.PGPCompressedData;
+import org.bouncycastle.openpgp.PGPCompressedDataGenerator;
+import org.bouncycastle.openpgp.PGPEncryptedData;
+import org.bouncycastle.openpgp.PGPEncryptedDataGenerator;
+import org.bouncycastle.openpgp.PGPEncryptedDataList;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPLiteralData;
+import org.bouncycastle.openpgp.PGPLiteralDataGenerator;
+import org.bouncycastle.openpgp.PGPOnePassSignature;
+import org.bouncycastle.openpgp.PGPOnePassSignatureList;
+import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPPublicKeyEncryptedData;
+import org.bouncycastle.openpgp.PGPPublicKeyRing;
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.bouncycastle.openpgp.PGPSecretKeyRing;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.bc.BcPGPObjectFactory;
+import org.bouncycastle.openpgp.operator.PBESecretKeyDecryptor;
+import org.bouncycastle.openpgp.operator.bc.BcPBESecretKeyDecryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentSignerBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDataEncryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
+import org.bouncycastle.openpgp.operator.bc.BcPublicKeyDataDecryptorFactory;
+import org.bouncycastle.openpgp.operator.bc.BcPublicKeyKeyEncryptionMethodGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * Utility processor for PGP encryption and decryption operations
  * Handles PGP encrypt, decrypt operations following Single Responsibility Principle
+ *
+ * Files are streamed through BouncyCastle OpenPGP (literal data, optional signature,
+ * compression, encryption) with fixed-size buffers, so memory use does not depend on
+ * file size. Files of a directory are processed in parallel on the utility executor.
  */
 @Service
 public class PgpUtilityProcessor extends AbstractUtilityProcessor {
     
     private static final String UTILITY_TYPE = "PGP";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String PART_SUFFIX = ".part";
+    
     private final SecureRandom secureRandom = new SecureRandom();
+    private final PgpKeyRingCache keyRingCache;
+    private final Executor fileExecutor;
+    
+    @Autowired
+    public PgpUtilityProcessor(PgpKeyRingCache keyRingCache,
+                               @Qualifier("utilityTaskExecutor") Executor fileExecutor) {
+        this.keyRingCache = keyRingCache;
+        this.fileExecutor = fileExecutor;
+    }
+    
+    /**
+     * Outcome of processing one file of a directory
+     */
+    private static final class FileOutcome {
+        private final Path sourceFile;
+        private final Path targetFile;
+        private final long sizeBytes;
+        private final String error;
+        
+        private FileOutcome(Path sourceFile, Path targetFile, long sizeBytes, String error) {
+            this.sourceFile = sourceFile;
+            this.targetFile = targetFile;
+            this.sizeBytes = sizeBytes;
+            this.error = error;
+        }
+    }
+    
+    /**
+     * Streaming operation applied to a single file
+     */
+    @FunctionalInterface
+    private interface FileOperation {
+        FileOutcome process(Path sourceFile) throws Exception;
+    }
     
     @Override
     public String getUtilityType() {
@@ -27,8 +111,8 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
     
     @Override
     public Map<String, Object> executeUtility(
-            FlowExecutionStep step, 
-            Map<String, Object> context, 
+            FlowExecutionStep step,
+            Map<String, Object> context,
             Map<String, Object> configuration) {
         
         logExecutionStart(step, "PGP utility");
@@ -45,7 +129,7 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
                 default:
                     throw new IllegalArgumentException("Unsupported PGP operation: " + operation);
             }
-            
+        
         } catch (Exception e) {
             logExecutionError(step, "PGP utility", e);
             return createErrorResult("PGP utility execution failed: " + e.getMessage(), e);
@@ -59,25 +143,31 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
      * Execute PGP encryption
      */
     private Map<String, Object> executePgpEncrypt(
-            FlowExecutionStep step, 
-            Map<String, Object> context, 
+            FlowExecutionStep step,
+            Map<String, Object> context,
             Map<String, Object> configuration) {
         
         try {
             // Validate required configuration
-            validateConfiguration(configuration, "sourceDirectory", "targetDirectory", "publicKeyPath");
+            validateConfiguration(configuration, "sourceDirectory", "targetDirectory");
             
             String sourceDirectory = (String) configuration.get("sourceDirectory");
             String targetDirectory = (String) configuration.get("targetDirectory");
-            String publicKeyPath = (String) configuration.get("publicKeyPath");
             String algorithm = getConfigValue(configuration, "algorithm", "AES256");
+            String compression = getConfigValue(configuration, "compression", "ZIP");
+            boolean armor = getConfigValue(configuration, "armor", false);
             boolean deleteSourceFiles = getConfigValue(configuration, "deleteSourceFiles", false);
             String filePattern = getConfigValue(configuration, "filePattern", "*");
             
             // Validate paths
             validateFilePath(sourceDirectory);
             validateFilePath(targetDirectory);
-            validateFilePath(publicKeyPath);
+            
+            // Resolve keys once for the whole directory
+            PGPPublicKey encryptionKey = findEncryptionKey(resolvePublicKeyRing(configuration, "publicKey"));
+            PGPPrivateKey signingKey = resolveSigningKey(configuration);
+            int cipher = symmetricAlgorithm(algorithm);
+            int compressionAlgorithm = compressionAlgorithm(compression);
             
             // Ensure directories exist
             ensureDirectoryExists(targetDirectory);
@@ -90,53 +180,32 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
             }
             
             // Get files to encrypt
-            List<Path> filesToEncrypt = new ArrayList<>();
-            Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    if (matchesPattern(file.getFileName().toString(), filePattern)) {
-                        filesToEncrypt.add(file);
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+            List<Path> filesToEncrypt = listFiles(sourcePath, filePattern);
             
             if (filesToEncrypt.isEmpty()) {
-                return createSuccessResult("No files found matching pattern: " + filePattern, 
+                return createSuccessResult("No files found matching pattern: " + filePattern,
                     Collections.singletonMap("filesProcessed", 0));
             }
             
             // Encrypt files
+            List<FileOutcome> outcomes = processFiles(filesToEncrypt, deleteSourceFiles, sourceFile -> {
+                Path encryptedFile = targetPath.resolve(sourceFile.getFileName() + (armor ? ".asc" : ".pgp"));
+                encryptFile(sourceFile, encryptedFile, encryptionKey, signingKey, cipher, compressionAlgorithm, armor);
+                return new FileOutcome(sourceFile, encryptedFile, Files.size(sourceFile), null);
+            });
+            
             List<String> encryptedFiles = new ArrayList<>();
             long totalSize = 0;
-            int successCount = 0;
             List<String> errors = new ArrayList<>();
-            
-            for (Path sourceFile : filesToEncrypt) {
-                try {
-                    String encryptedFileName = sourceFile.getFileName() + ".pgp";
-                    Path encryptedFile = targetPath.resolve(encryptedFileName);
-                    
-                    boolean encrypted = encryptFile(sourceFile, encryptedFile, publicKeyPath, algorithm);
-                    
-                    if (encrypted) {
-                        encryptedFiles.add(encryptedFile.toString());
-                        totalSize += Files.size(sourceFile);
-                        successCount++;
-                        
-                        // Delete source file if requested
-                        if (deleteSourceFiles) {
-                            Files.delete(sourceFile);
-                            logger.debug("Deleted source file: {}", sourceFile);
-                        }
-                    }
-                    
-                } catch (Exception e) {
-                    String error = "Failed to encrypt file " + sourceFile + ": " + e.getMessage();
-                    errors.add(error);
-                    logger.error("Encryption error: {}", error, e);
+            for (FileOutcome outcome : outcomes) {
+                if (outcome.error == null) {
+                    encryptedFiles.add(outcome.targetFile.toString());
+                    totalSize += outcome.sizeBytes;
+                } else {
+                    errors.add("Failed to encrypt file " + outcome.sourceFile + ": " + outcome.error);
                 }
             }
+            int successCount = encryptedFiles.size();
             
             // Update execution context
             updateExecutionContext(context, "pgpEncryptedFiles", encryptedFiles);
@@ -149,6 +218,9 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
             resultData.put("totalSizeBytes", totalSize);
             resultData.put("encryptedFiles", encryptedFiles);
             resultData.put("algorithm", algorithm);
+            resultData.put("compression", compression);
+            resultData.put("signed", signingKey != null);
+            resultData.put("recipientKeyId", Long.toHexString(encryptionKey.getKeyID()).toUpperCase());
             resultData.put("sourceDirectory", sourceDirectory);
             resultData.put("targetDirectory", targetDirectory);
             resultData.put("deletedSourceFiles", deleteSourceFiles);
@@ -157,11 +229,11 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
                 resultData.put("errors", errors);
             }
             
-            String message = String.format("Successfully encrypted %d of %d files using %s", 
+            String message = String.format("Successfully encrypted %d of %d files using %s",
                 successCount, filesToEncrypt.size(), algorithm);
             
             return createSuccessResult(message, resultData);
-            
+        
         } catch (Exception e) {
             logger.error("PGP encryption failed", e);
             return createErrorResult("PGP encryption failed: " + e.getMessage(), e);
@@ -172,17 +244,16 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
      * Execute PGP decryption
      */
     private Map<String, Object> executePgpDecrypt(
-            FlowExecutionStep step, 
-            Map<String, Object> context, 
+            FlowExecutionStep step,
+            Map<String, Object> context,
             Map<String, Object> configuration) {
         
         try {
             // Validate required configuration
-            validateConfiguration(configuration, "sourceDirectory", "targetDirectory", "privateKeyPath", "passphrase");
+            validateConfiguration(configuration, "sourceDirectory", "targetDirectory", "passphrase");
             
             String sourceDirectory = (String) configuration.get("sourceDirectory");
             String targetDirectory = (String) configuration.get("targetDirectory");
-            String privateKeyPath = (String) configuration.get("privateKeyPath");
             String passphrase = (String) configuration.get("passphrase");
             boolean deleteSourceFiles = getConfigValue(configuration, "deleteSourceFiles", false);
             String filePattern = getConfigValue(configuration, "filePattern", "*.pgp");
@@ -190,7 +261,14 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
             // Validate paths
             validateFilePath(sourceDirectory);
             validateFilePath(targetDirectory);
-            validateFilePath(privateKeyPath);
+            
+            // Resolve keys once for the whole directory; private keys are unlocked lazily per key id
+            PGPSecretKeyRing secretKeyRing = resolveSecretKeyRing(configuration, "privateKey");
+            PGPPublicKeyRing verificationKeyRing = hasKeyReference(configuration, "verificationKey")
+                ? resolvePublicKeyRing(configuration, "verificationKey") : null;
+            Map<Long, PGPPrivateKey> unlockedKeys = new ConcurrentHashMap<>();
+            Function<Long, PGPPrivateKey> privateKeys = keyId -> unlockedKeys.computeIfAbsent(keyId,
+                id -> unlockPrivateKey(secretKeyRing.getSecretKey(id), passphrase));
             
             // Ensure directories exist
             ensureDirectoryExists(targetDirectory);
@@ -203,56 +281,38 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
             }
             
             // Get files to decrypt
-            List<Path> filesToDecrypt = new ArrayList<>();
-            Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    if (matchesPattern(file.getFileName().toString(), filePattern)) {
-                        filesToDecrypt.add(file);
-                    }
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+            List<Path> filesToDecrypt = listFiles(sourcePath, filePattern);
             
             if (filesToDecrypt.isEmpty()) {
-                return createSuccessResult("No files found matching pattern: " + filePattern, 
+                return createSuccessResult("No files found matching pattern: " + filePattern,
                     Collections.singletonMap("filesProcessed", 0));
             }
             
             // Decrypt files
+            List<FileOutcome> outcomes = processFiles(filesToDecrypt, deleteSourceFiles, sourceFile -> {
+                String fileName = sourceFile.getFileName().toString();
+                // Remove .pgp/.gpg/.asc extension
+                String lowerName = fileName.toLowerCase();
+                String decryptedFileName = lowerName.endsWith(".pgp") || lowerName.endsWith(".gpg") || lowerName.endsWith(".asc")
+                    ? fileName.substring(0, fileName.length() - 4) : fileName + ".decrypted";
+                Path decryptedFile = targetPath.resolve(decryptedFileName);
+                
+                decryptFile(sourceFile, decryptedFile, privateKeys, verificationKeyRing);
+                return new FileOutcome(sourceFile, decryptedFile, Files.size(decryptedFile), null);
+            });
+            
             List<String> decryptedFiles = new ArrayList<>();
             long totalSize = 0;
-            int successCount = 0;
             List<String> errors = new ArrayList<>();
-            
-            for (Path sourceFile : filesToDecrypt) {
-                try {
-                    String fileName = sourceFile.getFileName().toString();
-                    // Remove .pgp extension
-                    String decryptedFileName = fileName.endsWith(".pgp") ? 
-                        fileName.substring(0, fileName.length() - 4) : fileName + ".decrypted";
-                    Path decryptedFile = targetPath.resolve(decryptedFileName);
-                    
-                    boolean decrypted = decryptFile(sourceFile, decryptedFile, privateKeyPath, passphrase);
-                    
-                    if (decrypted) {
-                        decryptedFiles.add(decryptedFile.toString());
-                        totalSize += Files.size(decryptedFile);
-                        successCount++;
-                        
-                        // Delete source file if requested
-                        if (deleteSourceFiles) {
-                            Files.delete(sourceFile);
-                            logger.debug("Deleted source file: {}", sourceFile);
-                        }
-                    }
-                    
-                } catch (Exception e) {
-                    String error = "Failed to decrypt file " + sourceFile + ": " + e.getMessage();
-                    errors.add(error);
-                    logger.error("Decryption error: {}", error, e);
+            for (FileOutcome outcome : outcomes) {
+                if (outcome.error == null) {
+                    decryptedFiles.add(outcome.targetFile.toString());
+                    totalSize += outcome.sizeBytes;
+                } else {
+                    errors.add("Failed to decrypt file " + outcome.sourceFile + ": " + outcome.error);
                 }
             }
+            int successCount = decryptedFiles.size();
             
             // Update execution context
             updateExecutionContext(context, "pgpDecryptedFiles", decryptedFiles);
@@ -264,6 +324,7 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
             resultData.put("totalFiles", filesToDecrypt.size());
             resultData.put("totalSizeBytes", totalSize);
             resultData.put("decryptedFiles", decryptedFiles);
+            resultData.put("signatureVerified", verificationKeyRing != null);
             resultData.put("sourceDirectory", sourceDirectory);
             resultData.put("targetDirectory", targetDirectory);
             resultData.put("deletedSourceFiles", deleteSourceFiles);
@@ -272,11 +333,11 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
                 resultData.put("errors", errors);
             }
             
-            String message = String.format("Successfully decrypted %d of %d files", 
+            String message = String.format("Successfully decrypted %d of %d files",
                 successCount, filesToDecrypt.size());
             
             return createSuccessResult(message, resultData);
-            
+        
         } catch (Exception e) {
             logger.error("PGP decryption failed", e);
             return createErrorResult("PGP decryption failed: " + e.getMessage(), e);
@@ -284,100 +345,325 @@ public class PgpUtilityProcessor extends AbstractUtilityProcessor {
     }
     
     /**
-     * Encrypt a single file
-     * Note: This is a simplified implementation for demonstration.
-     * In production, use a proper PGP library like BouncyCastle.
+     * Run an operation over every file on the utility executor and collect outcomes in file order.
+     * A failing file is reported in its outcome and does not stop the others.
      */
-    private boolean encryptFile(Path sourceFile, Path targetFile, String publicKeyPath, String algorithm) {
-        try {
-            logger.info("Encrypting file: {} -> {} using {}", sourceFile, targetFile, algorithm);
-            
-            // Simulate PGP encryption
-            // In production, implement actual PGP encryption using BouncyCastle
-            byte[] fileContent = Files.readAllBytes(sourceFile);
-            byte[] encryptedContent = simulateEncryption(fileContent, algorithm);
-            
-            Files.write(targetFile, encryptedContent);
-            
-            logger.debug("Successfully encrypted file: {} (size: {} -> {} bytes)", 
-                sourceFile.getFileName(), fileContent.length, encryptedContent.length);
+    private List<FileOutcome> processFiles(List<Path> files, boolean deleteSourceFiles, FileOperation operation) {
+        List<CompletableFuture<FileOutcome>> futures = new ArrayList<>();
+        for (Path sourceFile : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    FileOutcome outcome = operation.process(sourceFile);
+                    
+                    // Delete source file if requested
+                    if (deleteSourceFiles) {
+                        Files.delete(sourceFile);
+                        logger.debug("Deleted source file: {}", sourceFile);
+                    }
+                    return outcome;
+                } catch (Exception e) {
+                    logger.error("PGP processing error for file {}: {}", sourceFile, e.getMessage(), e);
+                    return new FileOutcome(sourceFile, null, 0, e.getMessage());
+                }
+            }, fileExecutor));
+        }
+        
+        List<FileOutcome> outcomes = new ArrayList<>();
+        for (CompletableFuture<FileOutcome> future : futures) {
+            try {
+                outcomes.add(future.join());
+            } catch (CompletionException e) {
+                outcomes.add(new FileOutcome(null, null, 0, e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            }
+        }
+        return outcomes;
+    }
+    
+    /**
+     * Encrypt a single file: literal data, optionally one-pass signed, compressed, then encrypted
+     * for the recipient key. Written to a temporary file that is moved into place when complete.
+     */
+    private void encryptFile(Path sourceFile, Path targetFile, PGPPublicKey encryptionKey, PGPPrivateKey signingKey,
+                             int cipher, int compression, boolean armor) throws IOException, PGPException {
+        logger.info("Encrypting file: {} -> {}", sourceFile, targetFile);
+        Path partFile = targetFile.resolveSibling(targetFile.getFileName() + PART_SUFFIX);
+        
+        PGPEncryptedDataGenerator encryptedDataGenerator = new PGPEncryptedDataGenerator(
+            new BcPGPDataEncryptorBuilder(cipher)
+                .setWithIntegrityPacket(true)
+                .setSecureRandom(secureRandom));
+        encryptedDataGenerator.addMethod(new BcPublicKeyKeyEncryptionMethodGenerator(encryptionKey));
+        
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(partFile), BUFFER_SIZE);
+             OutputStream out = armor ? new ArmoredOutputStream(fileOut) : fileOut;
+             OutputStream encryptedOut = encryptedDataGenerator.open(out, new byte[BUFFER_SIZE])) {
+            
+            PGPCompressedDataGenerator compressedDataGenerator = new PGPCompressedDataGenerator(compression);
+            OutputStream compressedOut = compressedDataGenerator.open(encryptedOut, new byte[BUFFER_SIZE]);
+            
+            PGPSignatureGenerator signatureGenerator = null;
+            if (signingKey != null) {
+                signatureGenerator = new PGPSignatureGenerator(new BcPGPContentSignerBuilder(
+                    signingKey.getPublicKeyPacket().getAlgorithm(), HashAlgorithmTags.SHA256));
+                signatureGenerator.init(PGPSignature.BINARY_DOCUMENT, signingKey);
+                signatureGenerator.generateOnePassVersion(false).encode(compressedOut);
+            }
             
-            return true;
+            PGPLiteralDataGenerator literalDataGenerator = new PGPLiteralDataGenerator();
+            try (InputStream in = Files.newInputStream(sourceFile);
+                 OutputStream literalOut = literalDataGenerator.open(compressedOut, PGPLiteralData.BINARY,
+                     sourceFile.getFileName().toString(),
+                     new Date(Files.getLastModifiedTime(sourceFile).toMillis()), new byte[BUFFER_SIZE])) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    literalOut.write(buffer, 0, read);
+                    if (signatureGenerator != null) {
+                        signatureGenerator.update(buffer, 0, read);
+                    }
+                }
+            }
             
-        } catch (Exception e) {
-            logger.error("Failed to encrypt file: {}", sourceFile, e);
-            return false;
+            if (signatureGenerator != null) {
+                signatureGenerator.generate().encode(compressedOut);
+            }
+            compressedDataGenerator.close();
+        } catch (IOException | PGPException | RuntimeException e) {
+            Files.deleteIfExists(partFile);
+            throw e;
         }
+        
+        Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Successfully encrypted file: {} ({} -> {} bytes)",
+            sourceFile.getFileName(), Files.size(sourceFile), Files.size(targetFile));
     }
     
     /**
-     * Decrypt a single file
+     * Decrypt a single file, verifying the integrity packet and, when a verification key is
+     * configured, the one-pass signature. Written to a temporary file that is moved into place
+     * only when every check passed.
      */
-    private boolean decryptFile(Path sourceFile, Path targetFile, String privateKeyPath, String passphrase) {
-        try {
-            logger.info("Decrypting file: {} -> {}", sourceFile, targetFile);
+    private void decryptFile(Path sourceFile, Path targetFile, Function<Long, PGPPrivateKey> privateKeys,
+                             PGPPublicKeyRing verificationKeyRing) throws IOException, PGPException {
+        logger.info("Decrypting file: {} -> {}", sourceFile, targetFile);
+        Path partFile = targetFile.resolveSibling(targetFile.getFileName() + PART_SUFFIX);
+        
+        try (InputStream in = PGPUtil.getDecoderStream(
+                new BufferedInputStream(Files.newInputStream(sourceFile), BUFFER_SIZE))) {
+            
+            BcPGPObjectFactory objectFactory = new BcPGPObjectFactory(in);
+            Object object = objectFactory.nextObject();
+            // The first object may be a PGP marker packet
+            PGPEncryptedDataList encryptedDataList = object instanceof PGPEncryptedDataList
+                ? (PGPEncryptedDataList) object : (PGPEncryptedDataList) objectFactory.nextObject();
+            
+            PGPPublicKeyEncryptedData encryptedData = null;
+            PGPPrivateKey privateKey = null;
+            for (PGPEncryptedData candidate : encryptedDataList) {
+                if (candidate instanceof PGPPublicKeyEncryptedData) {
+                    PGPPublicKeyEncryptedData publicKeyData = (PGPPublicKeyEncryptedData) candidate;
+                    privateKey = privateKeys.apply(publicKeyData.getKeyID());
+                    if (privateKey != null) {
+                        encryptedData = publicKeyData;
+                        break;
+                    }
+                }
+            }
+            if (encryptedData == null) {
+                throw new PGPException("File is not encrypted for the configured private key");
+            }
             
-            // Simulate PGP decryption
-            // In production, implement actual PGP decryption using BouncyCastle
-            byte[] encryptedContent = Files.readAllBytes(sourceFile);
-            byte[] decryptedContent = simulateDecryption(encryptedContent, passphrase);
+            BcPGPObjectFactory plainFactory = new BcPGPObjectFactory(
+                encryptedData.getDataStream(new BcPublicKeyDataDecryptorFactory(privateKey)));
+            Object message = plainFactory.nextObject();
+            if (message instanceof PGPCompressedData) {
+                plainFactory = new BcPGPObjectFactory(((PGPCompressedData) message).getDataStream());
+                message = plainFactory.nextObject();
+            }
             
-            Files.write(targetFile, decryptedContent);
+            PGPOnePassSignature onePassSignature = null;
+            if (message instanceof PGPOnePassSignatureList) {
+                PGPOnePassSignature candidate = ((PGPOnePassSignatureList) message).get(0);
+                if (verificationKeyRing != null) {
+                    PGPPublicKey signerKey = verificationKeyRing.getPublicKey(candidate.getKeyID());
+                    if (signerKey == null) {
+                        throw new PGPException("File is signed by an unexpected key: " + Long.toHexString(candidate.getKeyID()).toUpperCase());
+                    }
+                    candidate.init(new BcPGPContentVerifierBuilderProvider(), signerKey);
+                    onePassSignature = candidate;
+                }
+                message = plainFactory.nextObject();
+            } else if (verificationKeyRing != null) {
+                throw new PGPException("File is not signed but a verification key is configured");
+            }
             
-            logger.debug("Successfully decrypted file: {} (size: {} -> {} bytes)", 
-                sourceFile.getFileName(), encryptedContent.length, decryptedContent.length);
+            if (!(message instanceof PGPLiteralData)) {
+                throw new PGPException("Unexpected PGP message content: " +
+                    (message != null ? message.getClass().getSimpleName() : "empty"));
+            }
             
-            return true;
+            try (InputStream literalIn = ((PGPLiteralData) message).getInputStream();
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(partFile), BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = literalIn.read(buffer)) > 0) {
+                    out.write(buffer, 0, read);
+                    if (onePassSignature != null) {
+                        onePassSignature.update(buffer, 0, read);
+                    }
+                }
+            }
             
-        } catch (Exception e) {
-            logger.error("Failed to decrypt file: {}", sourceFile, e);
-            return false;
+            if (onePassSignature != null) {
+                PGPSignatureList signatures = (PGPSignatureList) plainFactory.nextObject();
+                if (signatures == null || !onePassSignature.verify(signatures.get(0))) {
+                    throw new PGPException("Signature verification failed");
+                }
+            }
+            if (encryptedData.isIntegrityProtected() && !encryptedData.verify()) {
+                throw new PGPException("Integrity check failed");
+            }
+        } catch (IOException | PGPException | RuntimeException e) {
+            Files.deleteIfExists(partFile);
+            throw e;
         }
+        
+        Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Successfully decrypted file: {} ({} -> {} bytes)",
+            sourceFile.getFileName(), Files.size(sourceFile), Files.size(targetFile));
     }
     
     /**
-     * Simulate encryption (replace with real PGP implementation)
+     * Keys are referenced by "<name>Fingerprint" (a key stored in pgp_keys) or "<name>Path" (a key file)
      */
-    private byte[] simulateEncryption(byte[] data, String algorithm) {
-        // Simple XOR encryption for simulation
-        byte[] key = generateSimulatedKey(algorithm);
-        byte[] encrypted = new byte[data.length];
-        
-        for (int i = 0; i < data.length; i++) {
-            encrypted[i] = (byte) (data[i] ^ key[i % key.length]);
+    private boolean hasKeyReference(Map<String, Object> configuration, String name) {
+        return configuration.get(name + "Fingerprint") != null || configuration.get(name + "Path") != null;
+    }
+    
+    private PGPPublicKeyRing resolvePublicKeyRing(Map<String, Object> configuration, String name)
+            throws IOException, PGPException {
+        String fingerprint = (String) configuration.get(name + "Fingerprint");
+        if (fingerprint != null) {
+            return keyRingCache.getPublicKeyRing(fingerprint);
         }
-        
-        return encrypted;
+        return keyRingCache.getPublicKeyRing(keyPath(configuration, name));
+    }
+    
+    private PGPSecretKeyRing resolveSecretKeyRing(Map<String, Object> configuration, String name)
+            throws IOException, PGPException {
+        String fingerprint = (String) configuration.get(name + "Fingerprint");
+        if (fingerprint != null) {
+            return keyRingCache.getSecretKeyRing(fingerprint);
+        }
+        return keyRingCache.getSecretKeyRing(keyPath(configuration, name));
+    }
+    
+    private Path keyPath(Map<String, Object> configuration, String name) {
+        String keyPath = (String) configuration.get(name + "Path");
+        if (keyPath == null) {
+            throw new IllegalArgumentException("Required configuration parameter missing: " + name + "Path or " + name + "Fingerprint");
+        }
+        validateFilePath(keyPath);
+        return Paths.get(keyPath);
     }
     
     /**
-     * Simulate decryption (replace with real PGP implementation)
+     * Signing key for encryption, if "signingKeyPath"/"signingKeyFingerprint" is configured
      */
-    private byte[] simulateDecryption(byte[] encryptedData, String passphrase) {
-        // Simple XOR decryption for simulation (same as encryption with XOR)
-        byte[] key = generateSimulatedKey("AES256"); // Use consistent algorithm
-        byte[] decrypted = new byte[encryptedData.length];
-        
-        for (int i = 0; i < encryptedData.length; i++) {
-            decrypted[i] = (byte) (encryptedData[i] ^ key[i % key.length]);
+    private PGPPrivateKey resolveSigningKey(Map<String, Object> configuration) throws IOException, PGPException {
+        if (!hasKeyReference(configuration, "signingKey")) {
+            return null;
         }
-        
-        return decrypted;
+        validateConfiguration(configuration, "signingPassphrase");
+        PGPSecretKeyRing ring = resolveSecretKeyRing(configuration, "signingKey");
+        for (Iterator<PGPSecretKey> keys = ring.getSecretKeys(); keys.hasNext(); ) {
+            PGPSecretKey key = keys.next();
+            if (key.isSigningKey() && !key.getPublicKey().hasRevocation()) {
+                return unlockPrivateKey(key, (String) configuration.get("signingPassphrase"));
+            }
+        }
+        throw new PGPException("No signing key found in key ring " + PgpKeyRingCache.fingerprint(ring.getPublicKey().getFingerprint()));
     }
     
     /**
-     * Generate simulated key for encryption
+     * Prefer an encryption subkey; fall back to the primary key if it can encrypt
      */
-    private byte[] generateSimulatedKey(String algorithm) {
-        // Generate a simple key based on algorithm name
-        byte[] algorithmBytes = algorithm.getBytes();
-        byte[] key = new byte[32]; // 256-bit key
-        
-        for (int i = 0; i < key.length; i++) {
-            key[i] = (byte) (algorithmBytes[i % algorithmBytes.length] + i);
+    private PGPPublicKey findEncryptionKey(PGPPublicKeyRing ring) throws PGPException {
+        PGPPublicKey fallback = null;
+        for (Iterator<PGPPublicKey> keys = ring.getPublicKeys(); keys.hasNext(); ) {
+            PGPPublicKey key = keys.next();
+            if (!key.isEncryptionKey() || key.hasRevocation()) {
+                continue;
+            }
+            if (!key.isMasterKey()) {
+                return key;
+            }
+            fallback = key;
         }
-        
-        return key;
+        if (fallback == null) {
+            throw new PGPException("No encryption key found in key ring " + PgpKeyRingCache.fingerprint(ring.getPublicKey().getFingerprint()));
+        }
+        return fallback;
+    }
+    
+    /**
+     * Unlock a secret key; returns null when the ring has no key with that id
+     */
+    private PGPPrivateKey unlockPrivateKey(PGPSecretKey secretKey, String passphrase) {
+        if (secretKey == null) {
+            return null;
+        }
+        try {
+            PBESecretKeyDecryptor decryptor = new BcPBESecretKeyDecryptorBuilder(new BcPGPDigestCalculatorProvider())
+                .build(passphrase.toCharArray());
+            return secretKey.extractPrivateKey(decryptor);
+        } catch (PGPException e) {
+            throw new IllegalArgumentException("Unable to unlock private key " +
+                Long.toHexString(secretKey.getKeyID()).toUpperCase() + ": wrong passphrase?", e);
+        }
+    }
+    
+    private int symmetricAlgorithm(String algorithm) {
+        switch (algorithm.toUpperCase().replace("-", "").replace("_", "")) {
+            case "AES128": return SymmetricKeyAlgorithmTags.AES_128;
+            case "AES192": return SymmetricKeyAlgorithmTags.AES_192;
+            case "AES256": return SymmetricKeyAlgorithmTags.AES_256;
+            case "CAMELLIA128": return SymmetricKeyAlgorithmTags.CAMELLIA_128;
+            case "CAMELLIA256": return SymmetricKeyAlgorithmTags.CAMELLIA_256;
+            case "TWOFISH": return SymmetricKeyAlgorithmTags.TWOFISH;
+            case "CAST5": return SymmetricKeyAlgorithmTags.CAST5;
+            case "3DES":
+            case "TRIPLEDES": return SymmetricKeyAlgorithmTags.TRIPLE_DES;
+            default:
+                throw new IllegalArgumentException("Unsupported PGP cipher: " + algorithm);
+        }
+    }
+    
+    private int compressionAlgorithm(String compression) {
+        switch (compression.toUpperCase()) {
+            case "ZIP": return CompressionAlgorithmTags.ZIP;
+            case "ZLIB": return CompressionAlgorithmTags.ZLIB;
+            case "BZIP2": return CompressionAlgorithmTags.BZIP2;
+            case "NONE":
+            case "UNCOMPRESSED": return CompressionAlgorithmTags.UNCOMPRESSED;
+            default:
+                throw new IllegalArgumentException("Unsupported PGP compression: " + compression);
+        }
+    }
+    
+    private List<Path> listFiles(Path sourcePath, String filePattern) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String fileName = file.getFileName().toString();
+                if (!fileName.endsWith(PART_SUFFIX) && matchesPattern(fileName, filePattern)) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
     }
     
     /**
@@ -0,0 +1,174 @@
+package com.integrixs.core.service;
+
+import com.integrixs.core.repository.DeployedFlowRepository;
+import com.integrixs.core.service.scheduling.DeploymentConcurrencyLimiter;
+import com.integrixs.core.service.scheduling.DirectoryWatchRegistry;
+import com.integrixs.core.service.scheduling.SchedulingShardCoordinator;
+import com.integrixs.shared.model.DeployedFlow;
+import com.integrixs.shared.model.FlowExecution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Manual triggers run under a concurrency permit of the deployment like polled and queued
+ * runs: they count as running executions, are rejected at maxConcurrentExecutions and give
+ * the permit back when the run ends, whether it succeeded or failed.
+ */
+class DeployedFlowSchedulingServiceConcurrencyTest {
+
+    private static final long NEVER_STALE = Long.MAX_VALUE / 2;
+
+    /** Serves the one deployment under test */
+    private static final class StubDeployedFlowRepository extends DeployedFlowRepository {
+        private final DeployedFlow deployment;
+
+        StubDeployedFlowRepository(DeployedFlow deployment) {
+            super(null, null, null);
+            this.deployment = deployment;
+        }
+
+        @Override
+        public Optional<DeployedFlow> findById(UUID id) {
+            return deployment.getId().equals(id) ? Optional.of(deployment) : Optional.empty();
+        }
+
+        @Override
+        public void update(DeployedFlow deployedFlow) {
+        }
+    }
+
+    /** Holds each execution until released, so the test controls how many are running */
+    private static final class BlockingFlowExecutionService extends FlowExecutionService {
+        private final AtomicInteger executions = new AtomicInteger();
+        private volatile CountDownLatch started = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        private volatile boolean fail;
+
+        BlockingFlowExecutionService() {
+            super(null, null, null, null, null, null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public FlowExecution executeFlow(UUID flowId, Map<String, Object> payload, UUID triggeredBy,
+                                         FlowExecution.TriggerType triggerType) {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                throw new IllegalStateException("Execution failed");
+            }
+            FlowExecution execution = new FlowExecution();
+            execution.setId(UUID.randomUUID());
+            return execution;
+        }
+    }
+
+    private DeployedFlow deployment;
+    private DeploymentConcurrencyLimiter limiter;
+    private BlockingFlowExecutionService executionService;
+    private DeployedFlowSchedulingService service;
+
+    @BeforeEach
+    void setUp() {
+        deployment = new DeployedFlow();
+        deployment.setId(UUID.randomUUID());
+        deployment.setFlowId(UUID.randomUUID());
+        deployment.setDeployedBy(UUID.randomUUID());
+        deployment.setRuntimeStatus(DeployedFlow.RuntimeStatus.ACTIVE);
+        deployment.setMaxConcurrentExecutions(1);
+
+        limiter = new DeploymentConcurrencyLimiter(NEVER_STALE);
+        executionService = new BlockingFlowExecutionService();
+        service = new DeployedFlowSchedulingService(
+            new StubDeployedFlowRepository(deployment), null, null, executionService, null, null,
+            new DirectoryWatchRegistry(Runnable::run, 1000, 300000),
+            new SchedulingShardCoordinator(null, false, "test-node", 1, 10000, 30000, 120000),
+            new FlowTriggerQueue(null, null, false, 1, 10, 300000, 5, 10000, 600000, 5000, 100, 168, false),
+            limiter, Runnable::run);
+    }
+
+    @Test
+    void manualTriggerIsRejectedWhileTheDeploymentIsAtItsLimit() throws Exception {
+        executionService.release = new CountDownLatch(1);
+        Thread running = new Thread(() -> service.triggerDeployedFlow(deployment.getId()));
+        running.start();
+        assertTrue(executionService.started.await(10, TimeUnit.SECONDS));
+
+        assertEquals(1, limiter.current(deployment.getId()));
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+            () -> service.triggerDeployedFlow(deployment.getId()));
+        assertNotNull(rejected.getCause());
+        assertEquals(IllegalStateException.class, rejected.getCause().getClass());
+        assertEquals(1, executionService.executions.get());
+
+        executionService.release.countDown();
+        running.join(10000);
+        assertEquals(0, limiter.current(deployment.getId()));
+
+        service.triggerDeployedFlow(deployment.getId());
+        assertEquals(2, executionService.executions.get());
+        assertEquals(0, limiter.current(deployment.getId()));
+    }
+
+    @Test
+    void manualTriggerSharesTheLimitWithPolledAndQueuedRuns() {
+        // A poll or queued trigger of the deployment holding the only permit
+        DeploymentConcurrencyLimiter.Permit polled = limiter.tryAcquire(deployment.getId(), 1);
+
+        assertThrows(RuntimeException.class, () -> service.triggerDeployedFlow(deployment.getId()));
+        assertEquals(0, executionService.executions.get());
+
+        polled.close();
+        service.triggerDeployedFlow(deployment.getId());
+        assertEquals(1, executionService.executions.get());
+    }
+
+    @Test
+    void failedManualRunReleasesItsPermit() {
+        executionService.fail = true;
+
+        service.triggerDeployedFlow(deployment.getId());
+
+        assertEquals(1, executionService.executions.get());
+        assertEquals(0, limiter.current(deployment.getId()));
+        assertEquals(1L, deploymentCounters().get("acquired"));
+    }
+
+    @Test
+    void manualRunsAreCountedAsRunningExecutions() throws Exception {
+        executionService.release = new CountDownLatch(1);
+        Thread running = new Thread(() -> service.triggerDeployedFlow(deployment.getId()));
+        running.start();
+        assertTrue(executionService.started.await(10, TimeUnit.SECONDS));
+
+        Map<String, Object> concurrency = limiter.getStatistics();
+        assertEquals(1, concurrency.get("current"));
+        assertEquals(1, deploymentCounters().get("current"));
+
+        executionService.release.countDown();
+        running.join(10000);
+        assertEquals(0, limiter.getStatistics().get("current"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> deploymentCounters() {
+        Map<String, Object> byDeployment = (Map<String, Object>) limiter.getStatistics().get("byDeployment");
+        return (Map<String, Object>) byDeployment.get(deployment.getId().toString());
+    }
+}
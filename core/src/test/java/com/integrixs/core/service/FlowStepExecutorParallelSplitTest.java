@@ -0,0 +1,231 @@
+package com.integrixs.core.service;
+
+import com.integrixs.core.repository.FlowExecutionStepRepository;
+import com.integrixs.core.service.execution.FlowExecutionPlan.PlannedNode;
+import com.integrixs.shared.model.FlowExecution;
+import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.IntegrationFlow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Splits nested in a parallel branch run their branches on the branch's own thread, so
+ * nested splits complete on a small branch pool even when several flows split at once,
+ * and a nested join that is already decided does not start the branches it no longer needs.
+ */
+class FlowStepExecutorParallelSplitTest {
+
+    private static final long JOIN_TIMEOUT_SECONDS = 10;
+
+    /** Keeps saved steps in memory; branches save from several threads */
+    private static final class RecordingStepRepository extends FlowExecutionStepRepository {
+        private final List<FlowExecutionStep> saved = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingStepRepository() {
+            super(null, null, null);
+        }
+
+        @Override
+        public UUID save(FlowExecutionStep step) {
+            saved.add(step);
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public void update(FlowExecutionStep step) {
+        }
+
+        @Override
+        public int findMaxStepOrder(UUID executionId) {
+            return 0;
+        }
+
+        private Set<String> executedNodes(UUID executionId) {
+            synchronized (saved) {
+                Set<String> nodes = new HashSet<>();
+                for (FlowExecutionStep step : saved) {
+                    if (step.getExecutionId().equals(executionId)) {
+                        nodes.add(step.getStepId());
+                    }
+                }
+                return nodes;
+            }
+        }
+    }
+
+    /** Takes a little time per node so branches overlap; nodes named fail-* throw */
+    private static final class SlowNodeExecutor extends FlowNodeExecutor {
+        SlowNodeExecutor() {
+            super(null, null, null);
+        }
+
+        @Override
+        public Map<String, Object> executeNode(FlowExecutionStep step, PlannedNode plannedNode, Map<String, Object> context) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (plannedNode.getId().startsWith("fail-")) {
+                throw new IllegalStateException("Node " + plannedNode.getId() + " failed");
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("visited-" + plannedNode.getId(), true);
+            return result;
+        }
+    }
+
+    private ThreadPoolExecutor branchPool;
+    private RecordingStepRepository repository;
+    private FlowStepExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        // Bounded like the branch pool, small enough that every thread ends up in a split
+        branchPool = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        repository = new RecordingStepRepository();
+        executor = new FlowStepExecutor(repository, new SlowNodeExecutor(), new ExecutionContextManager(),
+            new FlowExecutionPlanCache(), branchPool, JOIN_TIMEOUT_SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        branchPool.shutdownNow();
+    }
+
+    @Test
+    void nestedSplitsCompleteWhileSeveralFlowsSplitAtOnce() throws Exception {
+        IntegrationFlow flow = nestedSplitFlow("inner-a", "inner-b", "WAIT_ALL");
+        int flows = 4;
+
+        ExecutorService flowThreads = Executors.newFixedThreadPool(flows);
+        try {
+            List<FlowExecution> executions = new ArrayList<>();
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < flows; i++) {
+                FlowExecution execution = newExecution();
+                executions.add(execution);
+                runs.add(flowThreads.submit(() -> executor.executeFlowSteps(execution, flow)));
+            }
+            for (Future<?> run : runs) {
+                run.get(JOIN_TIMEOUT_SECONDS * 2, TimeUnit.SECONDS);
+            }
+
+            for (FlowExecution execution : executions) {
+                assertEquals(Set.of("start", "split", "branch-a", "inner-split", "inner-a", "inner-b", "inner-join",
+                    "branch-b", "join", "end"), repository.executedNodes(execution.getId()));
+            }
+        } finally {
+            flowThreads.shutdownNow();
+        }
+    }
+
+    @Test
+    void nestedWaitAnyJoinDoesNotStartBranchesAfterTheFirstSuccess() {
+        FlowExecution execution = newExecution();
+
+        executor.executeFlowSteps(execution, nestedSplitFlow("inner-a", "inner-b", "WAIT_ANY"));
+
+        Set<String> executed = repository.executedNodes(execution.getId());
+        assertTrue(executed.contains("inner-a"));
+        assertFalse(executed.contains("inner-b"));
+        assertTrue(executed.contains("end"));
+    }
+
+    @Test
+    void nestedWaitAllJoinDoesNotStartBranchesAfterAFailure() {
+        FlowExecution execution = newExecution();
+
+        assertThrows(RuntimeException.class,
+            () -> executor.executeFlowSteps(execution, nestedSplitFlow("fail-a", "inner-b", "WAIT_ALL")));
+
+        Set<String> executed = repository.executedNodes(execution.getId());
+        assertTrue(executed.contains("fail-a"));
+        assertFalse(executed.contains("inner-b"));
+        assertFalse(executed.contains("end"));
+    }
+
+    private static FlowExecution newExecution() {
+        FlowExecution execution = new FlowExecution(UUID.randomUUID(), "parallel-split", FlowExecution.TriggerType.MANUAL, null);
+        execution.setId(UUID.randomUUID());
+        execution.setPayload(new HashMap<>());
+        return execution;
+    }
+
+    /**
+     * start -> split -> (branch-a -> inner-split -> (first | second) -> inner-join | branch-b) -> join -> end
+     */
+    private static IntegrationFlow nestedSplitFlow(String first, String second, String innerJoinMode) {
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        nodes.add(node("start", "start"));
+        nodes.add(node("split", "parallel"));
+        nodes.add(node("branch-a", "utility"));
+        nodes.add(node("inner-split", "parallel"));
+        nodes.add(node(first, "utility"));
+        nodes.add(node(second, "utility"));
+        Map<String, Object> innerJoin = node("inner-join", "join");
+        innerJoin.put("joinMode", innerJoinMode);
+        nodes.add(innerJoin);
+        nodes.add(node("branch-b", "utility"));
+        nodes.add(node("join", "join"));
+        nodes.add(node("end", "end"));
+
+        List<Map<String, Object>> edges = new ArrayList<>();
+        edges.add(edge("start", "split"));
+        edges.add(edge("split", "branch-a"));
+        edges.add(edge("split", "branch-b"));
+        edges.add(edge("branch-a", "inner-split"));
+        edges.add(edge("inner-split", first));
+        edges.add(edge("inner-split", second));
+        edges.add(edge(first, "inner-join"));
+        edges.add(edge(second, "inner-join"));
+        edges.add(edge("inner-join", "join"));
+        edges.add(edge("branch-b", "join"));
+        edges.add(edge("join", "end"));
+
+        Map<String, Object> definition = new HashMap<>();
+        definition.put("nodes", nodes);
+        definition.put("edges", edges);
+
+        IntegrationFlow flow = new IntegrationFlow();
+        flow.setId(UUID.randomUUID());
+        flow.setFlowDefinition(definition);
+        return flow;
+    }
+
+    private static Map<String, Object> node(String id, String type) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("id", id);
+        node.put("type", type);
+        return node;
+    }
+
+    private static Map<String, Object> edge(String source, String target) {
+        Map<String, Object> edge = new HashMap<>();
+        edge.put("source", source);
+        edge.put("target", target);
+        return edge;
+    }
+}
@@ -0,0 +1,181 @@
+package com.integrixs.core.service;
+
+import com.integrixs.core.repository.FlowExecutionStepRepository;
+import com.integrixs.core.service.execution.FlowExecutionPlan.PlannedNode;
+import com.integrixs.shared.model.FlowExecution;
+import com.integrixs.shared.model.FlowExecutionStep;
+import com.integrixs.shared.model.IntegrationFlow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Step orders come from the execution's in-memory sequence: one MAX(step_order) lookup per
+ * run, never a reload of earlier steps, so the per-step overhead of the executor stays flat
+ * as flows get longer. The benchmark-tagged test logs per-step timings for flows of
+ * increasing length; it runs only with the benchmark profile (mvn test -Pbenchmark).
+ */
+class FlowStepExecutorStepOrderTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowStepExecutorStepOrderTest.class);
+
+    private static final int[] FLOW_LENGTHS = {50, 200, 800};
+    private static final int RUNS = 20;
+
+    /** Keeps saved steps in memory and counts the lookups the executor makes */
+    private static final class RecordingStepRepository extends FlowExecutionStepRepository {
+        private final List<FlowExecutionStep> saved = new ArrayList<>();
+        private final AtomicInteger maxStepOrderLookups = new AtomicInteger();
+        private final AtomicInteger stepListLoads = new AtomicInteger();
+        private int lastStepOrder;
+
+        RecordingStepRepository() {
+            super(null, null, null);
+        }
+
+        @Override
+        public UUID save(FlowExecutionStep step) {
+            saved.add(step);
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public void update(FlowExecutionStep step) {
+        }
+
+        @Override
+        public int findMaxStepOrder(UUID executionId) {
+            maxStepOrderLookups.incrementAndGet();
+            return lastStepOrder;
+        }
+
+        @Override
+        public List<FlowExecutionStep> findByExecutionId(UUID executionId) {
+            stepListLoads.incrementAndGet();
+            return new ArrayList<>(saved);
+        }
+    }
+
+    /** Runs every node instantly so only the executor's own overhead is measured */
+    private static final class NoOpNodeExecutor extends FlowNodeExecutor {
+        NoOpNodeExecutor() {
+            super(null, null, null);
+        }
+
+        @Override
+        public Map<String, Object> executeNode(FlowExecutionStep step, PlannedNode plannedNode, Map<String, Object> context) {
+            return new HashMap<>();
+        }
+    }
+
+    @Test
+    void stepOrdersAreContiguousAndNeedOneLookupPerRun() {
+        RecordingStepRepository repository = new RecordingStepRepository();
+        FlowStepExecutor executor = newExecutor(repository);
+
+        executor.executeFlowSteps(newExecution(), linearFlow(10));
+
+        assertEquals(12, repository.saved.size());
+        for (int i = 0; i < repository.saved.size(); i++) {
+            assertEquals(i + 1, repository.saved.get(i).getStepOrder());
+        }
+        assertEquals(1, repository.maxStepOrderLookups.get());
+        assertEquals(0, repository.stepListLoads.get(), "earlier steps must not be reloaded per node");
+    }
+
+    @Test
+    void retriedExecutionContinuesAfterRecordedSteps() {
+        RecordingStepRepository repository = new RecordingStepRepository();
+        repository.lastStepOrder = 7;
+        FlowStepExecutor executor = newExecutor(repository);
+
+        executor.executeFlowSteps(newExecution(), linearFlow(3));
+
+        assertEquals(8, repository.saved.get(0).getStepOrder());
+        assertEquals(12, repository.saved.get(repository.saved.size() - 1).getStepOrder());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void perStepOverheadAsFlowsGrow() {
+        for (int length : FLOW_LENGTHS) {
+            IntegrationFlow flow = linearFlow(length);
+
+            // Warm up the JIT and the plan cache
+            for (int run = 0; run < RUNS; run++) {
+                newExecutor(new RecordingStepRepository()).executeFlowSteps(newExecution(), flow);
+            }
+
+            long elapsed = 0;
+            for (int run = 0; run < RUNS; run++) {
+                RecordingStepRepository repository = new RecordingStepRepository();
+                FlowStepExecutor executor = newExecutor(repository);
+                FlowExecution execution = newExecution();
+
+                long start = System.nanoTime();
+                executor.executeFlowSteps(execution, flow);
+                elapsed += System.nanoTime() - start;
+
+                assertEquals(length + 2, repository.saved.size());
+                assertEquals(1, repository.maxStepOrderLookups.get());
+                assertEquals(0, repository.stepListLoads.get());
+            }
+            logger.info("Flow of {} nodes: {} ns per step", length, elapsed / RUNS / (length + 2));
+        }
+    }
+
+    private static FlowStepExecutor newExecutor(RecordingStepRepository repository) {
+        return new FlowStepExecutor(repository, new NoOpNodeExecutor(), new ExecutionContextManager(),
+            new FlowExecutionPlanCache(), Runnable::run, 60);
+    }
+
+    private static FlowExecution newExecution() {
+        FlowExecution execution = new FlowExecution(UUID.randomUUID(), "step-order", FlowExecution.TriggerType.MANUAL, null);
+        execution.setId(UUID.randomUUID());
+        execution.setPayload(new HashMap<>());
+        return execution;
+    }
+
+    /**
+     * start -> utility x length -> end, linked by parentId
+     */
+    private static IntegrationFlow linearFlow(int length) {
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        nodes.add(node("start", "start", null));
+        String previous = "start";
+        for (int i = 1; i <= length; i++) {
+            String id = "utility-" + i;
+            nodes.add(node(id, "utility", previous));
+            previous = id;
+        }
+        nodes.add(node("end", "end", previous));
+
+        Map<String, Object> definition = new HashMap<>();
+        definition.put("nodes", nodes);
+
+        IntegrationFlow flow = new IntegrationFlow();
+        flow.setId(UUID.randomUUID());
+        flow.setFlowDefinition(definition);
+        return flow;
+    }
+
+    private static Map<String, Object> node(String id, String type, String parentId) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("id", id);
+        node.put("type", type);
+        if (parentId != null) {
+            node.put("parentId", parentId);
+        }
+        return node;
+    }
+}
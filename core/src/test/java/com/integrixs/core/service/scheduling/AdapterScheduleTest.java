@@ -0,0 +1,214 @@
+package com.integrixs.core.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Fire times of OnTime, Every and Cron schedules: day matching, the configured time zone,
+ * DST transitions and the edges of Every windows, including windows that cross midnight.
+ */
+class AdapterScheduleTest {
+
+    private static final ZoneId ZURICH = ZoneId.of("Europe/Zurich");
+
+    @Test
+    void dailyFiresStrictlyAfterTheGivenInstant() {
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "scheduleType", "Daily", "onTimeValue", "08:30");
+
+        assertEquals(utc("2024-03-07T08:30"), schedule.nextFireTime(utc("2024-03-07T08:00")));
+        assertEquals(utc("2024-03-08T08:30"), schedule.nextFireTime(utc("2024-03-07T08:30")));
+        assertEquals(utc("2024-03-08T08:30"), schedule.nextFireTime(utc("2024-03-07T23:59")));
+    }
+
+    @Test
+    void weeklyFiresOnSelectedDaysOnly() {
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "scheduleType", "Weekly", "onTimeValue", "09:00",
+            "weeklyDays", Map.of("monday", true, "friday", "true", "wednesday", false));
+
+        // 2024-03-07 is a Thursday
+        assertEquals(utc("2024-03-08T09:00"), schedule.nextFireTime(utc("2024-03-07T10:00")));
+        assertEquals(utc("2024-03-11T09:00"), schedule.nextFireTime(utc("2024-03-08T09:00")));
+        assertEquals(utc("2024-03-15T09:00"), schedule.nextFireTime(utc("2024-03-11T09:00")));
+    }
+
+    @Test
+    void monthlyLastFiresOnTheLastDayOfEachMonth() {
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "scheduleType", "Monthly", "onTimeValue", "12:00",
+            "monthlyDay", "last");
+
+        assertEquals(utc("2024-01-31T12:00"), schedule.nextFireTime(utc("2024-01-15T00:00")));
+        assertEquals(utc("2024-02-29T12:00"), schedule.nextFireTime(utc("2024-01-31T12:00")));
+        assertEquals(utc("2024-03-31T12:00"), schedule.nextFireTime(utc("2024-02-29T12:00")));
+        assertEquals(utc("2023-02-28T12:00"), schedule.nextFireTime(utc("2023-02-01T00:00")));
+    }
+
+    @Test
+    void monthlyDayPastTheEndOfAShortMonthFiresOnItsLastDay() {
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "scheduleType", "Monthly", "onTimeValue", "06:00",
+            "monthlyDay", "31");
+
+        assertEquals(utc("2024-04-30T06:00"), schedule.nextFireTime(utc("2024-03-31T06:00")));
+        assertEquals(utc("2024-05-31T06:00"), schedule.nextFireTime(utc("2024-04-30T06:00")));
+    }
+
+    @Test
+    void timesAreEvaluatedInTheConfiguredTimeZone() {
+        AdapterSchedule offset = schedule("scheduleMode", "OnTime", "onTimeValue", "08:00", "timeZone", "UTC +2:00");
+        assertEquals(ZoneOffset.ofHours(2), offset.getZone());
+        assertEquals(utc("2024-03-07T06:00"), offset.nextFireTime(utc("2024-03-07T05:00")));
+
+        AdapterSchedule negative = schedule("scheduleMode", "OnTime", "onTimeValue", "08:00", "timeZone", "UTC -5:30");
+        assertEquals(utc("2024-03-07T13:30"), negative.nextFireTime(utc("2024-03-07T05:00")));
+
+        AdapterSchedule region = schedule("scheduleMode", "OnTime", "onTimeValue", "08:00", "timeZone", "Europe/Zurich");
+        assertEquals(utc("2024-01-10T07:00"), region.nextFireTime(utc("2024-01-10T00:00")));
+        assertEquals(utc("2024-07-10T06:00"), region.nextFireTime(utc("2024-07-10T00:00")));
+    }
+
+    @Test
+    void dayMatchingUsesTheLocalDateOfTheTimeZone() {
+        // Thursday 23:00 UTC is already Friday 01:00 in UTC+2
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "scheduleType", "Weekly", "onTimeValue", "01:00",
+            "weeklyDays", Map.of("friday", true), "timeZone", "UTC +2:00");
+
+        assertEquals(utc("2024-03-07T23:00"), schedule.nextFireTime(utc("2024-03-07T12:00")));
+        assertEquals(utc("2024-03-14T23:00"), schedule.nextFireTime(utc("2024-03-07T23:30")));
+    }
+
+    @Test
+    void timeInTheSpringForwardGapStillFiresThatDay() {
+        // 2024-03-31 02:00-03:00 does not exist in Zurich; 02:30 runs at 03:30 CEST
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "onTimeValue", "02:30", "timeZone", "Europe/Zurich");
+
+        assertEquals(utc("2024-03-31T01:30"), schedule.nextFireTime(utc("2024-03-30T12:00")));
+        assertEquals(utc("2024-04-01T00:30"), schedule.nextFireTime(utc("2024-03-31T01:30")));
+    }
+
+    @Test
+    void timeInTheFallBackOverlapFiresOnce() {
+        // 2024-10-27 02:30 occurs at 00:30 UTC (CEST) and 01:30 UTC (CET); only the first runs
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "onTimeValue", "02:30", "timeZone", "Europe/Zurich");
+
+        assertEquals(utc("2024-10-27T00:30"), schedule.nextFireTime(utc("2024-10-26T12:00")));
+        assertEquals(utc("2024-10-28T01:30"), schedule.nextFireTime(utc("2024-10-27T00:30")));
+    }
+
+    @Test
+    void everyWindowIsAlignedToItsStartAndIncludesItsEnd() {
+        AdapterSchedule schedule = schedule("scheduleMode", "Every", "everyInterval", "15 min",
+            "everyStartTime", "08:00", "everyEndTime", "17:00");
+
+        assertEquals(utc("2024-03-07T08:00"), schedule.nextFireTime(utc("2024-03-07T07:00")));
+        assertEquals(utc("2024-03-07T08:15"), schedule.nextFireTime(utc("2024-03-07T08:00")));
+        assertEquals(utc("2024-03-07T08:15"), schedule.nextFireTime(utc("2024-03-07T08:07")));
+        assertEquals(utc("2024-03-07T17:00"), schedule.nextFireTime(utc("2024-03-07T16:50")));
+        assertEquals(utc("2024-03-08T08:00"), schedule.nextFireTime(utc("2024-03-07T17:00")));
+    }
+
+    @Test
+    void everyWindowSkipsIntervalsThatWouldPassItsEnd() {
+        AdapterSchedule schedule = schedule("scheduleMode", "Every", "everyInterval", "25 min",
+            "everyStartTime", "08:00", "everyEndTime", "09:00");
+
+        assertEquals(utc("2024-03-07T08:25"), schedule.nextFireTime(utc("2024-03-07T08:00")));
+        assertEquals(utc("2024-03-07T08:50"), schedule.nextFireTime(utc("2024-03-07T08:25")));
+        assertEquals(utc("2024-03-08T08:00"), schedule.nextFireTime(utc("2024-03-07T08:50")));
+    }
+
+    @Test
+    void everyWithoutWindowRunsAllDayAndEndOfDayIsAccepted() {
+        AdapterSchedule allDay = schedule("scheduleMode", "Every", "everyInterval", "1 hour");
+        assertEquals(utc("2024-03-07T00:00"), allDay.nextFireTime(utc("2024-03-06T23:30")));
+        assertEquals(utc("2024-03-07T13:00"), allDay.nextFireTime(utc("2024-03-07T12:00")));
+
+        AdapterSchedule untilMidnight = schedule("scheduleMode", "Every", "everyInterval", "30 min",
+            "everyStartTime", "23:00", "everyEndTime", "24:00");
+        assertEquals(utc("2024-03-07T23:30"), untilMidnight.nextFireTime(utc("2024-03-07T23:00")));
+        assertEquals(utc("2024-03-08T23:00"), untilMidnight.nextFireTime(utc("2024-03-07T23:30")));
+    }
+
+    @Test
+    void overnightEveryWindowContinuesPastMidnight() {
+        AdapterSchedule schedule = schedule("scheduleMode", "Every", "everyInterval", "1 hour",
+            "everyStartTime", "22:00", "everyEndTime", "02:00");
+
+        assertEquals(utc("2024-03-07T22:00"), schedule.nextFireTime(utc("2024-03-07T12:00")));
+        assertEquals(utc("2024-03-08T00:00"), schedule.nextFireTime(utc("2024-03-07T23:30")));
+        assertEquals(utc("2024-03-08T02:00"), schedule.nextFireTime(utc("2024-03-08T01:30")));
+        assertEquals(utc("2024-03-08T22:00"), schedule.nextFireTime(utc("2024-03-08T02:00")));
+    }
+
+    @Test
+    void overnightWindowBelongsToTheDayItOpens() {
+        // Opens on Fridays only, so it keeps running into Saturday morning but never opens on Saturday
+        AdapterSchedule schedule = schedule("scheduleMode", "Every", "scheduleType", "Weekly", "everyInterval", "1 hour",
+            "everyStartTime", "22:00", "everyEndTime", "02:00", "weeklyDays", Map.of("friday", true));
+
+        assertEquals(utc("2024-03-09T01:00"), schedule.nextFireTime(utc("2024-03-09T00:30")));
+        assertEquals(utc("2024-03-15T22:00"), schedule.nextFireTime(utc("2024-03-09T02:00")));
+        assertEquals(utc("2024-03-08T22:00"), schedule.nextFireTime(utc("2024-03-07T23:30")));
+    }
+
+    @Test
+    void everyWindowAcrossTheSpringForwardGapKeepsElapsedTime() {
+        AdapterSchedule schedule = schedule("scheduleMode", "Every", "everyInterval", "1 hour",
+            "everyStartTime", "01:00", "everyEndTime", "05:00", "timeZone", "Europe/Zurich");
+
+        // 01:00 CET is 00:00 UTC; an hour later it is already 03:00 CEST
+        assertEquals(utc("2024-03-31T01:00"), schedule.nextFireTime(utc("2024-03-31T00:00")));
+        assertEquals(LocalTime.of(3, 0), utc("2024-03-31T01:00").atZone(ZURICH).toLocalTime());
+        // The window closes at 05:00 CEST, which is 03:00 UTC; the next one opens at 01:00 CEST
+        assertEquals(utc("2024-03-31T03:00"), schedule.nextFireTime(utc("2024-03-31T02:00")));
+        assertEquals(utc("2024-03-31T23:00"), schedule.nextFireTime(utc("2024-03-31T03:00")));
+    }
+
+    @Test
+    void cronIsEvaluatedInTheConfiguredTimeZone() {
+        AdapterSchedule schedule = schedule("scheduleMode", "OnTime", "scheduleType", "Cron",
+            "cronExpression", "0 0/30 9-10 * * MON-FRI", "timeZone", "Europe/Zurich");
+
+        assertEquals(utc("2024-03-07T08:30"), schedule.nextFireTime(utc("2024-03-07T08:00")));
+        // Friday 10:30 local is the last run of the week
+        assertEquals(utc("2024-03-11T08:00"), schedule.nextFireTime(utc("2024-03-08T09:30")));
+        assertEquals(utc("2024-07-08T07:00"), schedule.nextFireTime(utc("2024-07-05T09:00")));
+    }
+
+    @Test
+    void invalidConfigurationFailsLoudly() {
+        assertThrows(IllegalStateException.class, () -> AdapterSchedule.fromConfiguration(null));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleType", "Daily", "onTimeValue", "08:00"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "OnTime"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "OnTime", "onTimeValue", "8 o'clock"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "Every", "everyInterval", "5 days"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "Every", "everyInterval", "0 min"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "Every", "scheduleType", "Cron",
+            "cronExpression", "0 * * * * *"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "OnTime", "scheduleType", "Monthly",
+            "onTimeValue", "08:00", "monthlyDay", "32"));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "OnTime", "scheduleType", "Weekly",
+            "onTimeValue", "08:00", "weeklyDays", Map.of("monday", false)));
+        assertThrows(IllegalStateException.class, () -> schedule("scheduleMode", "OnTime", "onTimeValue", "08:00",
+            "timeZone", "Mars/Olympus"));
+    }
+
+    private static AdapterSchedule schedule(Object... keysAndValues) {
+        Map<String, Object> config = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            config.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return AdapterSchedule.fromConfiguration(config);
+    }
+
+    private static Instant utc(String localDateTime) {
+        return Instant.parse(localDateTime + ":00Z");
+    }
+}
@@ -0,0 +1,195 @@
+package com.integrixs.core.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-deployment permits: the limit is enforced, released permits free their slot exactly
+ * once, undeployed deployments are forgotten only when idle, and reconcile reclaims stale
+ * permits only while the database shows nothing running.
+ */
+class DeploymentConcurrencyLimiterTest {
+
+    private static final long NEVER_STALE = Long.MAX_VALUE / 2;
+
+    @Test
+    void permitsAreLimitedPerDeployment() {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(NEVER_STALE);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        DeploymentConcurrencyLimiter.Permit a = limiter.tryAcquire(first, 2);
+        DeploymentConcurrencyLimiter.Permit b = limiter.tryAcquire(first, 2);
+        assertNotNull(a);
+        assertNotNull(b);
+        assertEquals(first, a.getDeploymentId());
+        assertNull(limiter.tryAcquire(first, 2));
+        assertNotNull(limiter.tryAcquire(second, 1));
+
+        assertEquals(2, limiter.current(first));
+        assertEquals(3, limiter.totalCurrent());
+
+        a.close();
+        assertNotNull(limiter.tryAcquire(first, 2));
+    }
+
+    @Test
+    void closingAPermitTwiceReleasesOneSlot() {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(NEVER_STALE);
+        UUID deployment = UUID.randomUUID();
+
+        DeploymentConcurrencyLimiter.Permit held = limiter.tryAcquire(deployment, 2);
+        DeploymentConcurrencyLimiter.Permit closed = limiter.tryAcquire(deployment, 2);
+        closed.close();
+        closed.close();
+
+        assertEquals(1, limiter.current(deployment));
+        held.close();
+        assertEquals(0, limiter.current(deployment));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimit() throws Exception {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(NEVER_STALE);
+        UUID deployment = UUID.randomUUID();
+        int limit = 3;
+        int threads = 16;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 2000; i++) {
+                        DeploymentConcurrencyLimiter.Permit permit = limiter.tryAcquire(deployment, limit);
+                        if (permit == null) {
+                            continue;
+                        }
+                        try {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            running.decrementAndGet();
+                        } finally {
+                            permit.close();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        assertTrue(maxRunning.get() <= limit, "Ran " + maxRunning.get() + " at once with a limit of " + limit);
+        assertEquals(0, limiter.current(deployment));
+    }
+
+    @Test
+    void removeForgetsOnlyIdleDeployments() {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(NEVER_STALE);
+        UUID idle = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+
+        limiter.tryAcquire(idle, 1).close();
+        DeploymentConcurrencyLimiter.Permit held = limiter.tryAcquire(busy, 1);
+
+        limiter.remove(idle);
+        limiter.remove(busy);
+
+        Map<String, Object> byDeployment = byDeployment(limiter);
+        assertFalse(byDeployment.containsKey(idle.toString()));
+        assertTrue(byDeployment.containsKey(busy.toString()));
+
+        // The held permit still counts against the limit until it is closed
+        assertNull(limiter.tryAcquire(busy, 1));
+        held.close();
+        limiter.remove(busy);
+        assertFalse(byDeployment(limiter).containsKey(busy.toString()));
+    }
+
+    @Test
+    void reconcileReclaimsStalePermitsOnlyWhenNothingIsRunning() throws Exception {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(0);
+        UUID leaked = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+
+        DeploymentConcurrencyLimiter.Permit leakedPermit = limiter.tryAcquire(leaked, 1);
+        limiter.tryAcquire(active, 1);
+        Thread.sleep(5);
+
+        assertEquals(1, limiter.reconcile(Map.of(active, 1)));
+        assertEquals(0, limiter.current(leaked));
+        assertEquals(1, limiter.current(active));
+
+        // A reclaimed permit closed later by its owner must not free a second slot
+        DeploymentConcurrencyLimiter.Permit replacement = limiter.tryAcquire(leaked, 1);
+        assertNotNull(replacement);
+        leakedPermit.close();
+        assertEquals(1, limiter.current(leaked));
+        assertNull(limiter.tryAcquire(leaked, 1));
+    }
+
+    @Test
+    void reconcileKeepsPermitsYoungerThanTheStaleTimeout() {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(NEVER_STALE);
+        UUID deployment = UUID.randomUUID();
+        limiter.tryAcquire(deployment, 1);
+
+        assertEquals(0, limiter.reconcile(Map.of()));
+        assertEquals(1, limiter.current(deployment));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void statisticsReportPerDeploymentCounters() throws Exception {
+        DeploymentConcurrencyLimiter limiter = new DeploymentConcurrencyLimiter(0);
+        UUID deployment = UUID.randomUUID();
+
+        limiter.tryAcquire(deployment, 1);
+        assertNull(limiter.tryAcquire(deployment, 1));
+        assertNull(limiter.tryAcquire(deployment, 1));
+        Thread.sleep(5);
+        limiter.reconcile(Map.of());
+        limiter.tryAcquire(deployment, 1);
+        limiter.reconcile(Map.of(deployment, 4));
+
+        Map<String, Object> stats = limiter.getStatistics();
+        assertEquals(1, stats.get("current"));
+        assertEquals(2L, stats.get("rejected"));
+        assertEquals(0L, stats.get("stalePermitMs"));
+
+        Map<String, Object> counters = (Map<String, Object>) byDeployment(limiter).get(deployment.toString());
+        assertEquals(1, counters.get("current"));
+        assertEquals(1, counters.get("max"));
+        assertEquals(2L, counters.get("acquired"));
+        assertEquals(2L, counters.get("rejected"));
+        assertEquals(1L, counters.get("reclaimed"));
+        assertEquals(4, counters.get("runningInDatabase"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> byDeployment(DeploymentConcurrencyLimiter limiter) {
+        return (Map<String, Object>) limiter.getStatistics().get("byDeployment");
+    }
+}
@@ -0,0 +1,168 @@
+package com.integrixs.core.service.utility;
+
+import com.integrixs.shared.model.FlowExecutionStep;
+import org.bouncycastle.bcpg.HashAlgorithmTags;
+import org.bouncycastle.crypto.generators.RSAKeyPairGenerator;
+import org.bouncycastle.crypto.params.RSAKeyGenerationParameters;
+import org.bouncycastle.openpgp.PGPEncryptedData;
+import org.bouncycastle.openpgp.PGPKeyPair;
+import org.bouncycastle.openpgp.PGPKeyRingGenerator;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.operator.PGPDigestCalculator;
+import org.bouncycastle.openpgp.operator.bc.BcPBESecretKeyEncryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentSignerBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDigestCalculatorProvider;
+import org.bouncycastle.openpgp.operator.bc.BcPGPKeyPair;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput (MB/s) of streaming PGP encryption and decryption across file sizes and
+ * cipher/compression choices. Results are logged for comparison between runs; the
+ * assertions only check that every file round-trips unchanged.
+ *
+ * Runs only with the benchmark profile (mvn test -Pbenchmark).
+ */
+@Tag("benchmark")
+class PgpUtilityProcessorThroughputTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgpUtilityProcessorThroughputTest.class);
+
+    private static final String PASSPHRASE = "benchmark-passphrase";
+    private static final int MIB = 1 << 20;
+    private static final int[] FILE_SIZES_MIB = {1, 8, 32};
+    private static final String[][] CIPHERS = {{"AES128", "NONE"}, {"AES256", "NONE"}, {"AES256", "ZIP"}, {"TWOFISH", "NONE"}};
+
+    @TempDir
+    static Path workDirectory;
+
+    private static Path publicKeyFile;
+    private static Path secretKeyFile;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        RSAKeyPairGenerator generator = new RSAKeyPairGenerator();
+        generator.init(new RSAKeyGenerationParameters(BigInteger.valueOf(0x10001), new SecureRandom(), 2048, 12));
+        PGPKeyPair keyPair = new BcPGPKeyPair(PGPPublicKey.RSA_GENERAL, generator.generateKeyPair(), new Date());
+        PGPDigestCalculator sha1 = new BcPGPDigestCalculatorProvider().get(HashAlgorithmTags.SHA1);
+
+        PGPKeyRingGenerator keyRingGenerator = new PGPKeyRingGenerator(PGPSignature.POSITIVE_CERTIFICATION,
+            keyPair, "benchmark@integrixs.local", sha1, null, null,
+            new BcPGPContentSignerBuilder(PGPPublicKey.RSA_GENERAL, HashAlgorithmTags.SHA256),
+            new BcPBESecretKeyEncryptorBuilder(PGPEncryptedData.AES_256, sha1).build(PASSPHRASE.toCharArray()));
+
+        publicKeyFile = workDirectory.resolve("public.gpg");
+        secretKeyFile = workDirectory.resolve("secret.gpg");
+        try (OutputStream out = Files.newOutputStream(publicKeyFile)) {
+            keyRingGenerator.generatePublicKeyRing().encode(out);
+        }
+        try (OutputStream out = Files.newOutputStream(secretKeyFile)) {
+            keyRingGenerator.generateSecretKeyRing().encode(out);
+        }
+    }
+
+    @Test
+    void encryptAndDecryptThroughputAcrossSizesAndCiphers() throws Exception {
+        PgpUtilityProcessor processor = new PgpUtilityProcessor(new PgpKeyRingCache(null), Runnable::run);
+
+        // Warm up the JIT and the key ring cache on a small file
+        roundTrip(processor, 1, "AES256", "NONE", "warmup");
+
+        for (String[] cipher : CIPHERS) {
+            for (int sizeMib : FILE_SIZES_MIB) {
+                double[] throughput = roundTrip(processor, sizeMib, cipher[0], cipher[1], cipher[0] + "-" + cipher[1] + "-" + sizeMib);
+                logger.info("{}/{} {} MB: encrypt {} MB/s, decrypt {} MB/s", cipher[0], cipher[1], sizeMib,
+                           String.format("%.1f", throughput[0]), String.format("%.1f", throughput[1]));
+            }
+        }
+    }
+
+    /**
+     * Encrypt and decrypt one file of random (incompressible) content
+     *
+     * @return encrypt and decrypt throughput in MB/s
+     */
+    private double[] roundTrip(PgpUtilityProcessor processor, int sizeMib, String algorithm, String compression,
+                               String name) throws Exception {
+        Path run = Files.createDirectories(workDirectory.resolve(name));
+        Path plain = Files.createDirectories(run.resolve("plain"));
+        Path encrypted = run.resolve("encrypted");
+        Path decrypted = run.resolve("decrypted");
+        Path source = plain.resolve("payload.bin");
+        String sourceHash = writeRandomFile(source, sizeMib);
+
+        Map<String, Object> encryptConfig = new HashMap<>();
+        encryptConfig.put("operation", "encrypt");
+        encryptConfig.put("sourceDirectory", plain.toString());
+        encryptConfig.put("targetDirectory", encrypted.toString());
+        encryptConfig.put("publicKeyPath", publicKeyFile.toString());
+        encryptConfig.put("algorithm", algorithm);
+        encryptConfig.put("compression", compression);
+
+        long start = System.nanoTime();
+        Map<String, Object> encryptResult = processor.executeUtility(new FlowExecutionStep(), new HashMap<>(), encryptConfig);
+        long encryptNanos = System.nanoTime() - start;
+        assertEquals(Boolean.TRUE, encryptResult.get("success"), String.valueOf(encryptResult.get("message")));
+
+        Map<String, Object> decryptConfig = new HashMap<>();
+        decryptConfig.put("operation", "decrypt");
+        decryptConfig.put("sourceDirectory", encrypted.toString());
+        decryptConfig.put("targetDirectory", decrypted.toString());
+        decryptConfig.put("privateKeyPath", secretKeyFile.toString());
+        decryptConfig.put("passphrase", PASSPHRASE);
+
+        start = System.nanoTime();
+        Map<String, Object> decryptResult = processor.executeUtility(new FlowExecutionStep(), new HashMap<>(), decryptConfig);
+        long decryptNanos = System.nanoTime() - start;
+        assertEquals(Boolean.TRUE, decryptResult.get("success"), String.valueOf(decryptResult.get("message")));
+        assertEquals(sourceHash, sha256(decrypted.resolve("payload.bin")), "Decrypted content differs for " + name);
+
+        return new double[] {sizeMib * 1e9 / encryptNanos, sizeMib * 1e9 / decryptNanos};
+    }
+
+    private static String writeRandomFile(Path file, int sizeMib) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        Random random = new Random(sizeMib);
+        byte[] chunk = new byte[MIB];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMib; i++) {
+                random.nextBytes(chunk);
+                digest.update(chunk);
+                out.write(chunk);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[MIB];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
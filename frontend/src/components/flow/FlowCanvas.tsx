@@ -26,6 +26,7 @@ import DecisionNode from './nodes/DecisionNode'
 import StartNode from './nodes/StartNode'
 import EndNode from './nodes/EndNode'
 import ParallelSplitNode from './nodes/ParallelSplitNode'
+import ParallelJoinNode from './nodes/ParallelJoinNode'
 import MessageEndNode from './nodes/MessageEndNode'
 
 // @ts-expect-error useReactFlow is used for flow functionality
@@ -71,6 +72,7 @@ const nodeTypes: NodeTypes = {
   utility: UtilityNode,
   decision: DecisionNode,
   parallelSplit: ParallelSplitNode,
+  parallelJoin: ParallelJoinNode,
 }
 
 // Define edge types
@@ -177,9 +179,9 @@ const FlowCanvas: React.FC<FlowCanvasProps> = ({
       return targetNode.type === 'adapter' && targetNode.data?.direction === 'RECEIVER'
     }
     
-    // Utility, decision, and parallelSplit nodes can connect to other utilities, decisions, parallelSplits, end, or messageEnd nodes
-    if (sourceNode.type === 'utility' || sourceNode.type === 'decision' || sourceNode.type === 'parallelSplit') {
-      return targetNode.type === 'utility' || targetNode.type === 'decision' || targetNode.type === 'parallelSplit' || targetNode.type === 'end' || targetNode.type === 'messageEnd'
+    // Utility, decision, parallelSplit and parallelJoin nodes can connect to other utilities, decisions, gateways, end, or messageEnd nodes
+    if (sourceNode.type === 'utility' || sourceNode.type === 'decision' || sourceNode.type === 'parallelSplit' || sourceNode.type === 'parallelJoin') {
+      return targetNode.type === 'utility' || targetNode.type === 'decision' || targetNode.type === 'parallelSplit' || targetNode.type === 'parallelJoin' || targetNode.type === 'end' || targetNode.type === 'messageEnd'
     }
     
     // Receiver adapters should not connect to anything (they are final output points)
@@ -521,6 +523,7 @@ const FlowCanvas: React.FC<FlowCanvasProps> = ({
                 case 'utility': return '#1e293b'
                 case 'decision': return '#1e293b'
                 case 'parallelSplit': return '#1e293b'
+                case 'parallelJoin': return '#1e293b'
                 default: return '#1e293b'
               }
             }}
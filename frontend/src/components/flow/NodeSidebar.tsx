@@ -4,6 +4,7 @@ import {
   CheckCircle,
   GitBranch,
   Split,
+  Merge,
   Mail,
   Lock,
   Unlock,
@@ -130,6 +131,19 @@ const NodeSidebar: React.FC<NodeSidebarProps> = ({
         parallelPaths: 2
       }
     },
+    {
+      id: 'parallel-join-node',
+      type: 'parallelJoin',
+      label: 'Parallel Join',
+      icon: Merge,
+      category: 'gateways',
+      description: 'BPMN AND gateway - merge parallel branches',
+      data: { 
+        label: 'Join',
+        joinMode: 'WAIT_ALL',
+        timeoutSeconds: 3600
+      }
+    },
     // Service Tasks / Utilities
     {
       id: 'pgp-encrypt',
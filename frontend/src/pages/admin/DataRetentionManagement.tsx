@@ -37,7 +37,7 @@ import { NotificationModal, NotificationType } from '@/components/ui/Notificatio
 
 interface DataRetentionConfig {
   id: string;
-  dataType: 'LOG_FILES' | 'SYSTEM_LOGS' | 'TRANSACTION_LOGS' | 'SCHEDULE';
+  dataType: 'LOG_FILES' | 'SYSTEM_LOGS' | 'TRANSACTION_LOGS' | 'FLOW_EXECUTIONS' | 'SCHEDULE';
   name: string;
   description: string;
   retentionDays: number;
@@ -57,6 +57,7 @@ interface DataRetentionStatus {
   status: string;
   filesProcessed: number;
   databaseRecordsDeleted: number;
+  databaseBytesReclaimed?: number;
   nextExecution?: string;
 }
 
@@ -64,6 +65,7 @@ const DATA_TYPE_OPTIONS = [
   { value: 'LOG_FILES', label: 'Log Files', description: 'Manages log file archiving and deletion', icon: FileText },
   { value: 'SYSTEM_LOGS', label: 'System Logs', description: 'Manages system_logs table cleanup', icon: Database },
   { value: 'TRANSACTION_LOGS', label: 'Transaction Logs', description: 'Manages transaction_logs table cleanup', icon: Database },
+  { value: 'FLOW_EXECUTIONS', label: 'Flow Executions', description: 'Manages flow_executions history cleanup', icon: Database },
   { value: 'SCHEDULE', label: 'Schedule', description: 'Defines when retention cleanup should run', icon: Clock }
 ];
 
@@ -86,6 +86,7 @@ function cleanupConfiguration(
       // Schedule mode specific fields
       if (config.scheduleMode === 'OnTime') {
         copyIfSet('onTimeValue');
+        copyIfSet('cronExpression');
       } else if (config.scheduleMode === 'Every') {
         copyIfSet('everyInterval');
         copyIfSet('everyStartTime');
@@ -163,6 +164,7 @@ function cleanupConfiguration(
 
       if (config.scheduleMode === 'OnTime') {
         copyIfSet('onTimeValue');
+        copyIfSet('cronExpression');
       } else if (config.scheduleMode === 'Every') {
         copyIfSet('everyInterval');
         copyIfSet('everyStartTime');
@@ -525,6 +525,7 @@ const FileAdapterConfig: React.FC<FileAdapterConfigProps> = ({ direction, contro
                         <SelectItem value="Daily">Daily</SelectItem>
                         <SelectItem value="Weekly">Weekly</SelectItem>
                         <SelectItem value="Monthly">Monthly</SelectItem>
+                        <SelectItem value="Cron">Cron</SelectItem>
                       </SelectContent>
                     </Select>
                   )}
@@ -551,7 +552,21 @@ const FileAdapterConfig: React.FC<FileAdapterConfigProps> = ({ direction, contro
               </div>
             </div>
 
-            {watchScheduleMode === 'OnTime' && (
+            {watchScheduleMode === 'OnTime' && watchScheduleType === 'Cron' && (
+              <div className="space-y-2">
+                <Label htmlFor="cronExpression">Cron Expression</Label>
+                <Input
+                  id="cronExpression"
+                  placeholder="0 30 6 * * MON-FRI"
+                  {...register('configuration.cronExpression')}
+                />
+                <p className="text-xs text-muted-foreground">
+                  Six fields: second minute hour day-of-month month day-of-week
+                </p>
+              </div>
+            )}
+
+            {watchScheduleMode === 'OnTime' && watchScheduleType !== 'Cron' && (
               <div className="space-y-2">
                 <Label htmlFor="onTimeValue">Execution Time</Label>
                 <Input
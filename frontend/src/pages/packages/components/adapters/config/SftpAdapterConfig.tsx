@@ -519,6 +519,7 @@ const SftpAdapterConfig: React.FC<SftpAdapterConfigProps> = ({ direction, contro
                           <SelectItem value="Daily">Daily</SelectItem>
                           <SelectItem value="Weekly">Weekly</SelectItem>
                           <SelectItem value="Monthly">Monthly</SelectItem>
+                          <SelectItem value="Cron">Cron</SelectItem>
                         </SelectContent>
                       </Select>
                     )}
@@ -545,7 +546,21 @@ const SftpAdapterConfig: React.FC<SftpAdapterConfigProps> = ({ direction, contro
                 </div>
               </div>
 
-              {watchScheduleMode === 'OnTime' && (
+              {watchScheduleMode === 'OnTime' && watchScheduleType === 'Cron' && (
+                <div className="space-y-2">
+                  <Label htmlFor="cronExpression">Cron Expression</Label>
+                  <Input
+                    id="cronExpression"
+                    placeholder="0 30 6 * * MON-FRI"
+                    {...register('configuration.cronExpression')}
+                  />
+                  <p className="text-xs text-muted-foreground">
+                    Six fields: second minute hour day-of-month month day-of-week
+                  </p>
+                </div>
+              )}
+
+              {watchScheduleMode === 'OnTime' && watchScheduleType !== 'Cron' && (
                 <div className="space-y-2">
                   <Label htmlFor="onTimeValue">Execution Time</Label>
                   <Input
@@ -28,6 +28,7 @@ const NODE_DIMENSIONS: Record<string, { width: number; height: number }> = {
   utility: { width: 160, height: 80 },
   decision: { width: 140, height: 80 },
   parallelSplit: { width: 160, height: 80 },
+  parallelJoin: { width: 160, height: 80 },
 }
 
 /**
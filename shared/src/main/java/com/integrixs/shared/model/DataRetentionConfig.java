@@ -180,6 +180,7 @@ public class DataRetentionConfig {
         LOG_FILES("Log Files", "Manages log file archiving and deletion"),
         SYSTEM_LOGS("System Logs", "Manages system_logs table cleanup"),
         TRANSACTION_LOGS("Transaction Logs", "Manages transaction_logs table cleanup"),
+        FLOW_EXECUTIONS("Flow Executions", "Manages flow_executions history cleanup"),
         SCHEDULE("Schedule", "Defines when retention cleanup should run");
 
         private final String displayName;
@@ -0,0 +1,95 @@
+package com.integrixs.shared.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * IMAP synchronisation position of an email adapter for one mailbox folder.
+ * The last processed UID is only valid while the folder's UIDVALIDITY is unchanged.
+ */
+public class EmailSyncState {
+
+    private UUID adapterId;
+    private String folderName;
+    private long uidValidity;
+    private long lastUid;
+    private long messagesProcessed;
+    private LocalDateTime lastSyncedAt;
+
+    public EmailSyncState() {
+    }
+
+    public EmailSyncState(UUID adapterId, String folderName, long uidValidity, long lastUid) {
+        this.adapterId = adapterId;
+        this.folderName = folderName;
+        this.uidValidity = uidValidity;
+        this.lastUid = lastUid;
+        this.lastSyncedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Whether this position can be resumed against a folder with the given UIDVALIDITY
+     */
+    public boolean isValidFor(long currentUidValidity) {
+        return uidValidity == currentUidValidity;
+    }
+
+    public UUID getAdapterId() {
+        return adapterId;
+    }
+
+    public void setAdapterId(UUID adapterId) {
+        this.adapterId = adapterId;
+    }
+
+    public String getFolderName() {
+        return folderName;
+    }
+
+    public void setFolderName(String folderName) {
+        this.folderName = folderName;
+    }
+
+    public long getUidValidity() {
+        return uidValidity;
+    }
+
+    public void setUidValidity(long uidValidity) {
+        this.uidValidity = uidValidity;
+    }
+
+    public long getLastUid() {
+        return lastUid;
+    }
+
+    public void setLastUid(long lastUid) {
+        this.lastUid = lastUid;
+    }
+
+    public long getMessagesProcessed() {
+        return messagesProcessed;
+    }
+
+    public void setMessagesProcessed(long messagesProcessed) {
+        this.messagesProcessed = messagesProcessed;
+    }
+
+    public LocalDateTime getLastSyncedAt() {
+        return lastSyncedAt;
+    }
+
+    public void setLastSyncedAt(LocalDateTime lastSyncedAt) {
+        this.lastSyncedAt = lastSyncedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "EmailSyncState{" +
+                "adapterId=" + adapterId +
+                ", folderName='" + folderName + '\'' +
+                ", uidValidity=" + uidValidity +
+                ", lastUid=" + lastUid +
+                ", messagesProcessed=" + messagesProcessed +
+                '}';
+    }
+}
@@ -3,6 +3,7 @@ package com.integrixs.shared.model;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * FlowExecution entity representing individual flow execution instances
@@ -52,6 +53,9 @@ public class FlowExecution {
     private Integer priority; // 1-10 scale
     private LocalDateTime scheduledFor;
     
+    // Runtime only - step order sequence for this execution (not persisted)
+    private final transient AtomicInteger stepSequence = new AtomicInteger();
+    
     // Enums
     public enum ExecutionStatus {
         PENDING("Execution is queued and waiting to start"),
@@ -226,6 +230,20 @@ public class FlowExecution {
         }
     }
     
+    /**
+     * Continue step numbering after the given order (e.g. steps already persisted by a previous run)
+     */
+    public void initializeStepSequence(int lastStepOrder) {
+        this.stepSequence.set(lastStepOrder);
+    }
+    
+    /**
+     * Allocate the next step order for this execution
+     */
+    public int nextStepOrder() {
+        return this.stepSequence.incrementAndGet();
+    }
+    
     private void calculateDuration() {
         if (this.startedAt != null && this.completedAt != null) {
             this.durationMs = java.time.Duration.between(this.startedAt, this.completedAt).toMillis();
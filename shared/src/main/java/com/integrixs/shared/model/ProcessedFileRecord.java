@@ -0,0 +1,124 @@
+package com.integrixs.shared.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the processed_files audit table: a file handled by an adapter during an execution,
+ * with its size and SHA-256 as computed while it was transferred.
+ */
+public class ProcessedFileRecord {
+
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private UUID executionId;
+    private String fileName;
+    private String filePath;
+    private Long fileSize;
+    private String fileHash;
+    private String status;
+    private LocalDateTime processingStartTime;
+    private LocalDateTime processingEndTime;
+    private Long processingDurationMs;
+    private String operationsPerformed;
+    private String errorMessage;
+
+    public ProcessedFileRecord() {
+    }
+
+    public ProcessedFileRecord(UUID executionId, String fileName, String filePath, String status) {
+        this.executionId = executionId;
+        this.fileName = fileName;
+        this.filePath = filePath;
+        this.status = status;
+    }
+
+    public UUID getExecutionId() {
+        return executionId;
+    }
+
+    public void setExecutionId(UUID executionId) {
+        this.executionId = executionId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getProcessingStartTime() {
+        return processingStartTime;
+    }
+
+    public void setProcessingStartTime(LocalDateTime processingStartTime) {
+        this.processingStartTime = processingStartTime;
+    }
+
+    public LocalDateTime getProcessingEndTime() {
+        return processingEndTime;
+    }
+
+    public void setProcessingEndTime(LocalDateTime processingEndTime) {
+        this.processingEndTime = processingEndTime;
+    }
+
+    public Long getProcessingDurationMs() {
+        return processingDurationMs;
+    }
+
+    public void setProcessingDurationMs(Long processingDurationMs) {
+        this.processingDurationMs = processingDurationMs;
+    }
+
+    public String getOperationsPerformed() {
+        return operationsPerformed;
+    }
+
+    public void setOperationsPerformed(String operationsPerformed) {
+        this.operationsPerformed = operationsPerformed;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
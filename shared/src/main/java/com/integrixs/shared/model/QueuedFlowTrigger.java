@@ -0,0 +1,163 @@
+package com.integrixs.shared.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A sender adapter pickup waiting in the flow trigger queue for its flow execution.
+ * Trigger data is held in its stored form, with file payloads as references.
+ */
+public class QueuedFlowTrigger {
+
+    public static final String STATUS_READY = "READY";
+    public static final String STATUS_DEAD = "DEAD";
+
+    private UUID id;
+    private UUID deploymentId;
+    private UUID flowId;
+    private String status;
+    private Map<String, Object> triggerData;
+    private String spoolHost;
+    private int attempts;
+    private int maxAttempts;
+    private LocalDateTime enqueuedAt;
+    private LocalDateTime visibleAt;
+    private String claimedBy;
+    private LocalDateTime claimedAt;
+    private String lastError;
+    private LocalDateTime deadAt;
+
+    public QueuedFlowTrigger() {
+    }
+
+    public QueuedFlowTrigger(UUID deploymentId, UUID flowId, Map<String, Object> triggerData,
+                             String spoolHost, int maxAttempts) {
+        this.id = UUID.randomUUID();
+        this.deploymentId = deploymentId;
+        this.flowId = flowId;
+        this.status = STATUS_READY;
+        this.triggerData = triggerData;
+        this.spoolHost = spoolHost;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Whether this delivery is the last one allowed
+     */
+    public boolean isLastAttempt() {
+        return attempts >= maxAttempts;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getDeploymentId() {
+        return deploymentId;
+    }
+
+    public void setDeploymentId(UUID deploymentId) {
+        this.deploymentId = deploymentId;
+    }
+
+    public UUID getFlowId() {
+        return flowId;
+    }
+
+    public void setFlowId(UUID flowId) {
+        this.flowId = flowId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Map<String, Object> getTriggerData() {
+        return triggerData;
+    }
+
+    public void setTriggerData(Map<String, Object> triggerData) {
+        this.triggerData = triggerData;
+    }
+
+    public String getSpoolHost() {
+        return spoolHost;
+    }
+
+    public void setSpoolHost(String spoolHost) {
+        this.spoolHost = spoolHost;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public LocalDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public void setEnqueuedAt(LocalDateTime enqueuedAt) {
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public LocalDateTime getVisibleAt() {
+        return visibleAt;
+    }
+
+    public void setVisibleAt(LocalDateTime visibleAt) {
+        this.visibleAt = visibleAt;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public LocalDateTime getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(LocalDateTime claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getDeadAt() {
+        return deadAt;
+    }
+
+    public void setDeadAt(LocalDateTime deadAt) {
+        this.deadAt = deadAt;
+    }
+}
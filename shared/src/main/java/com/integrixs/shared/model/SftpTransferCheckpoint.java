@@ -0,0 +1,144 @@
+package com.integrixs.shared.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of an incomplete resumable SFTP transfer of one remote file.
+ * A checkpoint only applies while the source still has the recorded fingerprint.
+ */
+public class SftpTransferCheckpoint {
+
+    public static final String DIRECTION_DOWNLOAD = "DOWNLOAD";
+    public static final String DIRECTION_UPLOAD = "UPLOAD";
+
+    private UUID id;
+    private UUID adapterId;
+    private String direction;
+    private String remotePath;
+    private long sourceSize;
+    private String sourceFingerprint;
+    private long bytesDone;
+    private String partialSha256;
+    private String localPartialPath;
+    private UUID executionId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public SftpTransferCheckpoint() {
+    }
+
+    public SftpTransferCheckpoint(UUID adapterId, String direction, String remotePath,
+                                  long sourceSize, String sourceFingerprint) {
+        this.id = UUID.randomUUID();
+        this.adapterId = adapterId;
+        this.direction = direction;
+        this.remotePath = remotePath;
+        this.sourceSize = sourceSize;
+        this.sourceFingerprint = sourceFingerprint;
+    }
+
+    /**
+     * Whether this checkpoint was taken against the same source content
+     */
+    public boolean matches(long currentSourceSize, String currentFingerprint) {
+        return sourceSize == currentSourceSize && sourceFingerprint != null
+            && sourceFingerprint.equals(currentFingerprint);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getAdapterId() {
+        return adapterId;
+    }
+
+    public void setAdapterId(UUID adapterId) {
+        this.adapterId = adapterId;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public String getRemotePath() {
+        return remotePath;
+    }
+
+    public void setRemotePath(String remotePath) {
+        this.remotePath = remotePath;
+    }
+
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    public void setSourceSize(long sourceSize) {
+        this.sourceSize = sourceSize;
+    }
+
+    public String getSourceFingerprint() {
+        return sourceFingerprint;
+    }
+
+    public void setSourceFingerprint(String sourceFingerprint) {
+        this.sourceFingerprint = sourceFingerprint;
+    }
+
+    public long getBytesDone() {
+        return bytesDone;
+    }
+
+    public void setBytesDone(long bytesDone) {
+        this.bytesDone = bytesDone;
+    }
+
+    public String getPartialSha256() {
+        return partialSha256;
+    }
+
+    public void setPartialSha256(String partialSha256) {
+        this.partialSha256 = partialSha256;
+    }
+
+    public String getLocalPartialPath() {
+        return localPartialPath;
+    }
+
+    public void setLocalPartialPath(String localPartialPath) {
+        this.localPartialPath = localPartialPath;
+    }
+
+    public UUID getExecutionId() {
+        return executionId;
+    }
+
+    public void setExecutionId(UUID executionId) {
+        this.executionId = executionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
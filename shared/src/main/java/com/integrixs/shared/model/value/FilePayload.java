@@ -0,0 +1,337 @@
+package com.integrixs.shared.model.value;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable handle to the content of a file moving through a flow execution.
+ *
+ * Sender adapters spool file content to local disk and place a FilePayload under
+ * {@link #CONTEXT_KEY} in each file map of {@code filesToProcess}; receivers open
+ * a fresh {@link InputStream} per use. Content is therefore never held in heap,
+ * regardless of file size.
+ *
+ * When serialized (execution payloads) a file-backed payload is written as its
+ * {@link #toReference() reference}, so a retry can reopen it with {@link #fromStoredForm(Map)};
+ * in-memory payloads are written as metadata only. Step snapshots use {@link #toMetadata()}.
+ */
+public final class FilePayload {
+
+    /** Key under which a FilePayload is stored in a file map of the flow context */
+    public static final String CONTEXT_KEY = "payload";
+
+    /** Legacy file map keys that carried raw content as byte[] or String */
+    private static final String[] LEGACY_CONTENT_KEYS = {"fileContent", "content"};
+
+    private static final String SPOOL_DIRECTORY_PROPERTY = "h2h.payload.spool-directory";
+
+    private final String fileName;
+    private final Path path;
+    private final byte[] content;
+    private final long size;
+    private final String sha256;
+    private final boolean spooled;
+
+    private FilePayload(String fileName, Path path, byte[] content, long size, String sha256, boolean spooled) {
+        this.fileName = fileName;
+        this.path = path;
+        this.content = content;
+        this.size = size;
+        this.sha256 = sha256;
+        this.spooled = spooled;
+    }
+
+    /**
+     * Spool a stream to local disk, computing size and SHA-256 on the way through.
+     * The stream is read to the end but not closed.
+     */
+    public static FilePayload spool(InputStream inputStream, String fileName) throws IOException {
+        Path spoolFile = newSpoolFile();
+        MessageDigest digest = sha256Digest();
+
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spoolFile), digest)) {
+            long size = inputStream.transferTo(out);
+            return new FilePayload(fileName, spoolFile, null, size, HexFormat.of().formatHex(digest.digest()), true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Spool content produced by a writer (e.g. a zip archive built from other payloads)
+     * to local disk, computing size and SHA-256 on the way through
+     */
+    public static FilePayload spool(String fileName, ContentWriter writer) throws IOException {
+        Path spoolFile = newSpoolFile();
+        MessageDigest digest = sha256Digest();
+
+        try {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spoolFile), digest)) {
+                writer.writeTo(out);
+            }
+            return new FilePayload(fileName, spoolFile, null, Files.size(spoolFile), HexFormat.of().formatHex(digest.digest()), true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Snapshot a local file into the spool so the source can be archived, deleted or
+     * rewritten while the payload is still in flight. The content is copied - a link
+     * would share the source's data, so an in-place rewrite would change the payload.
+     */
+    public static FilePayload spoolCopy(Path source) throws IOException {
+        Path spoolFile = newSpoolFile();
+        try {
+            Files.copy(source, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+            return new FilePayload(source.getFileName().toString(), spoolFile, null, Files.size(spoolFile), null, true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Take ownership of a completed local file (e.g. a resumed download) by moving it
+     * into the spool, so it is released like any other spooled payload
+     *
+     * @param sha256 hex SHA-256 of the file when already known, otherwise null
+     */
+    public static FilePayload adopt(Path file, String fileName, String sha256) throws IOException {
+        Path spoolFile = newSpoolFile();
+        Files.move(file, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+        return new FilePayload(fileName, spoolFile, null, Files.size(spoolFile), sha256, true);
+    }
+
+    /**
+     * Reference an existing local file without taking ownership of it
+     */
+    public static FilePayload ofFile(Path file) throws IOException {
+        return new FilePayload(file.getFileName().toString(), file, null, Files.size(file), null, false);
+    }
+
+    /**
+     * Wrap content that is already in memory (small, legacy producers only)
+     */
+    public static FilePayload ofBytes(String fileName, byte[] content) {
+        return new FilePayload(fileName, null, content, content.length, null, false);
+    }
+
+    /**
+     * Reopen a payload from {@link #toReference()}, e.g. a queued trigger that outlived the process.
+     * The payload owns the file again if the original did.
+     *
+     * @throws NoSuchFileException if the file is gone
+     */
+    public static FilePayload fromReference(Map<String, Object> reference) throws IOException {
+        Path file = Paths.get((String) reference.get("path"));
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(file.toString(), null, "payload file no longer exists");
+        }
+        Object size = reference.get("size");
+        return new FilePayload((String) reference.get("fileName"), file, null,
+            size instanceof Number ? ((Number) size).longValue() : Files.size(file),
+            (String) reference.get("sha256"), Boolean.TRUE.equals(reference.get("spooled")));
+    }
+
+    /**
+     * Whether a value read back from a serialized execution payload is a stored
+     * file payload, see {@link #toStoredForm()}
+     */
+    public static boolean isStoredForm(Object value) {
+        return value instanceof Map<?, ?> map && map.containsKey("storage") && map.containsKey("size");
+    }
+
+    /**
+     * Reopen a payload read back from a serialized execution payload
+     *
+     * @throws NoSuchFileException if the content was held in memory and not persisted, or the file is gone
+     */
+    public static FilePayload fromStoredForm(Map<String, Object> stored) throws IOException {
+        if (!(stored.get("path") instanceof String)) {
+            throw new NoSuchFileException(String.valueOf(stored.get("fileName")), null,
+                "in-memory payload content was not persisted");
+        }
+        return fromReference(stored);
+    }
+
+    /**
+     * Resolve the payload of a file map from the flow context. Falls back to the
+     * legacy byte[]/String content keys so older producers keep working.
+     *
+     * @return the payload, or null if the file map carries no content
+     */
+    public static FilePayload fromFileData(Map<String, Object> fileData) {
+        if (fileData == null) {
+            return null;
+        }
+        Object payload = fileData.get(CONTEXT_KEY);
+        if (payload instanceof FilePayload) {
+            return (FilePayload) payload;
+        }
+
+        String fileName = fileData.get("fileName") instanceof String ? (String) fileData.get("fileName") : null;
+        for (String key : LEGACY_CONTENT_KEYS) {
+            Object legacy = fileData.get(key);
+            if (legacy instanceof byte[]) {
+                return ofBytes(fileName, (byte[]) legacy);
+            }
+            if (legacy instanceof String) {
+                return ofBytes(fileName, ((String) legacy).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Release every spooled payload referenced by the given file maps
+     */
+    public static void releaseAll(List<Map<String, Object>> files) {
+        if (files == null) {
+            return;
+        }
+        for (Map<String, Object> file : files) {
+            Object payload = file.get(CONTEXT_KEY);
+            if (payload instanceof FilePayload) {
+                ((FilePayload) payload).release();
+            }
+        }
+    }
+
+    /**
+     * Open a new stream over the content. Callers must close it.
+     */
+    public InputStream openStream() throws IOException {
+        if (content != null) {
+            return new ByteArrayInputStream(content);
+        }
+        return Files.newInputStream(path);
+    }
+
+    /**
+     * Read the whole content into memory. Only for consumers that cannot stream yet.
+     */
+    public byte[] readAllBytes() throws IOException {
+        if (content != null) {
+            return content;
+        }
+        return Files.readAllBytes(path);
+    }
+
+    /**
+     * Delete the spool file if this payload owns it. Safe to call more than once.
+     */
+    public void release() {
+        if (spooled) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to release spooled payload " + path, e);
+            }
+        }
+    }
+
+    public String getFileName() { return fileName; }
+    public long getSize() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    /** Local path of the content, or null for in-memory payloads */
+    public Path getPath() { return path; }
+
+    /** Hex SHA-256 of the content when known at creation, otherwise null */
+    public String getSha256() { return sha256; }
+
+    /**
+     * Everything needed to reopen this payload in a later process, see {@link #fromReference(Map)}.
+     * In-memory payloads must be spooled first.
+     *
+     * @throws IllegalStateException if the payload is held in memory
+     */
+    public Map<String, Object> toReference() {
+        if (path == null) {
+            throw new IllegalStateException("In-memory payload " + fileName + " has no file to reference");
+        }
+        Map<String, Object> reference = new LinkedHashMap<>();
+        reference.put("fileName", fileName);
+        reference.put("path", path.toString());
+        reference.put("size", size);
+        reference.put("sha256", sha256);
+        reference.put("spooled", spooled);
+        return reference;
+    }
+
+    /**
+     * Serialized form: the reference plus storage FILE for file-backed payloads,
+     * metadata only for in-memory ones
+     */
+    @JsonValue
+    public Map<String, Object> toStoredForm() {
+        if (path == null) {
+            return toMetadata();
+        }
+        Map<String, Object> stored = toReference();
+        stored.put("storage", "FILE");
+        return stored;
+    }
+
+    public Map<String, Object> toMetadata() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("fileName", fileName);
+        metadata.put("size", size);
+        if (sha256 != null) {
+            metadata.put("sha256", sha256);
+        }
+        metadata.put("storage", content != null ? "MEMORY" : "FILE");
+        return metadata;
+    }
+
+    private static Path newSpoolFile() throws IOException {
+        Path directory = Paths.get(System.getProperty(SPOOL_DIRECTORY_PROPERTY,
+            Paths.get(System.getProperty("java.io.tmpdir"), "h2h-payloads").toString()));
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, "payload-" + UUID.randomUUID() + "-", ".bin");
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FilePayload{fileName='" + fileName + "', size=" + size +
+               (path != null ? ", path=" + path : ", inMemory") + "}";
+    }
+
+    /**
+     * Writes payload content to a stream; the stream is closed by the caller
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
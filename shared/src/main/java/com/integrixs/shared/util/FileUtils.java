@@ -13,6 +13,8 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
@@ -274,6 +276,37 @@ public final class FileUtils {
         return true;
     }
     
+    /**
+     * Compile a wildcard pattern (* and ?, case-sensitive) once into a filename predicate
+     * with the same result as {@link #matchesPattern(String, String, String)} without an
+     * extension. Use when matching many names, e.g. large directory listings.
+     */
+    public static Predicate<String> compileWildcard(String pattern) {
+        if (StringUtils.isBlank(pattern) || "*".equals(pattern)) {
+            return StringUtils::isNotBlank;
+        }
+        
+        StringBuilder regex = new StringBuilder(pattern.length() + 8);
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        
+        Pattern compiled = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        return filename -> StringUtils.isNotBlank(filename) && compiled.matcher(filename).matches();
+    }
+    
     /**
      * Generate archive filename with timestamp.
      */
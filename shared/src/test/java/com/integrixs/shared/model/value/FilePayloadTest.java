@@ -0,0 +1,58 @@
+package com.integrixs.shared.model.value;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * spoolCopy takes a snapshot: whatever happens to the source afterwards - an in-place
+ * rewrite, an append or a delete - the payload keeps the content and size it was taken with.
+ */
+class FilePayloadTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void spoolCopyIsNotChangedByRewritingTheSourceInPlace() throws Exception {
+        Path source = directory.resolve("orders.csv");
+        byte[] original = "id,amount\n1,100\n2,250\n".getBytes(StandardCharsets.UTF_8);
+        Files.write(source, original);
+
+        FilePayload payload = FilePayload.spoolCopy(source);
+        try {
+            // Rewrite the same inode: truncate and write, then append
+            Files.write(source, "id\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+            Files.write(source, "3\n4\n5\n6\n7\n8\n9\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+            assertEquals("orders.csv", payload.getFileName());
+            assertEquals(original.length, payload.getSize());
+            assertArrayEquals(original, payload.readAllBytes());
+        } finally {
+            payload.release();
+        }
+    }
+
+    @Test
+    void spoolCopyOutlivesTheSourceAndIsReleasedWithThePayload() throws Exception {
+        Path source = directory.resolve("report.txt");
+        Files.writeString(source, "report");
+
+        FilePayload payload = FilePayload.spoolCopy(source);
+        Files.delete(source);
+
+        assertEquals("report", new String(payload.readAllBytes(), StandardCharsets.UTF_8));
+        assertTrue(Files.exists(payload.getPath()));
+        payload.release();
+        assertFalse(Files.exists(payload.getPath()));
+    }
+}